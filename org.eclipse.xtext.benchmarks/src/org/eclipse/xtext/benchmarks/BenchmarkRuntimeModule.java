@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.benchmarks;
+
+import org.eclipse.xtext.generator.AbstractFileSystemAccess2;
+import org.eclipse.xtext.generator.JavaIoFileSystemAccess;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.persistence.IResourceStorageFacade;
+import org.eclipse.xtext.resource.persistence.ResourceStorageFacade;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.testlanguages.fileAware.FileAwareTestLanguageRuntimeModule;
+
+/**
+ * The benchmarked language with support for the binary resource storage.
+ */
+public class BenchmarkRuntimeModule extends FileAwareTestLanguageRuntimeModule {
+
+	@Override
+	public Class<? extends XtextResource> bindXtextResource() {
+		return StorageAwareResource.class;
+	}
+
+	public Class<? extends IResourceStorageFacade> bindIResourceStorageFacade() {
+		return ResourceStorageFacade.class;
+	}
+
+	public Class<? extends AbstractFileSystemAccess2> bindAbstractFileSystemAccess2() {
+		return JavaIoFileSystemAccess.class;
+	}
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.testing.util.InMemoryURIHandler;
+import org.eclipse.xtext.testing.util.InMemoryURIHandler.InMemFile;
+import org.eclipse.xtext.testlanguages.fileAware.FileAwareTestLanguageStandaloneSetup;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * The injector of the {@link BenchmarkRuntimeModule benchmarked language} and the {@link SyntheticCorpus synthetic
+ * corpus}, which is kept in memory. The size of the corpus can be changed with the JMH parameters <code>files</code>
+ * and <code>elements</code>.
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+	@Param("100")
+	public int files;
+
+	@Param("20")
+	public int elements;
+
+	@Param("42")
+	public long seed;
+
+	private Injector injector;
+
+	private SyntheticCorpus corpus;
+
+	private InMemoryURIHandler uriHandler;
+
+	@Setup
+	public void setUp() {
+		injector = new FileAwareTestLanguageStandaloneSetup() {
+			@Override
+			public Injector createInjector() {
+				return Guice.createInjector(new BenchmarkRuntimeModule());
+			}
+		}.createInjectorAndDoEMFRegistration();
+		corpus = new SyntheticCorpus(files, elements, seed);
+		uriHandler = new InMemoryURIHandler();
+		for (Map.Entry<URI, String> file : corpus.getFiles().entrySet()) {
+			InMemFile inMemoryFile = uriHandler.getInMemoryFile(file.getKey());
+			inMemoryFile.setContents(file.getValue().getBytes(StandardCharsets.UTF_8));
+			inMemoryFile.setExists(true);
+		}
+	}
+
+	public Injector getInjector() {
+		return injector;
+	}
+
+	public <T> T get(Class<T> type) {
+		return injector.getInstance(type);
+	}
+
+	public SyntheticCorpus getCorpus() {
+		return corpus;
+	}
+
+	/**
+	 * A new resource set that reads the files of the corpus from memory.
+	 */
+	public XtextResourceSet newResourceSet() {
+		XtextResourceSet resourceSet = get(XtextResourceSet.class);
+		resourceSet.getURIConverter().getURIHandlers().add(0, uriHandler);
+		return resourceSet;
+	}
+
+	/**
+	 * Parse all files of the corpus into a new resource set. Cross references are not resolved.
+	 */
+	public XtextResourceSet loadCorpus() {
+		XtextResourceSet resourceSet = newResourceSet();
+		for (URI uri : corpus.getFiles().keySet()) {
+			resourceSet.getResource(uri, true);
+		}
+		return resourceSet;
+	}
+
+	/**
+	 * Parse all files of the corpus into a new resource set and resolve all cross references.
+	 */
+	public XtextResourceSet loadAndLinkCorpus() {
+		XtextResourceSet resourceSet = loadCorpus();
+		EcoreUtil.resolveAll(resourceSet);
+		return resourceSet;
+	}
+
+	public List<XtextResource> getResources(XtextResourceSet resourceSet) {
+		List<XtextResource> result = new ArrayList<>();
+		for (URI uri : corpus.getFiles().keySet()) {
+			result.add((XtextResource) resourceSet.getResource(uri, false));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.benchmarks;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.linking.lazy.LazyLinkingResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark of the {@link LazyLinkingResource lazy linking} of the whole corpus.
+ */
+public class LinkingBenchmark extends AbstractBenchmark {
+
+	/**
+	 * A freshly parsed corpus for each invocation, since linking cannot be undone. Resolving all references of the
+	 * corpus takes long enough to make the overhead of the per-invocation setup negligible.
+	 */
+	@State(Scope.Thread)
+	public static class ParsedCorpus {
+		XtextResourceSet resourceSet;
+
+		@Setup(Level.Invocation)
+		public void setUp(CorpusState corpus) {
+			resourceSet = corpus.loadCorpus();
+		}
+	}
+
+	@Benchmark
+	public XtextResourceSet resolveAll(ParsedCorpus parsed) {
+		EcoreUtil.resolveAll(parsed.resourceSet);
+		return parsed.resourceSet;
+	}
+}
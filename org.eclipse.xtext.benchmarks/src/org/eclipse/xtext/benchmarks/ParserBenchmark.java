@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.benchmarks;
+
+import java.io.StringReader;
+
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.parser.IParser;
+import org.eclipse.xtext.parser.antlr.IPartialParsingHelper;
+import org.eclipse.xtext.testlanguages.fileAware.fileAware.Element;
+import org.eclipse.xtext.testlanguages.fileAware.fileAware.FileAwarePackage;
+import org.eclipse.xtext.testlanguages.fileAware.fileAware.PackageDeclaration;
+import org.eclipse.xtext.util.ReplaceRegion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the {@link IParser parser} and the {@link IPartialParsingHelper partial parser}.
+ */
+public class ParserBenchmark extends AbstractBenchmark {
+
+	@State(Scope.Thread)
+	public static class ParserState {
+		IParser parser;
+
+		IPartialParsingHelper partialParser;
+
+		@Setup
+		public void setUp(CorpusState corpus) {
+			parser = corpus.get(IParser.class);
+			partialParser = corpus.get(IPartialParsingHelper.class);
+		}
+	}
+
+	/**
+	 * The parse result of the last file of the corpus. It is edited by typing a character at the end of the name of an
+	 * element in the middle of the file and removing it again.
+	 */
+	@State(Scope.Thread)
+	public static class EditState {
+		private IParseResult parseResult;
+
+		private ReplaceRegion insert;
+
+		private ReplaceRegion remove;
+
+		private boolean inserted;
+
+		@Setup
+		public void setUp(CorpusState corpus, ParserState state) {
+			String content = corpus.getCorpus().getFiles().get(SyntheticCorpus.getURI(corpus.files - 1));
+			parseResult = state.parser.parse(new StringReader(content));
+			PackageDeclaration root = (PackageDeclaration) parseResult.getRootASTElement();
+			Element element = root.getContents().get(root.getContents().size() / 2);
+			INode name = NodeModelUtils.findNodesForFeature(element, FileAwarePackage.Literals.ELEMENT__NAME).get(0);
+			insert = new ReplaceRegion(name.getEndOffset(), 0, "x");
+			remove = new ReplaceRegion(name.getEndOffset(), 1, "");
+		}
+
+		IParseResult reparse(ParserState state) {
+			parseResult = state.partialParser.reparse(state.parser, parseResult, inserted ? remove : insert);
+			inserted = !inserted;
+			return parseResult;
+		}
+	}
+
+	@Benchmark
+	public void parse(CorpusState corpus, ParserState state, Blackhole blackhole) {
+		for (String content : corpus.getCorpus().getFiles().values()) {
+			blackhole.consume(state.parser.parse(new StringReader(content)));
+		}
+	}
+
+	@Benchmark
+	public IParseResult reparse(ParserState state, EditState edit) {
+		return edit.reparse(state);
+	}
+}
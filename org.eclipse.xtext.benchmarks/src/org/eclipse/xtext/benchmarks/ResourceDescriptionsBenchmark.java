@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.naming.IQualifiedNameConverter;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
+import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
+import org.eclipse.xtext.testlanguages.fileAware.fileAware.FileAwarePackage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the lookups in the {@link ResourceDescriptionsData index} of the corpus.
+ */
+public class ResourceDescriptionsBenchmark extends AbstractBenchmark {
+
+	/**
+	 * An index with detached copies of the resource descriptions, as it is held by the incremental builder.
+	 */
+	@State(Scope.Benchmark)
+	public static class IndexState {
+		ResourceDescriptionsData index;
+
+		List<QualifiedName> names = new ArrayList<>();
+
+		List<QualifiedName> upperCaseNames = new ArrayList<>();
+
+		List<URI> uris = new ArrayList<>();
+
+		@Setup
+		public void setUp(CorpusState corpus) {
+			XtextResourceSet resourceSet = corpus.loadAndLinkCorpus();
+			List<IResourceDescription> descriptions = new ArrayList<>();
+			for (XtextResource resource : corpus.getResources(resourceSet)) {
+				IResourceDescription.Manager manager = resource.getResourceServiceProvider()
+						.getResourceDescriptionManager();
+				descriptions.add(SerializableResourceDescription.createCopy(manager.getResourceDescription(resource)));
+				uris.add(resource.getURI());
+			}
+			index = new ResourceDescriptionsData(descriptions);
+			IQualifiedNameConverter converter = corpus.get(IQualifiedNameConverter.class);
+			for (String name : corpus.getCorpus().getExportedNames()) {
+				names.add(converter.toQualifiedName(name));
+				upperCaseNames.add(converter.toQualifiedName(name.toUpperCase()));
+			}
+		}
+	}
+
+	@Benchmark
+	public void getExportedObjectsByName(IndexState state, Blackhole blackhole) {
+		for (QualifiedName name : state.names) {
+			for (IEObjectDescription description : state.index.getExportedObjects(FileAwarePackage.Literals.ELEMENT,
+					name, false)) {
+				blackhole.consume(description);
+			}
+		}
+	}
+
+	@Benchmark
+	public void getExportedObjectsByNameIgnoreCase(IndexState state, Blackhole blackhole) {
+		for (QualifiedName name : state.upperCaseNames) {
+			for (IEObjectDescription description : state.index.getExportedObjects(FileAwarePackage.Literals.ELEMENT,
+					name, true)) {
+				blackhole.consume(description);
+			}
+		}
+	}
+
+	@Benchmark
+	public void getExportedObjectsByType(IndexState state, Blackhole blackhole) {
+		for (IEObjectDescription description : state.index
+				.getExportedObjectsByType(FileAwarePackage.Literals.PACKAGE_DECLARATION)) {
+			blackhole.consume(description);
+		}
+	}
+
+	@Benchmark
+	public void getResourceDescription(IndexState state, Blackhole blackhole) {
+		for (URI uri : state.uris) {
+			blackhole.consume(state.index.getResourceDescription(uri));
+		}
+	}
+}
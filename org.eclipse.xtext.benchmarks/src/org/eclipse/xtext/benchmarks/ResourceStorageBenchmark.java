@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.persistence.ResourceStorageCompression;
+import org.eclipse.xtext.resource.persistence.ResourceStorageLoadable;
+import org.eclipse.xtext.resource.persistence.ResourceStorageWritable;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of writing the corpus to the binary resource storage and loading it back.
+ */
+public class ResourceStorageBenchmark extends AbstractBenchmark {
+
+	@State(Scope.Thread)
+	public static class StorageState {
+		@Param({ "false", "true" })
+		public boolean storeNodeModel;
+
+		@Param({ "DEFLATE", "FAST", "STORED" })
+		public ResourceStorageCompression compression;
+
+		List<StorageAwareResource> resources = new ArrayList<>();
+
+		List<byte[]> stored = new ArrayList<>();
+
+		@Setup
+		public void setUp(CorpusState corpus) throws IOException {
+			for (XtextResource resource : corpus.getResources(corpus.loadAndLinkCorpus())) {
+				StorageAwareResource storageAware = (StorageAwareResource) resource;
+				resources.add(storageAware);
+				stored.add(write(storageAware).toByteArray());
+			}
+		}
+
+		ByteArrayOutputStream write(StorageAwareResource resource) throws IOException {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			new ResourceStorageWritable(out, storeNodeModel, compression).writeResource(resource);
+			return out;
+		}
+	}
+
+	@Benchmark
+	public void write(StorageState state, Blackhole blackhole) throws IOException {
+		for (StorageAwareResource resource : state.resources) {
+			blackhole.consume(state.write(resource));
+		}
+	}
+
+	@Benchmark
+	public XtextResourceSet load(CorpusState corpus, StorageState state) throws IOException {
+		XtextResourceSet resourceSet = corpus.newResourceSet();
+		for (int i = 0; i < state.resources.size(); i++) {
+			StorageAwareResource resource = (StorageAwareResource) resourceSet
+					.createResource(state.resources.get(i).getURI());
+			resource.loadFromStorage(
+					new ResourceStorageLoadable(new ByteArrayInputStream(state.stored.get(i)), state.storeNodeModel));
+		}
+		return resourceSet;
+	}
+}
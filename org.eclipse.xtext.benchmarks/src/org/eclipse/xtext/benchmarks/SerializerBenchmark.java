@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.benchmarks;
+
+import java.util.List;
+
+import org.eclipse.xtext.formatting2.FormatterRequest;
+import org.eclipse.xtext.formatting2.IFormatter2;
+import org.eclipse.xtext.formatting2.regionaccess.ITextRegionAccess;
+import org.eclipse.xtext.formatting2.regionaccess.TextRegionAccessBuilder;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.serializer.ISerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.inject.Provider;
+
+/**
+ * Benchmarks of the {@link ISerializer serializer} and the {@link IFormatter2 formatter}.
+ */
+public class SerializerBenchmark extends AbstractBenchmark {
+
+	/**
+	 * The linked corpus. Serializing and formatting do not modify the resources, so they are shared by all
+	 * invocations.
+	 */
+	@State(Scope.Thread)
+	public static class LinkedCorpus {
+		List<XtextResource> resources;
+
+		ISerializer serializer;
+
+		IFormatter2 formatter;
+
+		Provider<FormatterRequest> formatterRequestProvider;
+
+		Provider<TextRegionAccessBuilder> textRegionAccessBuilderProvider;
+
+		@Setup
+		public void setUp(CorpusState corpus) {
+			resources = corpus.getResources(corpus.loadAndLinkCorpus());
+			serializer = corpus.get(ISerializer.class);
+			formatter = corpus.get(IFormatter2.class);
+			formatterRequestProvider = corpus.getInjector().getProvider(FormatterRequest.class);
+			textRegionAccessBuilderProvider = corpus.getInjector().getProvider(TextRegionAccessBuilder.class);
+		}
+	}
+
+	@Benchmark
+	public void serialize(LinkedCorpus state, Blackhole blackhole) {
+		for (XtextResource resource : state.resources) {
+			blackhole.consume(state.serializer.serialize(resource.getContents().get(0)));
+		}
+	}
+
+	@Benchmark
+	public void format(LinkedCorpus state, Blackhole blackhole) {
+		for (XtextResource resource : state.resources) {
+			ITextRegionAccess regionAccess = state.textRegionAccessBuilderProvider.get().forNodeModel(resource)
+					.create();
+			FormatterRequest request = state.formatterRequestProvider.get();
+			request.setTextRegionAccess(regionAccess);
+			blackhole.consume(state.formatter.format(request));
+		}
+	}
+}
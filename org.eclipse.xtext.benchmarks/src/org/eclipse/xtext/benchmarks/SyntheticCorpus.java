@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.testing.util.InMemoryURIHandler;
+
+/**
+ * A deterministic corpus of models of the <code>FileAwareTestLanguage</code>. Every file declares a package with
+ * nested elements that import and reference elements of the files before it, so the corpus exercises the parser, the
+ * scoping of qualified names and the index alike. The same parameters always yield the same corpus.
+ */
+public class SyntheticCorpus {
+
+	public static final String FILE_EXTENSION = "fileawaretestlanguage";
+
+	private final Map<URI, String> files = new LinkedHashMap<>();
+
+	private final List<String> exportedNames = new ArrayList<>();
+
+	/**
+	 * @param fileCount
+	 *            the number of files.
+	 * @param elementsPerFile
+	 *            the number of top-level elements per file. Each of them has up to three nested children.
+	 * @param seed
+	 *            the seed for the random choice of nesting and references.
+	 */
+	public SyntheticCorpus(int fileCount, int elementsPerFile, long seed) {
+		Random random = new Random(seed);
+		for (int i = 0; i < fileCount; i++) {
+			String packageName = "pkg" + i / 10 + ".sub" + i;
+			files.put(getURI(i), createFile(packageName, elementsPerFile, random));
+		}
+	}
+
+	protected String createFile(String packageName, int elementsPerFile, Random random) {
+		StringBuilder result = new StringBuilder();
+		result.append("package ").append(packageName).append("\n\n");
+		int importCount = exportedNames.isEmpty() ? 0 : Math.min(3, exportedNames.size());
+		List<String> imported = new ArrayList<>();
+		for (int i = 0; i < importCount; i++) {
+			String name = exportedNames.get(random.nextInt(exportedNames.size()));
+			imported.add(name);
+			result.append("import ").append(name).append('\n');
+		}
+		result.append('\n');
+		List<String> localNames = new ArrayList<>();
+		for (int i = 0; i < elementsPerFile; i++) {
+			String name = "e" + i;
+			result.append("element ").append(name).append(" {\n");
+			int children = random.nextInt(4);
+			for (int j = 0; j < children; j++) {
+				result.append("\telement c").append(j).append(" {\n");
+				appendReference(result, "\t\t", imported, localNames, random);
+				result.append("\t}\n");
+			}
+			appendReference(result, "\t", imported, localNames, random);
+			result.append("}\n");
+			localNames.add(name);
+			exportedNames.add(packageName + '.' + name);
+		}
+		return result.toString();
+	}
+
+	protected void appendReference(StringBuilder result, String indentation, List<String> imported,
+			List<String> localNames, Random random) {
+		String target = null;
+		int kind = random.nextInt(3);
+		if (kind == 0 && !imported.isEmpty()) {
+			String qualifiedName = imported.get(random.nextInt(imported.size()));
+			target = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+		} else if (kind == 1 && !localNames.isEmpty()) {
+			target = localNames.get(random.nextInt(localNames.size()));
+		} else if (!exportedNames.isEmpty()) {
+			target = exportedNames.get(random.nextInt(exportedNames.size()));
+		}
+		if (target != null) {
+			result.append(indentation).append("ref ").append(target).append('\n');
+		}
+	}
+
+	public static URI getURI(int index) {
+		return URI.createURI(InMemoryURIHandler.SCHEME + ":/src/File" + index + "." + FILE_EXTENSION);
+	}
+
+	/**
+	 * The contents of the files in the order of their creation.
+	 */
+	public Map<URI, String> getFiles() {
+		return Collections.unmodifiableMap(files);
+	}
+
+	/**
+	 * The qualified names of all top-level elements in the order of their creation.
+	 */
+	public List<String> getExportedNames() {
+		return Collections.unmodifiableList(exportedNames);
+	}
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.ide.tests.server;
+
+import static java.util.Arrays.*;
+import static java.util.Collections.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.xtext.ide.server.TopologicalSorter;
+import org.eclipse.xtext.resource.impl.ProjectDescription;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TopologicalSorter#sortByDependencyLevels(Iterable, org.eclipse.xtext.xbase.lib.Procedures.Procedure1)}.
+ */
+public class BuildLevelsTest {
+
+	@Test
+	public void testChain() {
+		ProjectDescription a = project("a", "b");
+		ProjectDescription b = project("b", "c");
+		ProjectDescription c = project("c");
+		assertLevels("c | b | a", asList(a, b, c));
+	}
+
+	@Test
+	public void testIndependent() {
+		ProjectDescription a = project("a");
+		ProjectDescription b = project("b");
+		ProjectDescription c = project("c");
+		assertLevels("a, b, c", asList(a, b, c));
+	}
+
+	@Test
+	public void testDiamond() {
+		ProjectDescription a = project("a", "b", "c");
+		ProjectDescription b = project("b", "d");
+		ProjectDescription c = project("c", "d");
+		ProjectDescription d = project("d");
+		assertLevels("d | b, c | a", asList(a, b, c, d));
+	}
+
+	@Test
+	public void testUnevenDepth() {
+		ProjectDescription a = project("a", "b", "e");
+		ProjectDescription b = project("b", "c");
+		ProjectDescription c = project("c");
+		ProjectDescription e = project("e");
+		ProjectDescription f = project("f", "e");
+		assertLevels("c, e | b, f | a", asList(a, b, c, e, f));
+	}
+
+	@Test
+	public void testCycle() {
+		ProjectDescription a = project("a", "b");
+		ProjectDescription b = project("b", "a");
+		ProjectDescription c = project("c");
+		ProjectDescription d = project("d", "c");
+		List<ProjectDescription> cyclic = new ArrayList<>();
+		List<List<ProjectDescription>> levels = new TopologicalSorter().sortByDependencyLevels(asList(a, b, c, d),
+				cyclic::add);
+		assertEquals("c | d", asString(levels));
+		assertEquals(asList(a, b), cyclic);
+	}
+
+	private void assertLevels(String expected, List<ProjectDescription> projects) {
+		List<List<ProjectDescription>> levels = new TopologicalSorter().sortByDependencyLevels(projects,
+				(it) -> fail("Unexpected cycle: " + it.getName()));
+		assertEquals(expected, asString(levels));
+	}
+
+	private String asString(List<List<ProjectDescription>> levels) {
+		return levels.stream()
+				.map(level -> level.stream().map(ProjectDescription::getName).collect(Collectors.joining(", ")))
+				.collect(Collectors.joining(" | "));
+	}
+
+	private ProjectDescription project(String name, String... dependencies) {
+		ProjectDescription result = new ProjectDescription();
+		result.setName(name);
+		result.setDependencies(dependencies.length == 0 ? emptyList() : asList(dependencies));
+		return result;
+	}
+}
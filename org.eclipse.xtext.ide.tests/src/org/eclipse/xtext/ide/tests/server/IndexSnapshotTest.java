@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.ide.tests.server;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.diagnostics.Diagnostic;
+import org.eclipse.xtext.ide.server.IndexSnapshotStore;
+import org.eclipse.xtext.ide.server.ServerModule;
+import org.eclipse.xtext.ide.server.UriExtensions;
+import org.eclipse.xtext.ide.server.WorkspaceManager;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.util.Files;
+import org.eclipse.xtext.validation.Issue;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.Singleton;
+import com.google.inject.util.Modules;
+
+/**
+ * Tests that a restarted workspace only rebuilds the files that changed since the index snapshot was written.
+ */
+public class IndexSnapshotTest {
+
+	private File workspaceRoot;
+
+	private File snapshotFolder;
+
+	private Map<URI, List<Issue>> diagnostics = new ConcurrentHashMap<>();
+
+	private List<URI> builtFiles = new ArrayList<>();
+
+	private UriExtensions uriExtensions = new UriExtensions();
+
+	@Test
+	public void testRestoreSnapshot() throws IOException {
+		URI foo = createFile("Foo.testlang", "type Foo { Bar bar }");
+		URI bar = createFile("Bar.testlang", "type Bar { }");
+		URI baz = createFile("Baz.testlang", "type Baz { Unknown unknown }");
+		URI deleted = createFile("Deleted.testlang", "type Deleted { }");
+		URI touched = createFile("Touched.testlang", "type Touched { Unknown unknown }");
+		WorkspaceManager workspaceManager = startWorkspace(true);
+		assertEquals(Arrays.asList(bar, baz, deleted, foo, touched), sorted(builtFiles));
+		workspaceManager.writeIndexSnapshots();
+
+		new File(deleted.toFileString()).delete();
+		File barFile = new File(bar.toFileString());
+		long timeStamp = barFile.lastModified();
+		createFile("Bar.testlang", "type Bar2 { }");
+		barFile.setLastModified(timeStamp + 2000);
+		File touchedFile = new File(touched.toFileString());
+		touchedFile.setLastModified(touchedFile.lastModified() + 2000);
+		diagnostics.clear();
+		builtFiles.clear();
+		workspaceManager = startWorkspace(true);
+		assertEquals(Arrays.asList(bar, deleted, foo), sorted(builtFiles));
+		assertEquals(1, diagnostics.get(baz).size());
+		assertEquals(Diagnostic.LINKING_DIAGNOSTIC, diagnostics.get(baz).get(0).getCode());
+		assertEquals(1, diagnostics.get(foo).size());
+		assertTrue(diagnostics.get(bar).isEmpty());
+		assertEquals(1, diagnostics.get(touched).size());
+		assertNotNull(workspaceManager.getIndex().getResourceDescription(baz));
+		assertNull(workspaceManager.getIndex().getResourceDescription(deleted));
+	}
+
+	@Test
+	public void testSnapshotsDisabledByDefault() throws IOException {
+		URI foo = createFile("Foo.testlang", "type Foo { }");
+		WorkspaceManager workspaceManager = startWorkspace(false);
+		assertEquals(Arrays.asList(foo), builtFiles);
+		workspaceManager.writeIndexSnapshots();
+		assertEquals(0, snapshotFolder.list().length);
+		assertFalse(new File(workspaceRoot, ".xtext").exists());
+
+		builtFiles.clear();
+		startWorkspace(false);
+		assertEquals(Arrays.asList(foo), builtFiles);
+	}
+
+	@Test
+	public void testDeletedGeneratedFileIsRestored() throws IOException {
+		createFile("Foo.testlang", "type Foo { }");
+		File generated = new File(workspaceRoot, "src-gen/Foo.java");
+		startWorkspace(true).writeIndexSnapshots();
+		assertTrue(generated.isFile());
+
+		generated.delete();
+		startWorkspace(true);
+		assertTrue(generated.isFile());
+	}
+
+	@Test
+	public void testSnapshotOfOtherLanguageVersionIsIgnored() throws IOException {
+		URI foo = createFile("Foo.testlang", "type Foo { }");
+		startWorkspace(true).writeIndexSnapshots();
+
+		builtFiles.clear();
+		startWorkspace(true, Modules.override(new ServerModule()).with(binder -> binder
+				.bind(IndexSnapshotStore.class).to(OtherLanguageVersionSnapshotStore.class).in(Singleton.class)));
+		assertEquals(Arrays.asList(foo), builtFiles);
+	}
+
+	public static class OtherLanguageVersionSnapshotStore extends IndexSnapshotStore {
+		@Override
+		protected String computeLanguageIdentity() {
+			return super.computeLanguageIdentity() + ";testlang@next";
+		}
+	}
+
+	@Before
+	public void setup() throws FileNotFoundException {
+		File root = getRoot("test-data");
+		workspaceRoot = new File(root, "workspace");
+		workspaceRoot.mkdir();
+		snapshotFolder = new File(root, "snapshots");
+		snapshotFolder.mkdir();
+	}
+
+	private WorkspaceManager startWorkspace(boolean snapshots) {
+		return startWorkspace(snapshots, new ServerModule());
+	}
+
+	private WorkspaceManager startWorkspace(boolean snapshots, Module module) {
+		Injector injector = Guice.createInjector(module);
+		if (snapshots) {
+			IndexSnapshotStore indexSnapshotStore = injector.getInstance(IndexSnapshotStore.class);
+			indexSnapshotStore.setSnapshotFolder(snapshotFolder);
+			indexSnapshotStore.setWriteInterval(Long.MAX_VALUE);
+		}
+		WorkspaceManager workspaceManager = injector.getInstance(WorkspaceManager.class);
+		workspaceManager.addBuildListener((deltas) -> {
+			for (IResourceDescription.Delta delta : deltas) {
+				builtFiles.add(delta.getUri());
+			}
+		});
+		workspaceManager.initialize(URI.createFileURI(workspaceRoot.getAbsolutePath()),
+				(uri, issues) -> diagnostics.put(uri, Lists.newArrayList(issues)), null);
+		return workspaceManager;
+	}
+
+	private List<URI> sorted(List<URI> uris) {
+		List<URI> result = new ArrayList<>(uris);
+		result.sort((a, b) -> a.toString().compareTo(b.toString()));
+		return result;
+	}
+
+	private File getRoot(String path) throws FileNotFoundException {
+		File root = new File(path);
+		if (!root.mkdirs()) {
+			Files.cleanFolder(root, null, true, false);
+		}
+		root.deleteOnExit();
+		return root;
+	}
+
+	private URI createFile(String path, CharSequence contents) throws IOException {
+		File file = new File(workspaceRoot, path);
+		file.getParentFile().mkdirs();
+		file.createNewFile();
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write(contents.toString());
+		}
+		return uriExtensions.withEmptyAuthority(URI.createFileURI(file.getAbsolutePath()));
+	}
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.ide.tests.server;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.diagnostics.Diagnostic;
+import org.eclipse.xtext.ide.server.BuildManager;
+import org.eclipse.xtext.ide.server.IMultiRootWorkspaceConfigFactory;
+import org.eclipse.xtext.ide.server.MultiProjectWorkspaceConfigFactory;
+import org.eclipse.xtext.ide.server.ServerModule;
+import org.eclipse.xtext.ide.server.WorkspaceManager;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.service.OperationCanceledManager;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.Files;
+import org.eclipse.xtext.util.Modules2;
+import org.eclipse.xtext.validation.Issue;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+
+/**
+ * Tests the build of independent projects on the executor service of the language server.
+ */
+public class ParallelBuildTest {
+
+	public static class ParallelBuildManager extends BuildManager {
+		@Override
+		protected boolean isParallelBuild() {
+			return true;
+		}
+	}
+
+	private File project0;
+
+	private File project1;
+
+	private File project2;
+
+	private Map<URI, List<Issue>> diagnostics = new ConcurrentHashMap<>();
+
+	@Inject
+	private WorkspaceManager workspaceManager;
+
+	@Inject
+	private OperationCanceledManager operationCanceledManager;
+
+	@Test
+	public void testCrossProjectLinks() throws IOException {
+		URI foo = createFile(project0, "Foo.testlang", "type Foo { Bar bar Baz baz }");
+		URI bar = createFile(project1, "Bar.testlang", "type Bar { }");
+		URI baz = createFile(project2, "Baz.testlang", "type Baz { }");
+		workspaceManager.doBuild(Arrays.asList(foo, bar, baz), Collections.emptyList(), CancelIndicator.NullImpl);
+		assertEquals(3, diagnostics.size());
+		assertEquals(2, diagnostics.get(foo).size());
+		assertEquals(Diagnostic.LINKING_DIAGNOSTIC, diagnostics.get(foo).get(0).getCode());
+		assertTrue(diagnostics.get(bar).isEmpty());
+		assertTrue(diagnostics.get(baz).isEmpty());
+
+		diagnostics.clear();
+		workspaceManager.getProjectManager(project0.getName()).getProjectDescription()
+				.setDependencies(Arrays.asList(project1.getName(), project2.getName()));
+		List<IResourceDescription.Delta> deltas = workspaceManager.doBuild(Arrays.asList(foo, bar, baz),
+				Collections.emptyList(), CancelIndicator.NullImpl);
+		assertEquals(3, diagnostics.size());
+		assertTrue(diagnostics.get(foo).isEmpty());
+		assertTrue(diagnostics.get(bar).isEmpty());
+		assertTrue(diagnostics.get(baz).isEmpty());
+		assertEquals(foo, deltas.get(deltas.size() - 1).getUri());
+	}
+
+	@Test
+	public void testCancelledBuildIsResumed() throws IOException {
+		URI bar = createFile(project1, "Bar.testlang", "type Bar { }");
+		URI baz = createFile(project2, "Baz.testlang", "type Baz { }");
+		try {
+			workspaceManager.doBuild(Arrays.asList(bar, baz), Collections.emptyList(), () -> true);
+			fail("Expected cancellation");
+		} catch (Throwable e) {
+			assertTrue(operationCanceledManager.isOperationCanceledException(e));
+		}
+		assertTrue(diagnostics.isEmpty());
+		List<IResourceDescription.Delta> deltas = workspaceManager.doBuild(Collections.emptyList(),
+				Collections.emptyList(), CancelIndicator.NullImpl);
+		assertEquals(Arrays.asList(bar, baz), sortedUris(deltas));
+		assertTrue(diagnostics.get(bar).isEmpty());
+		assertTrue(diagnostics.get(baz).isEmpty());
+	}
+
+	@Before
+	public void setup() throws FileNotFoundException {
+		Guice.createInjector(Modules2.mixin(new ServerModule(), new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(IMultiRootWorkspaceConfigFactory.class).to(MultiProjectWorkspaceConfigFactory.class);
+				bind(BuildManager.class).to(ParallelBuildManager.class);
+			}
+		})).injectMembers(this);
+		File workspaceRoot = getRoot("test-data");
+		project0 = new File(workspaceRoot, "test-project0");
+		project1 = new File(workspaceRoot, "test-project1");
+		project2 = new File(workspaceRoot, "test-project2");
+		project0.mkdir();
+		project1.mkdir();
+		project2.mkdir();
+		workspaceManager.initialize(URI.createFileURI(workspaceRoot.getAbsolutePath()),
+				(uri, issues) -> diagnostics.put(uri, Lists.newArrayList(issues)), null);
+	}
+
+	private List<URI> sortedUris(List<IResourceDescription.Delta> deltas) {
+		List<URI> result = new ArrayList<>();
+		for (IResourceDescription.Delta delta : deltas) {
+			result.add(delta.getUri());
+		}
+		result.sort((a, b) -> a.toString().compareTo(b.toString()));
+		return result;
+	}
+
+	private File getRoot(String path) throws FileNotFoundException {
+		File root = new File(path);
+		if (!root.mkdirs()) {
+			Files.cleanFolder(root, null, true, false);
+		}
+		root.deleteOnExit();
+		return root;
+	}
+
+	private URI createFile(File root, String path, CharSequence contents) throws IOException {
+		File file = new File(root, path);
+		file.getParentFile().mkdirs();
+		file.createNewFile();
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write(contents.toString());
+		}
+		return URI.createFileURI(file.getAbsolutePath());
+	}
+}
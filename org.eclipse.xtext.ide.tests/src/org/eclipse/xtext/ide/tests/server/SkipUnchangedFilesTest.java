@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.ide.tests.server;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
+import org.eclipse.lsp4j.DidSaveTextDocumentParams;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.xtext.ide.server.UriExtensions;
+import org.eclipse.xtext.ide.server.WorkspaceManager;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.Modules2;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Scopes;
+
+/**
+ * Tests that files whose content did not change are only built again if a build is explicitly requested.
+ */
+public class SkipUnchangedFilesTest extends AbstractTestLangLanguageServerTest {
+	private static final String MODEL = "type Foo {\n}\n";
+
+	@Inject
+	private WorkspaceManager workspaceManager;
+
+	@Inject
+	private UriExtensions uriExtensions;
+
+	@Test
+	public void testSaveWithUnchangedContentKeepsGeneratedFiles() {
+		String uri = writeFile("MyType.testlang", MODEL);
+		initialize();
+		long timeStamp = markGeneratedFile();
+
+		writeFile("MyType.testlang", MODEL);
+		languageServer.getWorkspaceService().didChangeWatchedFiles(new DidChangeWatchedFilesParams(
+				Collections.singletonList(new FileEvent(uri, FileChangeType.Changed))));
+		languageServer.getTextDocumentService()
+				.didSave(new DidSaveTextDocumentParams(new TextDocumentIdentifier(uri), MODEL));
+
+		Assert.assertEquals(timeStamp, getGeneratedFile().lastModified());
+	}
+
+	@Test
+	public void testChangedContentIsGenerated() {
+		String uri = writeFile("MyType.testlang", MODEL);
+		initialize();
+		long timeStamp = markGeneratedFile();
+
+		writeFile("MyType.testlang", "type Foo {\n\tint bar\n}\n");
+		languageServer.getWorkspaceService().didChangeWatchedFiles(new DidChangeWatchedFilesParams(
+				Collections.singletonList(new FileEvent(uri, FileChangeType.Changed))));
+
+		Assert.assertNotEquals(timeStamp, getGeneratedFile().lastModified());
+	}
+
+	@Test
+	public void testExplicitBuildGeneratesUnchangedContent() {
+		String uri = writeFile("MyType.testlang", MODEL);
+		initialize();
+		long timeStamp = markGeneratedFile();
+
+		workspaceManager.doBuild(Collections.singletonList(uriExtensions.toUri(uri)), Collections.emptyList(),
+				CancelIndicator.NullImpl);
+
+		Assert.assertNotEquals(timeStamp, getGeneratedFile().lastModified());
+	}
+
+	private File getGeneratedFile() {
+		File result = new File(root, "src-gen/Foo.java");
+		Assert.assertTrue(result.isFile());
+		return result;
+	}
+
+	/**
+	 * Move the time stamp of the generated file into the past, such that a regeneration is noticed.
+	 */
+	private long markGeneratedFile() {
+		File generated = getGeneratedFile();
+		long result = generated.lastModified() - 60_000;
+		Assert.assertTrue(generated.setLastModified(result));
+		return result;
+	}
+
+	@Override
+	protected com.google.inject.Module getServerModule() {
+		return Modules2.mixin(super.getServerModule(), new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(WorkspaceManager.class).in(Scopes.SINGLETON);
+			}
+		});
+	}
+}
@@ -11,25 +11,36 @@ package org.eclipse.xtext.ide.server;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.build.BuildMetrics;
+import org.eclipse.xtext.build.IBuildInstrumentation;
 import org.eclipse.xtext.build.IncrementalBuilder;
 import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.impl.DefaultResourceDescriptionDelta;
 import org.eclipse.xtext.resource.impl.ProjectDescription;
 import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.util.ToStringBuilder;
 
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 
@@ -125,20 +136,49 @@ public class BuildManager {
 	@Inject
 	private Provider<TopologicalSorter> sorterProvider;
 
+	@Inject
+	private ExecutorService executorService;
+
+	@Inject
+	private IBuildInstrumentation buildInstrumentation;
+
+	private boolean parallelBuild = false;
+
 	private final LinkedHashSet<URI> dirtyFiles = new LinkedHashSet<>();
 
 	private final LinkedHashSet<URI> deletedFiles = new LinkedHashSet<>();
 
+	/**
+	 * The queued dirty files that have to be built even if their content did not change.
+	 */
+	private final Set<URI> forcedFiles = new HashSet<>();
+
 	private List<IResourceDescription.Delta> unreportedDeltas = new ArrayList<>();
 
 	/**
-	 * Enqueue the given file collections.
+	 * Enqueue the given file collections. The dirty files are built even if their content did not change.
 	 *
 	 * @return a buildable.
 	 */
 	public Buildable submit(List<URI> dirtyFiles, List<URI> deletedFiles) {
+		return submit(dirtyFiles, deletedFiles, false);
+	}
+
+	/**
+	 * Enqueue the given file collections. If unchanged files may be skipped, the dirty files whose content did not
+	 * change since their last build are not built again, unless they are also queued by a submission that does not
+	 * skip them.
+	 *
+	 * @return a buildable.
+	 * @since 2.22
+	 */
+	public Buildable submit(List<URI> dirtyFiles, List<URI> deletedFiles, boolean skipUnchangedFiles) {
 		queue(this.dirtyFiles, deletedFiles, dirtyFiles);
 		queue(this.deletedFiles, dirtyFiles, deletedFiles);
+		if (!skipUnchangedFiles) {
+			forcedFiles.addAll(dirtyFiles);
+		}
+		forcedFiles.removeAll(deletedFiles);
 		return this::internalBuild;
 	}
 
@@ -157,12 +197,13 @@ public class BuildManager {
 	 */
 	public List<IResourceDescription.Delta> doInitialBuild(List<ProjectDescription> projects,
 			CancelIndicator indicator) {
-		List<ProjectDescription> sortedDescriptions = sortByDependencies(projects);
 		List<IResourceDescription.Delta> result = new ArrayList<>();
-		for (ProjectDescription description : sortedDescriptions) {
-			IncrementalBuilder.Result partialresult = workspaceManager.getProjectManager(description.getName())
-					.doInitialBuild(indicator);
-			result.addAll(partialresult.getAffectedResources());
+		for (List<ProjectDescription> level : getBuildLevels(projects)) {
+			List<IResourceDescription.Delta> upstreamDeltas = new ArrayList<>(result);
+			buildLevel(level,
+					(description) -> workspaceManager.getProjectManager(description.getName())
+							.doInitialBuild(upstreamDeltas, indicator),
+					(description, partialResult) -> result.addAll(partialResult.getAffectedResources()));
 		}
 		return result;
 	}
@@ -181,25 +222,125 @@ public class BuildManager {
 			ProjectDescription projectManager = workspaceManager.getProjectManager(deleted).getProjectDescription();
 			project2deleted.put(projectManager, deleted);
 		}
-		List<ProjectDescription> sortedDescriptions = sortByDependencies(
-				Sets.union(project2dirty.keySet(), project2deleted.keySet()));
-		for (ProjectDescription it : sortedDescriptions) {
-			ProjectManager projectManager = workspaceManager.getProjectManager(it.getName());
-			List<URI> projectDirty = new ArrayList<>(project2dirty.get(it));
-			List<URI> projectDeleted = new ArrayList<>(project2deleted.get(it));
-			IncrementalBuilder.Result partialResult = projectManager.doBuild(projectDirty, projectDeleted,
-					unreportedDeltas, cancelIndicator);
-			FluentIterable.from(partialResult.getAffectedResources()).transform(IResourceDescription.Delta::getUri)
-					.copyInto(allDirty);
-			dirtyFiles.removeAll(projectDirty);
-			deletedFiles.removeAll(projectDeleted);
-			mergeWithUnreportedDeltas(partialResult.getAffectedResources());
+		Set<ProjectDescription> forcedProjects = new HashSet<>();
+		for (URI forced : forcedFiles) {
+			forcedProjects.add(workspaceManager.getProjectManager(forced).getProjectDescription());
+		}
+		for (List<ProjectDescription> level : getBuildLevels(
+				Sets.union(project2dirty.keySet(), project2deleted.keySet()))) {
+			List<IResourceDescription.Delta> externalDeltas = new ArrayList<>(unreportedDeltas);
+			buildLevel(level, (it) -> {
+				ProjectManager projectManager = workspaceManager.getProjectManager(it.getName());
+				return projectManager.doBuild(new ArrayList<>(project2dirty.get(it)),
+						new ArrayList<>(project2deleted.get(it)), externalDeltas, !forcedProjects.contains(it),
+						cancelIndicator);
+			}, (it, partialResult) -> {
+				FluentIterable.from(partialResult.getAffectedResources()).transform(IResourceDescription.Delta::getUri)
+						.copyInto(allDirty);
+				dirtyFiles.removeAll(project2dirty.get(it));
+				forcedFiles.removeAll(project2dirty.get(it));
+				deletedFiles.removeAll(project2deleted.get(it));
+				mergeWithUnreportedDeltas(partialResult.getAffectedResources());
+			});
 		}
 		List<IResourceDescription.Delta> result = unreportedDeltas;
 		unreportedDeltas = new ArrayList<>();
 		return result;
 	}
 
+	/**
+	 * Group the projects into levels that are built one after another. The projects within a level do not depend on
+	 * each other. Unless {@link #isParallelBuild() parallel builds} are enabled, each level contains exactly one
+	 * project.
+	 * 
+	 * @since 2.22
+	 */
+	protected List<List<ProjectDescription>> getBuildLevels(Iterable<ProjectDescription> projectDescriptions) {
+		if (!isParallelBuild()) {
+			return Lists.transform(sortByDependencies(projectDescriptions), Collections::singletonList);
+		}
+		return sorterProvider.get().sortByDependencyLevels(projectDescriptions, (it) -> {
+			reportDependencyCycle(workspaceManager.getProjectManager(it.getName()));
+		});
+	}
+
+	/**
+	 * Build the given projects that do not depend on each other. If there is more than one project and
+	 * {@link #isParallelBuild() parallel builds} are enabled, the projects are built concurrently on the injected
+	 * executor service. This method waits for all builds to finish. The results of the successful builds are passed to
+	 * the given acceptor on the calling thread in the order of the given projects. Afterwards, the first failure, e.g.
+	 * a cancellation, is rethrown.
+	 * 
+	 * @since 2.22
+	 */
+	protected void buildLevel(List<ProjectDescription> projects,
+			Function<? super ProjectDescription, ? extends IncrementalBuilder.Result> build,
+			BiConsumer<? super ProjectDescription, ? super IncrementalBuilder.Result> acceptor) {
+		if (projects.size() <= 1 || !isParallelBuild()) {
+			for (ProjectDescription project : projects) {
+				acceptor.accept(project, build.apply(project));
+			}
+			return;
+		}
+		List<Future<IncrementalBuilder.Result>> futures = new ArrayList<>(projects.size());
+		for (ProjectDescription project : projects) {
+			futures.add(executorService.submit(() -> build.apply(project)));
+		}
+		Throwable failure = null;
+		for (int i = 0; i < projects.size(); i++) {
+			try {
+				acceptor.accept(projects.get(i), Uninterruptibles.getUninterruptibly(futures.get(i)));
+			} catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				}
+			}
+		}
+		if (failure != null) {
+			throw Exceptions.sneakyThrow(failure);
+		}
+	}
+
+	/**
+	 * Whether independent projects are built concurrently.
+	 * 
+	 * @since 2.22
+	 */
+	protected boolean isParallelBuild() {
+		return parallelBuild;
+	}
+
+	/**
+	 * Enable or disable the concurrent build of projects that do not depend on each other. Disabled by default.
+	 * 
+	 * @since 2.22
+	 */
+	public void setParallelBuild(boolean parallelBuild) {
+		this.parallelBuild = parallelBuild;
+	}
+
+	/**
+	 * The aggregated timings of the build phases of all projects since the last {@link #resetBuildStatistics()
+	 * reset}. Empty if the bound {@link IBuildInstrumentation} does not aggregate timings.
+	 * 
+	 * @since 2.22
+	 */
+	public Map<IBuildInstrumentation.Phase, BuildMetrics.PhaseStatistics> getBuildStatistics() {
+		if (buildInstrumentation instanceof BuildMetrics) {
+			return ((BuildMetrics) buildInstrumentation).getStatistics();
+		}
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void resetBuildStatistics() {
+		if (buildInstrumentation instanceof BuildMetrics) {
+			((BuildMetrics) buildInstrumentation).reset();
+		}
+	}
+
 	/**
 	 * @since 2.18
 	 */
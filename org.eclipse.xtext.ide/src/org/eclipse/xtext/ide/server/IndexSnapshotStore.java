@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.ide.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.xtext.build.IndexState;
+import org.eclipse.xtext.build.Source2GeneratedMapping;
+import org.eclipse.xtext.IGrammarAccess;
+import org.eclipse.xtext.LanguageInfo;
+import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
+import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
+import org.eclipse.xtext.validation.CheckType;
+import org.eclipse.xtext.validation.Issue;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Reads and writes snapshots of the {@link IndexState index state} of a project, such that a restarted language
+ * server only has to rebuild the files that were changed in the meantime.
+ *
+ * A snapshot records the time stamp of each source file as it was read by the build, together with the issues that
+ * were reported for it. Snapshots are disabled unless a {@link #setSnapshotFolder(File) snapshot folder} is
+ * configured, either on this store or by {@link WorkspaceManager#getIndexSnapshotFolder()}.
+ *
+ * Snapshots are only restored by the same {@link #getLanguageIdentity() languages and versions} that wrote them.
+ *
+ * @since 2.22
+ */
+@Singleton
+public class IndexSnapshotStore {
+
+	/**
+	 * The index state of a project together with the information that is necessary to validate it against the
+	 * source files.
+	 */
+	public static class Snapshot {
+		private final IndexState indexState;
+
+		private final Map<URI, Long> timeStamps;
+
+		private final Map<URI, List<Issue>> issues;
+
+		public Snapshot(IndexState indexState, Map<URI, Long> timeStamps, Map<URI, List<Issue>> issues) {
+			this.indexState = indexState;
+			this.timeStamps = timeStamps;
+			this.issues = issues;
+		}
+
+		public IndexState getIndexState() {
+			return indexState;
+		}
+
+		/**
+		 * The time stamps of the source files that are up to date in the index state.
+		 */
+		public Map<URI, Long> getTimeStamps() {
+			return timeStamps;
+		}
+
+		/**
+		 * The non-empty lists of issues per source file.
+		 */
+		public Map<URI, List<Issue>> getIssues() {
+			return issues;
+		}
+	}
+
+	/**
+	 * The version of the snapshot format. Snapshots of other versions are ignored.
+	 */
+	public static final int FORMAT_VERSION = 3;
+
+	private static final Logger LOG = Logger.getLogger(IndexSnapshotStore.class);
+
+	@Inject
+	private IResourceServiceProvider.Registry languagesRegistry;
+
+	private volatile String languageIdentity;
+
+	private volatile File snapshotFolder;
+
+	private volatile long writeInterval = TimeUnit.MINUTES.toMillis(5);
+
+	/**
+	 * Whether snapshots are read and written at all.
+	 */
+	public boolean isEnabled() {
+		return snapshotFolder != null;
+	}
+
+	public File getSnapshotFolder() {
+		return snapshotFolder;
+	}
+
+	/**
+	 * Set the folder that contains the snapshots of all projects. <code>null</code> disables snapshots.
+	 */
+	public void setSnapshotFolder(File snapshotFolder) {
+		this.snapshotFolder = snapshotFolder;
+	}
+
+	/**
+	 * The minimal time in milliseconds between two snapshots of a project that are written after a build.
+	 */
+	public long getWriteInterval() {
+		return writeInterval;
+	}
+
+	public void setWriteInterval(long writeInterval) {
+		this.writeInterval = writeInterval;
+	}
+
+	/**
+	 * The time stamp of the given source file as seen by the given converter or <code>null</code> if it is unknown.
+	 */
+	public Long getTimeStamp(URIConverter uriConverter, URI uri) {
+		Map<String, ?> options = Collections.singletonMap(URIConverter.OPTION_REQUESTED_ATTRIBUTES,
+				Collections.singleton(URIConverter.ATTRIBUTE_TIME_STAMP));
+		Object result = uriConverter.getAttributes(uri, options).get(URIConverter.ATTRIBUTE_TIME_STAMP);
+		if (result instanceof Long && ((Long) result).longValue() != URIConverter.NULL_TIME_STAMP) {
+			return (Long) result;
+		}
+		return null;
+	}
+
+	/**
+	 * Identifies the registered languages and the versions of their implementations and of Xtext. Snapshots that
+	 * were written with another identity are ignored, since the index of an older language version may be stale.
+	 */
+	public String getLanguageIdentity() {
+		String result = languageIdentity;
+		if (result == null) {
+			result = computeLanguageIdentity();
+			languageIdentity = result;
+		}
+		return result;
+	}
+
+	protected String computeLanguageIdentity() {
+		Map<String, String> languages = new TreeMap<>();
+		for (Map.Entry<String, Object> entry : languagesRegistry.getExtensionToFactoryMap().entrySet()) {
+			Object language = entry.getValue();
+			if (language instanceof IResourceServiceProvider) {
+				IResourceServiceProvider resourceServiceProvider = (IResourceServiceProvider) language;
+				LanguageInfo languageInfo = resourceServiceProvider.get(LanguageInfo.class);
+				IGrammarAccess grammarAccess = resourceServiceProvider.get(IGrammarAccess.class);
+				Class<?> implementation = grammarAccess != null ? grammarAccess.getClass() : language.getClass();
+				String name = languageInfo != null ? languageInfo.getLanguageName() : implementation.getName();
+				languages.put(entry.getKey(), name + "@" + getVersion(implementation));
+			} else if (language != null) {
+				languages.put(entry.getKey(), language.getClass().getName() + "@" + getVersion(language.getClass()));
+			}
+		}
+		return "xtext@" + getVersion(IResourceServiceProvider.class) + ";" + languages;
+	}
+
+	/**
+	 * The implementation version of the given class together with the time stamp of its class file, such that
+	 * snapshots are also invalidated by development builds without a version.
+	 */
+	protected String getVersion(Class<?> clazz) {
+		Package pkg = clazz.getPackage();
+		String version = pkg != null ? pkg.getImplementationVersion() : null;
+		long timeStamp = 0;
+		URL classFile = clazz.getResource(clazz.getSimpleName() + ".class");
+		if (classFile != null) {
+			try {
+				URLConnection connection = classFile.openConnection();
+				connection.setUseCaches(false);
+				timeStamp = connection.getLastModified();
+				connection.getInputStream().close();
+			} catch (IOException e) {
+				// version only
+			}
+		}
+		return version + "/" + timeStamp;
+	}
+
+	/**
+	 * The file that holds the snapshot of the given project.
+	 */
+	protected File getSnapshotFile(String projectName, URI baseDir) {
+		String key = projectName + "@" + baseDir;
+		return new File(snapshotFolder, Integer.toHexString(key.hashCode()) + ".index");
+	}
+
+	/**
+	 * Read the snapshot of the given project.
+	 *
+	 * @return the snapshot or <code>null</code> if snapshots are disabled, the project has no base directory or there
+	 *         is no valid snapshot.
+	 */
+	public Snapshot read(String projectName, URI baseDir) {
+		if (!isEnabled() || baseDir == null) {
+			return null;
+		}
+		File file = getSnapshotFile(projectName, baseDir);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != FORMAT_VERSION || !getLanguageIdentity().equals(in.readUTF())
+					|| !projectName.equals(in.readUTF()) || !String.valueOf(baseDir).equals(in.readUTF())) {
+				return null;
+			}
+			return readSnapshot(in);
+		} catch (IOException | ClassNotFoundException | RuntimeException e) {
+			LOG.warn("Ignoring the index snapshot " + file + " of project " + projectName, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Write the snapshot of the given project. Projects without a base directory are skipped. Failures are logged.
+	 */
+	public synchronized void write(String projectName, URI baseDir, Snapshot snapshot) {
+		if (!isEnabled() || baseDir == null) {
+			return;
+		}
+		File file = getSnapshotFile(projectName, baseDir);
+		try {
+			file.getParentFile().mkdirs();
+			File tmp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+			try {
+				try (ObjectOutputStream out = new ObjectOutputStream(
+						new BufferedOutputStream(new FileOutputStream(tmp)))) {
+					out.writeInt(FORMAT_VERSION);
+					out.writeUTF(getLanguageIdentity());
+					out.writeUTF(projectName);
+					out.writeUTF(String.valueOf(baseDir));
+					writeSnapshot(out, snapshot);
+				}
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				tmp.delete();
+			}
+		} catch (IOException | RuntimeException e) {
+			LOG.error("Failed to write the index snapshot " + file + " of project " + projectName, e);
+		}
+	}
+
+	protected Snapshot readSnapshot(ObjectInput in) throws IOException, ClassNotFoundException {
+		int numDescriptions = in.readInt();
+		List<IResourceDescription> descriptions = new ArrayList<>(numDescriptions);
+		for (int i = 0; i < numDescriptions; i++) {
+			descriptions.add((IResourceDescription) in.readObject());
+		}
+		Source2GeneratedMapping fileMappings = new Source2GeneratedMapping();
+		fileMappings.readExternal(in);
+		int numFingerprints = in.readInt();
+		for (int i = 0; i < numFingerprints; i++) {
+			fileMappings.setFingerprint(URI.createURI(in.readUTF()), in.readUTF());
+		}
+		int numTimeStamps = in.readInt();
+		Map<URI, Long> timeStamps = new HashMap<>();
+		for (int i = 0; i < numTimeStamps; i++) {
+			timeStamps.put(URI.createURI(in.readUTF()), in.readLong());
+		}
+		int numIssueLists = in.readInt();
+		Map<URI, List<Issue>> issues = new HashMap<>();
+		for (int i = 0; i < numIssueLists; i++) {
+			URI uri = URI.createURI(in.readUTF());
+			int numIssues = in.readInt();
+			List<Issue> list = new ArrayList<>(numIssues);
+			for (int j = 0; j < numIssues; j++) {
+				list.add(readIssue(in));
+			}
+			issues.put(uri, list);
+		}
+		return new Snapshot(new IndexState(new ResourceDescriptionsData(descriptions), fileMappings), timeStamps,
+				issues);
+	}
+
+	protected void writeSnapshot(ObjectOutput out, Snapshot snapshot) throws IOException {
+		List<IResourceDescription> descriptions = new ArrayList<>();
+		snapshot.getIndexState().getResourceDescriptions().getAllResourceDescriptions().forEach(descriptions::add);
+		out.writeInt(descriptions.size());
+		for (IResourceDescription description : descriptions) {
+			out.writeObject(SerializableResourceDescription.createCopy(description));
+		}
+		Source2GeneratedMapping fileMappings = snapshot.getIndexState().getFileMappings();
+		fileMappings.writeExternal(out);
+		out.writeInt(fileMappings.getAllFingerprints().size());
+		for (Map.Entry<URI, String> entry : fileMappings.getAllFingerprints().entrySet()) {
+			out.writeUTF(entry.getKey().toString());
+			out.writeUTF(entry.getValue());
+		}
+		out.writeInt(snapshot.getTimeStamps().size());
+		for (Map.Entry<URI, Long> entry : snapshot.getTimeStamps().entrySet()) {
+			out.writeUTF(entry.getKey().toString());
+			out.writeLong(entry.getValue());
+		}
+		out.writeInt(snapshot.getIssues().size());
+		for (Map.Entry<URI, List<Issue>> entry : snapshot.getIssues().entrySet()) {
+			out.writeUTF(entry.getKey().toString());
+			out.writeInt(entry.getValue().size());
+			for (Issue issue : entry.getValue()) {
+				writeIssue(out, issue);
+			}
+		}
+	}
+
+	protected Issue readIssue(ObjectInput in) throws IOException, ClassNotFoundException {
+		Issue.IssueImpl result = new Issue.IssueImpl();
+		result.setSeverity((Severity) in.readObject());
+		result.setType((CheckType) in.readObject());
+		result.setCode((String) in.readObject());
+		result.setMessage((String) in.readObject());
+		String uriToProblem = (String) in.readObject();
+		result.setUriToProblem(uriToProblem != null ? URI.createURI(uriToProblem) : null);
+		result.setOffset((Integer) in.readObject());
+		result.setLength((Integer) in.readObject());
+		result.setLineNumber((Integer) in.readObject());
+		result.setColumn((Integer) in.readObject());
+		result.setLineNumberEnd((Integer) in.readObject());
+		result.setColumnEnd((Integer) in.readObject());
+		result.setData((String[]) in.readObject());
+		result.setSyntaxError(in.readBoolean());
+		return result;
+	}
+
+	protected void writeIssue(ObjectOutput out, Issue issue) throws IOException {
+		out.writeObject(issue.getSeverity());
+		out.writeObject(issue.getType());
+		out.writeObject(issue.getCode());
+		out.writeObject(issue.getMessage());
+		out.writeObject(issue.getUriToProblem() != null ? issue.getUriToProblem().toString() : null);
+		out.writeObject(issue.getOffset());
+		out.writeObject(issue.getLength());
+		out.writeObject(issue.getLineNumber());
+		out.writeObject(issue.getColumn());
+		out.writeObject(issue.getLineNumberEnd());
+		out.writeObject(issue.getColumnEnd());
+		out.writeObject(issue.getData());
+		out.writeBoolean(issue.isSyntaxError());
+	}
+}
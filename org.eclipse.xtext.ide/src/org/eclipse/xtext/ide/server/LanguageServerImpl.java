@@ -170,6 +170,9 @@ public class LanguageServerImpl implements LanguageServer, WorkspaceService, Tex
 	@Inject
 	private ILanguageServerShutdownAndExitHandler shutdownAndExitHandler;
 
+	@Inject
+	private IndexSnapshotStore indexSnapshotStore;
+
 	private WorkspaceManager workspaceManager;
 
 	private InitializeParams initializeParams;
@@ -361,6 +364,12 @@ public class LanguageServerImpl implements LanguageServer, WorkspaceService, Tex
 	@Override
 	public CompletableFuture<Object> shutdown() {
 		shutdownAndExitHandler.shutdown();
+		if (indexSnapshotStore.isEnabled()) {
+			return requestManager.runWrite(() -> {
+				workspaceManager.writeIndexSnapshots();
+				return null;
+			}, (cancelIndicator, it) -> new Object());
+		}
 		return CompletableFuture.completedFuture(new Object());
 	}
 
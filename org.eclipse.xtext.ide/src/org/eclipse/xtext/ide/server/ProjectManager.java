@@ -10,11 +10,17 @@ package org.eclipse.xtext.ide.server;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.xtext.build.BuildRequest;
 import org.eclipse.xtext.build.IncrementalBuilder;
 import org.eclipse.xtext.build.IndexState;
@@ -58,8 +64,25 @@ public class ProjectManager {
 	@Inject
 	protected IExternalContentSupport externalContentSupport;
 
+	/**
+	 * @since 2.22
+	 */
+	@Inject
+	protected IndexSnapshotStore indexSnapshotStore;
+
+	@Inject(optional = true)
+	private ExecutorService executorService;
+
 	private IndexState indexState = new IndexState();
 
+	private final Map<URI, Long> timeStamps = new HashMap<>();
+
+	private final Map<URI, List<Issue>> issues = new ConcurrentHashMap<>();
+
+	private long lastIndexSnapshot;
+
+	private boolean skipUnchangedFiles;
+
 	private URI baseDir;
 
 	private Procedure2<? super URI, ? super Iterable<Issue>> issueAcceptor;
@@ -90,27 +113,176 @@ public class ProjectManager {
 	 * Initial build of this project.
 	 */
 	public IncrementalBuilder.Result doInitialBuild(CancelIndicator cancelIndicator) {
+		return doInitialBuild(Collections.emptyList(), cancelIndicator);
+	}
+
+	/**
+	 * Initial build of this project. If there is a valid {@link IndexSnapshotStore index snapshot} of this project,
+	 * the snapshot is restored and only the files that were changed, added or deleted in the meantime are built,
+	 * together with the files that are affected by them or by the given deltas of upstream projects.
+	 * 
+	 * @since 2.22
+	 */
+	public IncrementalBuilder.Result doInitialBuild(List<IResourceDescription.Delta> externalDeltas,
+			CancelIndicator cancelIndicator) {
 		List<URI> allUris = new ArrayList<>();
 		for (ISourceFolder srcFolder : projectConfig.getSourceFolders()) {
 			allUris.addAll(srcFolder.getAllResources(fileSystemScanner));
 		}
-		return doBuild(allUris, Collections.emptyList(), Collections.emptyList(), cancelIndicator);
+		IndexSnapshotStore.Snapshot snapshot = indexSnapshotStore.read(projectDescription.getName(), baseDir);
+		// the next snapshot is written after the write interval or on shutdown
+		lastIndexSnapshot = System.currentTimeMillis();
+		if (snapshot == null) {
+			return doBuild(allUris, Collections.emptyList(), Collections.emptyList(), true, cancelIndicator);
+		}
+		return restoreIndexSnapshot(snapshot, allUris, externalDeltas, cancelIndicator);
+	}
+
+	/**
+	 * Use the index state of the given snapshot and rebuild the source files whose time stamps do not match the
+	 * snapshot. The recorded issues are reported again, and replaced by the build for the files whose content did
+	 * change. Sources whose generated files were deleted in the meantime are built even if they did not change.
+	 * 
+	 * @since 2.22
+	 */
+	protected IncrementalBuilder.Result restoreIndexSnapshot(IndexSnapshotStore.Snapshot snapshot, List<URI> allUris,
+			List<IResourceDescription.Delta> externalDeltas, CancelIndicator cancelIndicator) {
+		indexState = snapshot.getIndexState();
+		indexProvider.get().put(projectDescription.getName(), indexState.getResourceDescriptions());
+		Set<URI> deletedFiles = new LinkedHashSet<>(indexState.getResourceDescriptions().getAllURIs());
+		deletedFiles.addAll(snapshot.getTimeStamps().keySet());
+		URIConverter uriConverter = createNewResourceSet(indexState.getResourceDescriptions()).getURIConverter();
+		List<URI> dirtyFiles = new ArrayList<>();
+		for (URI uri : allUris) {
+			deletedFiles.remove(uri);
+			List<Issue> fileIssues = snapshot.getIssues().get(uri);
+			if (fileIssues != null) {
+				issues.put(uri, fileIssues);
+				issueAcceptor.apply(uri, fileIssues);
+			}
+			Long timeStamp = snapshot.getTimeStamps().get(uri);
+			boolean generatedFilesExist = true;
+			for (URI generated : indexState.getFileMappings().getGenerated(uri)) {
+				generatedFilesExist &= uriConverter.exists(generated, Collections.emptyMap());
+			}
+			if (!generatedFilesExist) {
+				// build the source although its content did not change
+				indexState.getFileMappings().setFingerprint(uri, null);
+				dirtyFiles.add(uri);
+			} else if (timeStamp != null && timeStamp.equals(indexSnapshotStore.getTimeStamp(uriConverter, uri))) {
+				timeStamps.put(uri, timeStamp);
+			} else {
+				dirtyFiles.add(uri);
+			}
+		}
+		return doBuild(dirtyFiles, new ArrayList<>(deletedFiles), externalDeltas, true, cancelIndicator);
 	}
 
 	/**
-	 * Build this project.
+	 * Build this project. All dirty files are built, even if their content did not change.
 	 */
 	public IncrementalBuilder.Result doBuild(List<URI> dirtyFiles, List<URI> deletedFiles,
 			List<IResourceDescription.Delta> externalDeltas, CancelIndicator cancelIndicator) {
-		BuildRequest request = newBuildRequest(dirtyFiles, deletedFiles, externalDeltas, cancelIndicator);
+		return doBuild(dirtyFiles, deletedFiles, externalDeltas, false, cancelIndicator);
+	}
+
+	/**
+	 * Build this project. If unchanged files may be skipped, the dirty files whose content did not change since their
+	 * last build are neither indexed, validated nor generated again.
+	 * 
+	 * @since 2.22
+	 */
+	public IncrementalBuilder.Result doBuild(List<URI> dirtyFiles, List<URI> deletedFiles,
+			List<IResourceDescription.Delta> externalDeltas, boolean skipUnchangedFiles,
+			CancelIndicator cancelIndicator) {
+		BuildRequest request;
+		this.skipUnchangedFiles = skipUnchangedFiles;
+		try {
+			request = newBuildRequest(dirtyFiles, deletedFiles, externalDeltas, cancelIndicator);
+		} finally {
+			this.skipUnchangedFiles = false;
+		}
+		Map<URI, Long> dirtyTimeStamps = indexSnapshotStore.isEnabled()
+				? readTimeStamps(request.getResourceSet().getURIConverter(), dirtyFiles)
+				: null;
 		IncrementalBuilder.Result result = incrementalBuilder.build(request,
 				languagesRegistry::getResourceServiceProvider);
 		indexState = result.getIndexState();
 		resourceSet = request.getResourceSet();
 		indexProvider.get().put(projectDescription.getName(), indexState.getResourceDescriptions());
+		if (dirtyTimeStamps != null) {
+			updateTimeStamps(dirtyTimeStamps, deletedFiles);
+			if (System.currentTimeMillis() - lastIndexSnapshot >= indexSnapshotStore.getWriteInterval()) {
+				scheduleIndexSnapshot();
+			}
+		}
 		return result;
 	}
 
+	/**
+	 * Read the time stamps of the given files before they are built. Files that are opened in an editor are mapped to
+	 * <code>null</code> since their indexed content differs from the content on disk.
+	 */
+	private Map<URI, Long> readTimeStamps(URIConverter uriConverter, List<URI> files) {
+		Map<URI, Long> result = new HashMap<>();
+		for (URI uri : files) {
+			boolean isOpened = openedDocumentsContentProvider != null && openedDocumentsContentProvider.hasContent(uri);
+			result.put(uri, isOpened ? null : indexSnapshotStore.getTimeStamp(uriConverter, uri));
+		}
+		return result;
+	}
+
+	private void updateTimeStamps(Map<URI, Long> dirtyTimeStamps, List<URI> deletedFiles) {
+		for (URI uri : deletedFiles) {
+			timeStamps.remove(uri);
+			issues.remove(uri);
+		}
+		for (Map.Entry<URI, Long> entry : dirtyTimeStamps.entrySet()) {
+			if (entry.getValue() != null) {
+				timeStamps.put(entry.getKey(), entry.getValue());
+			} else {
+				timeStamps.remove(entry.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Write an {@link IndexSnapshotStore index snapshot} of the current state of this project in the background.
+	 */
+	private void scheduleIndexSnapshot() {
+		IndexSnapshotStore.Snapshot snapshot = createIndexSnapshot();
+		lastIndexSnapshot = System.currentTimeMillis();
+		String projectName = projectDescription.getName();
+		if (executorService != null) {
+			executorService.execute(() -> indexSnapshotStore.write(projectName, baseDir, snapshot));
+		} else {
+			indexSnapshotStore.write(projectName, baseDir, snapshot);
+		}
+	}
+
+	/**
+	 * Write an {@link IndexSnapshotStore index snapshot} of the current state of this project, e.g. on shutdown.
+	 * Does nothing if snapshots are disabled.
+	 * 
+	 * @since 2.22
+	 */
+	public void writeIndexSnapshot() {
+		if (indexSnapshotStore.isEnabled()) {
+			lastIndexSnapshot = System.currentTimeMillis();
+			indexSnapshotStore.write(projectDescription.getName(), baseDir, createIndexSnapshot());
+		}
+	}
+
+	/**
+	 * Capture the current index state of this project. The index state is not modified by subsequent builds, so it
+	 * can be written concurrently.
+	 * 
+	 * @since 2.22
+	 */
+	protected IndexSnapshotStore.Snapshot createIndexSnapshot() {
+		return new IndexSnapshotStore.Snapshot(indexState, new HashMap<>(timeStamps), new HashMap<>(issues));
+	}
+
 	/**
 	 * Creates a new build request for this project.
 	 */
@@ -126,13 +298,39 @@ public class ProjectManager {
 		result.setExternalDeltas(externalDeltas);
 		result.setAfterValidate((URI uri, Iterable<Issue> issues) -> {
 			issueAcceptor.apply(uri, issues);
+			if (indexSnapshotStore.isEnabled()) {
+				recordIssues(uri, issues);
+			}
 			return true;
 		});
 		result.setCancelIndicator(cancelIndicator);
+		// only explicitly requested builds rebuild files whose content did not change
+		result.setSkipUnchangedFiles(skipUnchangedFiles);
 		result.setIndexOnly(projectConfig.isIndexOnly());
+		result.setIndexingWorkerCount(getIndexingWorkerCount());
+		result.setWorkerResourceSetProvider(() -> createNewResourceSet(result.getState().getResourceDescriptions()));
 		return result;
 	}
 
+	private void recordIssues(URI uri, Iterable<Issue> fileIssues) {
+		List<Issue> list = ImmutableList.copyOf(fileIssues);
+		if (list.isEmpty()) {
+			issues.remove(uri);
+		} else {
+			issues.put(uri, list);
+		}
+	}
+
+	/**
+	 * The number of workers that load and index changed resources of this project concurrently. Returns
+	 * <code>1</code> by default, i.e. resources are indexed one after another.
+	 * 
+	 * @since 2.22
+	 */
+	protected int getIndexingWorkerCount() {
+		return 1;
+	}
+
 	/**
 	 * Create and configure a new resource set for this project.
 	 */
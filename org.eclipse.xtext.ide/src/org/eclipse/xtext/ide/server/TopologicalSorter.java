@@ -8,6 +8,8 @@
  */
 package org.eclipse.xtext.ide.server;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -60,6 +62,34 @@ public class TopologicalSorter {
 		return Lists.newArrayList(result);
 	}
 
+	/**
+	 * Sorts the given projects by their dependencies and groups them into levels. The projects of a level depend only
+	 * on projects of previous levels, so they can be built independently from each other. The order within each level
+	 * follows the order of {@link #sortByDependencies(Iterable, Procedure1)}.
+	 * 
+	 * @since 2.22
+	 */
+	public List<List<ProjectDescription>> sortByDependencyLevels(Iterable<ProjectDescription> descriptions,
+			Procedure1<? super ProjectDescription> cyclicAcceptor) {
+		List<List<ProjectDescription>> levels = new ArrayList<>();
+		Map<String, Integer> name2level = new HashMap<>();
+		for (ProjectDescription project : sortByDependencies(descriptions, cyclicAcceptor)) {
+			int level = 0;
+			for (String dependency : project.getDependencies()) {
+				Integer dependencyLevel = name2level.get(dependency);
+				if (dependencyLevel != null) {
+					level = Math.max(level, dependencyLevel + 1);
+				}
+			}
+			name2level.put(project.getName(), level);
+			if (level == levels.size()) {
+				levels.add(new ArrayList<>());
+			}
+			levels.get(level).add(project);
+		}
+		return levels;
+	}
+
 	protected boolean visit(TopologicalSorter.Entry current) {
 		if (!result.contains(current.description) && !current.cyclic) {
 			if (current.marked) {
@@ -8,6 +8,7 @@
  *******************************************************************************/
 package org.eclipse.xtext.ide.server;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -15,6 +16,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.URI;
@@ -67,6 +69,9 @@ public class WorkspaceManager {
 	@Inject 
 	private UriExtensions uriExtensions;
 
+	@Inject
+	private IndexSnapshotStore indexSnapshotStore;
+
 	private BuildManager buildManager;
 
 	private List<WorkspaceFolder> workspaceFolders = Collections.emptyList();
@@ -79,7 +84,7 @@ public class WorkspaceManager {
 	
 	private final List<ILanguageServerAccess.IBuildListener> buildListeners = new ArrayList<>();
 
-	private final Map<String, ResourceDescriptionsData> fullIndex = new HashMap<>();
+	private final Map<String, ResourceDescriptionsData> fullIndex = new ConcurrentHashMap<>();
 
 	private final Map<URI, Document> openDocuments = new HashMap<>();
 
@@ -166,9 +171,25 @@ public class WorkspaceManager {
 			CancelIndicator cancelIndicator) {
 		this.workspaceFolders = new ArrayList<>(workspaceFolders);
 		this.issueAcceptor = issueAcceptor;
+		if (!indexSnapshotStore.isEnabled()) {
+			indexSnapshotStore.setSnapshotFolder(getIndexSnapshotFolder());
+		}
 		refreshWorkspaceConfig(cancelIndicator);
 	}
 
+	/**
+	 * The folder that keeps the {@link IndexSnapshotStore index snapshots} of the projects unless a folder was
+	 * configured on the store explicitly. Snapshots are disabled by default. Subclasses that enable them should return
+	 * a folder outside of the workspace, e.g. in a per-user cache directory, since the snapshots are binary files that
+	 * do not belong into the source tree.
+	 * 
+	 * @return the folder or <code>null</code> to disable snapshots.
+	 * @since 2.22
+	 */
+	protected File getIndexSnapshotFolder() {
+		return null;
+	}
+
 	/**
 	 * @return whether this workspace manager supports multiple workspace root folders.
 	 * @since 2.21
@@ -264,7 +285,8 @@ public class WorkspaceManager {
 	}
 
 	/**
-	 * Announce dirty and deleted files and provide means to start a build.
+	 * Announce dirty and deleted files and provide means to start a build. Dirty files whose content did not change
+	 * since their last build are skipped.
 	 *
 	 * @param dirtyFiles
 	 *            the dirty files
@@ -273,7 +295,23 @@ public class WorkspaceManager {
 	 * @return a build command that can be triggered
 	 */
 	public Buildable didChangeFiles(List<URI> dirtyFiles, List<URI> deletedFiles) {
-		BuildManager.Buildable buildable = buildManager.submit(dirtyFiles, deletedFiles);
+		return didChangeFiles(dirtyFiles, deletedFiles, true);
+	}
+
+	/**
+	 * Announce dirty and deleted files and provide means to start a build.
+	 *
+	 * @param dirtyFiles
+	 *            the dirty files
+	 * @param deletedFiles
+	 *            the deleted files
+	 * @param skipUnchangedFiles
+	 *            whether dirty files whose content did not change since their last build are skipped
+	 * @return a build command that can be triggered
+	 * @since 2.22
+	 */
+	public Buildable didChangeFiles(List<URI> dirtyFiles, List<URI> deletedFiles, boolean skipUnchangedFiles) {
+		BuildManager.Buildable buildable = buildManager.submit(dirtyFiles, deletedFiles, skipUnchangedFiles);
 		return (cancelIndicator) -> {
 			List<IResourceDescription.Delta> deltas = buildable.build(cancelIndicator);
 			afterBuild(deltas);
@@ -282,7 +320,8 @@ public class WorkspaceManager {
 	}
 
 	/**
-	 * Announce dirty and deleted files and perform a build.
+	 * Announce dirty and deleted files and perform a build. The dirty files are built even if their content did not
+	 * change.
 	 *
 	 * @param dirtyFiles
 	 *            the dirty files
@@ -294,7 +333,7 @@ public class WorkspaceManager {
 	 */
 	public List<IResourceDescription.Delta> doBuild(List<URI> dirtyFiles, List<URI> deletedFiles,
 			CancelIndicator cancelIndicator) {
-		return didChangeFiles(dirtyFiles, deletedFiles).build(cancelIndicator);
+		return didChangeFiles(dirtyFiles, deletedFiles, false).build(cancelIndicator);
 	}
 
 	/**
@@ -360,6 +399,17 @@ public class WorkspaceManager {
 		return ImmutableList.copyOf(projectName2ProjectManager.values());
 	}
 
+	/**
+	 * Write the {@link IndexSnapshotStore index snapshots} of all projects.
+	 * 
+	 * @since 2.22
+	 */
+	public void writeIndexSnapshots() {
+		for (ProjectManager projectManager : getProjectManagers()) {
+			projectManager.writeIndexSnapshot();
+		}
+	}
+
 	/**
 	 * As opposed to {@link TextEdit}[] the positions in the edits of a {@link DidChangeTextDocumentParams} refer to the
 	 * state after applying the preceding edits. See
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.build;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.build.IBuildInstrumentation.Phase;
+import org.eclipse.xtext.index.IndexTestLanguageInjectorProvider;
+import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.eclipse.xtext.testing.builder.AbstractIncrementalBuilderTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Inject;
+
+/**
+ * Tests that the {@link IncrementalBuilder} reports its phases to the {@link BuildMetrics}.
+ */
+@RunWith(XtextRunner.class)
+@InjectWith(IndexTestLanguageInjectorProvider.class)
+public class BuildMetricsTest extends AbstractIncrementalBuilderTest {
+
+	@Inject
+	private IResourceServiceProvider.Registry resourceServiceProviderFactory;
+
+	@Inject
+	private BuildMetrics metrics;
+
+	@Override
+	protected IResourceServiceProvider.Registry getLanguages() {
+		return resourceServiceProviderFactory;
+	}
+
+	@Before
+	public void resetMetrics() {
+		metrics.reset();
+	}
+
+	@Test
+	public void testPhases() {
+		URI a = operator_minus("src/A.indextestlanguage", "foo { entity A {} }");
+		URI b = operator_minus("src/B.indextestlanguage", "foo { entity B { foo.A reference } }");
+		build(newBuildRequest(request -> request.setDirtyFiles(Arrays.asList(a, b))));
+		assertEquals(1, metrics.getStatistics(Phase.BUILD).getCount());
+		assertEquals(2, metrics.getStatistics(Phase.PARSE).getCount());
+		// once while indexing and once after linking
+		assertEquals(4, metrics.getStatistics(Phase.DESCRIBE).getCount());
+		assertEquals(2, metrics.getStatistics(Phase.LINK).getCount());
+		assertEquals(2, metrics.getStatistics(Phase.VALIDATE).getCount());
+		assertEquals(2, metrics.getStatistics(Phase.GENERATE).getCount());
+		assertEquals(0, metrics.getStatistics(Phase.AFFECTED).getCount());
+		assertTrue(metrics.getStatistics(Phase.BUILD).getTotalNanos() > 0);
+		assertTrue(metrics.getStatistics(Phase.BUILD).getMaxNanos() >= metrics.getStatistics(Phase.PARSE)
+				.getMaxNanos());
+
+		metrics.reset();
+		operator_minus("src/A.indextestlanguage", "foo { entity X {} }");
+		build(newBuildRequest(request -> request.setDirtyFiles(Collections.singletonList(a))));
+		assertEquals(1, metrics.getStatistics(Phase.AFFECTED).getCount());
+		assertEquals(2, metrics.getStatistics(Phase.LINK).getCount());
+		assertEquals(2, metrics.getStatistics(Phase.VALIDATE).getCount());
+		assertEquals(1, metrics.getStatistics(Phase.GENERATE).getCount());
+	}
+}
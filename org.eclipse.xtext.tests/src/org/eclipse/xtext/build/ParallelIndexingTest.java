@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2020 itemis AG (http://www.itemis.eu) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.build;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.impl.URIHandlerImpl;
+import org.eclipse.xtext.index.IndexTestLanguageInjectorProvider;
+import org.eclipse.xtext.resource.CompilerPhases;
+import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions;
+import org.eclipse.xtext.resource.impl.ProjectDescription;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.eclipse.xtext.testing.builder.AbstractIncrementalBuilderTest;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.common.collect.Iterables;
+import com.google.inject.Inject;
+
+/**
+ * Tests for the parallel indexing mode of the {@link Indexer}.
+ */
+@RunWith(XtextRunner.class)
+@InjectWith(IndexTestLanguageInjectorProvider.class)
+public class ParallelIndexingTest extends AbstractIncrementalBuilderTest {
+
+	@Inject
+	private IResourceServiceProvider.Registry resourceServiceProviderFactory;
+
+	@Inject
+	private CompilerPhases compilerPhases;
+
+	@Override
+	protected IResourceServiceProvider.Registry getLanguages() {
+		return resourceServiceProviderFactory;
+	}
+
+	@Test
+	public void testFullBuild() {
+		List<URI> files = createFiles(20);
+		BuildRequest request = newParallelBuildRequest(files, 4);
+		build(request);
+		assertTrue(issues.toString(), issues.isEmpty());
+		assertEquals(20, generated.size());
+		assertEquals(20, Iterables.size(indexState.getResourceDescriptions().getAllResourceDescriptions()));
+		for (URI file : files) {
+			assertNotNull(request.getResourceSet().getResource(file, false));
+		}
+	}
+
+	@Test
+	public void testDeltasInRequestOrder() {
+		List<URI> files = createFiles(10);
+		List<URI> reversed = new ArrayList<>(files);
+		Collections.reverse(reversed);
+		BuildRequest request = newParallelBuildRequest(reversed, 3);
+		List<URI> deltaUris = new ArrayList<>();
+		incrementalBuilder.build(request, it -> getLanguages().getResourceServiceProvider(it)).getAffectedResources()
+				.forEach(it -> deltaUris.add(it.getUri()));
+		assertEquals(reversed, deltaUris);
+	}
+
+	@Test
+	public void testIncrementalBuild() {
+		List<URI> files = createFiles(8);
+		build(newParallelBuildRequest(files, 4));
+		assertTrue(issues.toString(), issues.isEmpty());
+
+		// break the reference of all other files
+		build(newParallelBuildRequest(
+				Collections.singletonList(operator_minus("src/File0.indextestlanguage", "foo { entity X {} }")), 4));
+		assertEquals(issues.toString(), 7, issues.size());
+		assertEquals(1, generated.size());
+	}
+
+	@Test
+	public void testFailingWorker() {
+		List<URI> files = createFiles(8);
+		List<XtextResourceSet> workerResourceSets = new ArrayList<>();
+		BuildRequest request = newParallelBuildRequest(files, 4);
+		Function0<? extends XtextResourceSet> workerResourceSetProvider = request.getWorkerResourceSetProvider();
+		request.setWorkerResourceSetProvider(() -> {
+			XtextResourceSet result = workerResourceSetProvider.apply();
+			result.getURIConverter().getURIHandlers().add(0, new URIHandlerImpl() {
+				@Override
+				public boolean canHandle(URI uri) {
+					return uri.lastSegment().equals("File5.indextestlanguage");
+				}
+
+				@Override
+				public InputStream createInputStream(URI uri, Map<?, ?> options) throws IOException {
+					throw new IOException("cannot read " + uri);
+				}
+			});
+			workerResourceSets.add(result);
+			return result;
+		});
+		try {
+			build(request);
+			fail("the worker that indexes File5 fails");
+		} catch (RuntimeException e) {
+			assertEquals(4, workerResourceSets.size());
+			for (XtextResourceSet workerResourceSet : workerResourceSets) {
+				assertFalse(compilerPhases.isIndexing(workerResourceSet));
+			}
+		}
+	}
+
+	private List<URI> createFiles(int count) {
+		List<URI> result = new ArrayList<>();
+		result.add(operator_minus("src/File0.indextestlanguage", "foo { entity E0 {} }"));
+		for (int i = 1; i < count; i++) {
+			result.add(operator_minus("src/File" + i + ".indextestlanguage",
+					"foo { entity E" + i + " { foo.E0 reference } }"));
+		}
+		return result;
+	}
+
+	private BuildRequest newParallelBuildRequest(List<URI> dirtyFiles, int workerCount) {
+		return newBuildRequest(request -> {
+			request.setDirtyFiles(dirtyFiles);
+			request.setIndexingWorkerCount(workerCount);
+			request.setWorkerResourceSetProvider(() -> {
+				XtextResourceSet result = resourceSetProvider.get();
+				result.getURIConverter().getURIHandlers().clear();
+				result.getURIConverter().getURIHandlers().add(inMemoryURIHandler);
+				result.setClasspathURIContext(ParallelIndexingTest.class.getClassLoader());
+				ProjectDescription projectDescription = new ProjectDescription();
+				projectDescription.setName("test-project");
+				projectDescription.attachToEmfObject(result);
+				new ChunkedResourceDescriptions(Collections.emptyMap(), result).setContainer(
+						projectDescription.getName(), request.getState().getResourceDescriptions());
+				return result;
+			});
+		});
+	}
+}
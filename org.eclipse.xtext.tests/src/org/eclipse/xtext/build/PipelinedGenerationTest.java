@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.build;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.resource.impl.ExtensibleURIConverterImpl;
+import org.eclipse.xtext.index.IndexTestLanguageInjectorProvider;
+import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.eclipse.xtext.testing.builder.AbstractIncrementalBuilderTest;
+import org.eclipse.xtext.testing.util.InMemoryURIHandler;
+import org.eclipse.xtext.util.RuntimeIOException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.common.io.ByteStreams;
+import com.google.inject.Inject;
+
+/**
+ * Tests for the {@link BuildRequest#isPipelinedGeneration() pipelined generation} of the {@link IncrementalBuilder}.
+ */
+@RunWith(XtextRunner.class)
+@InjectWith(IndexTestLanguageInjectorProvider.class)
+public class PipelinedGenerationTest extends AbstractIncrementalBuilderTest {
+
+	@Inject
+	private IResourceServiceProvider.Registry resourceServiceProviderFactory;
+
+	@Override
+	protected IResourceServiceProvider.Registry getLanguages() {
+		return resourceServiceProviderFactory;
+	}
+
+	@Before
+	public void setUpConcurrentFileSystem() {
+		inMemoryURIHandler = new InMemoryURIHandler() {
+			@Override
+			public synchronized InMemFile getInMemoryFile(URI uri) {
+				return super.getInMemoryFile(uri);
+			}
+		};
+	}
+
+	@Test
+	public void testFullBuild() {
+		List<URI> files = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			files.add(operator_minus("src/File" + i + ".indextestlanguage", "foo { entity E" + i + " {} }"));
+		}
+		build(newPipelinedBuildRequest(files));
+		assertTrue(issues.toString(), issues.isEmpty());
+		assertEquals(10, generated.size());
+		for (int i = 0; i < 10; i++) {
+			URI source = files.get(i);
+			List<URI> generatedFiles = indexState.getFileMappings().getGenerated(source);
+			assertEquals(1, generatedFiles.size());
+			assertEquals(generated.get(source), generatedFiles);
+			assertEquals("Hello E" + i + "!" + System.lineSeparator(), contents(generatedFiles.get(0)));
+		}
+	}
+
+	@Test
+	public void testNoLongerGeneratedFilesAreDeleted() {
+		URI source = operator_minus("src/A.indextestlanguage", "foo { entity A {} }");
+		build(newPipelinedBuildRequest(Collections.singletonList(source)));
+		URI generatedA = indexState.getFileMappings().getGenerated(source).get(0);
+		assertTrue(inMemoryURIHandler.getInMemoryFile(generatedA).isExists());
+
+		operator_minus("src/A.indextestlanguage", "foo { entity B {} }");
+		build(newPipelinedBuildRequest(Collections.singletonList(source)));
+		assertEquals(Collections.singletonList(generatedA), deleted);
+		assertFalse(inMemoryURIHandler.getInMemoryFile(generatedA).isExists());
+		URI generatedB = indexState.getFileMappings().getGenerated(source).get(0);
+		assertEquals("Hello B!" + System.lineSeparator(), contents(generatedB));
+	}
+
+	@Test
+	public void testReadPendingWrite() throws IOException {
+		URIConverter converter = new ExtensibleURIConverterImpl();
+		converter.getURIHandlers().add(0, inMemoryURIHandler);
+		URI uri = uri("pending.txt");
+		try (GeneratedFileWriter writer = new GeneratedFileWriter()) {
+			URIConverter wrapped = writer.wrap(converter);
+			try (OutputStream out = wrapped.createOutputStream(uri)) {
+				out.write("first".getBytes(StandardCharsets.UTF_8));
+			}
+			assertTrue(wrapped.exists(uri, Collections.emptyMap()));
+			try (InputStream in = wrapped.createInputStream(uri)) {
+				assertEquals("first", new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+			}
+			try (OutputStream out = wrapped.createOutputStream(uri)) {
+				out.write("second".getBytes(StandardCharsets.UTF_8));
+			}
+			wrapped.delete(uri, Collections.emptyMap());
+			assertFalse(wrapped.exists(uri, Collections.emptyMap()));
+		}
+	}
+
+	@Test
+	public void testFailedWriteIsReported() throws IOException {
+		URIConverter converter = new ExtensibleURIConverterImpl() {
+			@Override
+			public OutputStream createOutputStream(URI uri, Map<?, ?> options) throws IOException {
+				throw new IOException("disk full");
+			}
+		};
+		GeneratedFileWriter writer = new GeneratedFileWriter();
+		try (OutputStream out = writer.wrap(converter).createOutputStream(uri("failing.txt"))) {
+			out.write(1);
+		}
+		try {
+			writer.close();
+			fail("expected failure");
+		} catch (RuntimeIOException e) {
+			assertEquals("disk full", e.getCause().getMessage());
+		}
+	}
+
+	@Test
+	public void testSchedulingBlocksWhenCapacityIsExhausted() throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		URIConverter converter = new ExtensibleURIConverterImpl() {
+			@Override
+			public OutputStream createOutputStream(URI uri, Map<?, ?> options) throws IOException {
+				writing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				return inMemoryURIHandler.createOutputStream(uri, options);
+			}
+		};
+		CountDownLatch scheduled = new CountDownLatch(3);
+		try (GeneratedFileWriter writer = new GeneratedFileWriter(1)) {
+			URIConverter wrapped = writer.wrap(converter);
+			Thread producer = new Thread(() -> {
+				for (int i = 0; i < 3; i++) {
+					try (OutputStream out = wrapped.createOutputStream(uri("file" + i + ".txt"))) {
+						out.write(i);
+					} catch (IOException e) {
+						throw new RuntimeIOException(e);
+					}
+					scheduled.countDown();
+				}
+			});
+			producer.start();
+			assertTrue(writing.await(10, TimeUnit.SECONDS));
+			// the first file is still being written, so the producer blocks on the second one
+			assertFalse(scheduled.await(200, TimeUnit.MILLISECONDS));
+			assertEquals(2, scheduled.getCount());
+			release.countDown();
+			assertTrue(scheduled.await(10, TimeUnit.SECONDS));
+			producer.join();
+		}
+		for (int i = 0; i < 3; i++) {
+			assertTrue(inMemoryURIHandler.getInMemoryFile(uri("file" + i + ".txt")).isExists());
+		}
+	}
+
+	private String contents(URI uri) {
+		return new String(inMemoryURIHandler.getInMemoryFile(uri).getContents(), StandardCharsets.UTF_8);
+	}
+
+	private BuildRequest newPipelinedBuildRequest(List<URI> dirtyFiles) {
+		return newBuildRequest(request -> {
+			request.setDirtyFiles(dirtyFiles);
+			request.setPipelinedGeneration(true);
+		});
+	}
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.build;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.index.IndexTestLanguageInjectorProvider;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.eclipse.xtext.testing.builder.AbstractIncrementalBuilderTest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Inject;
+
+/**
+ * Tests that dirty files with an unchanged content fingerprint are skipped by the {@link IncrementalBuilder}.
+ */
+@RunWith(XtextRunner.class)
+@InjectWith(IndexTestLanguageInjectorProvider.class)
+public class SkipUnchangedFilesTest extends AbstractIncrementalBuilderTest {
+
+	@Inject
+	private IResourceServiceProvider.Registry resourceServiceProviderFactory;
+
+	@Override
+	protected IResourceServiceProvider.Registry getLanguages() {
+		return resourceServiceProviderFactory;
+	}
+
+	@Test
+	public void testUnchangedFilesAreSkipped() {
+		URI a = operator_minus("src/A.indextestlanguage", "foo { entity A {} }");
+		URI b = operator_minus("src/B.indextestlanguage", "foo { entity B { foo.A reference } }");
+		build(newRequest(true, a, b));
+		assertEquals(2, generated.size());
+		assertNotNull(indexState.getFileMappings().getFingerprint(a));
+
+		clean();
+		IncrementalBuilder.Result result = incrementalBuilder.build(newRequest(true, a, b),
+				it -> getLanguages().getResourceServiceProvider(it));
+		assertTrue(result.getAffectedResources().isEmpty());
+		assertTrue(generated.isEmpty());
+		assertNotNull(result.getIndexState().getResourceDescriptions().getResourceDescription(a));
+	}
+
+	@Test
+	public void testChangedFilesAreBuilt() {
+		URI a = operator_minus("src/A.indextestlanguage", "foo { entity A {} }");
+		URI b = operator_minus("src/B.indextestlanguage", "foo { entity B { foo.A reference } }");
+		build(newRequest(true, a, b));
+		String fingerprint = indexState.getFileMappings().getFingerprint(a);
+
+		operator_minus("src/A.indextestlanguage", "foo { entity X {} }");
+		build(newRequest(true, a, b));
+		assertEquals(1, generated.size());
+		assertTrue(generated.containsKey(a));
+		assertEquals(issues.toString(), 1, issues.size());
+		assertNotEquals(fingerprint, indexState.getFileMappings().getFingerprint(a));
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		URI a = operator_minus("src/A.indextestlanguage", "foo { entity A {} }");
+		build(newRequest(false, a));
+		assertNull(indexState.getFileMappings().getFingerprint(a));
+
+		build(newRequest(false, a));
+		assertEquals(1, generated.size());
+	}
+
+	@Test
+	public void testRecordedFingerprintsAreUpdated() {
+		URI a = operator_minus("src/A.indextestlanguage", "foo { entity A {} }");
+		build(newRequest(true, a));
+		String fingerprint = indexState.getFileMappings().getFingerprint(a);
+
+		operator_minus("src/A.indextestlanguage", "foo { entity X {} }");
+		build(newRequest(false, a));
+		assertNotNull(indexState.getFileMappings().getFingerprint(a));
+		assertNotEquals(fingerprint, indexState.getFileMappings().getFingerprint(a));
+	}
+
+	@Test
+	public void testDeletedFiles() {
+		URI a = operator_minus("src/A.indextestlanguage", "foo { entity A {} }");
+		build(newRequest(true, a));
+		build(newBuildRequest(request -> {
+			request.setDeletedFiles(Collections.singletonList(delete(a)));
+			request.setSkipUnchangedFiles(true);
+		}));
+		assertNull(indexState.getFileMappings().getFingerprint(a));
+
+		operator_minus("src/A.indextestlanguage", "foo { entity A {} }");
+		IncrementalBuilder.Result result = incrementalBuilder.build(newRequest(true, a),
+				it -> getLanguages().getResourceServiceProvider(it));
+		List<IResourceDescription.Delta> deltas = result.getAffectedResources();
+		assertEquals(1, deltas.size());
+		assertEquals(a, deltas.get(0).getUri());
+	}
+
+	private BuildRequest newRequest(boolean skipUnchangedFiles, URI... dirtyFiles) {
+		return newBuildRequest(request -> {
+			request.setDirtyFiles(Arrays.asList(dirtyFiles));
+			request.setSkipUnchangedFiles(skipUnchangedFiles);
+		});
+	}
+}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.build;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.linking.LangATestLanguageStandaloneSetup;
+import org.eclipse.xtext.linking.langATestLanguage.Main;
+import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.clustering.DisabledClusteringPolicy;
+import org.eclipse.xtext.resource.clustering.IResourceClusteringPolicy;
+import org.eclipse.xtext.resource.persistence.SourceLevelURIsAdapter;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.testing.util.InMemoryURIHandler;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.junit.Test;
+
+/**
+ * Tests for the storage prefetching of the {@link ClusteringStorageAwareResourceLoader}.
+ */
+public class StoragePrefetchingTest extends AbstractXtextTests {
+
+	private InMemoryURIHandler uriHandler;
+
+	private List<URI> uris;
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(new LangATestLanguageStandaloneSetup());
+		uriHandler = new InMemoryURIHandler();
+		uris = new ArrayList<>();
+		XtextResourceSet resourceSet = createResourceSet();
+		for (int i = 0; i < 10; i++) {
+			URI uri = URI.createURI(InMemoryURIHandler.SCHEME + ":/File" + i + ".langatestlanguage");
+			StorageAwareResource resource = (StorageAwareResource) resourceSet.createResource(uri);
+			resource.load(getAsStream("type T" + i), null);
+			try (OutputStream out = resourceSet.getURIConverter().createOutputStream(uri)) {
+				out.write(("type S" + i).getBytes(StandardCharsets.UTF_8));
+			}
+			URI storageURI = uri.trimSegments(1).appendSegment("." + uri.lastSegment() + "bin");
+			try (OutputStream out = resourceSet.getURIConverter().createOutputStream(storageURI)) {
+				resource.getResourceStorageFacade().createResourceStorageWritable(out).writeResource(resource);
+			}
+			uris.add(uri);
+		}
+	}
+
+	@Test
+	public void testPrefetchedResourcesAreAddedInOrder() throws Exception {
+		XtextResourceSet resourceSet = createResourceSet();
+		List<Resource> processed = execute(resourceSet, new DisabledClusteringPolicy(), 3, it -> it);
+		assertEquals(uris.size(), processed.size());
+		for (int i = 0; i < uris.size(); i++) {
+			StorageAwareResource resource = (StorageAwareResource) processed.get(i);
+			assertEquals(uris.get(i), resource.getURI());
+			assertSame(resourceSet, resource.getResourceSet());
+			assertSame(resource, resourceSet.getResources().get(i));
+			assertTrue(resource.isLoadedFromStorage());
+			assertEquals("T" + i, ((Main) resource.getContents().get(0)).getTypes().get(0).getName());
+		}
+	}
+
+	@Test
+	public void testPrefetchingObeysClusteringPolicy() throws Exception {
+		XtextResourceSet resourceSet = createResourceSet();
+		IResourceClusteringPolicy policy = (ignore, next, alreadyProcessed) -> alreadyProcessed < 4;
+		List<String> names = new ArrayList<>();
+		execute(resourceSet, policy, 6, it -> {
+			assertTrue(resourceSet.getResources().size() <= 4);
+			names.add(((Main) it.getContents().get(0)).getTypes().get(0).getName());
+			return it;
+		});
+		assertEquals(uris.size(), names.size());
+		for (int i = 0; i < uris.size(); i++) {
+			assertEquals("T" + i, names.get(i));
+		}
+		assertEquals(2, resourceSet.getResources().size());
+	}
+
+	@Test
+	public void testExistingResourcesAreNotReplaced() throws Exception {
+		XtextResourceSet resourceSet = createResourceSet();
+		Resource existing = resourceSet.getResource(uris.get(2), true);
+		List<Resource> processed = execute(resourceSet, new DisabledClusteringPolicy(), 4, it -> it);
+		assertSame(existing, processed.get(2));
+		assertEquals(uris.size(), resourceSet.getResources().size());
+	}
+
+	@Test
+	public void testSourceLevelURIsAreNotPrefetched() throws Exception {
+		XtextResourceSet resourceSet = createResourceSet();
+		Set<URI> sources = new HashSet<>();
+		for (int i = 0; i < uris.size(); i += 2) {
+			sources.add(uris.get(i));
+		}
+		List<Resource> processed = execute(resourceSet, new DisabledClusteringPolicy(), 3, null, sources::contains,
+				it -> it);
+		assertEquals(uris.size(), processed.size());
+		for (int i = 0; i < uris.size(); i++) {
+			StorageAwareResource resource = (StorageAwareResource) processed.get(i);
+			boolean source = i % 2 == 0;
+			assertEquals(!source, resource.isLoadedFromStorage());
+			assertEquals((source ? "S" : "T") + i, ((Main) resource.getContents().get(0)).getTypes().get(0).getName());
+		}
+		assertEquals(sources, SourceLevelURIsAdapter.findInstalledAdapter(resourceSet).getSourceLevelURIs());
+	}
+
+	@Test
+	public void testExecutorOfContextIsUsed() throws Exception {
+		XtextResourceSet resourceSet = createResourceSet();
+		ExecutorService delegate = Executors.newCachedThreadPool();
+		AtomicInteger executed = new AtomicInteger();
+		ExecutorService executor = new AbstractExecutorService() {
+			@Override
+			public void execute(Runnable command) {
+				executed.incrementAndGet();
+				delegate.execute(command);
+			}
+
+			@Override
+			public void shutdown() {
+				delegate.shutdown();
+			}
+
+			@Override
+			public List<Runnable> shutdownNow() {
+				return delegate.shutdownNow();
+			}
+
+			@Override
+			public boolean isShutdown() {
+				return delegate.isShutdown();
+			}
+
+			@Override
+			public boolean isTerminated() {
+				return delegate.isTerminated();
+			}
+
+			@Override
+			public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+				return delegate.awaitTermination(timeout, unit);
+			}
+		};
+		try {
+			List<Resource> processed = execute(resourceSet, new DisabledClusteringPolicy(), 3, executor, uri -> false,
+					it -> it);
+			assertEquals(uris.size(), processed.size());
+			assertEquals(uris.size(), executed.get());
+			assertFalse(executor.isShutdown());
+		} finally {
+			delegate.shutdown();
+		}
+	}
+
+	private List<Resource> execute(XtextResourceSet resourceSet, IResourceClusteringPolicy policy, int prefetchCount,
+			Function1<? super Resource, ? extends Resource> operation) {
+		return execute(resourceSet, policy, prefetchCount, null, uri -> false, operation);
+	}
+
+	private List<Resource> execute(XtextResourceSet resourceSet, IResourceClusteringPolicy policy, int prefetchCount,
+			ExecutorService executor, Predicate<URI> isSource, Function1<? super Resource, ? extends Resource> operation) {
+		IResourceServiceProvider resourceServiceProvider = get(IResourceServiceProvider.class);
+		BuildContext context = new BuildContext(it -> resourceServiceProvider, resourceSet, new IndexState(), policy,
+				CancelIndicator.NullImpl);
+		context.setStoragePrefetchCount(prefetchCount);
+		context.setExecutorService(executor);
+		ClusteringStorageAwareResourceLoader loader = new ClusteringStorageAwareResourceLoader(context) {
+			@Override
+			protected boolean isSource(URI uri) {
+				return isSource.test(uri);
+			}
+		};
+		List<Resource> result = new ArrayList<>();
+		loader.executeClustered(uris, operation).forEach(result::add);
+		return result;
+	}
+
+	private XtextResourceSet createResourceSet() {
+		XtextResourceSet result = get(XtextResourceSet.class);
+		result.getURIConverter().getURIHandlers().add(0, uriHandler);
+		SourceLevelURIsAdapter.setSourceLevelUris(result, Collections.emptyList());
+		return result;
+	}
+}
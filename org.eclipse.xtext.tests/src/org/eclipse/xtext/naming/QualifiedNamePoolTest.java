@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.naming;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl.EObjectInputStream;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl.EObjectOutputStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QualifiedNamePoolTest extends Assert {
+
+	@After
+	public void tearDown() {
+		QualifiedNamePool.setDefault(null);
+	}
+
+	@Test
+	public void testIntern() {
+		QualifiedNamePool pool = new QualifiedNamePool();
+		QualifiedName first = QualifiedName.create("a", "B");
+		QualifiedName second = QualifiedName.create(new String("a"), new String("B"));
+		assertSame(first, pool.intern(first));
+		assertSame(first, pool.intern(second));
+		assertSame(QualifiedName.EMPTY, pool.intern(QualifiedName.create()));
+		assertEquals(2, pool.getRequestCount());
+		assertEquals(1, pool.getHitCount());
+		assertEquals(0.5, pool.getHitRatio(), 0);
+	}
+
+	@Test
+	public void testSharedLowerCase() {
+		QualifiedNamePool pool = new QualifiedNamePool();
+		QualifiedName mixedCase = pool.intern(QualifiedName.create("Foo", "Bar"));
+		QualifiedName upperCase = pool.intern(QualifiedName.create("FOO", "BAR"));
+		assertNotSame(mixedCase, upperCase);
+		assertSame(mixedCase.toLowerCase(), upperCase.toLowerCase());
+		assertSame(mixedCase.toLowerCase(), pool.intern(upperCase.toLowerCase()));
+		QualifiedName lowerCase = pool.intern(QualifiedName.create("foo", "bar"));
+		assertNotSame(mixedCase.toLowerCase(), lowerCase);
+		assertSame(lowerCase.getFirstSegment(), mixedCase.toLowerCase().getFirstSegment());
+		assertEquals(4, pool.size());
+	}
+
+	@Test
+	public void testSharedSegments() {
+		QualifiedNamePool pool = new QualifiedNamePool();
+		QualifiedName first = pool.intern(QualifiedName.create("pkg", "A"));
+		QualifiedName second = pool.intern(QualifiedName.create(new String("pkg"), "B"));
+		assertSame(first.getFirstSegment(), second.getFirstSegment());
+	}
+
+	@Test
+	public void testDefaultPool() throws IOException {
+		assertNull(QualifiedNamePool.getDefault());
+		QualifiedName name = QualifiedName.create("a", "b");
+		assertSame(name, QualifiedNamePool.canonicalize(name));
+
+		QualifiedNamePool pool = new QualifiedNamePool();
+		QualifiedNamePool.setDefault(pool);
+		QualifiedName converted = new IQualifiedNameConverter.DefaultImpl().toQualifiedName("A.B");
+		assertSame(converted, new IQualifiedNameConverter.DefaultImpl().toQualifiedName("A.B"));
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		EObjectOutputStream out = new BinaryResourceImpl.EObjectOutputStream(bos, Collections.emptyMap());
+		converted.writeToStream(out);
+		converted.toLowerCase().writeToStream(out);
+		out.flush();
+		EObjectInputStream in = new BinaryResourceImpl.EObjectInputStream(new ByteArrayInputStream(bos.toByteArray()),
+				Collections.emptyMap());
+		assertSame(converted, QualifiedName.createFromStream(in));
+		assertSame(converted.toLowerCase(), QualifiedName.createFromStream(in));
+		assertEquals(3, pool.getHitCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidStripes() {
+		new QualifiedNamePool(3);
+	}
+}
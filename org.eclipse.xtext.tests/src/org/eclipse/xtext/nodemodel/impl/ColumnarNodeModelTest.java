@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.nodemodel.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.index.IndexTestLanguageStandaloneSetup;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.serialization.DeserializationConversionContext;
+import org.eclipse.xtext.nodemodel.serialization.SerializationConversionContext;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.util.StringInputStream;
+import org.junit.Test;
+
+public class ColumnarNodeModelTest extends AbstractXtextTests {
+
+	private static final String MODEL = "foo.bar {\n" //
+			+ "  // a comment\n" //
+			+ "  entity A { foo.bar.B b foo.bar.C c }\n" //
+			+ "  entity B {}\n" //
+			+ "  datatype C\n" //
+			+ "  import foo.baz.*\n" //
+			+ "}\n";
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(new IndexTestLanguageStandaloneSetup());
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		assertRoundTrip(MODEL, true);
+	}
+
+	@Test
+	public void testRoundTripWithSyntaxErrors() throws Exception {
+		assertRoundTrip("foo.bar { entity A { foo. } entity }", true);
+	}
+
+	@Test
+	public void testLegacyFormat() throws Exception {
+		assertRoundTrip(MODEL, false);
+	}
+
+	@Test
+	public void testChildrenAreCreatedLazily() throws Exception {
+		RootNode root = readNodeModel(MODEL, true);
+		CompositeNode qualifiedName = null;
+		for (AbstractNode node = root; node != null; node = nextEagerNode(node)) {
+			if (node instanceof CompositeNode && ((CompositeNode) node).basicGetPendingChildren() != null) {
+				qualifiedName = (CompositeNode) node;
+				break;
+			}
+		}
+		assertNotNull("No composite node with pending children", qualifiedName);
+		assertEquals("foo.bar", qualifiedName.getText());
+		assertNotNull(qualifiedName.basicGetPendingChildren());
+		assertTrue(qualifiedName.hasChildren());
+		assertEquals("foo", qualifiedName.getFirstChild().getText());
+		assertNull(qualifiedName.basicGetPendingChildren());
+		assertEquals("foo.bar".length(), qualifiedName.getTotalLength());
+	}
+
+	private AbstractNode nextEagerNode(AbstractNode node) {
+		if (node instanceof CompositeNode) {
+			CompositeNode composite = (CompositeNode) node;
+			if (composite.basicGetPendingChildren() == null && composite.basicGetFirstChild() != null) {
+				return composite.basicGetFirstChild();
+			}
+		}
+		while (node != null && !node.basicHasNextSibling()) {
+			node = node.basicGetParent();
+		}
+		return node != null ? node.basicGetNextSibling() : null;
+	}
+
+	private void assertRoundTrip(String model, boolean columnar) throws Exception {
+		XtextResource expected = getResourceFromStringAndExpect(model, UNKNOWN_EXPECTATION);
+		assertEqualNodeModels(expected.getParseResult().getRootNode(), readNodeModel(model, columnar));
+	}
+
+	@Test
+	public void testCompact() throws Exception {
+		XtextResource expected = getResourceFromString(MODEL);
+		XtextResource compacted = getResourceFromString(MODEL);
+		RootNode root = (RootNode) compacted.getParseResult().getRootNode();
+		new NodeModelBuilder().compact(root);
+		assertTrue(hasPendingChildren(root));
+		for (EObject object : compacted.getContents()) {
+			assertSame(root, NodeModelUtils.getNode(object));
+		}
+		assertEqualNodeModels(expected.getParseResult().getRootNode(), root);
+		assertFalse(hasPendingChildren(root));
+	}
+
+	@Test
+	public void testFindLeafNodeAtOffsetKeepsPendingChildren() throws Exception {
+		XtextResource compacted = getResourceFromString(MODEL);
+		RootNode root = (RootNode) compacted.getParseResult().getRootNode();
+		new NodeModelBuilder().compact(root);
+		List<CompositeNode> pending = new ArrayList<>();
+		for (AbstractNode node = root; node != null; node = nextEagerNode(node)) {
+			if (node instanceof CompositeNode && ((CompositeNode) node).basicGetPendingChildren() != null) {
+				pending.add((CompositeNode) node);
+			}
+		}
+		assertTrue(pending.size() > 1);
+
+		int offset = MODEL.indexOf("bar");
+		assertEquals("bar", NodeModelUtils.findLeafNodeAtOffset(root, offset).getText());
+		for (CompositeNode node : pending) {
+			if (node.getTotalOffset() <= offset && offset < node.getTotalEndOffset()) {
+				assertNull(node.getText(), node.basicGetPendingChildren());
+			} else {
+				assertNotNull(node.getText(), node.basicGetPendingChildren());
+			}
+		}
+	}
+
+	@Test
+	public void testCompactOnLoad() throws Exception {
+		XtextResource resource = getResource(MODEL, "compacted.indextestlanguage",
+				Collections.singletonMap(XtextResource.OPTION_COMPACT_NODE_MODEL, Boolean.TRUE));
+		assertTrue(hasPendingChildren((RootNode) resource.getParseResult().getRootNode()));
+		assertEqualNodeModels(getResourceFromString(MODEL).getParseResult().getRootNode(),
+				resource.getParseResult().getRootNode());
+
+		resource = getResource(MODEL, "reparsed.indextestlanguage",
+				Collections.singletonMap(XtextResource.OPTION_COMPACT_NODE_MODEL, Boolean.TRUE));
+		int offset = MODEL.indexOf("foo.bar.C");
+		resource.update(offset, "foo.bar".length(), "foo.baz");
+		String changed = MODEL.substring(0, offset) + "foo.baz" + MODEL.substring(offset + "foo.bar".length());
+		assertEqualNodeModels(getResourceFromStringAndExpect(changed, 1).getParseResult().getRootNode(),
+				resource.getParseResult().getRootNode());
+	}
+
+	private XtextResource getResource(String model, String uri, Map<?, ?> options) throws Exception {
+		XtextResourceSet resourceSet = get(XtextResourceSet.class);
+		XtextResource resource = (XtextResource) resourceSet.createResource(URI.createURI(uri));
+		resource.load(new StringInputStream(model), options);
+		return resource;
+	}
+
+	private boolean hasPendingChildren(RootNode root) {
+		for (AbstractNode node = root; node != null; node = nextEagerNode(node)) {
+			if (node instanceof CompositeNode && ((CompositeNode) node).basicGetPendingChildren() != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void assertEqualNodeModels(ICompositeNode expected, ICompositeNode actual) {
+		Iterator<INode> expectedNodes = expected.getAsTreeIterable().iterator();
+		Iterator<INode> actualNodes = actual.getAsTreeIterable().iterator();
+		while (expectedNodes.hasNext()) {
+			assertTrue(actualNodes.hasNext());
+			INode expectedNode = expectedNodes.next();
+			INode actualNode = actualNodes.next();
+			assertEquals(expectedNode.getClass(), actualNode.getClass());
+			assertSame(expectedNode.getGrammarElement(), actualNode.getGrammarElement());
+			assertEquals(expectedNode.getTotalOffset(), actualNode.getTotalOffset());
+			assertEquals(expectedNode.getTotalLength(), actualNode.getTotalLength());
+			assertEquals(expectedNode.getText(), actualNode.getText());
+			assertEquals(String.valueOf(expectedNode.getSyntaxErrorMessage()),
+					String.valueOf(actualNode.getSyntaxErrorMessage()));
+			if (expectedNode instanceof ICompositeNode) {
+				assertEquals(((ICompositeNode) expectedNode).getLookAhead(),
+						((ICompositeNode) actualNode).getLookAhead());
+			}
+			assertEquals(getFragment(expectedNode.getSemanticElement()), getFragment(actualNode.getSemanticElement()));
+		}
+		assertFalse(actualNodes.hasNext());
+	}
+
+	private String getFragment(EObject object) {
+		return object != null ? EcoreUtil.getURI(object).fragment() : null;
+	}
+
+	/**
+	 * Writes the node model of the given model and reads it into a fresh resource whose node model was discarded.
+	 */
+	private RootNode readNodeModel(String model, boolean columnar) throws Exception {
+		XtextResource written = getResourceFromStringAndExpect(model, UNKNOWN_EXPECTATION);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		SerializableNodeModel nodeModel = new SerializableNodeModel(written);
+		if (columnar) {
+			nodeModel.writeColumnarObjectData(out, new SerializationConversionContext(written));
+		} else {
+			nodeModel.writeObjectData(out, new SerializationConversionContext(written));
+		}
+		out.flush();
+
+		XtextResource read = getResourceFromStringAndExpect(model, UNKNOWN_EXPECTATION);
+		read.getAllContents().forEachRemaining(it -> it.eAdapters().removeIf(ICompositeNode.class::isInstance));
+		SerializableNodeModel result = new SerializableNodeModel();
+		result.readObjectData(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+				new DeserializationConversionContext(read, model));
+		for (EObject object : read.getContents()) {
+			assertSame(result.root, NodeModelUtils.getNode(object));
+		}
+		return result.root;
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnsupportedVersion() throws Exception {
+		XtextResource resource = getResourceFromString(MODEL);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bytes.write(ColumnarNodeModel.MAGIC);
+		bytes.write(ColumnarNodeModel.VERSION + 1);
+		ColumnarNodeModel.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+				new DeserializationConversionContext(resource, MODEL));
+	}
+}
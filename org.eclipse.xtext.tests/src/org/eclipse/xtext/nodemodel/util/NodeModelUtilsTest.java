@@ -26,7 +26,10 @@ import org.eclipse.xtext.XtextStandaloneSetup;
 import org.eclipse.xtext.nodemodel.ICompositeNode;
 import org.eclipse.xtext.nodemodel.ILeafNode;
 import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.SyntaxErrorMessage;
+import org.eclipse.xtext.nodemodel.impl.NodeModelBuilder;
 import org.eclipse.xtext.nodemodel.impl.SyntheticCompositeNode;
+import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.tests.AbstractXtextTests;
 import org.junit.Test;
 
@@ -296,4 +299,49 @@ public class NodeModelUtilsTest extends AbstractXtextTests {
 		}
 		assertTrue(syntheticNodeSeen);
 	}
+	
+	@Test public void testFindLeafNodeAtOffset() throws Exception {
+		String grammarString = "grammar foo.Bar with org.eclipse.xtext.common.Terminals generate foo 'bar'\n"
+				+ "/* comment */ Model: name=ID (values+=Value)*; Value: 'v' value=INT;";
+		XtextResource resource = getResourceFromString(grammarString);
+		assertLeafNodesAtOffsets(resource.getParseResult().getRootNode());
+		
+		int offset = grammarString.indexOf("value=INT");
+		resource.update(offset, "value".length(), "other");
+		ICompositeNode rootNode = resource.getParseResult().getRootNode();
+		assertEquals("other", NodeModelUtils.findLeafNodeAtOffset(rootNode, offset).getText());
+		assertLeafNodesAtOffsets(rootNode);
+	}
+	
+	@Test public void testFindLeafNodeAtOffsetAfterSyntaxError() throws Exception {
+		String grammarString = "grammar foo.Bar with org.eclipse.xtext.common.Terminals generate foo 'bar'\n"
+				+ "Model: name=ID (values+=Value)*; Value: 'v' value=INT;";
+		XtextResource resource = getResourceFromString(grammarString);
+		ICompositeNode rootNode = resource.getParseResult().getRootNode();
+		int offset = grammarString.indexOf("value=INT");
+		ILeafNode leafNode = NodeModelUtils.findLeafNodeAtOffset(rootNode, offset);
+		
+		NodeModelBuilder builder = new NodeModelBuilder();
+		INode replacedLeaf = builder.setSyntaxError(leafNode, new SyntaxErrorMessage("leaf", null));
+		assertNotSame(leafNode, replacedLeaf);
+		assertSame(replacedLeaf, NodeModelUtils.findLeafNodeAtOffset(rootNode, offset));
+		
+		INode replacedComposite = builder.setSyntaxError(replacedLeaf.getParent(), new SyntaxErrorMessage("composite", null));
+		assertSame(replacedComposite, NodeModelUtils.findLeafNodeAtOffset(rootNode, offset).getParent());
+		assertLeafNodesAtOffsets(rootNode);
+	}
+	
+	private void assertLeafNodesAtOffsets(ICompositeNode rootNode) {
+		for (ILeafNode leafNode : rootNode.getLeafNodes()) {
+			for (int offset = leafNode.getTotalOffset(); offset < leafNode.getTotalEndOffset(); offset++) {
+				assertSame(leafNode, NodeModelUtils.findLeafNodeAtOffset(rootNode, offset));
+				for (INode parent = leafNode.getParent(); parent != null; parent = parent.getParent()) {
+					assertSame(leafNode, NodeModelUtils.findLeafNodeAtOffset(parent, offset));
+				}
+			}
+		}
+		assertNull(NodeModelUtils.findLeafNodeAtOffset(rootNode, rootNode.getTotalLength()));
+		ILeafNode first = rootNode.getLeafNodes().iterator().next();
+		assertNull(NodeModelUtils.findLeafNodeAtOffset(first, first.getTotalEndOffset()));
+	}
 }
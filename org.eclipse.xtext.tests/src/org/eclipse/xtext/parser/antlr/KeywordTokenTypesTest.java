@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.parser.antlr;
+
+import org.antlr.runtime.Token;
+import org.eclipse.xtext.parser.antlr.parser.antlr.internal.InternalBug289524TestLanguageParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KeywordTokenTypesTest extends Assert {
+
+	private static final String[] TOKEN_NAMES = { "<invalid>", "<EOR>", "<DOWN>", "<UP>", "RULE_ID", "'a'", "'\\\\b'",
+			"'''" };
+
+	@Test
+	public void testKeywords() {
+		assertEquals(5, KeywordTokenTypes.get(TOKEN_NAMES, "'a'"));
+		assertEquals(6, KeywordTokenTypes.get(TOKEN_NAMES, "'\\\\b'"));
+		assertEquals(7, KeywordTokenTypes.get(TOKEN_NAMES, "'''"));
+	}
+
+	@Test
+	public void testUnknownTokens() {
+		assertEquals(Token.INVALID_TOKEN_TYPE, KeywordTokenTypes.get(TOKEN_NAMES, "'b'"));
+		assertEquals(Token.INVALID_TOKEN_TYPE, KeywordTokenTypes.get(TOKEN_NAMES, "RULE_ID"));
+		assertEquals(Token.INVALID_TOKEN_TYPE, KeywordTokenTypes.get(TOKEN_NAMES, "<EOR>"));
+	}
+
+	@Test
+	public void testGeneratedParser() {
+		String[] tokenNames = InternalBug289524TestLanguageParser.tokenNames;
+		for (int i = Token.MIN_TOKEN_TYPE; i < tokenNames.length; i++) {
+			if (tokenNames[i].startsWith("'")) {
+				assertEquals(tokenNames[i], i, KeywordTokenTypes.get(tokenNames, tokenNames[i]));
+			}
+		}
+	}
+}
@@ -12,9 +12,13 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.xtext.linking.impl.XtextLinkingDiagnostic;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
 import org.eclipse.xtext.parser.IParseResult;
 import org.eclipse.xtext.parser.antlr.IReferableElementsUnloader;
 import org.eclipse.xtext.testlanguages.ReferenceGrammarTestLanguageStandaloneSetup;
+import org.eclipse.xtext.testlanguages.referenceGrammar.Kind;
+import org.eclipse.xtext.testlanguages.referenceGrammar.Spielplatz;
 import org.eclipse.xtext.tests.AbstractXtextTests;
 import org.eclipse.xtext.util.Wrapper;
 import org.junit.Test;
@@ -141,4 +145,54 @@ public class XtextResourceTest extends AbstractXtextTests {
 		assertEquals(1, diag.getLength());
 	}
 
+	@Test public void testEvictNodeModel() throws Exception {
+		String model = "spielplatz 1 {kind(B 1) kind(C 2) erwachsener(E 1) familie(F E E B, C)}";
+		resource.update(0, 0, model);
+		Spielplatz spielplatz = (Spielplatz) resource.getContents().get(0);
+		Kind kind = spielplatz.getKinder().get(1);
+		resource.evictNodeModel();
+		assertTrue(resource.isNodeModelEvicted());
+		assertTrue(Iterables.isEmpty(Iterables.filter(kind.eAdapters(), ICompositeNode.class)));
+
+		assertSame(kind, spielplatz.getFamilie().get(0).getKinder().get(1));
+		ICompositeNode node = NodeModelUtils.getNode(kind);
+		assertFalse(resource.isNodeModelEvicted());
+		assertEquals("kind(C 2)", node.getText().trim());
+		assertSame(kind, node.getSemanticElement());
+		assertSame(spielplatz, resource.getParseResult().getRootASTElement());
+		assertSame(spielplatz, resource.getParseResult().getRootNode().getSemanticElement());
+		assertEquals(model, resource.getParseResult().getRootNode().getText());
+	}
+
+	@Test public void testEvictNodeModelAndUpdate() throws Exception {
+		resource.update(0, 0, simpleModel);
+		resource.evictNodeModel();
+		resource.update(simpleModel.indexOf("Bob"), 3, "Joe");
+		assertFalse(resource.isNodeModelEvicted());
+		Spielplatz spielplatz = (Spielplatz) resource.getContents().get(0);
+		assertEquals("Joe", spielplatz.getKinder().get(0).getName());
+	}
+
+	@Test
+	public void testRestoreModifiedModel() throws Exception {
+		resource.update(0, 0, simpleModel);
+		resource.evictNodeModel();
+		Spielplatz spielplatz = (Spielplatz) resource.getContents().get(0);
+		spielplatz.getKinder().clear();
+		assertNotNull(resource.getParseResult());
+		assertSame(spielplatz, resource.getParseResult().getRootASTElement());
+		assertNull(NodeModelUtils.getNode(spielplatz));
+	}
+
+	@Test
+	public void testRestoreModelWithMovedObjects() throws Exception {
+		String model = "spielplatz 1 {kind(B 1) kind(C 2)}";
+		resource.update(0, 0, model);
+		Spielplatz spielplatz = (Spielplatz) resource.getContents().get(0);
+		resource.evictNodeModel();
+		spielplatz.getKinder().move(0, 1);
+		assertNull(NodeModelUtils.getNode(spielplatz.getKinder().get(0)));
+		assertFalse(resource.isNodeModelEvicted());
+	}
+
 }
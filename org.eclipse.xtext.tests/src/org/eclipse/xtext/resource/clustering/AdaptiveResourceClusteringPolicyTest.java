@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.resource.clustering;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.xtext.build.BuildMetrics;
+import org.eclipse.xtext.build.IBuildInstrumentation;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link AdaptiveResourceClusteringPolicy} with a simulated heap.
+ */
+public class AdaptiveResourceClusteringPolicyTest {
+
+	private static final long MB = 1 << 20;
+
+	private static class FakeMemoryMonitor extends AdaptiveResourceClusteringPolicy.MemoryMonitor {
+		private long collectionCount;
+
+		private long liveBytes = -1;
+
+		private int poolUsagePercent = -1;
+
+		@Override
+		public long getCollectionCount() {
+			return collectionCount;
+		}
+
+		@Override
+		public int getPoolUsagePercent() {
+			return poolUsagePercent;
+		}
+
+		@Override
+		public long getLiveBytes() {
+			return liveBytes;
+		}
+
+		void collect(long live) {
+			liveBytes = live;
+			poolUsagePercent = (int) (live / 10 / MB);
+			collectionCount++;
+		}
+
+		/**
+		 * A collection that leaves a heap pool above the default high watermark.
+		 */
+		void exceed(int percent) {
+			poolUsagePercent = percent;
+			collectionCount++;
+		}
+	}
+
+	private FakeMemoryMonitor monitor = new FakeMemoryMonitor();
+
+	private AdaptiveResourceClusteringPolicy policy;
+
+	private ResourceSet resourceSet = new ResourceSetImpl();
+
+	private int processed;
+
+	@Before
+	public void setUp() {
+		policy = new AdaptiveResourceClusteringPolicy() {
+			@Override
+			protected MemoryMonitor createMonitor() {
+				return monitor;
+			}
+
+			@Override
+			protected long getMaxBytes() {
+				return 1000 * MB;
+			}
+		};
+		policy.setMinimumClusterSize(2);
+	}
+
+	@Test
+	public void testFlushesWhenProjectedHeapExceedsHighWatermark() {
+		load(2);
+		monitor.collect(100 * MB);
+		load(10);
+		// 10 resources take 100MB
+		monitor.collect(200 * MB);
+		assertTrue(loadNext());
+		assertEquals(10 * MB, policy.getEstimatedResourceSize());
+		// 750MB are exceeded with 68 loaded resources
+		int flushedAt = 0;
+		while (flushedAt == 0) {
+			if (!loadNext()) {
+				flushedAt = resourceSet.getResources().size();
+			}
+		}
+		assertEquals(68, flushedAt);
+		assertEquals(1, policy.getClustersFlushed());
+	}
+
+	@Test
+	public void testCapsClusterSizeOnMemoryPressure() {
+		load(41);
+		monitor.exceed(90);
+		assertFalse(loadNext());
+		assertEquals(30, policy.getClusterSizeLimit());
+		clear();
+		load(30);
+		assertFalse(loadNext());
+		clear();
+
+		// a collection that leaves the heap almost empty raises the limit
+		monitor.collect(100 * MB);
+		load(2);
+		assertEquals(45, policy.getClusterSizeLimit());
+		assertEquals(2, policy.getClustersFlushed());
+	}
+
+	@Test
+	public void testUsesOwnHighWatermark() {
+		load(5);
+		policy.setHighWatermark(85);
+		monitor.exceed(80);
+		assertTrue(loadNext());
+		policy.setHighWatermark(75);
+		monitor.exceed(80);
+		assertFalse(loadNext());
+		assertEquals(1, policy.getClustersFlushed());
+	}
+
+	@Test
+	public void testCountsReloadedResources() {
+		load(5);
+		monitor.exceed(90);
+		assertFalse(loadNext());
+		clear();
+		URI first = URI.createURI("resource0.res");
+		assertTrue(policy.continueProcessing(resourceSet, first, 0));
+		assertEquals(1, policy.getResourcesReloaded());
+		policy.resetCounters();
+		assertEquals(0, policy.getResourcesReloaded());
+		assertEquals(0, policy.getClustersFlushed());
+	}
+
+	@Test
+	public void testDoesNotFlushClustersBelowMinimumSizeOnMemoryPressure() {
+		policy.setMinimumClusterSize(10);
+		load(5);
+		monitor.exceed(90);
+		assertTrue(loadNext());
+		assertEquals(10, policy.getClusterSizeLimit());
+		load(4);
+		assertFalse(loadNext());
+		assertEquals(1, policy.getClustersFlushed());
+	}
+
+	@Test
+	public void testForgetsFlushedResourcesOfPreviousBuilds() {
+		load(5);
+		monitor.exceed(90);
+		assertFalse(loadNext());
+		resourceSet = new ResourceSetImpl();
+		assertTrue(policy.continueProcessing(resourceSet, URI.createURI("resource0.res"), 0));
+		assertEquals(0, policy.getResourcesReloaded());
+	}
+
+	@Test
+	public void testReportsCountersToInstrumentation() {
+		BuildMetrics metrics = new BuildMetrics();
+		policy.setInstrumentation(metrics);
+		load(5);
+		monitor.exceed(90);
+		assertFalse(loadNext());
+		clear();
+		assertTrue(policy.continueProcessing(resourceSet, URI.createURI("resource0.res"), 0));
+		assertEquals(1, metrics.getCount(IBuildInstrumentation.Counter.CLUSTER_FLUSHED));
+		assertEquals(1, metrics.getCount(IBuildInstrumentation.Counter.MEMORY_PRESSURE));
+		assertEquals(1, metrics.getCount(IBuildInstrumentation.Counter.RESOURCE_RELOADED));
+	}
+
+	private void load(int count) {
+		for (int i = 0; i < count; i++) {
+			assertTrue(loadNext());
+		}
+	}
+
+	/**
+	 * Ask the policy whether the next resource should be loaded into the current cluster and load it if so.
+	 */
+	private boolean loadNext() {
+		URI uri = URI.createURI("resource" + processed + ".res");
+		boolean result = policy.continueProcessing(resourceSet, uri, resourceSet.getResources().size());
+		if (result) {
+			resourceSet.getResources().add(new ResourceImpl(uri));
+			processed++;
+		}
+		return result;
+	}
+
+	private void clear() {
+		resourceSet.getResources().clear();
+	}
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.resource.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IReferenceDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.ISelectable;
+import org.eclipse.xtext.resource.persistence.SerializableEObjectDescription;
+import org.eclipse.xtext.resource.persistence.SerializableReferenceDescription;
+import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Iterables;
+
+public class MappedResourceDescriptionsTest extends Assert {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testLookup() throws IOException {
+		SerializableResourceDescription a = createDescription("a", "x.Shared", "x.A");
+		SerializableEObjectDescription withUserData = createObjectDescription("a", "x.Data");
+		withUserData.getUserData().put("key", "value");
+		a.getDescriptions().add(withUserData);
+		SerializableResourceDescription b = createDescription("b", "x.Shared", "B");
+		b.setImportedNames(Arrays.asList(QualifiedName.create("x", "a")));
+		SerializableReferenceDescription reference = new SerializableReferenceDescription();
+		reference.setSourceEObjectUri(URI.createURI("b#B"));
+		reference.setTargetEObjectUri(URI.createURI("a#x.A"));
+		reference.setContainerEObjectURI(URI.createURI("a#x.Shared"));
+		reference.setEReference(EcorePackage.Literals.ECLASS__ESUPER_TYPES);
+		reference.setIndexInList(3);
+		b.setReferences(Arrays.asList(reference));
+		MappedResourceDescriptions mapped = open(a, b);
+
+		assertEquals(2, mapped.getResourceCount());
+		assertEquals(5, mapped.getObjectCount());
+		assertEquals(Arrays.asList(URI.createURI("a"), URI.createURI("b")), mapped.getAllURIs());
+		assertNull(mapped.getResourceDescription(URI.createURI("c")));
+		assertEquals(Arrays.asList("a", "b"), exportingResources(mapped, "X.SHARED", true));
+		assertEquals(Arrays.asList(), exportingResources(mapped, "X.SHARED", false));
+		assertEquals(Arrays.asList("a"), exportingResources(mapped, "x.A", false));
+		assertTrue(Iterables.isEmpty(
+				mapped.getExportedObjects(EcorePackage.Literals.EDATA_TYPE, QualifiedName.create("x", "A"), false)));
+		assertEquals(5, Iterables.size(mapped.getExportedObjectsByType(EcorePackage.Literals.ECLASSIFIER)));
+
+		IEObjectDescription data = Iterables.getOnlyElement(
+				mapped.getExportedObjects(EcorePackage.Literals.ECLASS, QualifiedName.create("x", "Data"), false));
+		assertEquals(URI.createURI("a#x.Data"), data.getEObjectURI());
+		assertSame(EcorePackage.Literals.ECLASS, data.getEClass());
+		assertTrue(data.getEObjectOrProxy().eIsProxy());
+		assertEquals("value", data.getUserData("key"));
+		assertEquals(Arrays.asList("key"), Arrays.asList(data.getUserDataKeys()));
+
+		IResourceDescription mappedB = mapped.getResourceDescription(URI.createURI("b"));
+		assertEquals(Arrays.asList(QualifiedName.create("x", "a")), mappedB.getImportedNames());
+		assertEquals(1, Iterables.size(mappedB.getExportedObjects(EcorePackage.Literals.ECLASS,
+				QualifiedName.create("x", "Shared"), false)));
+		IReferenceDescription mappedReference = Iterables.getOnlyElement(mappedB.getReferenceDescriptions());
+		assertEquals(URI.createURI("b#B"), mappedReference.getSourceEObjectUri());
+		assertEquals(URI.createURI("a#x.A"), mappedReference.getTargetEObjectUri());
+		assertEquals(URI.createURI("a#x.Shared"), mappedReference.getContainerEObjectURI());
+		assertSame(EcorePackage.Literals.ECLASS__ESUPER_TYPES, mappedReference.getEReference());
+		assertEquals(3, mappedReference.getIndexInList());
+
+		assertEquals(Arrays.asList(URI.createURI("b")), mapped.getImportingResources(QualifiedName.create("X", "A")));
+		assertEquals(Arrays.asList(URI.createURI("b")), mapped.getReferencingResources(URI.createURI("a")));
+		assertEquals(Arrays.asList(), mapped.getReferencingResources(URI.createURI("b")));
+	}
+
+	@Test
+	public void testOverlay() throws IOException {
+		IResourceDescription a = createDescription("a", "Shared", "A");
+		IResourceDescription b = createDescription("b", "Shared", "B");
+		IResourceDescription c = createDescription("c", "Shared");
+		ResourceDescriptionsData original = new MappedResourceDescriptionsData(open(a, b, c));
+		ResourceDescriptionsData copy = original.copy();
+
+		copy.removeDescription(a.getURI());
+		copy.addDescription(b.getURI(), createDescription("b", "B2"));
+		original.addDescription(URI.createURI("d"), createDescription("d", "Shared"));
+
+		assertEquals(Arrays.asList("a", "b", "c", "d"), exportingResources(original, "shared", true));
+		assertEquals(Arrays.asList("c"), exportingResources(copy, "shared", true));
+		assertEquals(Arrays.asList("b"), exportingResources(original, "B", true));
+		assertEquals(Arrays.asList(), exportingResources(copy, "B", true));
+		assertEquals(Arrays.asList("b"), exportingResources(copy, "B2", true));
+		assertEquals(4, original.getAllURIs().size());
+		assertEquals(2, copy.getAllURIs().size());
+		assertFalse(copy.getAllURIs().contains(a.getURI()));
+		assertNull(copy.getResourceDescription(a.getURI()));
+		assertEquals(2, Iterables.size(copy.getAllResourceDescriptions()));
+		assertEquals(2, Iterables.size(copy.getExportedObjectsByType(EcorePackage.Literals.ECLASS)));
+		assertEquals(6, Iterables.size(original.getExportedObjectsByType(EcorePackage.Literals.ECLASSIFIER)));
+	}
+
+	@Test
+	public void testAffectionCandidates() throws IOException {
+		SerializableResourceDescription a = createDescription("a", "A");
+		SerializableResourceDescription b = createDescription("b", "B");
+		b.setImportedNames(Arrays.asList(QualifiedName.create("a")));
+		SerializableResourceDescription c = createDescription("c", "C");
+		SerializableReferenceDescription reference = new SerializableReferenceDescription();
+		reference.setTargetEObjectUri(URI.createURI("a#Other"));
+		c.setReferences(Arrays.asList(reference));
+		SerializableResourceDescription d = createDescription("d", "D");
+		d.setImportedNames(Arrays.asList(QualifiedName.create("b"), QualifiedName.create("a")));
+		ResourceDescriptionsData data = new MappedResourceDescriptionsData(open(a, b, c, d));
+		ResourceDescriptionsData copy = data.copy();
+
+		IResourceDescription.Delta changeA = new DefaultResourceDescriptionDelta(a, createDescription("a", "A2"));
+		assertEquals(Arrays.asList("b", "c", "d"), sorted(data.getAffectionCandidates(Arrays.asList(changeA))));
+		IResourceDescription.Delta changeB = new DefaultResourceDescriptionDelta(b, createDescription("b", "B"));
+		assertEquals(Arrays.asList("d"), sorted(data.getAffectionCandidates(Arrays.asList(changeB))));
+
+		copy.removeDescription(d.getURI());
+		copy.addDescription(c.getURI(), createDescription("c", "C"));
+		assertEquals(Arrays.asList("b"), sorted(copy.getAffectionCandidates(Arrays.asList(changeA))));
+		assertEquals(Arrays.asList("b", "c", "d"), sorted(data.getAffectionCandidates(Arrays.asList(changeA))));
+	}
+
+	@Test
+	public void testObjectWithoutFragment() throws IOException {
+		SerializableResourceDescription a = createDescription("a");
+		SerializableEObjectDescription object = createObjectDescription("a", "A");
+		object.setEObjectURI(URI.createURI("a"));
+		a.getDescriptions().add(object);
+		MappedResourceDescriptions mapped = open(a);
+		IEObjectDescription description = Iterables.getOnlyElement(mapped.getExportedObjects());
+		assertEquals(URI.createURI("a"), description.getEObjectURI());
+		assertEquals(URI.createURI("a"), ((InternalEObject) description.getEObjectOrProxy()).eProxyURI());
+	}
+
+	@Test
+	public void testUnregisteredEClass() throws IOException {
+		EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+		ePackage.setNsURI("http://unregistered");
+		EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+		eClass.setName("Unregistered");
+		ePackage.getEClassifiers().add(eClass);
+		new ResourceImpl(URI.createURI(ePackage.getNsURI())).getContents().add(ePackage);
+		SerializableResourceDescription a = createDescription("a");
+		SerializableEObjectDescription object = createObjectDescription("a", "A");
+		object.setEClass(eClass);
+		a.getDescriptions().add(object);
+		Path file = temporaryFolder.newFile().toPath();
+		try {
+			MappedResourceDescriptions.write(file, Arrays.asList(a));
+			fail("the EClass cannot be resolved when the file is read");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("http://unregistered"));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnknownFormat() throws IOException {
+		MappedResourceDescriptions.open(temporaryFolder.newFile().toPath());
+	}
+
+	private MappedResourceDescriptions open(IResourceDescription... descriptions) throws IOException {
+		Path file = temporaryFolder.newFile().toPath();
+		MappedResourceDescriptions.write(file, Arrays.asList(descriptions));
+		return MappedResourceDescriptions.open(file);
+	}
+
+	private List<String> sorted(Collection<URI> uris) {
+		List<String> result = new ArrayList<>();
+		for (URI uri : uris) {
+			result.add(uri.toString());
+		}
+		result.sort(null);
+		return result;
+	}
+
+	private List<String> exportingResources(ISelectable data, String name, boolean ignoreCase) {
+		List<String> result = new ArrayList<>();
+		for (IEObjectDescription description : data.getExportedObjects(EcorePackage.Literals.ECLASS,
+				QualifiedName.create(name.split("\\.")), ignoreCase)) {
+			result.add(description.getEObjectURI().trimFragment().toString());
+		}
+		result.sort(null);
+		return result;
+	}
+
+	private SerializableResourceDescription createDescription(String uri, String... names) {
+		SerializableResourceDescription result = new SerializableResourceDescription();
+		result.setURI(URI.createURI(uri));
+		List<SerializableEObjectDescription> descriptions = new ArrayList<>();
+		for (String name : names) {
+			descriptions.add(createObjectDescription(uri, name));
+		}
+		result.setDescriptions(descriptions);
+		result.setImportedNames(Collections.emptyList());
+		result.setReferences(Collections.emptyList());
+		return result;
+	}
+
+	private SerializableEObjectDescription createObjectDescription(String uri, String name) {
+		SerializableEObjectDescription result = new SerializableEObjectDescription();
+		result.setEClass(EcorePackage.Literals.ECLASS);
+		result.setEObjectURI(URI.createURI(uri + "#" + name));
+		result.setQualifiedName(QualifiedName.create(name.split("\\.")));
+		result.setUserData(new HashMap<>());
+		return result;
+	}
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.resource.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IReferenceDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.persistence.SerializableEObjectDescription;
+import org.eclipse.xtext.resource.persistence.SerializableReferenceDescription;
+import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+public class ResourceDescriptionsDataTest extends Assert {
+
+	@Test
+	public void testCopiesAreIndependent() {
+		IResourceDescription a = createDescription("a", "Shared", "A");
+		IResourceDescription b = createDescription("b", "Shared", "B");
+		IResourceDescription c = createDescription("c", "Shared");
+		ResourceDescriptionsData original = new ResourceDescriptionsData(Arrays.asList(a, b, c));
+		ResourceDescriptionsData copy = original.copy();
+
+		copy.removeDescription(a.getURI());
+		copy.addDescription(b.getURI(), createDescription("b", "B2"));
+		original.addDescription(URI.createURI("d"), createDescription("d", "Shared"));
+
+		assertEquals(Arrays.asList("a", "b", "c", "d"), exportingResources(original, "shared"));
+		assertEquals(Arrays.asList("c"), exportingResources(copy, "shared"));
+		assertEquals(Arrays.asList("b"), exportingResources(original, "B"));
+		assertEquals(Arrays.asList(), exportingResources(copy, "B"));
+		assertEquals(Arrays.asList("b"), exportingResources(copy, "B2"));
+		assertEquals(4, original.getAllURIs().size());
+		assertEquals(2, copy.getAllURIs().size());
+		assertSame(b, original.getResourceDescription(b.getURI()));
+	}
+
+	@Test
+	public void testDescriptionsAreIteratedInInsertionOrder() {
+		List<IResourceDescription> descriptions = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			descriptions.add(createDescription("uri" + i, "Name" + i));
+		}
+		ResourceDescriptionsData original = new ResourceDescriptionsData(descriptions);
+		ResourceDescriptionsData copy = original.copy();
+
+		copy.removeDescription(URI.createURI("uri10"));
+		copy.addDescription(URI.createURI("uri20"), createDescription("uri20", "Changed"));
+		copy.addDescription(URI.createURI("new"), createDescription("new", "New"));
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			expected.add("uri" + i);
+		}
+		assertEquals(expected, uris(original.getAllURIs()));
+		assertEquals(expected, uris(Iterables.transform(original.getAllResourceDescriptions(), IResourceDescription::getURI)));
+
+		expected.remove("uri10");
+		expected.remove("uri20");
+		expected.add("uri20");
+		expected.add("new");
+		assertEquals(expected, uris(copy.getAllURIs()));
+		assertEquals(expected, uris(Iterables.transform(copy.getAllResourceDescriptions(), IResourceDescription::getURI)));
+		assertEquals(expected, uris(copy.copy().getAllURIs()));
+	}
+
+	@Test
+	public void testRegisterDelta() {
+		IResourceDescription a = createDescription("a", "A", "Shared");
+		IResourceDescription b = createDescription("b", "Shared");
+		ResourceDescriptionsData data = new ResourceDescriptionsData(Arrays.asList(a, b)).copy();
+		data.register(new DefaultResourceDescriptionDelta(a, null));
+		assertNull(data.getResourceDescription(a.getURI()));
+		assertEquals(Arrays.asList("b"), exportingResources(data, "Shared"));
+		assertTrue(Iterables.isEmpty(data.getExportedObjects(EcorePackage.Literals.ECLASS, QualifiedName.create("A"), true)));
+	}
+
+	@Test
+	public void testAffectionCandidates() {
+		SerializableResourceDescription a = createDescription("a", "A");
+		SerializableResourceDescription b = createDescription("b", "B");
+		b.setImportedNames(Arrays.asList(QualifiedName.create("a")));
+		SerializableResourceDescription c = createDescription("c", "C");
+		SerializableReferenceDescription reference = new SerializableReferenceDescription();
+		reference.setTargetEObjectUri(URI.createURI("a#Other"));
+		c.setReferences(Arrays.asList(reference));
+		SerializableResourceDescription d = createDescription("d", "D");
+		d.setImportedNames(Arrays.asList(QualifiedName.create("b"), QualifiedName.create("a")));
+		ResourceDescriptionsData data = new ResourceDescriptionsData(Arrays.asList(a, b, c, d));
+		ResourceDescriptionsData copy = data.copy();
+
+		IResourceDescription.Delta changeA = new DefaultResourceDescriptionDelta(a, createDescription("a", "A2"));
+		assertEquals(Arrays.asList("b", "c", "d"), sorted(data.getAffectionCandidates(Arrays.asList(changeA))));
+		IResourceDescription.Delta changeB = new DefaultResourceDescriptionDelta(b, createDescription("b", "B"));
+		assertEquals(Arrays.asList("d"), sorted(data.getAffectionCandidates(Arrays.asList(changeB))));
+
+		copy.removeDescription(d.getURI());
+		copy.addDescription(c.getURI(), createDescription("c", "C"));
+		copy.addDescription(URI.createURI("e"), createUnindexedDescription("e"));
+		assertEquals(Arrays.asList("b", "e"), sorted(copy.getAffectionCandidates(Arrays.asList(changeA))));
+		assertEquals(Arrays.asList("b", "c", "d"), sorted(data.getAffectionCandidates(Arrays.asList(changeA))));
+	}
+
+	@Test
+	public void testExportedObjectsByType() {
+		SerializableResourceDescription a = createDescription("a", "A");
+		SerializableResourceDescription b = createDescription("b");
+		addObject(b, "BType", EcorePackage.Literals.EDATA_TYPE);
+		SerializableResourceDescription c = createDescription("c", "C");
+		addObject(c, "CEnum", EcorePackage.Literals.EENUM);
+		ResourceDescriptionsData data = new ResourceDescriptionsData(Arrays.asList(a, b, c));
+		ResourceDescriptionsData copy = data.copy();
+		copy.removeDescription(c.getURI());
+		copy.addDescription(a.getURI(), createDescription("a"));
+
+		assertEquals(Arrays.asList("A", "C"), exportedNames(data, EcorePackage.Literals.ECLASS));
+		assertEquals(Arrays.asList("BType", "CEnum"), exportedNames(data, EcorePackage.Literals.EDATA_TYPE));
+		assertEquals(Arrays.asList("A", "BType", "C", "CEnum"), exportedNames(data, EcorePackage.Literals.ECLASSIFIER));
+		assertEquals(Arrays.asList("A", "BType", "C", "CEnum"), exportedNames(data, EcorePackage.Literals.EOBJECT));
+		assertEquals(Arrays.asList(), exportedNames(data, EcorePackage.Literals.EPACKAGE));
+		assertEquals(Arrays.asList(), exportedNames(copy, EcorePackage.Literals.ECLASS));
+		assertEquals(Arrays.asList("BType"), exportedNames(copy, EcorePackage.Literals.ECLASSIFIER));
+	}
+
+	private List<String> exportedNames(ResourceDescriptionsData data, EClass type) {
+		List<String> result = new ArrayList<>();
+		for (IEObjectDescription description : data.getExportedObjectsByType(type)) {
+			result.add(description.getName().toString());
+		}
+		result.sort(null);
+		return result;
+	}
+
+	private List<String> uris(Iterable<URI> uris) {
+		List<String> result = new ArrayList<>();
+		for (URI uri : uris) {
+			result.add(uri.toString());
+		}
+		return result;
+	}
+
+	private List<String> sorted(Collection<URI> uris) {
+		List<String> result = new ArrayList<>();
+		for (URI uri : uris) {
+			result.add(uri.toString());
+		}
+		result.sort(null);
+		return result;
+	}
+
+	private List<String> exportingResources(ResourceDescriptionsData data, String name) {
+		List<String> result = new ArrayList<>();
+		for (IEObjectDescription description : data.getExportedObjects(EcorePackage.Literals.ECLASS,
+				QualifiedName.create(name), true)) {
+			result.add(description.getEObjectURI().trimFragment().toString());
+		}
+		result.sort(null);
+		return result;
+	}
+
+	private IResourceDescription createUnindexedDescription(String uri) {
+		return new AbstractResourceDescription() {
+			@Override
+			protected List<IEObjectDescription> computeExportedObjects() {
+				return Collections.emptyList();
+			}
+
+			@Override
+			public Iterable<QualifiedName> getImportedNames() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public Iterable<IReferenceDescription> getReferenceDescriptions() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public URI getURI() {
+				return URI.createURI(uri);
+			}
+		};
+	}
+
+	private void addObject(SerializableResourceDescription resourceDescription, String name, EClass type) {
+		SerializableEObjectDescription description = new SerializableEObjectDescription();
+		description.setEClass(type);
+		description.setEObjectURI(resourceDescription.getURI().appendFragment(name));
+		description.setQualifiedName(QualifiedName.create(name));
+		resourceDescription.getDescriptions().add(description);
+	}
+
+	private SerializableResourceDescription createDescription(String uri, String... names) {
+		SerializableResourceDescription result = new SerializableResourceDescription();
+		result.setURI(URI.createURI(uri));
+		List<SerializableEObjectDescription> descriptions = Lists.newArrayList();
+		for (String name : names) {
+			SerializableEObjectDescription description = new SerializableEObjectDescription();
+			description.setEClass(EcorePackage.Literals.ECLASS);
+			description.setEObjectURI(URI.createURI(uri + "#" + name));
+			description.setQualifiedName(QualifiedName.create(name));
+			descriptions.add(description);
+		}
+		result.setDescriptions(descriptions);
+		return result;
+	}
+}
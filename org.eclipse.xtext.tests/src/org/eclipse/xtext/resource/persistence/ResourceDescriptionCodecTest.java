@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.resource.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class ResourceDescriptionCodecTest extends Assert {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		URI uri = URI.createURI("file:/foo/bar.baz.foo");
+		SerializableResourceDescription before = new SerializableResourceDescription();
+		before.setURI(uri);
+		List<SerializableReferenceDescription> references = new ArrayList<>();
+		for (int i = -1; i < 300; i++) {
+			SerializableReferenceDescription reference = new SerializableReferenceDescription();
+			reference.setSourceEObjectUri(i % 3 == 0 ? null : uri.appendFragment("source" + i % 5));
+			reference.setTargetEObjectUri(URI.createURI("file:/foo/other.foo#target" + i));
+			reference.setContainerEObjectURI(i % 7 == 0 ? null : uri.appendFragment("container"));
+			reference.setEReference(i % 2 == 0 ? EcorePackage.Literals.EANNOTATION__CONTENTS : null);
+			reference.setIndexInList(i * 1000);
+			references.add(reference);
+		}
+		before.setReferences(references);
+		SerializableEObjectDescription withUserData = new SerializableEObjectDescription();
+		withUserData.setEObjectURI(uri.appendFragment("baz"));
+		withUserData.setQualifiedName(QualifiedName.create("foo", "baz"));
+		withUserData.setEClass(EcorePackage.Literals.EATTRIBUTE);
+		withUserData.setUserData(new HashMap<>());
+		withUserData.getUserData().put("myKey", "myValue");
+		withUserData.getUserData().put("nullValue", null);
+		SerializableEObjectDescription withoutUserData = new SerializableEObjectDescription();
+		withoutUserData.setEObjectURI(uri.appendFragment("\u00fcml\u00e4ut"));
+		withoutUserData.setQualifiedName(QualifiedName.create("foo", "\u00fcml\u00e4ut"));
+		withoutUserData.setEClass(EcorePackage.Literals.ECLASS);
+		withoutUserData.setUserData(new HashMap<>());
+		before.setDescriptions(Lists.newArrayList(withUserData, withoutUserData));
+		before.setImportedNames(Lists.newArrayList(QualifiedName.create("foo"), QualifiedName.create("foo", "bar"),
+				QualifiedName.EMPTY));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new ResourceDescriptionCodec().write(before, out);
+		byte[] bytes = out.toByteArray();
+		assertTrue(ResourceDescriptionCodec.isEncoded(bytes, bytes.length));
+		SerializableResourceDescription after = new ResourceDescriptionCodec().read(new ByteArrayInputStream(bytes));
+		new SerializableResourceDescriptionTest().assertDescriptionsEqual(before, after);
+	}
+
+	@Test
+	public void testJavaSerializationIsNotEncoded() throws IOException {
+		SerializableResourceDescription description = new SerializableResourceDescription();
+		description.setURI(URI.createURI("file:/foo/bar.foo"));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+			objectOut.writeObject(description);
+		}
+		byte[] bytes = out.toByteArray();
+		assertFalse(ResourceDescriptionCodec.isEncoded(bytes, bytes.length));
+		assertFalse(ResourceDescriptionCodec.isEncoded(ResourceDescriptionCodec.MAGIC, 2));
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnsupportedVersion() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(ResourceDescriptionCodec.MAGIC);
+		out.write(ResourceDescriptionCodec.VERSION + 1);
+		new ResourceDescriptionCodec().read(new ByteArrayInputStream(out.toByteArray()));
+	}
+}
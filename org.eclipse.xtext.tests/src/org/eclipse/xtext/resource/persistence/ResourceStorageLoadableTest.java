@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.resource.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.xtext.linking.LangATestLanguageStandaloneSetup;
+import org.eclipse.xtext.linking.langATestLanguage.Main;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.testing.util.InMemoryURIHandler;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.google.common.io.CountingInputStream;
+
+public class ResourceStorageLoadableTest extends AbstractXtextTests {
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(new LangATestLanguageStandaloneSetup());
+	}
+
+	@Test
+	public void testLoadResourceDescriptionOnly() throws Exception {
+		for (ResourceStorageCompression compression : ResourceStorageCompression.values()) {
+			XtextResourceSet resourceSet = createResourceSet();
+			StorageAwareResource resourceA = (StorageAwareResource) resourceSet
+					.createResource(URI.createURI(InMemoryURIHandler.SCHEME + ":/bubba.langatestlanguage"));
+			StringBuilder model = new StringBuilder("type A type B extends A");
+			for (int i = 0; i < 100; i++) {
+				model.append(" type C").append(i);
+			}
+			resourceA.load(getAsStream(model.toString()), null);
+			ResourceStorageFacade facade = (ResourceStorageFacade) resourceA.getResourceStorageFacade();
+			facade.setCompression(compression);
+			facade.setStoreNodeModel(true);
+			URI uriB = URI.createURI(InMemoryURIHandler.SCHEME + ":/bubba2.langatestlanguage");
+			byte[] storage = writeStorage(resourceA, facade, uriB);
+
+			StorageAwareResource resourceB = (StorageAwareResource) resourceSet.createResource(uriB);
+			CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(storage));
+			resourceB.loadResourceDescriptionFromStorage(facade.createResourceStorageLoadable(in));
+			assertTrue(compression.name(), resourceB.isLoaded());
+			assertTrue(compression.name(), resourceB.isLoadedFromStorage());
+			assertTrue(compression.name(), resourceB.isContentsLoadPending());
+			assertTrue(compression.name(), in.getCount() < storage.length);
+			IEObjectDescription exported = Iterables.getOnlyElement(resourceB.getResourceDescription()
+					.getExportedObjects(EcorePackage.Literals.EOBJECT, QualifiedName.create("B"), false));
+			assertEquals(resourceB.getURI(), exported.getEObjectURI().trimFragment());
+
+			// the contents are read from the storage of the facade
+			Main main = (Main) resourceB.getContents().get(0);
+			assertFalse(compression.name(), resourceB.isContentsLoadPending());
+			assertEquals(compression.name(), 102, main.getTypes().size());
+			assertSame(main.getTypes().get(1), resourceB.getEObject(exported.getEObjectURI().fragment()));
+		}
+	}
+
+	@Test
+	public void testLoadContentsWrittenBeforeDescription() throws Exception {
+		XtextResourceSet resourceSet = createResourceSet();
+		StorageAwareResource resourceA = (StorageAwareResource) resourceSet
+				.createResource(URI.createURI(InMemoryURIHandler.SCHEME + ":/bubba.langatestlanguage"));
+		resourceA.load(getAsStream("type A type B extends A"), null);
+		ResourceStorageFacade facade = (ResourceStorageFacade) resourceA.getResourceStorageFacade();
+		// the order of the entries that was written by earlier versions
+		ResourceStorageWritable writable = facade.createResourceStorageWritable(new ByteArrayOutputStream());
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		try (ZipOutputStream zipOut = new ZipOutputStream(bout)) {
+			zipOut.putNextEntry(new ZipEntry("emf-contents"));
+			writable.writeContents(resourceA, zipOut);
+			zipOut.closeEntry();
+			zipOut.putNextEntry(new ZipEntry("resource-description"));
+			writable.writeResourceDescription(resourceA, zipOut);
+			zipOut.closeEntry();
+		}
+
+		StorageAwareResource resourceB = (StorageAwareResource) resourceSet
+				.createResource(URI.createURI(InMemoryURIHandler.SCHEME + ":/bubba2.langatestlanguage"));
+		resourceB.loadFromStorage(facade.createResourceStorageLoadable(new ByteArrayInputStream(bout.toByteArray())));
+		assertEquals(2, ((Main) resourceB.getContents().get(0)).getTypes().size());
+		assertNotNull(resourceB.getResourceDescription());
+
+		StorageAwareResource resourceC = (StorageAwareResource) resourceSet
+				.createResource(URI.createURI(InMemoryURIHandler.SCHEME + ":/bubba3.langatestlanguage"));
+		resourceC.loadResourceDescriptionFromStorage(
+				facade.createResourceStorageLoadable(new ByteArrayInputStream(bout.toByteArray())));
+		assertEquals(2, Iterables.size(resourceC.getResourceDescription().getExportedObjects()));
+	}
+
+	@Test
+	public void testUnloadPendingResource() throws Exception {
+		XtextResourceSet resourceSet = get(XtextResourceSet.class);
+		StorageAwareResource resourceA = (StorageAwareResource) resourceSet
+				.createResource(URI.createURI("hubba:/bubba.langatestlanguage"));
+		resourceA.load(getAsStream("type A"), null);
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		resourceA.getResourceStorageFacade().createResourceStorageWritable(bout).writeResource(resourceA);
+
+		StorageAwareResource resourceB = (StorageAwareResource) resourceSet
+				.createResource(URI.createURI("hubba:/bubba2.langatestlanguage"));
+		resourceB.loadResourceDescriptionFromStorage(resourceA.getResourceStorageFacade()
+				.createResourceStorageLoadable(new ByteArrayInputStream(bout.toByteArray())));
+		resourceB.unload();
+		assertFalse(resourceB.isLoaded());
+		assertFalse(resourceB.isLoadedFromStorage());
+		assertFalse(resourceB.isContentsLoadPending());
+		assertTrue(resourceB.getContents().isEmpty());
+	}
+
+	@Test
+	public void testLoadPendingContentsFromTextIfStorageIsBroken() throws Exception {
+		XtextResourceSet resourceSet = createResourceSet();
+		StorageAwareResource resourceA = (StorageAwareResource) resourceSet
+				.createResource(URI.createURI(InMemoryURIHandler.SCHEME + ":/bubba.langatestlanguage"));
+		resourceA.load(getAsStream("type A type B extends A"), null);
+		IResourceStorageFacade facade = resourceA.getResourceStorageFacade();
+		URI uriB = URI.createURI(InMemoryURIHandler.SCHEME + ":/bubba2.langatestlanguage");
+		byte[] storage = writeStorage(resourceA, facade, uriB);
+		URI storageURI = uriB.trimSegments(1).appendSegment("." + uriB.lastSegment() + "bin");
+		try (OutputStream out = resourceSet.getURIConverter().createOutputStream(storageURI)) {
+			out.write(new byte[] { 1, 2, 3 });
+		}
+
+		StorageAwareResource resourceB = (StorageAwareResource) resourceSet.createResource(uriB);
+		resourceB.loadResourceDescriptionFromStorage(
+				facade.createResourceStorageLoadable(new ByteArrayInputStream(storage)));
+		try {
+			resourceB.getContents();
+			fail("neither the storage nor the text can be read");
+		} catch (RuntimeException e) {
+			assertTrue(resourceB.isContentsLoadPending());
+		}
+
+		try (OutputStream out = resourceSet.getURIConverter().createOutputStream(uriB)) {
+			out.write("type C".getBytes(resourceB.getEncoding()));
+		}
+		Main main = (Main) resourceB.getContents().get(0);
+		assertFalse(resourceB.isContentsLoadPending());
+		assertFalse(resourceB.isLoadedFromStorage());
+		assertEquals("C", main.getTypes().get(0).getName());
+		assertNotNull(resourceB.getParseResult().getRootNode());
+	}
+
+	/**
+	 * Write the storage of the given resource such that the facade finds it for the given URI.
+	 */
+	private byte[] writeStorage(StorageAwareResource resource, IResourceStorageFacade facade, URI uri)
+			throws IOException {
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		facade.createResourceStorageWritable(bout).writeResource(resource);
+		byte[] result = bout.toByteArray();
+		URI storageURI = uri.trimSegments(1).appendSegment("." + uri.lastSegment() + "bin");
+		try (OutputStream out = resource.getResourceSet().getURIConverter().createOutputStream(storageURI)) {
+			out.write(result);
+		}
+		return result;
+	}
+
+	private XtextResourceSet createResourceSet() {
+		XtextResourceSet result = get(XtextResourceSet.class);
+		result.getURIConverter().getURIHandlers().add(0, new InMemoryURIHandler());
+		return result;
+	}
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HashTrieMapTest extends Assert {
+
+	/**
+	 * A key with a configurable hash code to enforce collisions.
+	 */
+	private static class Key {
+		private final int hash;
+
+		private final String name;
+
+		Key(int hash, String name) {
+			this.hash = hash;
+			this.name = name;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).hash == hash && ((Key) obj).name.equals(name);
+		}
+
+		@Override
+		public String toString() {
+			return name + "#" + hash;
+		}
+	}
+
+	@Test
+	public void testPutGetRemove() {
+		HashTrieMap<String, Integer> map = new HashTrieMap<>();
+		assertNull(map.put("a", 1));
+		assertNull(map.put("b", 2));
+		assertEquals(Integer.valueOf(1), map.put("a", 3));
+		assertEquals(2, map.size());
+		assertEquals(Integer.valueOf(3), map.get("a"));
+		assertTrue(map.containsKey("b"));
+		assertFalse(map.containsKey("c"));
+		assertNull(map.get(null));
+		assertEquals(Integer.valueOf(2), map.remove("b"));
+		assertNull(map.remove("b"));
+		assertEquals(1, map.size());
+		assertEquals(map, new HashMap<>(map));
+	}
+
+	@Test
+	public void testHashCollisions() {
+		HashTrieMap<Key, String> map = new HashTrieMap<>();
+		for (int i = 0; i < 10; i++) {
+			map.put(new Key(42, "k" + i), "v" + i);
+			map.put(new Key(i, "k" + i), "w" + i);
+		}
+		assertEquals(20, map.size());
+		HashTrieMap<Key, String> copy = map.copy();
+		for (int i = 0; i < 10; i += 2) {
+			assertEquals("v" + i, map.remove(new Key(42, "k" + i)));
+		}
+		assertEquals(15, map.size());
+		assertEquals(20, copy.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i % 2 == 0 ? null : "v" + i, map.get(new Key(42, "k" + i)));
+			assertEquals("v" + i, copy.get(new Key(42, "k" + i)));
+			assertEquals("w" + i, map.get(new Key(i, "k" + i)));
+		}
+	}
+
+	@Test
+	public void testCopiesAreIndependent() {
+		HashTrieMap<Integer, Integer> map = new HashTrieMap<>();
+		for (int i = 0; i < 1000; i++) {
+			map.put(i, i);
+		}
+		HashTrieMap<Integer, Integer> copy = map.copy();
+		for (int i = 0; i < 1000; i += 3) {
+			copy.remove(i);
+			map.put(i, -i);
+		}
+		copy.put(1000, 1000);
+		assertEquals(1000, map.size());
+		assertEquals(667, copy.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(Integer.valueOf(i % 3 == 0 ? -i : i), map.get(i));
+			assertEquals(i % 3 == 0 ? null : Integer.valueOf(i), copy.get(i));
+		}
+		assertNull(map.get(1000));
+	}
+
+	@Test
+	public void testAgainstHashMap() {
+		Random random = new Random(4711);
+		Map<Key, Integer> expected = new HashMap<>();
+		HashTrieMap<Key, Integer> map = new HashTrieMap<>();
+		Map<Key, Integer> expectedSnapshot = null;
+		HashTrieMap<Key, Integer> snapshot = null;
+		for (int i = 0; i < 20000; i++) {
+			int value = random.nextInt(2000);
+			Key key = new Key(random.nextInt(500) * 0x10001, "k" + value);
+			if (random.nextBoolean()) {
+				assertEquals(expected.put(key, value), map.put(key, value));
+			} else {
+				assertEquals(expected.remove(key), map.remove(key));
+			}
+			if (i % 1000 == 0) {
+				if (snapshot != null) {
+					assertEquals(expectedSnapshot, snapshot);
+					assertEquals(expectedSnapshot, new HashMap<>(snapshot));
+				}
+				expectedSnapshot = new HashMap<>(expected);
+				snapshot = map.copy();
+			}
+		}
+		assertEquals(expected.size(), map.size());
+		assertEquals(expected, new HashMap<>(map));
+		assertEquals(expectedSnapshot, new HashMap<>(snapshot));
+	}
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.xtext.generator.hoisting;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.xtext.Keyword;
+import org.eclipse.xtext.XtextFactory;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.ContextConnective;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.FactoredConjunction;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.Guard;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.tokenGuards.SingleTokenGuard;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.token.Token;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FactoredConjunctionTest extends Assert {
+
+	private Guard token(String value, int position) {
+		Keyword keyword = XtextFactory.eINSTANCE.createKeyword();
+		keyword.setValue(value);
+		return new SingleTokenGuard(Token.fromElement(keyword, position, false));
+	}
+
+	private Guard predicate(String code) {
+		return new Guard() {
+			@Override
+			public boolean isTrivial() {
+				return false;
+			}
+
+			@Override
+			public String render() {
+				return code;
+			}
+
+			@Override
+			public String render(ContextConnective connective) {
+				return "(" + code + ")";
+			}
+		};
+	}
+
+	private String keyword(String keyword, int offset) {
+		return "!\"" + keyword + "\".equals(input.LT(" + offset + ").getText())";
+	}
+
+	@SafeVarargs
+	private final String render(List<Guard>... clauses) {
+		return new FactoredConjunction(Arrays.asList(clauses)).render();
+	}
+
+	@Test
+	public void testNothingShared() {
+		assertEquals("(" + keyword("a", 1) + " || (p0)) && (" + keyword("b", 1) + " || (p1))",
+				render(
+					Arrays.asList(token("a", 1), predicate("p0")),
+					Arrays.asList(token("b", 1), predicate("p1"))));
+	}
+
+	@Test
+	public void testSharedToken() {
+		assertEquals(keyword("a", 1) + " || ((" + keyword("b", 2) + " || (p0)) && (" + keyword("c", 2) + " || (p1)))",
+				render(
+					Arrays.asList(token("a", 1), token("b", 2), predicate("p0")),
+					Arrays.asList(token("a", 1), token("c", 2), predicate("p1"))));
+	}
+
+	@Test
+	public void testSharedTokenIsNotLeading() {
+		assertEquals("(" + keyword("a", 1) + " || ((" + keyword("b", 2) + " || (p0)) && (" + keyword("c", 2) + " || (p1)))) && "
+					+ "(" + keyword("d", 1) + " || (p2))",
+				render(
+					Arrays.asList(token("b", 2), token("a", 1), predicate("p0")),
+					Arrays.asList(token("c", 2), token("a", 1), predicate("p1")),
+					Arrays.asList(token("d", 1), predicate("p2"))));
+	}
+
+	@Test
+	public void testNestedSharedTokens() {
+		assertEquals(keyword("a", 1) + " || " + keyword("b", 2) + " || ((" + keyword("c", 3) + " || (p0)) && (" + keyword("d", 3) + " || (p1)))",
+				render(
+					Arrays.asList(token("a", 1), token("b", 2), token("c", 3), predicate("p0")),
+					Arrays.asList(token("a", 1), token("b", 2), token("d", 3), predicate("p1"))));
+	}
+
+	@Test
+	public void testAbsorption() {
+		assertEquals(keyword("a", 1) + " && (" + keyword("c", 1) + " || (p1))",
+				render(
+					Arrays.asList(token("a", 1)),
+					Arrays.asList(token("a", 1), token("b", 2)),
+					Arrays.asList(token("c", 1), predicate("p1"))));
+	}
+
+	@Test
+	public void testSharedPredicatesAreNotFactored() {
+		assertEquals("(" + keyword("a", 1) + " || (p0)) && (" + keyword("b", 1) + " || (p0))",
+				render(
+					Arrays.asList(token("a", 1), predicate("p0")),
+					Arrays.asList(token("b", 1), predicate("p0"))));
+	}
+
+	@Test
+	public void testIdenticalClauses() {
+		assertEquals(keyword("a", 1) + " || (p0)",
+				render(
+					Arrays.asList(token("a", 1), predicate("p0")),
+					Arrays.asList(token("a", 1), predicate("p0"))));
+	}
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.xtext.generator.hoisting;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.xml.type.XMLTypePackage;
+import org.eclipse.xtext.AbstractRule;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.XtextStandaloneSetup;
+import org.eclipse.xtext.testing.GlobalRegistries;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.tests.TemporaryFolder;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.HoistingProcessor;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.hoistingGuards.HoistingGuard;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class HoistingGuardCacheTest extends AbstractXtextTests {
+	private final String MODEL_PREAMBLE =
+			"grammar org.eclipse.xtext.xbase.Xbase with org.eclipse.xtext.common.Terminals\n" +
+			"generate myPack 'http://mypack'\n";
+
+	// @formatter:off
+	private final String MODEL =
+		MODEL_PREAMBLE +
+		"S: A | B;\n" +
+		"A: $$ p0 $$?=> 'a' | $$ p1 $$?=> 'b';\n" +
+		"B: 'c';\n";
+	// @formatter:on
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private GlobalRegistries.GlobalStateMemento globalStateMemento;
+
+	private File cacheFile;
+
+	@Before
+	@Override
+	public void setUp() throws Exception {
+		globalStateMemento = GlobalRegistries.makeCopyOfGlobalState();
+		super.setUp();
+		EPackage.Registry.INSTANCE.put(XMLTypePackage.eNS_URI, XMLTypePackage.eINSTANCE);
+		with(XtextStandaloneSetup.class);
+
+		cacheFile = new File(temporaryFolder.getRoot(), "cache/Test.hoisting");
+	}
+
+	@After
+	@Override
+	public void tearDown() throws Exception {
+		super.tearDown();
+		globalStateMemento.restoreGlobalState();
+	}
+
+	private HoistingGuard findGuard(String model, String ruleName) throws Exception {
+		Grammar grammar = (Grammar) getResourceFromString(model).getContents().get(0);
+		HoistingProcessor hoistingProcessor = new HoistingProcessor();
+		hoistingProcessor.init(grammar, cacheFile);
+		AbstractRule rule = grammar.getRules().stream()
+				.filter(r -> ruleName.equals(r.getName()))
+				.findFirst().get();
+		HoistingGuard guard = hoistingProcessor.findHoistingGuard(rule.getAlternatives());
+		hoistingProcessor.saveGuardCache(grammar);
+		return guard;
+	}
+
+	private Properties readCache() throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(cacheFile.toPath())) {
+			properties.load(in);
+		}
+		return properties;
+	}
+
+	private void replaceCachedConditions(String condition) throws IOException {
+		Properties properties = readCache();
+		for (String key : properties.stringPropertyNames()) {
+			properties.setProperty(key, "01" + condition);
+		}
+		try (OutputStream out = Files.newOutputStream(cacheFile.toPath())) {
+			properties.store(out, null);
+		}
+	}
+
+	@Test
+	public void testGuardIsStored() throws Exception {
+		HoistingGuard guard = findGuard(MODEL, "A");
+
+		assertTrue(cacheFile.isFile());
+		assertEquals(1, readCache().size());
+		assertEquals(guard.render(), findGuard(MODEL, "A").render());
+	}
+
+	@Test
+	public void testGuardOfUnchangedRuleIsReused() throws Exception {
+		findGuard(MODEL, "A");
+		replaceCachedConditions("cached");
+
+		HoistingGuard guard = findGuard(MODEL, "A");
+		assertFalse(guard.isTrivial());
+		assertTrue(guard.hasTerminal());
+		assertEquals("cached", guard.render());
+	}
+
+	@Test
+	public void testGuardOfChangedRuleIsNotReused() throws Exception {
+		findGuard(MODEL, "A");
+		replaceCachedConditions("cached");
+
+		assertNotEquals("cached", findGuard(MODEL.replace("'b'", "'d'"), "A").render());
+	}
+
+	@Test
+	public void testGuardOfRuleWithChangedCallerIsNotReused() throws Exception {
+		findGuard(MODEL, "A");
+		replaceCachedConditions("cached");
+
+		assertNotEquals("cached", findGuard(MODEL.replace("S: A | B;", "S: A 'e' | B;"), "A").render());
+	}
+
+	@Test
+	public void testGuardOfRuleWithChangedUnrelatedRuleIsReused() throws Exception {
+		findGuard(MODEL, "A");
+		replaceCachedConditions("cached");
+
+		assertEquals("cached", findGuard(MODEL.replace("B: 'c';", "B: 'd';"), "A").render());
+	}
+
+	@Test
+	public void testGuardOfRuleWithChangedContextOfCallerIsNotReused() throws Exception {
+		String model = MODEL_PREAMBLE + "R: S 'f';\n" + MODEL.substring(MODEL_PREAMBLE.length());
+		findGuard(model, "A");
+		replaceCachedConditions("cached");
+
+		assertNotEquals("cached", findGuard(model.replace("R: S 'f';", "R: S 'g';"), "A").render());
+	}
+
+	@Test
+	public void testGuardOfRuleWithChangedCallerOfCalleeIsNotReused() throws Exception {
+		// @formatter:off
+		String model =
+			MODEL_PREAMBLE +
+			"S: A 'x' | C;\n" +
+			"A: B;\n" +
+			"B: $$ p0 $$?=> 'a' 'b' | $$ p1 $$?=> 'a';\n" +
+			"C: B 'y';\n";
+		// @formatter:on
+		findGuard(model, "A");
+		replaceCachedConditions("cached");
+
+		assertNotEquals("cached", findGuard(model.replace("C: B 'y';", "C: B 'z';"), "A").render());
+	}
+
+	@Test
+	public void testUnusedGuardsAreDropped() throws Exception {
+		findGuard(MODEL, "A");
+		findGuard(MODEL.replace("'b'", "'d'"), "A");
+
+		assertEquals(1, readCache().size());
+	}
+}
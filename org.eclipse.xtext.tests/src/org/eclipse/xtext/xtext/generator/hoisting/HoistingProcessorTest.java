@@ -8,6 +8,8 @@
  *******************************************************************************/
 package org.eclipse.xtext.xtext.generator.hoisting;
 
+import java.util.Collections;
+
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.xml.type.XMLTypePackage;
 import org.eclipse.xtext.AbstractRule;
@@ -20,6 +22,9 @@ import org.eclipse.xtext.XtextStandaloneSetup;
 import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.testing.GlobalRegistries;
 import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.xtext.generator.grammarAccess.GrammarAccessExtensions;
+import org.eclipse.xtext.xtext.generator.parser.antlr.CombinedGrammarMarker;
+import org.eclipse.xtext.xtext.generator.parser.antlr.KeywordHelper;
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.HoistingProcessor;
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.exceptions.EndlessPrefixException;
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.exceptions.TokenAnalysisAbortedException;
@@ -71,7 +76,6 @@ public class HoistingProcessorTest extends AbstractXtextTests {
 		return "!\"" + keyword + "\".equals(input.LT(" + offset + ").getText())";
 	}
 	
-	@SuppressWarnings("unused")
 	private String terminal(String terminal, int offset) {
 		return "input.LA(" + offset + ") != " + terminal;
 	}
@@ -405,6 +409,55 @@ public class HoistingProcessorTest extends AbstractXtextTests {
 		assertEquals("(" + keyword("a", 1) + " || (p0)) && (" + keyword("b", 1) + " || (p1))", guard.render());
 	}
 	
+	@Test
+	public void testAlternativeSimple_separateLexer_expectTokenTypes() throws Exception {
+		// @formatter:off
+		String model =
+			MODEL_PREAMBLE +
+			"S: {S} $$ p0 $$?=> 'a' \n" +
+			" | {S} $$ p1 $$?=> 'b' ;";
+		// @formatter:off
+		XtextResource resource = getResourceFromString(model);
+		Grammar grammar = ((Grammar) resource.getContents().get(0));
+		new CombinedGrammarMarker(false).attachToEmfObject(grammar);
+		KeywordHelper keywordHelper = new KeywordHelper(grammar, false, new GrammarAccessExtensions());
+		try {
+			hoistingProcessor.init(grammar);
+			AbstractRule rule = getRule(grammar, "S");
+			
+			HoistingGuard guard = hoistingProcessor.findHoistingGuard(rule.getAlternatives());
+			assertEquals("(" + terminal("A", 1) + " || (p0)) && (" + terminal("B", 1) + " || (p1))", guard.render());
+		} finally {
+			keywordHelper.discardHelper(grammar);
+		}
+	}
+	
+	@Test
+	public void testAlternativeSimple_combinedGrammar_expectTokenTypeFields() throws Exception {
+		// @formatter:off
+		String model =
+			MODEL_PREAMBLE +
+			"S: {S} $$ p0 $$?=> 'a' \n" +
+			" | {S} $$ p1 $$?=> '\\\\$' ;";
+		// @formatter:off
+		XtextResource resource = getResourceFromString(model);
+		Grammar grammar = ((Grammar) resource.getContents().get(0));
+		new CombinedGrammarMarker(true).attachToEmfObject(grammar);
+		KeywordHelper keywordHelper = new KeywordHelper(grammar, false, new GrammarAccessExtensions());
+		try {
+			hoistingProcessor.init(grammar);
+			AbstractRule rule = getRule(grammar, "S");
+			
+			HoistingGuard guard = hoistingProcessor.findHoistingGuard(rule.getAlternatives());
+			assertEquals(
+					"(" + terminal("KEYWORD_" + keywordHelper.getRuleName("a"), 1) + " || (p0)) && (" +
+					terminal("KEYWORD_" + keywordHelper.getRuleName("\\$"), 1) + " || (p1))",
+					guard.render());
+		} finally {
+			keywordHelper.discardHelper(grammar);
+		}
+	}
+	
 	@Test
 	public void testUnorderedGroupWithEmptyPathsWithoutContextWithoutPredicates_expectUnguarded() throws Exception {
 		// @formatter:off
@@ -1049,6 +1102,27 @@ public class HoistingProcessorTest extends AbstractXtextTests {
 		hoistingProcessor.findHoistingGuard(rule.getAlternatives());
 	}
 	
+	@Test
+	public void testAlternativesWithDifferenceBeyond31Tokens() throws Exception {
+		String prefix = String.join(" ", Collections.nCopies(33, "'a'"));
+		// @formatter:off
+		String model =
+			MODEL_PREAMBLE +
+			"tokenLimit 40\n" +
+			"S: {S} $$ p0 $$?=> " + prefix + " '!' \n" +
+			" | {S} $$ p1 $$?=> " + prefix + " '?' ;";
+		// @formatter:off
+		XtextResource resource = getResourceFromString(model);
+		Grammar grammar = ((Grammar) resource.getContents().get(0));
+		hoistingProcessor.init(grammar);
+		AbstractRule rule = getRule(grammar, "S");
+		
+		HoistingGuard guard = hoistingProcessor.findHoistingGuard(rule.getAlternatives());
+		assertFalse(guard.isTrivial());
+		assertTrue(guard.hasTerminal());
+		assertEquals("(" + keyword("!", 34) + " || (p0)) && (" + keyword("?", 34) + " || (p1))", guard.render());
+	}
+	
 	@Test(expected = TokenAnalysisAbortedException.class)
 	public void testAlternativeIdenticalPathsInTokenLimit_expectTokenAnalysisAbortedException() throws Exception {
 		// @formatter:off
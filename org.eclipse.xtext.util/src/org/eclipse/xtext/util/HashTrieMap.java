@@ -0,0 +1,473 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A hash map that is backed by a hash array mapped trie. A {@link #copy() copy} of the map is created in constant time
+ * and shares the trie with the original. Subsequent modifications of either map only copy the nodes along the path to
+ * the modified entry, all other nodes remain shared. Nodes that were created by a map after its last copy are
+ * modified in place.
+ *
+ * The iteration order is determined by the hash codes of the keys. <code>null</code> keys are not supported. The map
+ * is not thread-safe, but copies can be used independently of each other.
+ *
+ * @since 2.22
+ */
+public class HashTrieMap<K, V> extends AbstractMap<K, V> {
+
+	private static final Object NOT_FOUND = new Object();
+
+	private Node root;
+
+	private int size;
+
+	/**
+	 * Identifies the nodes that may be modified in place by this map.
+	 */
+	private Object edit = new Object();
+
+	private Set<Map.Entry<K, V>> entrySet;
+
+	public HashTrieMap() {
+	}
+
+	private HashTrieMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Create a copy of this map that shares the trie with this map.
+	 */
+	public HashTrieMap<K, V> copy() {
+		edit = new Object();
+		return new HashTrieMap<>(root, size);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key != null && root != null && root.find(0, hash(key), key) != NOT_FOUND;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		if (key == null || root == null) {
+			return null;
+		}
+		Object result = root.find(0, hash(key), key);
+		return result != NOT_FOUND ? (V) result : null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		if (key == null) {
+			throw new NullPointerException("key");
+		}
+		Change change = new Change();
+		Node node = root != null ? root : BitmapIndexedNode.EMPTY;
+		root = node.assoc(edit, 0, hash(key), key, value, change);
+		if (change.added) {
+			size++;
+		}
+		return (V) change.oldValue;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V remove(Object key) {
+		if (key == null || root == null) {
+			return null;
+		}
+		Change change = new Change();
+		root = root.without(edit, 0, hash(key), key, change);
+		if (change.removed) {
+			size--;
+		}
+		return (V) change.oldValue;
+	}
+
+	@Override
+	public void clear() {
+		root = null;
+		size = 0;
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new AbstractSet<Map.Entry<K, V>>() {
+				@Override
+				public Iterator<Map.Entry<K, V>> iterator() {
+					return new EntryIterator<>(root);
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		}
+		return entrySet;
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int mask(int hash, int shift) {
+		return (hash >>> shift) & 0x1f;
+	}
+
+	private static int bitpos(int hash, int shift) {
+		return 1 << mask(hash, shift);
+	}
+
+	private static class Change {
+		boolean added;
+
+		boolean removed;
+
+		Object oldValue;
+	}
+
+	private static abstract class Node {
+		/**
+		 * The key value pairs of this node. The key of a pair that points to a sub node is <code>null</code>.
+		 */
+		Object[] array;
+
+		final Object edit;
+
+		Node(Object edit, Object[] array) {
+			this.edit = edit;
+			this.array = array;
+		}
+
+		abstract int count();
+
+		abstract Object find(int shift, int hash, Object key);
+
+		abstract Node assoc(Object edit, int shift, int hash, Object key, Object value, Change change);
+
+		abstract Node without(Object edit, int shift, int hash, Object key, Change change);
+	}
+
+	private static class BitmapIndexedNode extends Node {
+
+		static final BitmapIndexedNode EMPTY = new BitmapIndexedNode(null, 0, new Object[0]);
+
+		int bitmap;
+
+		BitmapIndexedNode(Object edit, int bitmap, Object[] array) {
+			super(edit, array);
+			this.bitmap = bitmap;
+		}
+
+		@Override
+		int count() {
+			return Integer.bitCount(bitmap);
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0) {
+				return NOT_FOUND;
+			}
+			int idx = index(bit);
+			Object keyOrNull = array[2 * idx];
+			Object valueOrNode = array[2 * idx + 1];
+			if (keyOrNull == null) {
+				return ((Node) valueOrNode).find(shift + 5, hash, key);
+			}
+			if (key.equals(keyOrNull)) {
+				return valueOrNode;
+			}
+			return NOT_FOUND;
+		}
+
+		@Override
+		Node assoc(Object edit, int shift, int hash, Object key, Object value, Change change) {
+			int bit = bitpos(hash, shift);
+			int idx = index(bit);
+			if ((bitmap & bit) != 0) {
+				Object keyOrNull = array[2 * idx];
+				Object valueOrNode = array[2 * idx + 1];
+				if (keyOrNull == null) {
+					Node node = ((Node) valueOrNode).assoc(edit, shift + 5, hash, key, value, change);
+					if (node == valueOrNode) {
+						return this;
+					}
+					return editAndSet(edit, 2 * idx + 1, node);
+				}
+				if (key.equals(keyOrNull)) {
+					change.oldValue = valueOrNode;
+					if (value == valueOrNode) {
+						return this;
+					}
+					return editAndSet(edit, 2 * idx + 1, value);
+				}
+				change.added = true;
+				Node node = createNode(edit, shift + 5, keyOrNull, valueOrNode, hash, key, value);
+				BitmapIndexedNode editable = ensureEditable(edit);
+				editable.array[2 * idx] = null;
+				editable.array[2 * idx + 1] = node;
+				return editable;
+			}
+			change.added = true;
+			int n = count();
+			if (edit != null && edit == this.edit && array.length >= 2 * (n + 1)) {
+				System.arraycopy(array, 2 * idx, array, 2 * (idx + 1), 2 * (n - idx));
+				array[2 * idx] = key;
+				array[2 * idx + 1] = value;
+				bitmap |= bit;
+				return this;
+			}
+			int capacity = edit != null ? Math.min(n + 4, 32) : n + 1;
+			Object[] newArray = new Object[2 * capacity];
+			System.arraycopy(array, 0, newArray, 0, 2 * idx);
+			newArray[2 * idx] = key;
+			newArray[2 * idx + 1] = value;
+			System.arraycopy(array, 2 * idx, newArray, 2 * (idx + 1), 2 * (n - idx));
+			if (edit != null && edit == this.edit) {
+				array = newArray;
+				bitmap |= bit;
+				return this;
+			}
+			return new BitmapIndexedNode(edit, bitmap | bit, newArray);
+		}
+
+		@Override
+		Node without(Object edit, int shift, int hash, Object key, Change change) {
+			int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0) {
+				return this;
+			}
+			int idx = index(bit);
+			Object keyOrNull = array[2 * idx];
+			Object valueOrNode = array[2 * idx + 1];
+			if (keyOrNull == null) {
+				Node node = ((Node) valueOrNode).without(edit, shift + 5, hash, key, change);
+				if (node == valueOrNode) {
+					return this;
+				}
+				if (node != null) {
+					return editAndSet(edit, 2 * idx + 1, node);
+				}
+			} else if (key.equals(keyOrNull)) {
+				change.removed = true;
+				change.oldValue = valueOrNode;
+			} else {
+				return this;
+			}
+			if (bitmap == bit) {
+				return null;
+			}
+			int n = count();
+			BitmapIndexedNode editable = ensureEditable(edit);
+			System.arraycopy(editable.array, 2 * (idx + 1), editable.array, 2 * idx, 2 * (n - idx - 1));
+			editable.array[2 * n - 2] = null;
+			editable.array[2 * n - 1] = null;
+			editable.bitmap ^= bit;
+			return editable;
+		}
+
+		private BitmapIndexedNode ensureEditable(Object edit) {
+			if (edit != null && edit == this.edit) {
+				return this;
+			}
+			Object[] newArray = new Object[2 * count()];
+			System.arraycopy(array, 0, newArray, 0, newArray.length);
+			return new BitmapIndexedNode(edit, bitmap, newArray);
+		}
+
+		private BitmapIndexedNode editAndSet(Object edit, int i, Object value) {
+			BitmapIndexedNode editable = ensureEditable(edit);
+			editable.array[i] = value;
+			return editable;
+		}
+	}
+
+	private static class HashCollisionNode extends Node {
+
+		final int hash;
+
+		HashCollisionNode(Object edit, int hash, Object[] array) {
+			super(edit, array);
+			this.hash = hash;
+		}
+
+		@Override
+		int count() {
+			return array.length / 2;
+		}
+
+		private int findIndex(Object key) {
+			for (int i = 0; i < array.length; i += 2) {
+				if (key.equals(array[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int idx = findIndex(key);
+			return idx != -1 ? array[idx + 1] : NOT_FOUND;
+		}
+
+		@Override
+		Node assoc(Object edit, int shift, int hash, Object key, Object value, Change change) {
+			if (hash != this.hash) {
+				Node result = new BitmapIndexedNode(edit, bitpos(this.hash, shift), new Object[] { null, this });
+				return result.assoc(edit, shift, hash, key, value, change);
+			}
+			int idx = findIndex(key);
+			if (idx != -1) {
+				change.oldValue = array[idx + 1];
+				if (array[idx + 1] == value) {
+					return this;
+				}
+				HashCollisionNode editable = ensureEditable(edit);
+				editable.array[idx + 1] = value;
+				return editable;
+			}
+			change.added = true;
+			Object[] newArray = new Object[array.length + 2];
+			System.arraycopy(array, 0, newArray, 0, array.length);
+			newArray[array.length] = key;
+			newArray[array.length + 1] = value;
+			return update(edit, newArray);
+		}
+
+		@Override
+		Node without(Object edit, int shift, int hash, Object key, Change change) {
+			int idx = findIndex(key);
+			if (idx == -1) {
+				return this;
+			}
+			change.removed = true;
+			change.oldValue = array[idx + 1];
+			if (array.length == 2) {
+				return null;
+			}
+			Object[] newArray = new Object[array.length - 2];
+			System.arraycopy(array, 0, newArray, 0, idx);
+			System.arraycopy(array, idx + 2, newArray, idx, array.length - idx - 2);
+			return update(edit, newArray);
+		}
+
+		private HashCollisionNode ensureEditable(Object edit) {
+			if (edit != null && edit == this.edit) {
+				return this;
+			}
+			return new HashCollisionNode(edit, hash, array.clone());
+		}
+
+		private HashCollisionNode update(Object edit, Object[] newArray) {
+			if (edit != null && edit == this.edit) {
+				array = newArray;
+				return this;
+			}
+			return new HashCollisionNode(edit, hash, newArray);
+		}
+	}
+
+	private static Node createNode(Object edit, int shift, Object key1, Object value1, int hash2, Object key2,
+			Object value2) {
+		int hash1 = hash(key1);
+		if (hash1 == hash2) {
+			return new HashCollisionNode(edit, hash1, new Object[] { key1, value1, key2, value2 });
+		}
+		Change change = new Change();
+		return BitmapIndexedNode.EMPTY.assoc(edit, shift, hash1, key1, value1, change).assoc(edit, shift, hash2, key2,
+				value2, change);
+	}
+
+	private static class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+		private final Deque<Object[]> arrays = new ArrayDeque<>();
+
+		private final Deque<int[]> positions = new ArrayDeque<>();
+
+		private Map.Entry<K, V> next;
+
+		EntryIterator(Node root) {
+			if (root != null) {
+				push(root);
+				advance();
+			}
+		}
+
+		private void push(Node node) {
+			arrays.push(node.array);
+			positions.push(new int[] { 0, 2 * node.count() });
+		}
+
+		@SuppressWarnings("unchecked")
+		private void advance() {
+			next = null;
+			while (!arrays.isEmpty()) {
+				Object[] array = arrays.peek();
+				int[] position = positions.peek();
+				if (position[0] >= position[1]) {
+					arrays.pop();
+					positions.pop();
+					continue;
+				}
+				Object keyOrNull = array[position[0]];
+				Object valueOrNode = array[position[0] + 1];
+				position[0] += 2;
+				if (keyOrNull == null) {
+					push((Node) valueOrNode);
+				} else {
+					next = new AbstractMap.SimpleImmutableEntry<>((K) keyOrNull, (V) valueOrNode);
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Map.Entry<K, V> next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			Map.Entry<K, V> result = next;
+			advance();
+			return result;
+		}
+	}
+}
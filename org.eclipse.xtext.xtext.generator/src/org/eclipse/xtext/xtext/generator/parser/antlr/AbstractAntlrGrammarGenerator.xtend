@@ -9,6 +9,7 @@
 package org.eclipse.xtext.xtext.generator.parser.antlr
 
 import com.google.inject.Inject
+import java.io.File
 import org.eclipse.xtext.AbstractElement
 import org.eclipse.xtext.AbstractRule
 import org.eclipse.xtext.Action
@@ -37,6 +38,7 @@ import static extension org.eclipse.xtext.xtext.generator.parser.antlr.AntlrGram
 import static extension org.eclipse.xtext.xtext.generator.parser.antlr.TerminalRuleToLexerBody.*
 import org.eclipse.xtext.xtext.generator.util.SyntheticTerminalDetector
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.HoistingProcessor
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.token.KeywordToken
 import org.eclipse.xtext.AbstractSemanticPredicate
 import org.eclipse.xtext.JavaAction
 import org.eclipse.xtext.GatedSemanticPredicate
@@ -69,11 +71,19 @@ abstract class AbstractAntlrGrammarGenerator {
 		val RuleNames ruleNames = RuleNames.getRuleNames(it, true);
 		val Grammar flattened = new FlattenedGrammarAccess(ruleNames, filter).getFlattenedGrammar();
 		new CombinedGrammarMarker(combinedGrammar).attachToEmfObject(flattened)
-		init(flattened)
+		init(flattened, getHoistingCacheFile(it, options))
 		fsa.generateFile(grammarNaming.getParserGrammar(it).grammarFileName, flattened.compileParser(options))
 		if (!isCombinedGrammar) {
 			fsa.generateFile(grammarNaming.getLexerGrammar(it).grammarFileName, flattened.compileLexer(options))
 		}
+		saveGuardCache(flattened)
+	}
+	
+	protected def File getHoistingCacheFile(Grammar it, AntlrOptions options) {
+		if (options.hoistingCacheDirectory === null) {
+			return null
+		}
+		return new File(options.hoistingCacheDirectory, grammarNaming.getParserGrammar(it).name + '.hoisting')
 	}
 	
 	protected def isCombinedGrammar() {
@@ -191,6 +201,20 @@ abstract class AbstractAntlrGrammarGenerator {
 		''
 	}
 	
+	/**
+	 * The token types of the keywords of a combined grammar with semantic predicates. They are resolved once from the
+	 * token names of the parser, so the hoisted guards compare the lookahead with a constant.
+	 * 
+	 * @since 2.22
+	 */
+	protected def compileKeywordTokenTypes(Grammar it) '''
+		IF isCombinedGrammar && keywordHelper !== null && !eAllContents.filter(AbstractSemanticPredicate).empty
+			FOR kw : keywordHelper.allKeywords
+				private static final int KeywordToken.TOKEN_TYPE_FIELD_PREFIXkeywordHelper.getRuleName(kw) = org.eclipse.xtext.parser.antlr.KeywordTokenTypes.get(tokenNames, "'kw.toAntlrString.toStringInAntlrAction'");
+			ENDFOR
+		ENDIF
+	'''
+	
 	protected def compileRules(Grammar it, AntlrOptions options) '''
 		FOR rule: (allParserRules + allEnumRules).filter[rule | rule.isCalled(it)]
 			
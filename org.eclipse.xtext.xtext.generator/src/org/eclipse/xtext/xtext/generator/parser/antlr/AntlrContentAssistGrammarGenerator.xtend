@@ -41,6 +41,7 @@ class AntlrContentAssistGrammarGenerator extends AbstractAntlrGrammarWithActions
 	override protected compileParserMembers(Grammar it, AntlrOptions options) '''
 		@IF combinedGrammarparser::ENDIFmembers {
 			private grammarAccess.simpleName grammarAccess;
+			compileKeywordTokenTypes
 			IF !combinedGrammar
 				private final Map<String, String> tokenNameToValue = new HashMap<String, String>();
 				
@@ -71,6 +71,7 @@ class AntlrGrammarGenerator extends AbstractAntlrGrammarWithActionsGenerator {
 
 		ENDIF
 		 	private grammarAccess.simpleName grammarAccess;
+		 	compileKeywordTokenTypes
 
 		    public internalParserClass.simpleName(TokenStream input, grammarAccess.simpleName grammarAccess) {
 		        this(input);
@@ -41,6 +41,8 @@ public class AntlrOptions {
 
 	private String keptBitSetName;
 
+	private String hoistingCacheDirectory;
+
 	public void setFieldsPerClass(String fieldsPerClass) {
 		this.fieldsPerClass = Integer.parseInt(fieldsPerClass);
 	}
@@ -156,4 +158,21 @@ public class AntlrOptions {
 	public void setKeptBitSetName(String keptBitSetName) {
 		this.keptBitSetName = keptBitSetName;
 	}
+
+	/**
+	 * @since 2.22
+	 */
+	public String getHoistingCacheDirectory() {
+		return hoistingCacheDirectory;
+	}
+
+	/**
+	 * The directory that keeps the hoisting guards of each parser grammar between generator runs. Guards of
+	 * unchanged rules are not computed again. Guards are not cached if no directory is set.
+	 * 
+	 * @since 2.22
+	 */
+	public void setHoistingCacheDirectory(String hoistingCacheDirectory) {
+		this.hoistingCacheDirectory = hoistingCacheDirectory;
+	}
 }
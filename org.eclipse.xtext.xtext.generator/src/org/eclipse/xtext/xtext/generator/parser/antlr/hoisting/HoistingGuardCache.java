@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.xtext.generator.parser.antlr.hoisting;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.ENamedElement;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.xtext.AbstractElement;
+import org.eclipse.xtext.AbstractRule;
+import org.eclipse.xtext.Action;
+import org.eclipse.xtext.Alternatives;
+import org.eclipse.xtext.Assignment;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.Group;
+import org.eclipse.xtext.Keyword;
+import org.eclipse.xtext.Parameter;
+import org.eclipse.xtext.ParserRule;
+import org.eclipse.xtext.RuleCall;
+import org.eclipse.xtext.TerminalRule;
+import org.eclipse.xtext.UnorderedGroup;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.ContextConnective;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.hoistingGuards.HoistingGuard;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.token.Token;
+
+import com.google.common.hash.Hashing;
+
+import static org.eclipse.xtext.EcoreUtil2.*;
+import static org.eclipse.xtext.GrammarUtil.*;
+
+/**
+ * Persists the rendered hoisting guards of a grammar between generator runs.
+ *
+ * The guard of an element depends on the rule that contains it, on the rules it calls transitively and on the
+ * elements that may follow the calls of all these rules (the context analysis looks at the call sites, and the guards
+ * of called rules are part of the guard). If a call site can be the last element of its rule, the call sites of that
+ * rule are taken into account as well. A cached guard
+ * is therefore keyed by a structural fingerprint of these elements and rules, the hoisting configuration and the
+ * path of the element. Changes to rules that are neither called by a rule nor follow any of its calls keep the
+ * cached guards of the rule.
+ *
+ * Only the rendered guards are stored, so cached guards can not be composed with other guards.
+ */
+public class HoistingGuardCache {
+	// has to be incremented whenever the rendering of guards changes
+	private static final String FORMAT_VERSION = "3";
+
+	private static final Logger log = Logger.getLogger(HoistingGuardCache.class);
+
+	private final File file;
+	private final Properties cachedGuards = new Properties();
+	private final Map<String, String> usedGuards = new ConcurrentHashMap<>();
+	private final Set<String> cachedFingerprints = new HashSet<>();
+	private final Map<String, String> fingerprints = new HashMap<>();
+
+	public HoistingGuardCache(File file, Grammar grammar, HoistingConfiguration config) {
+		this.file = file;
+		computeFingerprints(grammar, config);
+		load();
+	}
+
+	private void load() {
+		if (!file.isFile()) {
+			return;
+		}
+		try (InputStream in = Files.newInputStream(file.toPath())) {
+			cachedGuards.load(in);
+		} catch (IOException | IllegalArgumentException e) {
+			log.warn("could not read hoisting guard cache " + file + ": " + e.getMessage());
+			cachedGuards.clear();
+		}
+		for (String key : cachedGuards.stringPropertyNames()) {
+			cachedFingerprints.add(key.substring(0, key.indexOf(':')));
+		}
+	}
+
+	public void save() {
+		Properties guards = new Properties();
+		guards.putAll(usedGuards);
+		try {
+			File directory = file.getAbsoluteFile().getParentFile();
+			if (directory != null) {
+				Files.createDirectories(directory.toPath());
+			}
+			try (OutputStream out = Files.newOutputStream(file.toPath())) {
+				guards.store(out, null);
+			}
+		} catch (IOException e) {
+			log.warn("could not write hoisting guard cache " + file + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns whether guards of the given rule were cached by a previous run.
+	 */
+	public boolean isCached(AbstractRule rule) {
+		String fingerprint = fingerprints.get(rule.getName());
+		return fingerprint != null && cachedFingerprints.contains(fingerprint);
+	}
+
+	public HoistingGuard get(AbstractElement element, boolean ignoreCardinality) {
+		String key = getKey(element, ignoreCardinality);
+		if (key == null) {
+			return null;
+		}
+		String value = cachedGuards.getProperty(key);
+		if (value == null || value.length() < 2) {
+			return null;
+		}
+		usedGuards.put(key, value);
+		return new CachedHoistingGuard(value.charAt(0) == '1', value.charAt(1) == '1', value.substring(2));
+	}
+
+	public void put(AbstractElement element, boolean ignoreCardinality, HoistingGuard guard) {
+		String key = getKey(element, ignoreCardinality);
+		if (key == null) {
+			return;
+		}
+		usedGuards.put(key, (guard.isTrivial() ? "1" : "0") + (guard.hasTerminal() ? "1" : "0") + guard.render());
+	}
+
+	private String getKey(AbstractElement element, boolean ignoreCardinality) {
+		AbstractRule rule = containingRule(element);
+		String fingerprint = rule == null ? null : fingerprints.get(rule.getName());
+		if (fingerprint == null) {
+			return null;
+		}
+		return fingerprint + ":" + (ignoreCardinality ? "ignoreCardinality:" : "") + getPathOfElement(element);
+	}
+
+	private void computeFingerprints(Grammar grammar, HoistingConfiguration config) {
+		List<AbstractRule> rules = allRules(grammar);
+		if (rules.isEmpty()) {
+			return;
+		}
+		String header = FORMAT_VERSION + ";" + config.getTokenLimit() + ";" + config.isDebug() + ";"
+				+ grammar.getRules().get(0).getName();
+
+		Map<String, String> structures = new HashMap<>();
+		Map<String, Set<String>> callees = new HashMap<>();
+		Map<String, List<RuleCall>> callSites = new HashMap<>();
+		for (AbstractRule rule : rules) {
+			structures.put(rule.getName(), hash(structure(rule)));
+			Set<String> calledRules = new HashSet<>();
+			for (RuleCall ruleCall : getAllContentsOfType(rule, RuleCall.class)) {
+				if (ruleCall.getRule() != null) {
+					calledRules.add(ruleCall.getRule().getName());
+					callSites.computeIfAbsent(ruleCall.getRule().getName(), r -> new ArrayList<>()).add(ruleCall);
+				}
+			}
+			callees.put(rule.getName(), calledRules);
+		}
+
+		for (AbstractRule rule : rules) {
+			Set<String> dependencies = closure(Collections.singleton(rule.getName()), callees);
+			// the guards of called rules are part of the guard and depend on all call sites of the called rules
+			Map<String, String> followContext = new TreeMap<>();
+			Set<String> followingRules = new HashSet<>();
+			Set<String> visited = new HashSet<>();
+			for (String dependency : dependencies) {
+				collectFollowContext(dependency, callSites, visited, followContext, followingRules);
+			}
+			dependencies.addAll(closure(followingRules, callees));
+			StringBuilder builder = new StringBuilder(header);
+			for (String dependency : dependencies) {
+				builder.append(';').append(dependency).append('=').append(structures.get(dependency));
+			}
+			for (Map.Entry<String, String> callSite : followContext.entrySet()) {
+				builder.append(';').append(callSite.getKey()).append('=').append(callSite.getValue());
+			}
+			fingerprints.put(rule.getName(), hash(builder.toString()));
+		}
+	}
+
+	/**
+	 * Collects the elements that may follow the calls of the given rule. If a call can be the last element of the
+	 * calling rule, the call sites of the calling rule are collected as well.
+	 */
+	private void collectFollowContext(String ruleName, Map<String, List<RuleCall>> callSites, Set<String> visited,
+			Map<String, String> followContext, Set<String> followingRules) {
+		if (!visited.add(ruleName)) {
+			return;
+		}
+		for (RuleCall ruleCall : callSites.getOrDefault(ruleName, Collections.emptyList())) {
+			AbstractRule caller = containingRule(ruleCall);
+			StringBuilder builder = new StringBuilder();
+			boolean canBeLast = true;
+			EObject current = ruleCall;
+			while (current instanceof AbstractElement) {
+				AbstractElement element = (AbstractElement) current;
+				List<AbstractElement> following = new ArrayList<>();
+				if (isMultipleCardinality(element)) {
+					following.add(element);
+				}
+				EObject container = element.eContainer();
+				if (container instanceof Group) {
+					List<AbstractElement> siblings = ((Group) container).getElements();
+					List<AbstractElement> next = siblings.subList(siblings.indexOf(element) + 1, siblings.size());
+					following.addAll(next);
+					canBeLast &= next.stream().allMatch(e -> mayBeEmpty(e, new HashSet<>()));
+				} else if (container instanceof UnorderedGroup) {
+					for (AbstractElement sibling : ((UnorderedGroup) container).getElements()) {
+						if (sibling != element) {
+							following.add(sibling);
+							canBeLast &= mayBeEmpty(sibling, new HashSet<>());
+						}
+					}
+				}
+				for (AbstractElement followingElement : following) {
+					appendStructure(followingElement, !(caller instanceof TerminalRule), builder);
+					for (RuleCall followingCall : getAllContentsOfType(followingElement, RuleCall.class)) {
+						if (followingCall.getRule() != null) {
+							followingRules.add(followingCall.getRule().getName());
+						}
+					}
+					if (followingElement instanceof RuleCall && ((RuleCall) followingElement).getRule() != null) {
+						followingRules.add(((RuleCall) followingElement).getRule().getName());
+					}
+				}
+				builder.append('|');
+				current = container;
+			}
+			followContext.put(caller.getName() + "@" + getPathOfElement(ruleCall), hash(builder.toString()));
+			if (canBeLast) {
+				collectFollowContext(caller.getName(), callSites, visited, followContext, followingRules);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given element may consume no tokens. Recursive rules are considered to be possibly empty.
+	 */
+	private boolean mayBeEmpty(AbstractElement element, Set<AbstractRule> visited) {
+		if (isOptionalCardinality(element) || element instanceof Action) {
+			return true;
+		} else if (element instanceof Assignment) {
+			return mayBeEmpty(((Assignment) element).getTerminal(), visited);
+		} else if (element instanceof RuleCall) {
+			AbstractRule rule = ((RuleCall) element).getRule();
+			if (!(rule instanceof ParserRule)) {
+				return false;
+			}
+			if (!visited.add(rule)) {
+				return true;
+			}
+			boolean result = mayBeEmpty(rule.getAlternatives(), visited);
+			visited.remove(rule);
+			return result;
+		} else if (element instanceof Alternatives) {
+			return ((Alternatives) element).getElements().stream().anyMatch(e -> mayBeEmpty(e, visited));
+		} else if (element instanceof Group || element instanceof UnorderedGroup) {
+			List<AbstractElement> elements = element instanceof Group
+					? ((Group) element).getElements()
+					: ((UnorderedGroup) element).getElements();
+			return elements.stream().allMatch(e -> mayBeEmpty(e, visited));
+		}
+		return false;
+	}
+
+	private Set<String> closure(Set<String> start, Map<String, Set<String>> edges) {
+		Set<String> result = new TreeSet<>(start);
+		Deque<String> queue = new ArrayDeque<>(start);
+		while (!queue.isEmpty()) {
+			for (String next : edges.getOrDefault(queue.pop(), Collections.emptySet())) {
+				if (result.add(next)) {
+					queue.push(next);
+				}
+			}
+		}
+		return result;
+	}
+
+	private String hash(String value) {
+		return Hashing.sha256().hashString(value, StandardCharsets.UTF_8).toString();
+	}
+
+	private String structure(AbstractRule rule) {
+		StringBuilder builder = new StringBuilder();
+		appendStructure(rule, !(rule instanceof TerminalRule), builder);
+		return builder.toString();
+	}
+
+	private void appendStructure(EObject object, boolean renderKeywords, StringBuilder builder) {
+		EClass eClass = object.eClass();
+		builder.append(eClass.getName()).append('(');
+		for (EAttribute attribute : eClass.getEAllAttributes()) {
+			builder.append(attribute.getName()).append('=').append(object.eGet(attribute)).append(';');
+		}
+		if (renderKeywords && object instanceof Keyword) {
+			// keyword conditions depend on the token names of the generated parser
+			builder.append("condition=").append(Token.fromElement((Keyword) object, 1, false).negatedCondition()).append(';');
+		}
+		for (EReference reference : eClass.getEAllReferences()) {
+			if (reference.isContainer() || !object.eIsSet(reference)) {
+				continue;
+			}
+			builder.append(reference.getName()).append('=');
+			Object value = object.eGet(reference);
+			for (Object element : reference.isMany() ? (List<?>) value : Collections.singletonList(value)) {
+				if (reference.isContainment()) {
+					appendStructure((EObject) element, renderKeywords, builder);
+				} else {
+					builder.append(getName((EObject) element));
+				}
+				builder.append(',');
+			}
+			builder.append(';');
+		}
+		builder.append(')');
+	}
+
+	private String getName(EObject object) {
+		if (object instanceof AbstractRule) {
+			return ((AbstractRule) object).getName();
+		} else if (object instanceof Parameter) {
+			return ((Parameter) object).getName();
+		} else if (object instanceof ENamedElement) {
+			return ((ENamedElement) object).getName();
+		} else {
+			return object.eClass().getName();
+		}
+	}
+
+	private static class CachedHoistingGuard implements HoistingGuard {
+		private final boolean trivial;
+		private final boolean terminal;
+		private final String condition;
+
+		CachedHoistingGuard(boolean trivial, boolean terminal, String condition) {
+			this.trivial = trivial;
+			this.terminal = terminal;
+			this.condition = condition;
+		}
+
+		@Override
+		public boolean isTrivial() {
+			return trivial;
+		}
+
+		@Override
+		public boolean hasTerminal() {
+			return terminal;
+		}
+
+		@Override
+		public String render() {
+			return condition;
+		}
+
+		@Override
+		public String render(ContextConnective connective) {
+			return "(" + condition + ")";
+		}
+
+		@Override
+		public String toString() {
+			return "CachedHoistingGuard (" + condition + ")\n";
+		}
+	}
+}
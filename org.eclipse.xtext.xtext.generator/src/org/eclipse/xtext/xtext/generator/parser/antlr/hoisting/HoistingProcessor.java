@@ -8,11 +8,12 @@
  *******************************************************************************/
 package org.eclipse.xtext.xtext.generator.parser.antlr.hoisting;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -69,16 +70,57 @@ import com.google.inject.Singleton;
  */
 @Singleton
 public class HoistingProcessor {
-	private Map<String, HoistingGuard> elementCache = new HashMap<>();
+	private Map<String, HoistingGuard> elementCache = new ConcurrentHashMap<>();
 	
 	private Logger log = Logger.getLogger(this.getClass());
 	
 	private HoistingConfiguration config;
 	private TokenAnalysis analysis;
+	private HoistingGuardCache guardCache;
+	private Grammar grammar;
 	
 	public void init(Grammar grammar) {
+		init(grammar, null);
+	}
+	
+	/**
+	 * @param cacheFile the file that stores the guards of the grammar between generator runs or <code>null</code> 
+	 */
+	public void init(Grammar grammar, File cacheFile) {
+		this.grammar = grammar;
 		config = new HoistingConfiguration(grammar);
 		analysis = new TokenAnalysis(config, grammar);
+		guardCache = cacheFile == null ? null : new HoistingGuardCache(cacheFile, grammar, config);
+		
+		if (!config.isDebug()) {
+			// debug output of concurrent analyses would be interleaved
+			analyzeRules(grammar);
+		}
+	}
+	
+	/**
+	 * Stores the guards that were requested for the given grammar in the cache file that was passed to 
+	 * {@link #init(Grammar, File)}.
+	 */
+	public void saveGuardCache(Grammar grammar) {
+		if (guardCache != null && this.grammar == grammar) {
+			guardCache.save();
+		}
+	}
+	
+	private void analyzeRules(Grammar grammar) {
+		// the guards of independent rules can be found concurrently
+		// the generator requests them afterwards and gets the cached guards
+		allParserRules(grammar).parallelStream()
+			.filter(rule -> guardCache == null || !guardCache.isCached(rule))
+			.forEach(rule -> {
+				try {
+					findGuardForRule(rule);
+				} catch (RuntimeException e) {
+					// failed analyses are not cached
+					// -> the error is reported when the generator requests the guard
+				}
+			});
 	}
 	
 	private HoistingGuard findGuardForOptionalCardinalityWithoutContext(AbstractElement element, AbstractRule currentRule, boolean skipCache) {
@@ -400,19 +442,39 @@ public class HoistingProcessor {
 		if (config.isDebug())
 			log.info("hoisting (trivial) guard of: \n" + abstractElementToString(element));
 		
+		HoistingGuard guard = guardCache == null ? null : guardCache.get(element, true);
+		if (guard != null) {
+			return guard;
+		}
+		
 		AbstractRule rule = containingParserRule(element);
 		if (element instanceof UnorderedGroup) {
-			return findGuardForAlternatives(((CompoundElement) element), rule, false);
+			guard = findGuardForAlternatives(((CompoundElement) element), rule, false);
 		} else {
-			return findGuardForElementWithTrivialCardinality(element, rule, false);
+			guard = findGuardForElementWithTrivialCardinality(element, rule, false);
 		}
+		
+		if (guardCache != null) {
+			guardCache.put(element, true, guard);
+		}
+		return guard;
 	}
 	
 	public HoistingGuard findHoistingGuard(AbstractElement element) {
 		if (config.isDebug())
 			log.info("hoisting guard of: \n" + abstractElementToString(element));
 		
-		return findGuardForElement(element, containingParserRule(element), false);
+		HoistingGuard guard = guardCache == null ? null : guardCache.get(element, false);
+		if (guard != null) {
+			return guard;
+		}
+		
+		guard = findGuardForElement(element, containingParserRule(element), false);
+		
+		if (guardCache != null) {
+			guardCache.put(element, false, guard);
+		}
+		return guard;
 	}
 	
 	private HoistingGuard findGuardForElement(AbstractElement element, AbstractRule currentRule, boolean skipCache) {
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.tokenGuards.TokenGuard;
+
+/**
+ * A conjunction of clauses where each clause is a disjunction of guards.
+ *
+ * Token guards that are shared by several clauses are factored out, i.e. (a || b) && (a || c) is rendered
+ * as a || (b && c). This is applied recursively, so the rendered condition is a decision tree over the
+ * token checks of the clauses and every shared check is evaluated at most once. Token guards are free of
+ * side effects, so their order can be changed. All other guards, e.g. semantic predicates, keep their
+ * order and are still evaluated after the token checks of their clause.
+ */
+public class FactoredConjunction implements Guard {
+	private List<List<Guard>> clauses;
+
+	public FactoredConjunction(List<List<Guard>> clauses) {
+		// identical clauses are redundant in a conjunction
+		Map<List<String>, List<Guard>> distinctClauses = new LinkedHashMap<>();
+		for (List<Guard> clause : clauses) {
+			distinctClauses.putIfAbsent(keys(clause), clause);
+		}
+		this.clauses = factor(new ArrayList<>(distinctClauses.values()));
+	}
+
+	private static List<String> keys(List<Guard> clause) {
+		return clause.stream()
+				.map(FactoredConjunction::key)
+				.collect(Collectors.toList());
+	}
+
+	private static String key(Guard guard) {
+		return guard.render(ContextConnective.DISJUNCTION);
+	}
+
+	private static List<List<Guard>> factor(List<List<Guard>> clauses) {
+		// find the token guard that is shared by most clauses
+		Map<String, Integer> occurrences = new LinkedHashMap<>();
+		for (List<Guard> clause : clauses) {
+			clause.stream()
+				.filter(g -> g instanceof TokenGuard)
+				.map(FactoredConjunction::key)
+				.distinct()
+				.forEach(k -> occurrences.merge(k, 1, Integer::sum));
+		}
+		String shared = null;
+		int maxOccurrences = 1;
+		for (Map.Entry<String, Integer> entry : occurrences.entrySet()) {
+			if (entry.getValue() > maxOccurrences) {
+				shared = entry.getKey();
+				maxOccurrences = entry.getValue();
+			}
+		}
+		if (shared == null) {
+			return clauses;
+		}
+
+		Guard sharedGuard = null;
+		boolean absorbed = false;
+		List<List<Guard>> remainders = new ArrayList<>();
+		List<List<Guard>> others = new ArrayList<>();
+		for (List<Guard> clause : clauses) {
+			List<Guard> remainder = new ArrayList<>();
+			for (Guard guard : clause) {
+				if (guard instanceof TokenGuard && shared.equals(key(guard))) {
+					sharedGuard = guard;
+				} else {
+					remainder.add(guard);
+				}
+			}
+			if (remainder.size() == clause.size()) {
+				others.add(clause);
+			} else if (remainder.isEmpty()) {
+				// a && (a || b) is a
+				absorbed = true;
+			} else {
+				remainders.add(remainder);
+			}
+		}
+
+		List<List<Guard>> result = new ArrayList<>();
+		if (absorbed) {
+			result.add(Arrays.asList(sharedGuard));
+		} else {
+			result.add(Arrays.asList(sharedGuard, new FactoredConjunction(remainders)));
+		}
+		result.addAll(factor(others));
+		return result;
+	}
+
+	@Override
+	public boolean isTrivial() {
+		return clauses.isEmpty();
+	}
+
+	@Override
+	public String render() {
+		if (clauses.size() == 1) {
+			return render(ContextConnective.DISJUNCTION);
+		} else {
+			return render(ContextConnective.CONJUNCTION);
+		}
+	}
+
+	@Override
+	public String render(ContextConnective connective) {
+		if (clauses.size() == 1) {
+			return renderClause(clauses.get(0), connective);
+		} else {
+			String result = clauses.stream()
+					.map(c -> renderClause(c, ContextConnective.CONJUNCTION))
+					.collect(Collectors.joining(" && "));
+			return connective.addParenthesesIfNot(result, ContextConnective.CONJUNCTION);
+		}
+	}
+
+	private static String renderClause(List<Guard> clause, ContextConnective connective) {
+		if (clause.size() == 1) {
+			return clause.get(0).render(connective);
+		} else {
+			String result = clause.stream()
+					.map(g -> g.render(ContextConnective.DISJUNCTION))
+					.collect(Collectors.joining(" || "));
+			return connective.addParenthesesIfNot(result, ContextConnective.DISJUNCTION);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "FactoredConjunction (\n" +
+				clauses.stream()
+					.map(c -> c.stream()
+							.map(Object::toString)
+							.collect(Collectors.joining("\n")))
+					.map(s -> Arrays.stream(s.split("\n"))
+							.map(l -> "\t" + l)
+							.collect(Collectors.joining("\n"))
+					).map(s -> s + "\n")
+					.collect(Collectors.joining("\n")) +
+				")\n";
+	}
+}
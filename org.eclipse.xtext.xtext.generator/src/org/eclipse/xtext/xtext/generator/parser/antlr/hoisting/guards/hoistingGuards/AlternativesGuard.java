@@ -16,6 +16,7 @@ import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.ContextConnective;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.FactoredConjunction;
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.Guard;
 
 /**
@@ -59,33 +60,38 @@ public class AlternativesGuard implements HoistingGuard {
 	@Override
 	public String render(ContextConnective connective) {
 		// there is at least one path that is not trivial
-		List<HoistingGuard> relevantGuards = paths.stream()
+		List<PathGuard> relevantGuards = paths.stream()
 				.filter(Predicate.not(Guard::isTrivial))
 				.collect(Collectors.toList());
 			
 		if (relevantGuards.size() == 1) {
 			return paths.get(0).render(connective);
 		} else {
-			String result = relevantGuards.stream()
-					.map(g -> g.render(ContextConnective.CONJUNCTION))
-					.collect(Collectors.joining(" && "));
-			return connective.addParenthesesIfNot(result, ContextConnective.CONJUNCTION);
+			return factor(relevantGuards).render(connective);
 		}
 	}
 	
 	@Override
 	public String render() {
 		// there is at least one path that is not trivial
-		List<HoistingGuard> relevantGuards = paths.stream()
+		List<PathGuard> relevantGuards = paths.stream()
 				.filter(Predicate.not(Guard::isTrivial))
 				.collect(Collectors.toList());
 
 		if (relevantGuards.size() == 1) {
 			return paths.get(0).render();
 		} else {
-			return render(ContextConnective.CONJUNCTION);
+			return factor(relevantGuards).render();
 		}
 	}
+	
+	private FactoredConjunction factor(List<PathGuard> relevantGuards) {
+		// paths of collapsed alternatives share the tokens of the outer path
+		// -> check shared tokens only once
+		return new FactoredConjunction(relevantGuards.stream()
+				.map(PathGuard::getDisjuncts)
+				.collect(Collectors.toList()));
+	}
 
 	@Override
 	public boolean hasTerminal() {
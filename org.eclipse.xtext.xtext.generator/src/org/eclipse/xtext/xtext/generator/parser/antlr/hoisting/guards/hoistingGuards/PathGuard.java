@@ -8,6 +8,7 @@
  *******************************************************************************/
 package org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.hoistingGuards;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -49,6 +50,13 @@ public class PathGuard implements HoistingGuard {
 		return true;
 	}
 	
+	// package private so AlternativesGuard can access this method
+	List<Guard> getDisjuncts() {
+		List<Guard> result = new ArrayList<>(tokenGuard.getDisjuncts());
+		result.add(hoistngGuard);
+		return result;
+	}
+	
 	@Override
 	public String render() {
 		return render(ContextConnective.DISJUNCTION);
@@ -8,6 +8,7 @@
  *******************************************************************************/
 package org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.tokenGuards;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -15,6 +16,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.ContextConnective;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.FactoredConjunction;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.Guard;
 
 /**
  * @author overflow - Initial contribution and API
@@ -42,7 +45,7 @@ public class AlternativeTokenSequenceGuard implements TokenGuard {
 		if (alternatives.size() == 1) {
 			return alternatives.stream().findAny().get().render();
 		} else {
-			return render(ContextConnective.CONJUNCTION);
+			return factor().render();
 		}
 	}
 	
@@ -51,13 +54,18 @@ public class AlternativeTokenSequenceGuard implements TokenGuard {
 		if (alternatives.size() == 1) {
 			return alternatives.stream().findAny().get().render(connective);
 		} else {
-			String result = alternatives.stream()
-				.map(g -> g.render(ContextConnective.CONJUNCTION))
-				.collect(Collectors.joining(" && "));
-			return connective.addParenthesesIfNot(result, ContextConnective.CONJUNCTION);
+			return factor().render(connective);
 		}
 	}
 	
+	private FactoredConjunction factor() {
+		// alternative token sequences often share tokens
+		// -> check shared tokens only once
+		return new FactoredConjunction(alternatives.stream()
+				.map(g -> new ArrayList<Guard>(g.getDisjuncts()))
+				.collect(Collectors.toList()));
+	}
+	
 	@Override
 	public String toString() {
 		return "AlternativeTokenSequenceGuard (\n" +
@@ -8,6 +8,8 @@
  *******************************************************************************/
 package org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.tokenGuards;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.Guard;
@@ -28,4 +30,11 @@ public interface TokenGuard extends Guard {
 	Set<Integer> getPositions();
 	
 	TokenGuard reduce();
+	
+	/**
+	 * returns the guards whose disjunction is equivalent to this guard
+	 */
+	default List<TokenGuard> getDisjuncts() {
+		return Collections.singletonList(this);
+	}
 }
@@ -8,9 +8,11 @@
  *******************************************************************************/
 package org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.guards.tokenGuards;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -64,6 +66,11 @@ public class TokenSequenceGuard implements TokenGuard {
 		}
 	}
 	
+	@Override
+	public List<TokenGuard> getDisjuncts() {
+		return new ArrayList<>(sequence);
+	}
+	
 	@Override
 	public String render() {
 		if (sequence.size() == 1) {
@@ -12,12 +12,17 @@ import static org.eclipse.xtext.GrammarUtil.*;
 import static org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.utils.DebugUtils.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -36,6 +41,8 @@ import org.eclipse.xtext.Group;
 import org.eclipse.xtext.JavaAction;
 import org.eclipse.xtext.RuleCall;
 import org.eclipse.xtext.UnorderedGroup;
+import org.eclipse.xtext.util.Pair;
+import org.eclipse.xtext.util.Tuples;
 import org.eclipse.xtext.util.XtextSwitch;
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.HoistingConfiguration;
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.exceptions.EndlessPrefixException;
@@ -48,6 +55,9 @@ import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.utils.MutableWrap
 
 /**
  * @author overflow - Initial contribution and API
+ * 
+ * The analysis only reads the grammar, so the results of the entry points are memoized
+ * and an instance can be used by multiple threads.
  */
 public class TokenAnalysis {
 	private HoistingConfiguration config;
@@ -55,13 +65,26 @@ public class TokenAnalysis {
 	
 	private Logger log = Logger.getLogger(TokenAnalysis.class);
 	
+	// values are either TokenAnalysisPaths or the TokenAnalysisAbortedException of the analysis
+	private Map<TokenPathsKey, Object> tokenPathsCache = new ConcurrentHashMap<>();
+	private Map<Pair<AbstractElement, Boolean>, List<AbstractElement>> contextCache = new ConcurrentHashMap<>();
+	private Map<AbstractRule, List<RuleCall>> ruleCallCache = new ConcurrentHashMap<>();
+	
 	public TokenAnalysis(HoistingConfiguration config, Grammar grammar) {
 		this.config = config;
 		this.grammar = grammar;
 	}
 	
 	private List<AbstractElement> getNextElementsInContext(AbstractElement last, boolean considerCardinalities) {
-		return getNextElementsInContext(last, considerCardinalities, new HashSet<>());
+		return contextCache.computeIfAbsent(Tuples.pair(last, considerCardinalities), 
+				k -> Collections.unmodifiableList(getNextElementsInContext(last, considerCardinalities, new HashSet<>())));
+	}
+	
+	private List<RuleCall> findAllRuleCallsCached(AbstractRule rule) {
+		if (rule == null) {
+			return findAllRuleCalls(grammar, rule);
+		}
+		return ruleCallCache.computeIfAbsent(rule, r -> findAllRuleCalls(grammar, r));
 	}
 	
 	private List<AbstractElement> getNextElementsInContext(AbstractElement last, boolean considerCardinalities, Set<AbstractElement> visited) {
@@ -110,7 +133,7 @@ public class TokenAnalysis {
 				result.add(null);
 			}
 			
-			findAllRuleCalls(grammar, rule).stream()
+			findAllRuleCallsCached(rule).stream()
 				.filter(Predicate.not(visited::contains))
 				.forEach(call -> {
 					Set<AbstractElement> _visited = new HashSet<>(visited);
@@ -440,20 +463,89 @@ public class TokenAnalysis {
 		return result;
 	}
 	
+	/**
+	 * Key of the memoized token paths. The analysis of an element only depends on the element,
+	 * the (virtual) cardinality, the analysed positions and the kind of the analysis.
+	 */
+	private static class TokenPathsKey {
+		private AbstractElement element;
+		private String cardinality;
+		private List<Integer> indexes;
+		private boolean analyseContext;
+		private boolean needsLength;
+		private boolean contextOnly;
+		
+		TokenPathsKey(AbstractElement element, String cardinality, List<Integer> indexes, boolean analyseContext, boolean needsLength, boolean contextOnly) {
+			this.element = element;
+			this.cardinality = cardinality;
+			this.indexes = new ArrayList<>(indexes);
+			this.analyseContext = analyseContext;
+			this.needsLength = needsLength;
+			this.contextOnly = contextOnly;
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(element, cardinality, indexes, analyseContext, needsLength, contextOnly);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			TokenPathsKey other = (TokenPathsKey) obj;
+			return element == other.element &&
+					Objects.equals(cardinality, other.cardinality) &&
+					indexes.equals(other.indexes) &&
+					analyseContext == other.analyseContext &&
+					needsLength == other.needsLength &&
+					contextOnly == other.contextOnly;
+		}
+	}
+	
+	private TokenAnalysisPaths memoized(TokenPathsKey key, Supplier<TokenAnalysisPaths> analysis) {
+		Object result = tokenPathsCache.get(key);
+		if (result == null) {
+			try {
+				result = analysis.get();
+			} catch (TokenAnalysisAbortedException e) {
+				// aborted analyses are part of the search for minimal differences
+				// -> remember them as well
+				result = e;
+			}
+			tokenPathsCache.putIfAbsent(key, result);
+		}
+		if (result instanceof TokenAnalysisAbortedException) {
+			throw (TokenAnalysisAbortedException) result;
+		}
+		// callers must not modify the cached paths
+		return (TokenAnalysisPaths) result;
+	}
+	
+	private static String getCardinality(AbstractElement path) {
+		return path == null ? null : path.getCardinality();
+	}
+	
 	private TokenAnalysisPaths getTokenPathsNoLength(AbstractElement path, List<Integer> indexes) {
-		return getTokenPaths(path, new TokenAnalysisPaths(indexes), false, false);
+		return memoized(new TokenPathsKey(path, getCardinality(path), indexes, false, false, false),
+				() -> getTokenPaths(path, new TokenAnalysisPaths(indexes), false, false));
 	}
 	
 	private TokenAnalysisPaths getTokenPathsContext(AbstractElement path, List<Integer> indexes) {
-		return getTokenPaths(path, new TokenAnalysisPaths(indexes), true, true);
+		return memoized(new TokenPathsKey(path, getCardinality(path), indexes, true, true, false),
+				() -> getTokenPaths(path, new TokenAnalysisPaths(indexes), true, true));
 	}
 	
 	private TokenAnalysisPaths getTokenPaths(AbstractElement path, String virtualCardinality, List<Integer> indexes, boolean analyseContext, boolean needsLength) {
-		return getTokenPaths(path, virtualCardinality, new TokenAnalysisPaths(indexes), analyseContext, needsLength);
+		return memoized(new TokenPathsKey(path, virtualCardinality, indexes, analyseContext, needsLength, false),
+				() -> getTokenPaths(path, virtualCardinality, new TokenAnalysisPaths(indexes), analyseContext, needsLength));
 	}
 	
 	private TokenAnalysisPaths getTokenPathsContextOnly(AbstractElement path, List<Integer> indexes) throws TokenAnalysisAbortedException {
-		return getTokenPathsContext(path, new TokenAnalysisPaths(indexes));
+		return memoized(new TokenPathsKey(path, null, indexes, false, false, true),
+				() -> getTokenPathsContext(path, new TokenAnalysisPaths(indexes)));
 	}
 	
 	private List<Integer> range(int i, int j) {
@@ -502,7 +594,7 @@ public class TokenAnalysis {
 		MutableWrapper<Integer> limit = new MutableWrapper<>(config.getTokenLimit());
 		
 		for (int i = 1; i <= limit.get(); i++) {
-			if (tokenCombinations(0, 0, i, callback, limit)) {
+			if (tokenCombinations(new ArrayList<>(i), i, callback, limit)) {
 				return;
 			}
 		}
@@ -517,25 +609,22 @@ public class TokenAnalysis {
 			throw new EndlessPrefixException();
 		}
 	}
-	private boolean tokenCombinations(long prefix, int prefixLength, int ones, Function<List<Integer>, Boolean> callback, MutableWrapper<Integer> limit) {
+	private boolean tokenCombinations(List<Integer> prefix, int ones, Function<List<Integer>, Boolean> callback, MutableWrapper<Integer> limit) {
+		// the prefix holds the ascending indexes chosen so far
+		// it is extended and restored in place, so the token limit is not bound to the width of a bit mask
+		int prefixLength = prefix.isEmpty() ? 0 : prefix.get(prefix.size() - 1) + 1;
+		
 		if (ones <= 0) {
-			List<Integer> indexes = new ArrayList<>(limit.get());
-			int l = limit.get();
-			for (int i = 0; i < l; i++) {
-				if ((prefix & (1 << i)) > 0) {
-					indexes.add(i);
-				}
-			}
-			return callback.apply(indexes);
+			return callback.apply(new ArrayList<>(prefix));
 		} else if (prefixLength + ones > limit.get()) {
 			// prefix is too long
 			return false;
 		} else {
 			// we can not cache the value of limit here since it might be modified during the recursion
 			for (int i = prefixLength; i < limit.get() - ones + 1; i++) {
-				long current = prefix | (1 << i);
+				prefix.add(i);
 				try {
-					if (tokenCombinations(current, i + 1, ones - 1, callback, limit)) {
+					if (tokenCombinations(prefix, ones - 1, callback, limit)) {
 						return true;
 					}
 				} catch (NestedIdenticalPathException e) {
@@ -548,6 +637,8 @@ public class TokenAnalysis {
 					// set limit for calling functions so this index is not checked again
 					limit.set(i);
 					return false;
+				} finally {
+					prefix.remove(prefix.size() - 1);
 				}
 			}
 			return false;
@@ -572,8 +663,8 @@ public class TokenAnalysis {
 			// no context analysis // TODO why?
 			List<List<Token>> tokenListsForPath = getTokenPaths(element, virtualCardinality, indexList, false, true)
 				.getTokenPaths();
-			List<List<Token>> tokenListForContext = getTokenPathsContextOnly(element, indexList)
-				.getTokenPaths();
+			Set<List<Token>> tokenListForContext = new HashSet<>(getTokenPathsContextOnly(element, indexList)
+				.getTokenPaths());
 				
 			if (!tokenListsForPath.stream()
 					.anyMatch(tokenListForContext::contains)
@@ -621,6 +712,16 @@ public class TokenAnalysis {
 					.collect(Collectors.toList());
 			
 			int size = result.size();
+			
+			// index the token lists of all paths once instead of comparing all pairs of paths
+			// the entries of a token list are ordered by path index
+			Map<List<Token>, List<Pair<Integer, List<Token>>>> pathsByTokenList = new HashMap<>();
+			for (int j = 0; j < size; j++) {
+				for (List<Token> tokenList : tokenListsForPaths.get(j)) {
+					pathsByTokenList.computeIfAbsent(tokenList, k -> new ArrayList<>()).add(Tuples.pair(j, tokenList));
+				}
+			}
+			
 			for (int i = 0; i < size; i++) {
 				if (result.get(i) != null) {
 					// we already have a result for this path
@@ -643,36 +744,33 @@ public class TokenAnalysis {
 						tokenListOfCurrentPath.get(0).isInContext(); // first token is in context
 						
 					
-					for (int j = 0; j < size; j++) {
-						if (i == j) {
+					for (Pair<Integer, List<Token>> other : pathsByTokenList.get(tokenListOfCurrentPath)) {
+						if (other.getFirst() == i) {
 							// don't compare to current path
 							continue;
 						}
 						
-						for (List<Token> tokenListOfOther : tokenListsForPaths.get(j)) {
-							if (tokenListOfCurrentPath.equals(tokenListOfOther)) {
-								setResult = false;
-								
-								if (doContextCheck) {
-									if (tokenListOfOther.get(numberOfIndices - 1).isInContext()) {
-										// last token of other is in context
-										if (!tokenListOfOther.get(numberOfIndices - 2).isInContext()) {
-											// context start is at the same position
-											// -> paths are identical
-											
-											throw new NestedIdenticalPathException("identical context start in identical token path");
-										}
-									}
-								}
-								if (doContextCheckWithoutToken) {
-									if (tokenListOfOther.get(0).isInContext()) {
-										// this path also is empty
-										
-										throw new NestedIdenticalPathException("empty nested identical path");
-									}
+						List<Token> tokenListOfOther = other.getSecond();
+						setResult = false;
+						
+						if (doContextCheck) {
+							if (tokenListOfOther.get(numberOfIndices - 1).isInContext()) {
+								// last token of other is in context
+								if (!tokenListOfOther.get(numberOfIndices - 2).isInContext()) {
+									// context start is at the same position
+									// -> paths are identical
+									
+									throw new NestedIdenticalPathException("identical context start in identical token path");
 								}
 							}
 						}
+						if (doContextCheckWithoutToken) {
+							if (tokenListOfOther.get(0).isInContext()) {
+								// this path also is empty
+								
+								throw new NestedIdenticalPathException("empty nested identical path");
+							}
+						}
 					}
 				}
 				
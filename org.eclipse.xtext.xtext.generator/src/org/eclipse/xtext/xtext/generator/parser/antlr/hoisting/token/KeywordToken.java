@@ -8,13 +8,26 @@
  *******************************************************************************/
 package org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.token;
 
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtext.AbstractElement;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.GrammarUtil;
 import org.eclipse.xtext.Keyword;
+import org.eclipse.xtext.xtext.OriginalElement;
+import org.eclipse.xtext.xtext.generator.parser.antlr.CombinedGrammarMarker;
+import org.eclipse.xtext.xtext.generator.parser.antlr.KeywordHelper;
 
 /**
  * @author overflow - Initial contribution and API
  */
 public class KeywordToken extends Token {
+	/**
+	 * The prefix of the fields that hold the token types of the keywords in parsers of combined grammars.
+	 * 
+	 * @since 2.22
+	 */
+	public static final String TOKEN_TYPE_FIELD_PREFIX = "KEYWORD_";
+	
 	private Keyword keyword;
 	
 	KeywordToken(Keyword keyword) {
@@ -23,7 +36,41 @@ public class KeywordToken extends Token {
 
 	@Override
 	public String negatedCondition() {
-		return "!\"" + keyword.getValue().replace("\"", "\\\"") + "\".equals(input.LT(" + position + ").getText())";
+		String tokenType = getTokenType();
+		if (tokenType == null) {
+			return "!\"" + keyword.getValue().replace("\"", "\\\"") + "\".equals(input.LT(" + position + ").getText())";
+		}
+		return "input.LA(" + position + ") != " + tokenType;
+	}
+	
+	/**
+	 * Returns the expression for the token type of the keyword in the generated parser or <code>null</code> if the
+	 * grammar the keyword belongs to is not being generated.
+	 * 
+	 * Parsers with a separate lexer have a constant for each keyword. The keywords of combined grammars are literals
+	 * without a symbolic name, so the parser members declare a field for each keyword that is resolved once from the
+	 * token names of the parser.
+	 */
+	private String getTokenType() {
+		Grammar grammar = GrammarUtil.getGrammar(keyword);
+		CombinedGrammarMarker marker = grammar == null ? null : CombinedGrammarMarker.findInEmfObject(grammar);
+		if (marker == null) {
+			return null;
+		}
+		EObject original = keyword;
+		OriginalElement originalElement = OriginalElement.findInEmfObject(keyword);
+		if (originalElement != null) {
+			original = originalElement.getOriginal();
+		}
+		if (original.eResource() == null || original.eResource().getResourceSet() == null) {
+			return null;
+		}
+		KeywordHelper helper = KeywordHelper.getHelper(original);
+		String ruleName = helper == null ? null : helper.getRuleName(keyword.getValue());
+		if (ruleName != null && marker.isCombinedGrammar()) {
+			return TOKEN_TYPE_FIELD_PREFIX + ruleName;
+		}
+		return ruleName;
 	}
 	
 	@Override
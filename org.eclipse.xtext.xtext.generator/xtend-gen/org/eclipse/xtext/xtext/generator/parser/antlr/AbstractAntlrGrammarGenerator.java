@@ -9,7 +9,9 @@
 package org.eclipse.xtext.xtext.generator.parser.antlr;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.inject.Inject;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -39,6 +41,7 @@ import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Extension;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.eclipse.xtext.xbase.lib.IteratorExtensions;
 import org.eclipse.xtext.xbase.lib.Pair;
 import org.eclipse.xtext.xtext.FlattenedGrammarAccess;
 import org.eclipse.xtext.xtext.RuleFilter;
@@ -56,6 +59,7 @@ import org.eclipse.xtext.xtext.generator.parser.antlr.JavaCodeUtils;
 import org.eclipse.xtext.xtext.generator.parser.antlr.KeywordHelper;
 import org.eclipse.xtext.xtext.generator.parser.antlr.TerminalRuleToLexerBody;
 import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.HoistingProcessor;
+import org.eclipse.xtext.xtext.generator.parser.antlr.hoisting.token.KeywordToken;
 import org.eclipse.xtext.xtext.generator.util.SyntheticTerminalDetector;
 
 @SuppressWarnings("all")
@@ -92,13 +96,26 @@ public abstract class AbstractAntlrGrammarGenerator {
     final Grammar flattened = new FlattenedGrammarAccess(ruleNames, filter).getFlattenedGrammar();
     boolean _isCombinedGrammar = this.isCombinedGrammar();
     new CombinedGrammarMarker(_isCombinedGrammar).attachToEmfObject(flattened);
-    this._hoistingProcessor.init(flattened);
+    this._hoistingProcessor.init(flattened, this.getHoistingCacheFile(it, options));
     fsa.generateFile(this.getGrammarNaming().getParserGrammar(it).getGrammarFileName(), this.compileParser(flattened, options));
     boolean _isCombinedGrammar_1 = this.isCombinedGrammar();
     boolean _not = (!_isCombinedGrammar_1);
     if (_not) {
       fsa.generateFile(this.getGrammarNaming().getLexerGrammar(it).getGrammarFileName(), this.compileLexer(flattened, options));
     }
+    this._hoistingProcessor.saveGuardCache(flattened);
+  }
+  
+  protected File getHoistingCacheFile(final Grammar it, final AntlrOptions options) {
+    String _hoistingCacheDirectory = options.getHoistingCacheDirectory();
+    boolean _tripleEquals = (_hoistingCacheDirectory == null);
+    if (_tripleEquals) {
+      return null;
+    }
+    String _hoistingCacheDirectory_1 = options.getHoistingCacheDirectory();
+    String _name = this.getGrammarNaming().getParserGrammar(it).getName();
+    String _plus = (_name + ".hoisting");
+    return new File(_hoistingCacheDirectory_1, _plus);
   }
   
   protected boolean isCombinedGrammar() {
@@ -383,6 +400,35 @@ public abstract class AbstractAntlrGrammarGenerator {
     return "";
   }
   
+  /**
+   * The token types of the keywords of a combined grammar with semantic predicates. They are resolved once from the
+   * token names of the parser, so the hoisted guards compare the lookahead with a constant.
+   * 
+   * @since 2.22
+   */
+  protected CharSequence compileKeywordTokenTypes(final Grammar it) {
+    StringConcatenation _builder = new StringConcatenation();
+    {
+      if (((this.isCombinedGrammar() && (this.keywordHelper != null)) && (!IteratorExtensions.isEmpty(Iterators.<AbstractSemanticPredicate>filter(it.eAllContents(), AbstractSemanticPredicate.class))))) {
+        {
+          Set<String> _allKeywords = this.keywordHelper.getAllKeywords();
+          for(final String kw : _allKeywords) {
+            _builder.append("private static final int ");
+            _builder.append(KeywordToken.TOKEN_TYPE_FIELD_PREFIX);
+            String _ruleName = this.keywordHelper.getRuleName(kw);
+            _builder.append(_ruleName);
+            _builder.append(" = org.eclipse.xtext.parser.antlr.KeywordTokenTypes.get(tokenNames, \"\'");
+            String _stringInAntlrAction = AntlrGrammarGenUtil.toStringInAntlrAction(AntlrGrammarGenUtil.toAntlrString(kw));
+            _builder.append(_stringInAntlrAction);
+            _builder.append("\'\");");
+            _builder.newLineIfNotEmpty();
+          }
+        }
+      }
+    }
+    return _builder;
+  }
+  
   protected CharSequence compileRules(final Grammar it, final AntlrOptions options) {
     StringConcatenation _builder = new StringConcatenation();
     {
@@ -81,6 +81,10 @@ public class AntlrContentAssistGrammarGenerator extends AbstractAntlrGrammarWith
     _builder.append(_simpleName, "\t");
     _builder.append(" grammarAccess;");
     _builder.newLineIfNotEmpty();
+    _builder.append("\t");
+    CharSequence _compileKeywordTokenTypes = this.compileKeywordTokenTypes(it);
+    _builder.append(_compileKeywordTokenTypes, "\t");
+    _builder.newLineIfNotEmpty();
     {
       boolean _isCombinedGrammar_1 = this.isCombinedGrammar();
       boolean _not = (!_isCombinedGrammar_1);
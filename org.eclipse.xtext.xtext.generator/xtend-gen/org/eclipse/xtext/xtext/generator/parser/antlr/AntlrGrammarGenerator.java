@@ -140,6 +140,10 @@ public class AntlrGrammarGenerator extends AbstractAntlrGrammarWithActionsGenera
     _builder.append(_simpleName, " \t");
     _builder.append(" grammarAccess;");
     _builder.newLineIfNotEmpty();
+    _builder.append(" \t");
+    CharSequence _compileKeywordTokenTypes = this.compileKeywordTokenTypes(it);
+    _builder.append(_compileKeywordTokenTypes, " \t");
+    _builder.newLineIfNotEmpty();
     _builder.newLine();
     _builder.append("    ");
     _builder.append("public ");
@@ -8,6 +8,8 @@
  *******************************************************************************/
 package org.eclipse.xtext.build;
 
+import java.util.concurrent.ExecutorService;
+
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
@@ -35,6 +37,12 @@ public class BuildContext {
 
 	private ClusteringStorageAwareResourceLoader loader;
 
+	private IBuildInstrumentation instrumentation = IBuildInstrumentation.NULL;
+
+	private int storagePrefetchCount = 0;
+
+	private ExecutorService executorService;
+
 	public BuildContext(Function1<? super URI, ? extends IResourceServiceProvider> resourceServiceProviderProvider,
 			XtextResourceSet resourceSet, IndexState oldState, IResourceClusteringPolicy clusteringPolicy,
 			CancelIndicator cancelIndicator) {
@@ -88,4 +96,50 @@ public class BuildContext {
 	public CancelIndicator getCancelIndicator() {
 		return cancelIndicator;
 	}
+
+	/**
+	 * @since 2.22
+	 */
+	public IBuildInstrumentation getInstrumentation() {
+		return instrumentation;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void setInstrumentation(IBuildInstrumentation instrumentation) {
+		this.instrumentation = instrumentation;
+	}
+
+	/**
+	 * @see BuildRequest#getStoragePrefetchCount()
+	 * @since 2.22
+	 */
+	public int getStoragePrefetchCount() {
+		return storagePrefetchCount;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void setStoragePrefetchCount(int storagePrefetchCount) {
+		this.storagePrefetchCount = storagePrefetchCount;
+	}
+
+	/**
+	 * The executor that runs background work of the build, e.g. the storage prefetching, or <code>null</code> if
+	 * none is bound.
+	 * 
+	 * @since 2.22
+	 */
+	public ExecutorService getExecutorService() {
+		return executorService;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
 }
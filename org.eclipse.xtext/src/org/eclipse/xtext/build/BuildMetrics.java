@@ -0,0 +1,314 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.build;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.xbase.lib.util.ToStringBuilder;
+
+import com.google.inject.Singleton;
+
+/**
+ * Aggregates the build timings per {@link IBuildInstrumentation.Phase phase}. Each timing is also emitted as a Java
+ * Flight Recorder event named <code>org.eclipse.xtext.build.Phase</code> if the running JVM supports JFR. The event
+ * begins when the phase is {@link #phaseStarted(Phase, URI) started}, so its duration covers the phase.
+ *
+ * @since 2.22
+ */
+@Singleton
+public class BuildMetrics implements IBuildInstrumentation {
+
+	/**
+	 * Immutable statistics of a single phase.
+	 */
+	public static class PhaseStatistics {
+		private final long count;
+
+		private final long totalNanos;
+
+		private final long maxNanos;
+
+		public PhaseStatistics(long count, long totalNanos, long maxNanos) {
+			this.count = count;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+		}
+
+		/**
+		 * The number of completed phases.
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		/**
+		 * The longest single phase.
+		 */
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		@Override
+		public String toString() {
+			ToStringBuilder b = new ToStringBuilder(this);
+			b.add("count", count);
+			b.add("totalNanos", totalNanos);
+			b.add("maxNanos", maxNanos);
+			return b.toString();
+		}
+	}
+
+	private static class PhaseCounter {
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder totalNanos = new LongAdder();
+
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		void add(long nanos) {
+			count.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		PhaseStatistics get() {
+			return new PhaseStatistics(count.sum(), totalNanos.sum(), maxNanos.get());
+		}
+
+		void reset() {
+			count.reset();
+			totalNanos.reset();
+			maxNanos.set(0);
+		}
+	}
+
+	/**
+	 * Emits JFR events through reflection, such that this bundle does not depend on the <code>jdk.jfr</code> module.
+	 */
+	private static class FlightRecorderEvents {
+		private static final Logger LOG = Logger.getLogger(FlightRecorderEvents.class);
+
+		/** The event type is only defined once per JVM. */
+		static final FlightRecorderEvents INSTANCE = create();
+
+		private final Object factory;
+
+		private final Object eventType;
+
+		private final Method isEnabled;
+
+		private final Method newEvent;
+
+		private final Method set;
+
+		private final Method begin;
+
+		private final Method commit;
+
+		static FlightRecorderEvents create() {
+			try {
+				return new FlightRecorderEvents();
+			} catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+				LOG.debug("Java Flight Recorder events are not available", e);
+				return null;
+			}
+		}
+
+		private FlightRecorderEvents() throws ReflectiveOperationException {
+			ClassLoader loader = ClassLoader.getSystemClassLoader();
+			Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement", true, loader);
+			Constructor<?> newAnnotation = annotationElement.getConstructor(Class.class, Object.class);
+			Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor", true, loader);
+			Constructor<?> newValue = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+			Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory", true, loader);
+			Class<?> event = Class.forName("jdk.jfr.Event", true, loader);
+			List<Object> eventAnnotations = Arrays.asList(
+					newAnnotation.newInstance(Class.forName("jdk.jfr.Name", true, loader),
+							"org.eclipse.xtext.build.Phase"),
+					newAnnotation.newInstance(Class.forName("jdk.jfr.Label", true, loader), "Xtext Build Phase"),
+					newAnnotation.newInstance(Class.forName("jdk.jfr.Category", true, loader),
+							new String[] { "Xtext", "Build" }));
+			List<Object> fields = Arrays.asList(
+					newValue.newInstance(String.class, "phase", Collections.emptyList()),
+					newValue.newInstance(String.class, "uri", Collections.emptyList()),
+					newValue.newInstance(long.class, "elapsed",
+							Collections.singletonList(newAnnotation.newInstance(
+									Class.forName("jdk.jfr.Timespan", true, loader), "NANOSECONDS"))));
+			factory = eventFactory.getMethod("create", List.class, List.class).invoke(null, eventAnnotations,
+					fields);
+			eventType = eventFactory.getMethod("getEventType").invoke(factory);
+			isEnabled = eventType.getClass().getMethod("isEnabled");
+			newEvent = eventFactory.getMethod("newEvent");
+			set = event.getMethod("set", int.class, Object.class);
+			begin = event.getMethod("begin");
+			commit = event.getMethod("commit");
+		}
+
+		/**
+		 * @return a new event whose duration starts now or <code>null</code> if the event type is disabled.
+		 */
+		Object begin() {
+			try {
+				if (!((Boolean) isEnabled.invoke(eventType))) {
+					return null;
+				}
+				Object event = newEvent.invoke(factory);
+				begin.invoke(event);
+				return event;
+			} catch (ReflectiveOperationException e) {
+				LOG.debug("Cannot begin Java Flight Recorder event", e);
+				return null;
+			}
+		}
+
+		/**
+		 * Commit the given event, which ends its duration, or a new event without duration if it is
+		 * <code>null</code>.
+		 */
+		void commit(Object begun, Phase phase, URI uri, long nanos) {
+			try {
+				Object event = begun;
+				if (event == null) {
+					if (!((Boolean) isEnabled.invoke(eventType))) {
+						return;
+					}
+					event = newEvent.invoke(factory);
+				}
+				set.invoke(event, 0, phase.name());
+				set.invoke(event, 1, uri != null ? uri.toString() : null);
+				set.invoke(event, 2, nanos);
+				commit.invoke(event);
+			} catch (ReflectiveOperationException e) {
+				LOG.debug("Cannot emit Java Flight Recorder event", e);
+			}
+		}
+	}
+
+	private final Map<Phase, PhaseCounter> counters = new EnumMap<>(Phase.class);
+
+	private final Map<Counter, LongAdder> events = new EnumMap<>(Counter.class);
+
+	private static class StartedPhase {
+		private final URI uri;
+
+		private final Object event;
+
+		StartedPhase(URI uri, Object event) {
+			this.uri = uri;
+			this.event = event;
+		}
+	}
+
+	/**
+	 * The started phases of each thread, innermost first.
+	 */
+	private final ThreadLocal<Deque<StartedPhase>> startedPhases = ThreadLocal.withInitial(ArrayDeque::new);
+
+	public BuildMetrics() {
+		for (Phase phase : Phase.values()) {
+			counters.put(phase, new PhaseCounter());
+		}
+		for (Counter counter : Counter.values()) {
+			events.put(counter, new LongAdder());
+		}
+	}
+
+	@Override
+	public void phaseStarted(Phase phase, URI uri) {
+		if (FlightRecorderEvents.INSTANCE != null) {
+			Object event = FlightRecorderEvents.INSTANCE.begin();
+			if (event != null) {
+				startedPhases.get().push(new StartedPhase(uri, event));
+			}
+		}
+	}
+
+	@Override
+	public void phaseCompleted(Phase phase, URI uri, long nanos) {
+		counters.get(phase).add(nanos);
+		if (FlightRecorderEvents.INSTANCE != null) {
+			FlightRecorderEvents.INSTANCE.commit(takeStartedEvent(uri), phase, uri, nanos);
+		}
+	}
+
+	/**
+	 * Remove the innermost started phase of the given URI and return its event. Phases that were started later and
+	 * never completed, since they failed, are dropped.
+	 */
+	private Object takeStartedEvent(URI uri) {
+		Deque<StartedPhase> started = startedPhases.get();
+		int depth = 0;
+		for (StartedPhase phase : started) {
+			depth++;
+			if (Objects.equals(phase.uri, uri)) {
+				for (int i = 1; i < depth; i++) {
+					started.pop();
+				}
+				return started.pop().event;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The statistics of all phases since the last {@link #reset() reset}.
+	 */
+	public Map<Phase, PhaseStatistics> getStatistics() {
+		Map<Phase, PhaseStatistics> result = new EnumMap<>(Phase.class);
+		for (Map.Entry<Phase, PhaseCounter> entry : counters.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().get());
+		}
+		return result;
+	}
+
+	/**
+	 * The statistics of the given phase since the last {@link #reset() reset}.
+	 */
+	public PhaseStatistics getStatistics(Phase phase) {
+		return counters.get(phase).get();
+	}
+
+	@Override
+	public void eventOccurred(Counter counter, URI uri) {
+		events.get(counter).increment();
+	}
+
+	/**
+	 * The number of events of the given kind since the last {@link #reset() reset}.
+	 */
+	public long getCount(Counter counter) {
+		return events.get(counter).sum();
+	}
+
+	public void reset() {
+		for (PhaseCounter counter : counters.values()) {
+			counter.reset();
+		}
+		for (LongAdder event : events.values()) {
+			event.reset();
+		}
+	}
+}
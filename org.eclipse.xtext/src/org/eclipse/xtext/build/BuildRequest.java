@@ -20,6 +20,7 @@ import org.eclipse.xtext.resource.XtextResourceSet;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.util.UriUtil;
 import org.eclipse.xtext.validation.Issue;
+import org.eclipse.xtext.xbase.lib.Functions.Function0;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
 
@@ -97,6 +98,18 @@ public class BuildRequest {
 
 	private CancelIndicator cancelIndicator = CancelIndicator.NullImpl;
 
+	private int indexingWorkerCount = 1;
+
+	private Function0<? extends XtextResourceSet> workerResourceSetProvider;
+
+	private boolean skipUnchangedFiles = false;
+
+	private boolean pipelinedGeneration = false;
+
+	private int storagePrefetchCount = 0;
+
+	private boolean evictNodeModels = false;
+
 	public void setBaseDir(URI baseDir) {
 		this.baseDir = baseDir;
 	}
@@ -196,4 +209,114 @@ public class BuildRequest {
 	public void setCancelIndicator(CancelIndicator cancelIndicator) {
 		this.cancelIndicator = cancelIndicator;
 	}
+
+	/**
+	 * The number of workers that load and index changed resources concurrently. Parallel indexing requires a
+	 * {@link #getWorkerResourceSetProvider() worker resource set provider}.
+	 * 
+	 * @since 2.22
+	 */
+	public int getIndexingWorkerCount() {
+		return indexingWorkerCount;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void setIndexingWorkerCount(int indexingWorkerCount) {
+		this.indexingWorkerCount = indexingWorkerCount;
+	}
+
+	/**
+	 * Creates new resource sets that are configured like the {@link #getResourceSet() resource set} of this request,
+	 * e.g. with the same index and URI handlers. Each indexing worker loads its resources into its own resource set.
+	 * 
+	 * @since 2.22
+	 */
+	public Function0<? extends XtextResourceSet> getWorkerResourceSetProvider() {
+		return workerResourceSetProvider;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void setWorkerResourceSetProvider(Function0<? extends XtextResourceSet> workerResourceSetProvider) {
+		this.workerResourceSetProvider = workerResourceSetProvider;
+	}
+
+	/**
+	 * Whether dirty files are skipped if the fingerprint of their content equals the one that was recorded in the
+	 * {@link Source2GeneratedMapping file mappings} when they were built the last time. Enabling this records the
+	 * fingerprints of all built dirty files, otherwise only the already recorded fingerprints are updated.
+	 * 
+	 * @since 2.22
+	 */
+	public boolean isSkipUnchangedFiles() {
+		return skipUnchangedFiles;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void setSkipUnchangedFiles(boolean skipUnchangedFiles) {
+		this.skipUnchangedFiles = skipUnchangedFiles;
+	}
+
+	/**
+	 * Whether generated files are written by a {@link GeneratedFileWriter separate writer stage}, such that writing the
+	 * files of a resource overlaps with linking, validating and generating the next resources. Validation itself still
+	 * runs on the build thread, one resource at a time, since the resources share a single resource set that is not
+	 * thread-safe. The file mappings and the callbacks are still updated in the order of the build, but a generated file
+	 * may not be written yet when {@link #getAfterGenerateFile()} is called. All files are written when the build
+	 * returns.
+	 * 
+	 * @since 2.22
+	 */
+	public boolean isPipelinedGeneration() {
+		return pipelinedGeneration;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void setPipelinedGeneration(boolean pipelinedGeneration) {
+		this.pipelinedGeneration = pipelinedGeneration;
+	}
+
+	/**
+	 * The number of upcoming resources whose storage is read on background threads while the current resource is
+	 * processed. Only resources that are not {@link org.eclipse.xtext.resource.IResourceServiceProviderExtension#isSource(URI)
+	 * sources} are prefetched. The {@link org.eclipse.emf.ecore.resource.URIConverter URI converter} of the resource set
+	 * must support concurrent reads if this is enabled. A value of <code>0</code> disables prefetching.
+	 * 
+	 * @since 2.22
+	 */
+	public int getStoragePrefetchCount() {
+		return storagePrefetchCount;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void setStoragePrefetchCount(int storagePrefetchCount) {
+		this.storagePrefetchCount = storagePrefetchCount;
+	}
+
+	/**
+	 * If enabled, the {@link org.eclipse.xtext.resource.XtextResource#evictNodeModel() node models} of the resources
+	 * are released after they were validated and generated. Later requests for the node model, e.g. from the
+	 * generation of other resources, get it rebuilt by parsing the resource again.
+	 * 
+	 * @since 2.22
+	 */
+	public boolean isEvictNodeModels() {
+		return evictNodeModels;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void setEvictNodeModels(boolean evictNodeModels) {
+		this.evictNodeModels = evictNodeModels;
+	}
 }
@@ -8,22 +8,36 @@
  *******************************************************************************/
 package org.eclipse.xtext.build;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
 import org.eclipse.xtext.resource.IResourceServiceProviderExtension;
 import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.persistence.IResourceStorageFacade;
+import org.eclipse.xtext.resource.persistence.ResourceStorageLoadable;
 import org.eclipse.xtext.resource.persistence.SourceLevelURIsAdapter;
 import org.eclipse.xtext.resource.persistence.StorageAwareResource;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 
 import com.google.common.collect.FluentIterable;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 /**
  * @author Jan Koehnlein - Initial contribution and API
@@ -31,19 +45,35 @@ import com.google.common.collect.FluentIterable;
 public class ClusteringStorageAwareResourceLoader {
 	private final BuildContext context;
 
+	private StoragePrefetcher prefetcher;
+
 	public ClusteringStorageAwareResourceLoader(BuildContext context) {
 		this.context = context;
 	}
 
 	/**
-	 * Execute the given operation in a clustered fashion.
+	 * Execute the given operation in a clustered fashion. If the context allows for
+	 * {@link BuildContext#getStoragePrefetchCount() prefetching}, the storages of the upcoming resources are read on
+	 * background threads of the {@link BuildContext#getExecutorService() executor} of the context.
 	 */
 	public <T> Iterable<T> executeClustered(Iterable<URI> uris, Function1<? super Resource, ? extends T> operation) {
+		if (context.getStoragePrefetchCount() <= 0 || prefetcher != null) {
+			return doExecuteClustered(uris.iterator(), operation);
+		}
+		prefetcher = new StoragePrefetcher(uris.iterator(), context.getStoragePrefetchCount());
+		try {
+			return doExecuteClustered(prefetcher, operation);
+		} finally {
+			prefetcher.close();
+			prefetcher = null;
+		}
+	}
+
+	private <T> Iterable<T> doExecuteClustered(Iterator<URI> iter, Function1<? super Resource, ? extends T> operation) {
 		int loadedURIsCount = 0;
 		Set<URI> sourceLevelURIs = new HashSet<>();
 		List<Resource> resources = new ArrayList<>();
 		List<T> result = new ArrayList<>();
-		Iterator<URI> iter = uris.iterator();
 		while (iter.hasNext()) {
 			URI uri = iter.next();
 			XtextResourceSet resourceSet = context.getResourceSet();
@@ -64,12 +94,103 @@ public class ClusteringStorageAwareResourceLoader {
 				}
 				SourceLevelURIsAdapter.setSourceLevelUrisWithoutCopy(resourceSet, sourceLevelURIs);
 			}
-			resources.add(resourceSet.getResource(uri, true));
+			resources.add(loadResource(resourceSet, uri));
 		}
 		FluentIterable.from(resources).transform(operation::apply).copyInto(result);
 		return result;
 	}
 
+	/**
+	 * Load the resource with the given URI and report the time that it took to load a resource that was not loaded
+	 * yet.
+	 * 
+	 * @since 2.22
+	 */
+	protected Resource loadResource(XtextResourceSet resourceSet, URI uri) {
+		Resource existing = resourceSet.getResource(uri, false);
+		if (existing != null && existing.isLoaded()) {
+			return existing;
+		}
+		context.getInstrumentation().phaseStarted(
+				isSource(uri) ? IBuildInstrumentation.Phase.PARSE : IBuildInstrumentation.Phase.LOAD_STORAGE, uri);
+		long start = System.nanoTime();
+		Resource result = null;
+		if (existing == null) {
+			StorageAwareResource prefetched = prefetcher != null ? prefetcher.take(uri) : null;
+			if (prefetched != null) {
+				resourceSet.getResources().add(prefetched);
+				result = prefetched;
+			} else if (!isSource(uri)) {
+				result = loadResourceDescription(resourceSet, uri);
+			}
+		}
+		if (result == null) {
+			result = resourceSet.getResource(uri, true);
+		}
+		boolean fromStorage = result instanceof StorageAwareResource
+				&& ((StorageAwareResource) result).isLoadedFromStorage();
+		context.getInstrumentation().phaseCompleted(
+				fromStorage ? IBuildInstrumentation.Phase.LOAD_STORAGE : IBuildInstrumentation.Phase.PARSE, uri,
+				System.nanoTime() - start);
+		return result;
+	}
+
+	/**
+	 * Create the resource with the given URI and load only its resource description from the storage. The contents
+	 * are loaded when they are accessed for the first time.
+	 * 
+	 * @return the resource or <code>null</code> if it could not be loaded from the storage.
+	 * @since 2.22
+	 */
+	protected Resource loadResourceDescription(XtextResourceSet resourceSet, URI uri) {
+		Resource resource = resourceSet.createResource(uri);
+		if (resource instanceof StorageAwareResource) {
+			StorageAwareResource storageAwareResource = (StorageAwareResource) resource;
+			IResourceStorageFacade facade = storageAwareResource.getResourceStorageFacade();
+			if (facade != null && facade.loadResourceDescription(storageAwareResource) != null) {
+				return storageAwareResource;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Open the storage of the given resource if it should be prefetched. The resource is not contained in the resource
+	 * set yet. This method is called on the thread of the build, since the decision depends on the current state of
+	 * the resource set, e.g. its source level URIs.
+	 * 
+	 * @return the storage or <code>null</code> if the resource should not be loaded from storage.
+	 * @since 2.22
+	 */
+	protected ResourceStorageLoadable openStorage(StorageAwareResource resource) {
+		IResourceStorageFacade facade = resource.getResourceStorageFacade();
+		if (facade == null || !facade.shouldLoadFromStorage(resource)) {
+			return null;
+		}
+		try {
+			return facade.getOrCreateResourceStorageLoadable(resource);
+		} catch (RuntimeException e) {
+			// let the regular load report the problem
+			return null;
+		}
+	}
+
+	/**
+	 * Load the resource description of the given resource from the given storage. This method is called on a
+	 * background thread and must not access the resource set.
+	 * 
+	 * @return whether the resource was loaded from storage.
+	 * @since 2.22
+	 */
+	protected boolean prefetch(StorageAwareResource resource, ResourceStorageLoadable storage) {
+		try {
+			resource.loadResourceDescriptionFromStorage(storage);
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * Return true if the given uri must be loaded from source.
 	 */
@@ -83,6 +204,8 @@ public class ClusteringStorageAwareResourceLoader {
 	 * Remove all resoures from the resource set without delivering notifications.
 	 */
 	protected void clearResourceSet() {
+		context.getInstrumentation().phaseStarted(IBuildInstrumentation.Phase.FLUSH_CLUSTER, null);
+		long start = System.nanoTime();
 		XtextResourceSet resourceSet = context.getResourceSet();
 		boolean wasDeliver = resourceSet.eDeliver();
 		try {
@@ -91,6 +214,148 @@ public class ClusteringStorageAwareResourceLoader {
 		} finally {
 			resourceSet.eSetDeliver(wasDeliver);
 		}
+		context.getInstrumentation().phaseCompleted(IBuildInstrumentation.Phase.FLUSH_CLUSTER, null,
+				System.nanoTime() - start);
+	}
+
+	/**
+	 * Reads the storages of the upcoming resources on background threads. Each resource is created detached from the
+	 * resource set: it knows the resource set, e.g. to find its storage, but it is only added to it when it is taken by
+	 * the consumer. Thus prefetched resources are not affected if the resource set is cleared in the meantime. Whether
+	 * a resource is prefetched is decided and its storage is opened by the consumer, so the background threads never
+	 * access the resource set while it is modified.
+	 */
+	private class StoragePrefetcher implements Iterator<URI> {
+		private final Iterator<URI> delegate;
+
+		private final int count;
+
+		private final ExecutorService executor;
+
+		/**
+		 * Whether the executor was created for this prefetcher and has to be shut down when it is closed.
+		 */
+		private final boolean ownsExecutor;
+
+		private final Deque<URI> upcoming = new ArrayDeque<>();
+
+		private final Map<URI, Prefetch> pending = new HashMap<>();
+
+		StoragePrefetcher(Iterator<URI> delegate, int count) {
+			this.delegate = delegate;
+			this.count = count;
+			ExecutorService executorService = context.getExecutorService();
+			this.ownsExecutor = executorService == null;
+			this.executor = executorService != null ? executorService
+					: Executors.newFixedThreadPool(count,
+							new ThreadFactoryBuilder().setNameFormat("storage-prefetch-%d").setDaemon(true).build());
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !upcoming.isEmpty() || delegate.hasNext();
+		}
+
+		@Override
+		public URI next() {
+			while (upcoming.size() <= count && delegate.hasNext()) {
+				URI uri = delegate.next();
+				upcoming.add(uri);
+				schedule(uri);
+			}
+			return upcoming.removeFirst();
+		}
+
+		private void schedule(URI uri) {
+			XtextResourceSet resourceSet = context.getResourceSet();
+			if (pending.containsKey(uri) || isSource(uri) || resourceSet.getResource(uri, false) != null) {
+				return;
+			}
+			Resource.Factory factory = resourceSet.getResourceFactoryRegistry().getFactory(uri);
+			Resource resource = factory != null ? factory.createResource(uri) : null;
+			if (resource instanceof StorageAwareResource) {
+				StorageAwareResource storageAwareResource = (StorageAwareResource) resource;
+				storageAwareResource.basicSetResourceSet(resourceSet, null);
+				ResourceStorageLoadable storage = openStorage(storageAwareResource);
+				if (storage != null) {
+					Prefetch prefetch = new Prefetch(storageAwareResource, storage);
+					pending.put(uri, prefetch);
+					executor.execute(prefetch);
+				} else {
+					storageAwareResource.basicSetResourceSet(null, null);
+				}
+			}
+		}
+
+		/**
+		 * Wait for the prefetched resource with the given URI and detach it from the resource set, such that it can be
+		 * added.
+		 * 
+		 * @return the resource or <code>null</code> if it was not prefetched or could not be loaded from storage.
+		 */
+		StorageAwareResource take(URI uri) {
+			Prefetch prefetch = pending.remove(uri);
+			if (prefetch == null) {
+				return null;
+			}
+			// load on this thread if no background thread picked it up yet, e.g. because the executor is busy
+			prefetch.run();
+			StorageAwareResource result;
+			try {
+				result = Uninterruptibles.getUninterruptibly(prefetch);
+			} catch (ExecutionException e) {
+				// let the regular load report the problem
+				return null;
+			}
+			if (result != null) {
+				result.basicSetResourceSet(null, null);
+			}
+			return result;
+		}
+
+		void close() {
+			for (Prefetch prefetch : pending.values()) {
+				prefetch.cancel();
+			}
+			pending.clear();
+			if (ownsExecutor) {
+				executor.shutdown();
+			}
+		}
 	}
 
+	/**
+	 * Loads the description of a detached resource from its opened storage.
+	 */
+	private class Prefetch extends FutureTask<StorageAwareResource> {
+		private final ResourceStorageLoadable storage;
+
+		private final AtomicBoolean started;
+
+		Prefetch(StorageAwareResource resource, ResourceStorageLoadable storage) {
+			this(resource, storage, new AtomicBoolean());
+		}
+
+		private Prefetch(StorageAwareResource resource, ResourceStorageLoadable storage, AtomicBoolean started) {
+			super(() -> {
+				started.set(true);
+				return prefetch(resource, storage) ? resource : null;
+			});
+			this.storage = storage;
+			this.started = started;
+		}
+
+		/**
+		 * Cancel the prefetch and close the storage if it was not read yet.
+		 */
+		void cancel() {
+			if (cancel(false) && !started.get()) {
+				try {
+					storage.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
 }
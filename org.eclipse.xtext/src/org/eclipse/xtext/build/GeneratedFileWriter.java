@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.ContentHandler;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.resource.URIHandler;
+import org.eclipse.xtext.util.RuntimeIOException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * The writer stage of a {@link BuildRequest#isPipelinedGeneration() pipelined build}. Generated files are buffered in
+ * memory and written by a background thread, while the build continues with the next resource. Files are written and
+ * deleted in the order in which the generator issued the operations. Reading a file that has pending operations waits
+ * until they are done.
+ *
+ * At most {@link #getCapacity() capacity} operations are pending at a time. If the writer falls behind, the generator
+ * blocks until an operation is done, so the buffered files do not grow without limit.
+ *
+ * @since 2.22
+ */
+public class GeneratedFileWriter implements AutoCloseable {
+
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private final ExecutorService writer = Executors.newSingleThreadExecutor(
+			new ThreadFactoryBuilder().setNameFormat("generated-file-writer-%d").setDaemon(true).build());
+
+	private final Map<URI, Future<?>> pending = new ConcurrentHashMap<>();
+
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	private final int capacity;
+
+	private final Semaphore permits;
+
+	public GeneratedFileWriter() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity
+	 *            the maximum number of pending operations.
+	 */
+	public GeneratedFileWriter(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.permits = new Semaphore(capacity);
+	}
+
+	/**
+	 * The maximum number of pending operations.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Return a converter that passes all write and delete operations to this writer and delegates everything else to
+	 * the given converter.
+	 */
+	public URIConverter wrap(URIConverter delegate) {
+		return new WriteBehindURIConverter(delegate);
+	}
+
+	/**
+	 * Wait until all pending operations are done.
+	 *
+	 * @throws RuntimeIOException
+	 *             if any operation failed.
+	 */
+	@Override
+	public void close() {
+		writer.shutdown();
+		boolean interrupted = false;
+		while (!writer.isTerminated()) {
+			try {
+				writer.awaitTermination(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		Throwable t = failure.get();
+		if (t instanceof IOException) {
+			throw new RuntimeIOException(t);
+		}
+		if (t instanceof RuntimeException) {
+			throw (RuntimeException) t;
+		}
+		if (t instanceof Error) {
+			throw (Error) t;
+		}
+	}
+
+	/**
+	 * Schedule the operation for the given URI. Blocks while the maximum number of operations is pending.
+	 */
+	protected void schedule(URI uri, IORunnable operation) {
+		permits.acquireUninterruptibly();
+		Future<?> future;
+		try {
+			future = writer.submit(() -> {
+				try {
+					if (failure.get() == null) {
+						operation.run();
+					}
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				} finally {
+					permits.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+		pending.put(uri, future);
+	}
+
+	/**
+	 * Wait until the last pending operation for the given URI is done.
+	 */
+	protected void await(URI uri) {
+		Future<?> future = pending.get(uri);
+		if (future != null) {
+			try {
+				Uninterruptibles.getUninterruptibly(future);
+			} catch (ExecutionException e) {
+				// failures are recorded by the operation itself
+			}
+			pending.remove(uri, future);
+		}
+	}
+
+	protected interface IORunnable {
+		void run() throws IOException;
+	}
+
+	protected class WriteBehindURIConverter implements URIConverter {
+		private final URIConverter delegate;
+
+		protected WriteBehindURIConverter(URIConverter delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public OutputStream createOutputStream(URI uri) throws IOException {
+			return createOutputStream(uri, null);
+		}
+
+		@Override
+		public OutputStream createOutputStream(URI uri, Map<?, ?> options) throws IOException {
+			return new ByteArrayOutputStream() {
+				private boolean closed = false;
+
+				@Override
+				public void close() throws IOException {
+					if (!closed) {
+						closed = true;
+						byte[] content = toByteArray();
+						schedule(uri, () -> {
+							try (OutputStream out = delegate.createOutputStream(uri, options)) {
+								out.write(content);
+							}
+						});
+					}
+				}
+			};
+		}
+
+		@Override
+		public void delete(URI uri, Map<?, ?> options) throws IOException {
+			schedule(uri, () -> delegate.delete(uri, options));
+		}
+
+		@Override
+		public InputStream createInputStream(URI uri) throws IOException {
+			return createInputStream(uri, null);
+		}
+
+		@Override
+		public InputStream createInputStream(URI uri, Map<?, ?> options) throws IOException {
+			await(uri);
+			return delegate.createInputStream(uri, options);
+		}
+
+		@Override
+		public boolean exists(URI uri, Map<?, ?> options) {
+			await(uri);
+			return delegate.exists(uri, options);
+		}
+
+		@Override
+		public Map<String, ?> contentDescription(URI uri, Map<?, ?> options) throws IOException {
+			await(uri);
+			return delegate.contentDescription(uri, options);
+		}
+
+		@Override
+		public Map<String, ?> getAttributes(URI uri, Map<?, ?> options) {
+			await(uri);
+			return delegate.getAttributes(uri, options);
+		}
+
+		@Override
+		public void setAttributes(URI uri, Map<String, ?> attributes, Map<?, ?> options) throws IOException {
+			await(uri);
+			delegate.setAttributes(uri, attributes, options);
+		}
+
+		@Override
+		public URI normalize(URI uri) {
+			return delegate.normalize(uri);
+		}
+
+		@Override
+		public Map<URI, URI> getURIMap() {
+			return delegate.getURIMap();
+		}
+
+		@Override
+		public EList<URIHandler> getURIHandlers() {
+			return delegate.getURIHandlers();
+		}
+
+		@Override
+		public URIHandler getURIHandler(URI uri) {
+			return delegate.getURIHandler(uri);
+		}
+
+		@Override
+		public EList<ContentHandler> getContentHandlers() {
+			return delegate.getContentHandlers();
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.build;
+
+import org.eclipse.emf.common.util.URI;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Receives the timings of the phases of the {@link IncrementalBuilder incremental builder} and the {@link Indexer}.
+ * Implementations are called from the build thread and from parallel indexing workers, so they have to be thread-safe
+ * and fast.
+ *
+ * @since 2.22
+ */
+@ImplementedBy(BuildMetrics.class)
+public interface IBuildInstrumentation {
+
+	/**
+	 * The measured phases of a build.
+	 */
+	enum Phase {
+		/** A complete run of the incremental builder. */
+		BUILD,
+		/** Loading a resource from its binary storage. */
+		LOAD_STORAGE,
+		/** Loading and parsing a resource from source. */
+		PARSE,
+		/** Computing the resource description and its delta. */
+		DESCRIBE,
+		/** Checking whether an indexed resource is affected by the changes of the build. */
+		AFFECTED,
+		/** Resolving the lazy cross references of a resource. */
+		LINK,
+		/** Validating a resource. */
+		VALIDATE,
+		/** Generating code for a resource. */
+		GENERATE,
+		/** Unloading a cluster of resources. */
+		FLUSH_CLUSTER
+	}
+
+	/**
+	 * The counted events of a build.
+	 */
+	enum Counter {
+		/** A clustering policy decided to flush the current cluster. */
+		CLUSTER_FLUSHED,
+		/** A cluster was flushed because a garbage collection could not free enough memory. */
+		MEMORY_PRESSURE,
+		/** A resource was processed again after it was flushed with an earlier cluster of the same build. */
+		RESOURCE_RELOADED
+	}
+
+	/**
+	 * An instrumentation that ignores all timings.
+	 */
+	IBuildInstrumentation NULL = (phase, uri, nanos) -> {
+	};
+
+	/**
+	 * Called before a phase starts. A started phase is followed by {@link #phaseCompleted(Phase, URI, long)} for the
+	 * same URI on the same thread unless it fails. The completed phase may differ from the started one if it is only
+	 * known at the end, e.g. whether a resource was parsed or loaded from storage. Does nothing by default.
+	 *
+	 * @param phase
+	 *            the expected phase.
+	 * @param uri
+	 *            the processed resource. May be <code>null</code> if the phase does not apply to a single resource.
+	 */
+	default void phaseStarted(Phase phase, URI uri) {
+	}
+
+	/**
+	 * Called after a phase was completed.
+	 *
+	 * @param phase
+	 *            the completed phase.
+	 * @param uri
+	 *            the processed resource. May be <code>null</code> if the phase does not apply to a single resource.
+	 * @param nanos
+	 *            the elapsed time in nanoseconds.
+	 */
+	void phaseCompleted(Phase phase, URI uri, long nanos);
+
+	/**
+	 * Called when an event occurred. Ignores the event by default.
+	 *
+	 * @param counter
+	 *            the kind of the event.
+	 * @param uri
+	 *            the affected resource. May be <code>null</code> if the event does not apply to a single resource.
+	 */
+	default void eventOccurred(Counter counter, URI uri) {
+	}
+
+}
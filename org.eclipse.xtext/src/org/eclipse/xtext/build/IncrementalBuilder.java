@@ -9,12 +9,17 @@
 package org.eclipse.xtext.build;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -34,6 +39,7 @@ import org.eclipse.xtext.generator.trace.TraceRegionSerializer;
 import org.eclipse.xtext.parser.IEncodingProvider;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceDescription.Delta;
+import org.eclipse.xtext.resource.IResourceDescriptions;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
 import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.resource.XtextResourceSet;
@@ -192,6 +198,8 @@ public class IncrementalBuilder {
 
 		private BuildRequest request;
 
+		private GeneratedFileWriter fileWriter;
+
 		@Inject
 		private Indexer indexer;
 
@@ -209,7 +217,30 @@ public class IncrementalBuilder {
 		}
 
 		public IncrementalBuilder.Result launch() {
+			if (!request.isPipelinedGeneration()) {
+				return doLaunch();
+			}
+			try (GeneratedFileWriter writer = new GeneratedFileWriter()) {
+				fileWriter = writer;
+				return doLaunch();
+			} finally {
+				fileWriter = null;
+			}
+		}
+
+		/**
+		 * Run the build. If the generation is {@link BuildRequest#isPipelinedGeneration() pipelined}, the generated
+		 * files may still be pending when this method returns.
+		 * 
+		 * @since 2.22
+		 */
+		protected IncrementalBuilder.Result doLaunch() {
 			Source2GeneratedMapping newSource2GeneratedMapping = request.getState().getFileMappings();
+			if (request.isSkipUnchangedFiles()) {
+				request.setDirtyFiles(filterUnchangedFiles(request.getDirtyFiles(), newSource2GeneratedMapping));
+			} else {
+				updateFingerprints(request.getDirtyFiles(), newSource2GeneratedMapping);
+			}
 			Set<URI> unloaded = new HashSet<>();
 			for (URI deleted : request.getDeletedFiles()) {
 				if (unloaded.add(deleted)) {
@@ -261,21 +292,39 @@ public class IncrementalBuilder {
 					(resource) -> {
 						CancelIndicator cancelIndicator = request.getCancelIndicator();
 						operationCanceledManager.checkCanceled(cancelIndicator);
+						IBuildInstrumentation instrumentation = context.getInstrumentation();
+						instrumentation.phaseStarted(IBuildInstrumentation.Phase.LINK, resource.getURI());
+						long start = System.nanoTime();
 						// trigger init
 						resource.getContents();
 						EcoreUtil2.resolveLazyCrossReferences(resource, CancelIndicator.NullImpl);
+						instrumentation.phaseCompleted(IBuildInstrumentation.Phase.LINK, resource.getURI(),
+								System.nanoTime() - start);
 						operationCanceledManager.checkCanceled(cancelIndicator);
+						instrumentation.phaseStarted(IBuildInstrumentation.Phase.DESCRIBE, resource.getURI());
+						start = System.nanoTime();
 						IResourceServiceProvider serviceProvider = getResourceServiceProvider(resource);
 						IResourceDescription.Manager manager = serviceProvider.getResourceDescriptionManager();
 						IResourceDescription description = manager.getResourceDescription(resource);
 						SerializableResourceDescription copiedDescription = SerializableResourceDescription
 								.createCopy(description);
 						result.getNewIndex().addDescription(resource.getURI(), copiedDescription);
+						instrumentation.phaseCompleted(IBuildInstrumentation.Phase.DESCRIBE, resource.getURI(),
+								System.nanoTime() - start);
 						operationCanceledManager.checkCanceled(cancelIndicator);
+						// validation runs on the build thread, a pipelined build only writes the files in the background
 						if (!request.isIndexOnly() && validate(resource) && serviceProvider.get(IShouldGenerate.class)
 								.shouldGenerate(resource, CancelIndicator.NullImpl)) {
 							operationCanceledManager.checkCanceled(cancelIndicator);
+							instrumentation.phaseStarted(IBuildInstrumentation.Phase.GENERATE, resource.getURI());
+							start = System.nanoTime();
 							generate(resource, request, newSource2GeneratedMapping);
+							instrumentation.phaseCompleted(IBuildInstrumentation.Phase.GENERATE, resource.getURI(),
+									System.nanoTime() - start);
+						}
+						if (request.isEvictNodeModels() && resource instanceof XtextResource) {
+							// after generation and storage writing, which may need the nodes
+							((XtextResource) resource).evictNodeModel();
 						}
 						IResourceDescription old = context.getOldState().getResourceDescriptions()
 								.getResourceDescription(resource.getURI());
@@ -286,6 +335,66 @@ public class IncrementalBuilder {
 			return new IncrementalBuilder.Result(request.getState(), resolvedDeltas);
 		}
 
+		/**
+		 * Remove the dirty files whose content did not change since they were built the last time and record the
+		 * fingerprints of the remaining ones.
+		 * 
+		 * @since 2.22
+		 */
+		protected List<URI> filterUnchangedFiles(List<URI> dirtyFiles, Source2GeneratedMapping newMappings) {
+			IResourceDescriptions oldIndex = context.getOldState().getResourceDescriptions();
+			List<URI> result = new ArrayList<>(dirtyFiles.size());
+			for (URI dirty : dirtyFiles) {
+				operationCanceledManager.checkCanceled(request.getCancelIndicator());
+				String fingerprint = computeFingerprint(dirty);
+				if (fingerprint == null || !fingerprint.equals(newMappings.getFingerprint(dirty))
+						|| oldIndex.getResourceDescription(dirty) == null) {
+					newMappings.setFingerprint(dirty, fingerprint);
+					result.add(dirty);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Update the fingerprints of the dirty files that were recorded by an earlier build, such that they never
+		 * describe an outdated content.
+		 * 
+		 * @since 2.22
+		 */
+		protected void updateFingerprints(List<URI> dirtyFiles, Source2GeneratedMapping newMappings) {
+			for (URI dirty : dirtyFiles) {
+				if (newMappings.getFingerprint(dirty) != null) {
+					newMappings.setFingerprint(dirty, computeFingerprint(dirty));
+				}
+			}
+		}
+
+		/**
+		 * Compute the fingerprint of the current content of the given source, or <code>null</code> if it cannot be
+		 * read.
+		 * 
+		 * @since 2.22
+		 */
+		protected String computeFingerprint(URI source) {
+			MessageDigest digest;
+			try {
+				digest = MessageDigest.getInstance("SHA-1");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+			try (InputStream in = request.getResourceSet().getURIConverter().createInputStream(source)) {
+				byte[] buffer = new byte[8192];
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					digest.update(buffer, 0, read);
+				}
+			} catch (IOException e) {
+				return null;
+			}
+			return Base64.getEncoder().encodeToString(digest.digest());
+		}
+
 		private IResourceServiceProvider getResourceServiceProvider(Resource resource) {
 			if (resource instanceof XtextResource) {
 				return ((XtextResource) resource).getResourceServiceProvider();
@@ -301,8 +410,12 @@ public class IncrementalBuilder {
 			if (resourceValidator == null) {
 				return true;
 			}
+			context.getInstrumentation().phaseStarted(IBuildInstrumentation.Phase.VALIDATE, resource.getURI());
+			long start = System.nanoTime();
 			List<Issue> validationResult = resourceValidator.validate(resource, CheckMode.ALL,
 					request.getCancelIndicator());
+			context.getInstrumentation().phaseCompleted(IBuildInstrumentation.Phase.VALIDATE, resource.getURI(),
+					System.nanoTime() - start);
 			return request.getAfterValidate().afterValidate(resource.getURI(), validationResult);
 		}
 
@@ -339,10 +452,9 @@ public class IncrementalBuilder {
 			GeneratorContext generatorContext = new GeneratorContext();
 			generatorContext.setCancelIndicator(request.getCancelIndicator());
 			generator.generate(resource, fileSystemAccess, generatorContext);
-			XtextResourceSet resourceSet = request.getResourceSet();
 			for (URI noLongerCreated : previous) {
 				try {
-					resourceSet.getURIConverter().delete(noLongerCreated, Collections.emptyMap());
+					fileSystemAccess.getConverter().delete(noLongerCreated, Collections.emptyMap());
 					request.getAfterDeleteFile().apply(noLongerCreated);
 				} catch (IOException e) {
 					throw new RuntimeIOException(e);
@@ -352,7 +464,12 @@ public class IncrementalBuilder {
 
 		protected URIBasedFileSystemAccess createFileSystemAccess(IResourceServiceProvider serviceProvider,
 				Resource resource) {
-			return serviceProvider.get(URIBasedFileSystemAccessFactory.class).newFileSystemAccess(resource, request);
+			URIBasedFileSystemAccess result = serviceProvider.get(URIBasedFileSystemAccessFactory.class)
+					.newFileSystemAccess(resource, request);
+			if (fileWriter != null) {
+				result.setConverter(fileWriter.wrap(result.getConverter()));
+			}
+			return result;
 		}
 
 		protected BuildContext getContext() {
@@ -378,6 +495,12 @@ public class IncrementalBuilder {
 	@Inject
 	private OperationCanceledManager operationCanceledManager;
 
+	@Inject
+	private IBuildInstrumentation instrumentation;
+
+	@Inject(optional = true)
+	private ExecutorService executorService;
+
 	/**
 	 * Run the build without clustering.
 	 */
@@ -397,14 +520,22 @@ public class IncrementalBuilder {
 				request.getState().getFileMappings().copy());
 		BuildContext context = new BuildContext(languages, resourceSet, oldState, clusteringPolicy,
 				request.getCancelIndicator());
+		context.setInstrumentation(instrumentation);
+		context.setStoragePrefetchCount(request.getStoragePrefetchCount());
+		context.setExecutorService(executorService);
 		IncrementalBuilder.InternalStatefulIncrementalBuilder builder = provider.get();
 		builder.setContext(context);
 		builder.setRequest(request);
+		instrumentation.phaseStarted(IBuildInstrumentation.Phase.BUILD, request.getBaseDir());
+		long start = System.nanoTime();
 		try {
 			return builder.launch();
 		} catch (Throwable t) {
 			operationCanceledManager.propagateIfCancelException(t);
 			throw t;
+		} finally {
+			instrumentation.phaseCompleted(IBuildInstrumentation.Phase.BUILD, request.getBaseDir(),
+					System.nanoTime() - start);
 		}
 	}
 }
@@ -11,10 +11,17 @@ package org.eclipse.xtext.build;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.URI;
@@ -30,17 +37,23 @@ import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceDescription.Delta;
 import org.eclipse.xtext.resource.IResourceDescriptions;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.XtextResourceSet;
 import org.eclipse.xtext.resource.impl.AbstractResourceDescription;
 import org.eclipse.xtext.resource.impl.DefaultResourceDescriptionDelta;
+import org.eclipse.xtext.resource.impl.DefaultResourceDescriptionManager;
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
 import org.eclipse.xtext.resource.persistence.SerializableEObjectDescriptionProvider;
 import org.eclipse.xtext.service.OperationCanceledManager;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.util.ToStringBuilder;
 
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Inject;
 
 /**
@@ -180,6 +193,9 @@ public class Indexer {
 	@Inject
 	private OperationCanceledManager operationCanceledManager;
 
+	@Inject(optional = true)
+	private ExecutorService executorService;
+
 	/**
 	 * Compute an updated index.
 	 */
@@ -188,22 +204,32 @@ public class Indexer {
 		ResourceDescriptionsData newIndex = request.getState().getResourceDescriptions();
 		List<IResourceDescription.Delta> deltas = new ArrayList<>();
 		deltas.addAll(getDeltasForDeletedResources(request, previousIndex, context));
-		deltas.addAll(getDeltasForChangedResources(request.getDirtyFiles(), previousIndex, context));
+		deltas.addAll(getDeltasForChangedResources(request, request.getDirtyFiles(), previousIndex, context));
 		for (IResourceDescription.Delta delta : deltas) {
 			newIndex.register(delta);
 		}
 		Set<IResourceDescription.Delta> allDeltas = new HashSet<>(deltas);
 		allDeltas.addAll(request.getExternalDeltas());
-		Set<URI> remainingURIs = FluentIterable.from(previousIndex.getAllResourceDescriptions())
-				.transform(IResourceDescription::getURI).copyInto(new HashSet<>());
-		remainingURIs.removeAll(FluentIterable.from(deltas).transform(Delta::getUri).toSet());
-		List<URI> allAffected = FluentIterable.from(remainingURIs).filter(it -> {
+		Set<URI> changedURIs = FluentIterable.from(deltas).transform(Delta::getUri).toSet();
+		Set<URI> candidates = previousIndex.getAffectionCandidates(allDeltas);
+		List<URI> allAffected = FluentIterable.from(previousIndex.getAllURIs()).filter(it -> {
+			if (changedURIs.contains(it)) {
+				return false;
+			}
 			IResourceDescription.Manager manager = context.getResourceServiceProvider(it)
 					.getResourceDescriptionManager();
+			if (candidates != null && !candidates.contains(it) && isAffectedByImportedNamesAndReferencesOnly(manager)) {
+				return false;
+			}
+			context.getInstrumentation().phaseStarted(IBuildInstrumentation.Phase.AFFECTED, it);
+			long start = System.nanoTime();
 			IResourceDescription resourceDescription = previousIndex.getResourceDescription(it);
-			return isAffected(resourceDescription, manager, allDeltas, allDeltas, newIndex);
+			boolean affected = isAffected(resourceDescription, manager, allDeltas, allDeltas, newIndex);
+			context.getInstrumentation().phaseCompleted(IBuildInstrumentation.Phase.AFFECTED, it,
+					System.nanoTime() - start);
+			return affected;
 		}).toList();
-		deltas.addAll(getDeltasForChangedResources(allAffected, previousIndex, context));
+		deltas.addAll(getDeltasForChangedResources(request, allAffected, previousIndex, context));
 		return new Indexer.IndexResult(deltas, newIndex);
 	}
 
@@ -244,6 +270,118 @@ public class Indexer {
 		}
 	}
 
+	/**
+	 * Process the changed resources. If the request allows for {@link BuildRequest#getIndexingWorkerCount() more than
+	 * one indexing worker}, resources that are not yet loaded are loaded and indexed concurrently, each worker using its
+	 * own resource set. The deltas are returned in the order of the given URIs.
+	 * 
+	 * @since 2.22
+	 */
+	protected List<IResourceDescription.Delta> getDeltasForChangedResources(BuildRequest request,
+			Iterable<URI> affectedUris, ResourceDescriptionsData oldIndex, BuildContext context) {
+		int workerCount = request.getIndexingWorkerCount();
+		if (workerCount <= 1 || request.getWorkerResourceSetProvider() == null) {
+			return getDeltasForChangedResources(affectedUris, oldIndex, context);
+		}
+		XtextResourceSet resourceSet = context.getResourceSet();
+		List<URI> toLoad = new ArrayList<>();
+		for (URI uri : affectedUris) {
+			if (resourceSet.getResource(uri, false) == null && context.canHandle(uri)) {
+				toLoad.add(uri);
+			}
+		}
+		if (toLoad.size() <= 1) {
+			return getDeltasForChangedResources(affectedUris, oldIndex, context);
+		}
+		Map<URI, IResourceDescription.Delta> uri2delta = indexInParallel(request, toLoad,
+				Math.min(workerCount, toLoad.size()), oldIndex, context);
+		List<URI> alreadyLoaded = FluentIterable.from(affectedUris).filter(it -> !uri2delta.containsKey(it)).toList();
+		for (IResourceDescription.Delta delta : getDeltasForChangedResources(alreadyLoaded, oldIndex, context)) {
+			uri2delta.put(delta.getUri(), delta);
+		}
+		return FluentIterable.from(affectedUris).transform(uri2delta::get).filter(it -> it != null).toList();
+	}
+
+	/**
+	 * Load and index the given resources with the given number of workers. Each worker processes a contiguous range of
+	 * the URIs in its own resource set and obeys the clustering policy of the build, which is thus shared by the
+	 * workers. The resources that are still loaded when all workers are done are moved to the resource set of the
+	 * build, so they don't have to be parsed again. If a worker fails, the others are canceled.
+	 */
+	private Map<URI, IResourceDescription.Delta> indexInParallel(BuildRequest request, List<URI> uris,
+			int workerCount, ResourceDescriptionsData oldIndex, BuildContext context) {
+		ExecutorService executor = executorService;
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(workerCount);
+		}
+		List<List<URI>> partitions = Lists.partition(uris, (uris.size() + workerCount - 1) / workerCount);
+		List<XtextResourceSet> workerResourceSets = new ArrayList<>(partitions.size());
+		List<Future<Iterable<IResourceDescription.Delta>>> futures = new ArrayList<>(partitions.size());
+		AtomicBoolean failed = new AtomicBoolean();
+		CancelIndicator workerCancelIndicator = () -> failed.get() || context.getCancelIndicator().isCanceled();
+		try {
+			for (List<URI> partition : partitions) {
+				XtextResourceSet workerResourceSet = request.getWorkerResourceSetProvider().apply();
+				workerResourceSets.add(workerResourceSet);
+				BuildContext workerContext = new BuildContext(context::getResourceServiceProvider, workerResourceSet,
+						context.getOldState(), context.getClusteringPolicy(), workerCancelIndicator);
+				workerContext.setInstrumentation(context.getInstrumentation());
+				workerContext.setStoragePrefetchCount(context.getStoragePrefetchCount());
+				workerContext.setExecutorService(context.getExecutorService());
+				compilerPhases.setIndexing(workerResourceSet, true);
+				futures.add(executor.submit(() -> workerContext.executeClustered(partition,
+						it -> addToIndex(it, true, oldIndex, workerContext))));
+			}
+			Map<URI, IResourceDescription.Delta> result = new HashMap<>();
+			Throwable failure = null;
+			for (Future<Iterable<IResourceDescription.Delta>> future : futures) {
+				try {
+					for (IResourceDescription.Delta delta : Uninterruptibles.getUninterruptibly(future)) {
+						result.put(delta.getUri(), delta);
+					}
+				} catch (ExecutionException e) {
+					if (failure == null) {
+						failure = e.getCause();
+						// running workers stop at their next resource
+						failed.set(true);
+						for (Future<?> other : futures) {
+							other.cancel(false);
+						}
+					}
+				} catch (CancellationException e) {
+					// canceled due to an earlier failure
+				}
+			}
+			if (failure != null) {
+				throw Exceptions.sneakyThrow(failure);
+			}
+			for (XtextResourceSet workerResourceSet : workerResourceSets) {
+				adoptResources(workerResourceSet, result.keySet(), context.getResourceSet());
+			}
+			return result;
+		} finally {
+			for (XtextResourceSet workerResourceSet : workerResourceSets) {
+				compilerPhases.setIndexing(workerResourceSet, false);
+			}
+			if (executor != executorService) {
+				executor.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Move the indexed resources from the worker resource set to the resource set of the build.
+	 */
+	private void adoptResources(XtextResourceSet workerResourceSet, Set<URI> indexed, XtextResourceSet target) {
+		for (Resource resource : new ArrayList<>(workerResourceSet.getResources())) {
+			URI uri = resource.getURI();
+			if (indexed.contains(uri) && target.getResource(uri, false) == null) {
+				workerResourceSet.getResources().remove(resource);
+				target.getResources().add(resource);
+			}
+		}
+	}
+
 	/**
 	 * Index the given resource.
 	 *
@@ -254,15 +392,33 @@ public class Indexer {
 			ResourceDescriptionsData oldIndex, BuildContext context) {
 		operationCanceledManager.checkCanceled(context.getCancelIndicator());
 		URI uri = resource.getURI();
+		context.getInstrumentation().phaseStarted(IBuildInstrumentation.Phase.DESCRIBE, uri);
+		long start = System.nanoTime();
 		IResourceServiceProvider serviceProvider = context.getResourceServiceProvider(uri);
 		IResourceDescription.Manager manager = serviceProvider.getResourceDescriptionManager();
 		IResourceDescription newDescription = manager.getResourceDescription(resource);
 		IResourceDescription toBeAdded = new Indexer.ResolvedResourceDescription(newDescription);
 		IResourceDescription.Delta delta = manager
 				.createDelta(oldIndex != null ? oldIndex.getResourceDescription(uri) : null, toBeAdded);
+		context.getInstrumentation().phaseCompleted(IBuildInstrumentation.Phase.DESCRIBE, uri,
+				System.nanoTime() - start);
 		return delta;
 	}
 
+	/**
+	 * Whether the given manager only considers resources affected that import a name that is exported by a delta or
+	 * that reference the resource of a delta. Resources that are not among the
+	 * {@link ResourceDescriptionsData#getAffectionCandidates(Collection) candidates} of the previous index are not
+	 * passed to such a manager at all.
+	 * 
+	 * @since 2.22
+	 */
+	protected boolean isAffectedByImportedNamesAndReferencesOnly(IResourceDescription.Manager manager) {
+		return !(manager instanceof IResourceDescription.Manager.AllChangeAware)
+				&& manager instanceof DefaultResourceDescriptionManager
+				&& ((DefaultResourceDescriptionManager) manager).isAffectedByImportedNamesAndReferencesOnly();
+	}
+
 	/**
 	 * Return true, if the given resource must be processed due to the given changes.
 	 */
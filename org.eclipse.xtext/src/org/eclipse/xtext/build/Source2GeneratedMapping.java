@@ -14,6 +14,7 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -36,6 +37,8 @@ public class Source2GeneratedMapping implements Externalizable {
 
 	private final Map<URI, String> generated2OutputConfigName;
 
+	private final Map<URI, String> source2fingerprint = new HashMap<>();
+
 	public Source2GeneratedMapping() {
 		this(HashMultimap.create(), HashMultimap.create(), new HashMap<>());
 	}
@@ -48,8 +51,10 @@ public class Source2GeneratedMapping implements Externalizable {
 	}
 
 	public Source2GeneratedMapping copy() {
-		return new Source2GeneratedMapping(HashMultimap.create(source2generated), HashMultimap.create(generated2source),
-				new HashMap<>(generated2OutputConfigName));
+		Source2GeneratedMapping result = new Source2GeneratedMapping(HashMultimap.create(source2generated),
+				HashMultimap.create(generated2source), new HashMap<>(generated2OutputConfigName));
+		result.source2fingerprint.putAll(source2fingerprint);
+		return result;
 	}
 
 	/**
@@ -92,6 +97,7 @@ public class Source2GeneratedMapping implements Externalizable {
 	 * Mark the source as deleted and return all the former generated uris.
 	 */
 	public Map<URI, String> deleteSourceAndGetOutputConfigs(URI source) {
+		source2fingerprint.remove(source);
 		Set<URI> generated = new HashSet<>(source2generated.removeAll(source));
 		Map<URI, String> result = new HashMap<>();
 		for (URI gen : generated) {
@@ -142,6 +148,40 @@ public class Source2GeneratedMapping implements Externalizable {
 		return new ArrayList<>(generated2source.keySet());
 	}
 
+	/**
+	 * Return the fingerprint of the content of the given source as it was built, or <code>null</code> if it is
+	 * unknown.
+	 * 
+	 * @since 2.22
+	 */
+	public String getFingerprint(URI source) {
+		return source2fingerprint.get(source);
+	}
+
+	/**
+	 * Record the fingerprint of the content of the given source. <code>null</code> removes the fingerprint.
+	 * 
+	 * @since 2.22
+	 */
+	public void setFingerprint(URI source, String fingerprint) {
+		if (fingerprint == null) {
+			source2fingerprint.remove(source);
+		} else {
+			source2fingerprint.put(source, fingerprint);
+		}
+	}
+
+	/**
+	 * Return all the recorded fingerprints by source.
+	 * 
+	 * Fingerprints are not part of the {@link #writeExternal(ObjectOutput) externalized form} of this mapping.
+	 * 
+	 * @since 2.22
+	 */
+	public Map<URI, String> getAllFingerprints() {
+		return Collections.unmodifiableMap(source2fingerprint);
+	}
+
 	@Override
 	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
 		int numEntries = in.readInt();
@@ -59,11 +59,11 @@ public interface IQualifiedNameConverter {
 			Preconditions.checkArgument(!qualifiedNameAsString.isEmpty(), "Qualified name cannot be empty");
 			String delimiter = getDelimiter();
 			if (Strings.isEmpty(delimiter))
-				return QualifiedName.create(qualifiedNameAsString);
+				return QualifiedNamePool.canonicalize(QualifiedName.create(qualifiedNameAsString));
 			List<String> segs = delimiter.length() == 1
 					? Strings.split(qualifiedNameAsString, delimiter.charAt(0))
 					: Strings.split(qualifiedNameAsString, delimiter);
-			return QualifiedName.create(segs);
+			return QualifiedNamePool.canonicalize(QualifiedName.create(segs));
 		}
 
 		public String getDelimiter() {
@@ -166,9 +166,9 @@ public class QualifiedName implements Comparable<QualifiedName> {
 
 		String[] segments = readSegmentArray(eObjectInputStream, segmentCount, firstSegment);
 		if (lowerCase) {
-			return new QualifiedNameLowerCase(segments);
+			return QualifiedNamePool.canonicalize(new QualifiedNameLowerCase(segments));
 		} else {
-			return new QualifiedName(segments);
+			return QualifiedNamePool.canonicalize(new QualifiedName(segments));
 		}
 	}
 
@@ -373,6 +373,11 @@ public class QualifiedName implements Comparable<QualifiedName> {
 			return true;
 		}
 
+		@Override
+		boolean isLowerCaseInstance() {
+			return true;
+		}
+
 		/**
 		 * We serialize a segmentCount + 1 and a dummy null value as the first entry.
 		 * This is used to retrieve the information about lowercase QN in {@link QualifiedName#createFromStream(EObjectInputStream)}
@@ -426,6 +431,30 @@ public class QualifiedName implements Comparable<QualifiedName> {
 		return lowerCase != null;
 	}
 
+	/**
+	 * Returns <code>true</code> if this instance is the dedicated lower case representation of a name.
+	 */
+	boolean isLowerCaseInstance() {
+		return false;
+	}
+
+	/**
+	 * Replaces the segments by their canonical instances from the given pool.
+	 */
+	void internSegments(QualifiedNamePool pool) {
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = pool.intern(segments[i]);
+		}
+	}
+
+	/**
+	 * Sets the lower case representation of this name. The given name has to be equal to the result of
+	 * {@link #toLowerCase()}.
+	 */
+	void setLowerCase(QualifiedName lowerCase) {
+		this.lowerCase = lowerCase;
+	}
+
 	public boolean equalsIgnoreCase(Object obj) {
 		if (obj == this)
 			return true;
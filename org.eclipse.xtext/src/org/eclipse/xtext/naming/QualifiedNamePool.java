@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.naming;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of canonical {@link QualifiedName qualified names}. Equal names that are {@link #intern(QualifiedName)
+ * interned} share one instance, their segment strings and their {@link QualifiedName#toLowerCase() lower case}
+ * representation. The pool only holds weak references, so names that are no longer used elsewhere can be garbage
+ * collected.
+ *
+ * The {@link #getDefault() default pool} is used when qualified names are read from a stream, converted from strings
+ * by the {@link IQualifiedNameConverter.DefaultImpl default converter} or exported by the
+ * {@link org.eclipse.xtext.resource.impl.DefaultResourceDescriptionStrategy default resource description strategy}.
+ * It is disabled unless the system property {@code xtext.qn.pooling} is set to {@code true} or a pool is installed
+ * with {@link #setDefault(QualifiedNamePool)}.
+ *
+ * @since 2.22
+ */
+public class QualifiedNamePool {
+
+	private static volatile QualifiedNamePool defaultPool = Boolean.getBoolean("xtext.qn.pooling")
+			? new QualifiedNamePool()
+			: null;
+
+	/**
+	 * @return the default pool or <code>null</code> if pooling is disabled.
+	 */
+	public static QualifiedNamePool getDefault() {
+		return defaultPool;
+	}
+
+	/**
+	 * Installs the default pool. Passing <code>null</code> disables pooling.
+	 */
+	public static void setDefault(QualifiedNamePool pool) {
+		defaultPool = pool;
+	}
+
+	/**
+	 * Returns the canonical instance of the given name from the default pool, or the name itself if pooling is
+	 * disabled.
+	 */
+	public static QualifiedName canonicalize(QualifiedName name) {
+		QualifiedNamePool pool = defaultPool;
+		if (pool == null || name == null) {
+			return name;
+		}
+		return pool.intern(name);
+	}
+
+	/**
+	 * A concurrent set of weakly referenced canonical instances. The entries are distributed over a fixed number of
+	 * synchronized maps to reduce contention.
+	 */
+	private static class WeakPool<T> {
+		private final Map<T, WeakReference<T>>[] maps;
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		WeakPool(int stripes) {
+			maps = new Map[stripes];
+			for (int i = 0; i < stripes; i++) {
+				maps[i] = new WeakHashMap<>();
+			}
+		}
+
+		private Map<T, WeakReference<T>> getMap(T key) {
+			int hash = key.hashCode();
+			return maps[(hash ^ (hash >>> 16)) & (maps.length - 1)];
+		}
+
+		T get(T key) {
+			Map<T, WeakReference<T>> map = getMap(key);
+			synchronized (map) {
+				WeakReference<T> reference = map.get(key);
+				return reference != null ? reference.get() : null;
+			}
+		}
+
+		T putIfAbsent(T value) {
+			Map<T, WeakReference<T>> map = getMap(value);
+			synchronized (map) {
+				WeakReference<T> reference = map.get(value);
+				T existing = reference != null ? reference.get() : null;
+				if (existing != null) {
+					return existing;
+				}
+				map.put(value, new WeakReference<>(value));
+				return value;
+			}
+		}
+
+		int size() {
+			int result = 0;
+			for (Map<T, WeakReference<T>> map : maps) {
+				synchronized (map) {
+					result += map.size();
+				}
+			}
+			return result;
+		}
+	}
+
+	private final WeakPool<QualifiedName> names;
+
+	/**
+	 * The lower case representations are pooled separately, since they are serialized differently from equal names.
+	 */
+	private final WeakPool<QualifiedName> lowerCaseNames;
+
+	private final WeakPool<String> segments;
+
+	private final LongAdder requests = new LongAdder();
+
+	private final LongAdder hits = new LongAdder();
+
+	public QualifiedNamePool() {
+		this(Math.max(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4)));
+	}
+
+	/**
+	 * @param stripes
+	 *            the number of independently locked partitions. Must be a power of two.
+	 */
+	public QualifiedNamePool(int stripes) {
+		if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+			throw new IllegalArgumentException("The number of stripes must be a power of two: " + stripes);
+		}
+		names = new WeakPool<>(stripes);
+		lowerCaseNames = new WeakPool<>(stripes);
+		segments = new WeakPool<>(stripes);
+	}
+
+	/**
+	 * Returns the canonical instance that is equal to the given name. If there is none yet, the given name becomes the
+	 * canonical instance. Its segments and its lower case representation are interned as well.
+	 */
+	public QualifiedName intern(QualifiedName name) {
+		if (name.isEmpty()) {
+			return QualifiedName.EMPTY;
+		}
+		requests.increment();
+		WeakPool<QualifiedName> pool = name.isLowerCaseInstance() ? lowerCaseNames : names;
+		QualifiedName existing = pool.get(name);
+		if (existing != null) {
+			hits.increment();
+			return existing;
+		}
+		name.internSegments(this);
+		QualifiedName lowerCase = name.toLowerCase();
+		if (lowerCase != name) {
+			QualifiedName canonicalLowerCase = lowerCaseNames.get(lowerCase);
+			if (canonicalLowerCase == null) {
+				lowerCase.internSegments(this);
+				canonicalLowerCase = lowerCaseNames.putIfAbsent(lowerCase);
+			}
+			name.setLowerCase(canonicalLowerCase);
+		}
+		return pool.putIfAbsent(name);
+	}
+
+	/**
+	 * Returns the canonical instance of the given segment.
+	 */
+	public String intern(String segment) {
+		return segments.putIfAbsent(segment);
+	}
+
+	/**
+	 * The number of names that were passed to {@link #intern(QualifiedName)}.
+	 */
+	public long getRequestCount() {
+		return requests.sum();
+	}
+
+	/**
+	 * The number of names that were passed to {@link #intern(QualifiedName)} and replaced by an existing instance.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * The ratio of {@link #getHitCount() hits} to {@link #getRequestCount() requests}, or <code>0</code> if there were
+	 * no requests.
+	 */
+	public double getHitRatio() {
+		long requestCount = getRequestCount();
+		return requestCount == 0 ? 0 : (double) getHitCount() / requestCount;
+	}
+
+	/**
+	 * The number of names in the pool that were not garbage collected yet, including their lower case representations.
+	 */
+	public int size() {
+		return names.size() + lowerCaseNames.size();
+	}
+
+	public void resetStatistics() {
+		requests.reset();
+		hits.reset();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s [size=%d, requests=%d, hits=%d, hitRatio=%.2f]", getClass().getSimpleName(), size(),
+				getRequestCount(), getHitCount(), getHitRatio());
+	}
+}
@@ -0,0 +1,665 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.nodemodel.impl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.nodemodel.SyntaxErrorMessage;
+import org.eclipse.xtext.nodemodel.impl.AbstractNode.NodeType;
+import org.eclipse.xtext.nodemodel.serialization.DeserializationConversionContext;
+import org.eclipse.xtext.nodemodel.serialization.SerializationConversionContext;
+import org.eclipse.xtext.nodemodel.serialization.SerializationUtil;
+
+/**
+ * A columnar encoding of the node model. Instead of writing one node after the other, each property is written for
+ * all nodes in pre-order as a separate column: the node kinds, the number of children of the composite nodes, the
+ * grammar elements, the lengths of the leaf nodes, the lookahead of the composite nodes, the semantic elements and the
+ * syntax errors. All numbers are written as variable length integers, the ids of grammar elements and semantic
+ * elements as the difference to their predecessor.
+ *
+ * The columns are decoded into arrays, and the nodes are created lazily: the children of a composite node are
+ * created when they are accessed for the first time. Nodes with a semantic element and their ancestors are created
+ * eagerly, since the nodes of semantic elements are found through the adapters of the semantic elements.
+ *
+ * A node model that was built by the parser can be {@link #compact(RootNode) compacted} into the same arrays, so
+ * subtrees without semantic elements, e.g. the hidden tokens and the calls of datatype rules, are only kept as
+ * primitive values until they are visited again.
+ *
+ * @since 2.22
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public class ColumnarNodeModel {
+
+	/**
+	 * The first bytes of an encoded node model. The legacy format starts with the size of the grammar element table as
+	 * a four byte integer.
+	 */
+	public static final byte[] MAGIC = { 'X', 'N', 'M', 'C' };
+
+	public static final int VERSION = 1;
+
+	private static final NodeType[] NODE_TYPE_VALUES = NodeType.values();
+
+	/**
+	 * Returns <code>true</code> if the given bytes start with the {@link #MAGIC magic number}.
+	 */
+	public static boolean isEncoded(byte[] header, int length) {
+		if (length < MAGIC.length) {
+			return false;
+		}
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (header[i] != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public static void write(RootNode root, DataOutputStream out, SerializationConversionContext scc)
+			throws IOException {
+		out.write(MAGIC);
+		SerializationUtil.writeInt(out, VERSION, true);
+		String[] grammarIdToURIMap = scc.getGrammarIdToURIMap();
+		SerializationUtil.writeInt(out, grammarIdToURIMap.length, true);
+		for (String uri : grammarIdToURIMap) {
+			out.writeUTF(uri);
+		}
+		List<AbstractNode> nodes = new ArrayList<>();
+		collectNodes(root, nodes);
+		SerializationUtil.writeInt(out, nodes.size(), true);
+		for (AbstractNode node : nodes) {
+			out.writeByte(node.getNodeId().ordinal());
+		}
+		for (AbstractNode node : nodes) {
+			if (node instanceof CompositeNode) {
+				SerializationUtil.writeInt(out, getChildCount((CompositeNode) node), true);
+			}
+		}
+		for (AbstractNode node : nodes) {
+			Object grammarElementOrArray = node.basicGetGrammarElement();
+			int count = grammarElementOrArray instanceof EObject[] ? ((EObject[]) grammarElementOrArray).length
+					: grammarElementOrArray != null ? 1 : 0;
+			SerializationUtil.writeInt(out, count, true);
+		}
+		int previousId = 0;
+		for (AbstractNode node : nodes) {
+			Object grammarElementOrArray = node.basicGetGrammarElement();
+			if (grammarElementOrArray instanceof EObject[]) {
+				for (EObject grammarElement : (EObject[]) grammarElementOrArray) {
+					previousId = writeDelta(out, getGrammarId(scc, grammarElement), previousId);
+				}
+			} else if (grammarElementOrArray instanceof EObject) {
+				previousId = writeDelta(out, getGrammarId(scc, (EObject) grammarElementOrArray), previousId);
+			} else if (grammarElementOrArray != null) {
+				throw new IllegalStateException("Must write a grammar element but got an unknown object of class "
+						+ grammarElementOrArray.getClass().getName());
+			}
+		}
+		for (AbstractNode node : nodes) {
+			if (node instanceof LeafNode) {
+				SerializationUtil.writeInt(out, ((LeafNode) node).getTotalLength(), true);
+			}
+		}
+		for (AbstractNode node : nodes) {
+			if (node instanceof CompositeNode) {
+				SerializationUtil.writeInt(out, ((CompositeNode) node).getLookAhead(), true);
+			}
+		}
+		previousId = 0;
+		for (AbstractNode node : nodes) {
+			if (node instanceof CompositeNodeWithSemanticElement) {
+				EObject semanticElement = node.basicGetSemanticElement();
+				if (semanticElement == null) {
+					SerializationUtil.writeInt(out, 0, true);
+				} else {
+					int id = scc.getEObjectId(semanticElement);
+					// zero marks a missing semantic element, so the zig-zag encoded delta is shifted by one
+					int delta = id - previousId;
+					SerializationUtil.writeInt(out, ((delta << 1) ^ (delta >> 31)) + 1, true);
+					previousId = id;
+				}
+			}
+		}
+		for (AbstractNode node : nodes) {
+			if (hasSyntaxErrorMessage(node.getNodeId())) {
+				SerializationUtil.writeSyntaxErrorMessage(out, scc, node.getSyntaxErrorMessage());
+			}
+		}
+	}
+
+	public static RootNode read(DataInputStream in, DeserializationConversionContext context) throws IOException {
+		byte[] header = new byte[MAGIC.length];
+		in.readFully(header);
+		if (!isEncoded(header, header.length)) {
+			throw new IOException("Not an encoded node model.");
+		}
+		int version = SerializationUtil.readInt(in, true);
+		if (version != VERSION) {
+			throw new IOException("Unsupported version of the node model encoding: " + version);
+		}
+		String[] grammarIdToURIMap = new String[SerializationUtil.readInt(in, true)];
+		for (int i = 0; i < grammarIdToURIMap.length; i++) {
+			grammarIdToURIMap[i] = in.readUTF();
+		}
+		context.setGrammarIdToURIMap(grammarIdToURIMap);
+		ColumnarNodeModel model = new ColumnarNodeModel(in, context);
+		RootNode root = new RootNode();
+		model.initialize(root, 0);
+		root.basicSetCompleteContent(context.getCompleteContent());
+		return root;
+	}
+
+	/**
+	 * Replaces the children of all composite nodes without semantic elements in their subtree with the arrays of a
+	 * columnar node model. The nodes are created again when they are accessed. Nodes of custom subclasses are kept as
+	 * they are.
+	 */
+	public static void compact(RootNode root) {
+		List<AbstractNode> nodes = new ArrayList<>();
+		collectNodes(root, nodes);
+		ColumnarNodeModel model = new ColumnarNodeModel(nodes, root.getCompleteContent().length());
+		model.compact(root, 0);
+	}
+
+	private static void collectNodes(AbstractNode node, List<AbstractNode> result) {
+		result.add(node);
+		if (node instanceof CompositeNode) {
+			AbstractNode firstChild = ((CompositeNode) node).basicGetFirstChild();
+			if (firstChild != null) {
+				AbstractNode child = firstChild;
+				do {
+					collectNodes(child, result);
+					child = child.basicGetNextSibling();
+				} while (child != firstChild);
+			}
+		}
+	}
+
+	private static int getChildCount(CompositeNode node) {
+		AbstractNode firstChild = node.basicGetFirstChild();
+		if (firstChild == null) {
+			return 0;
+		}
+		int result = 0;
+		AbstractNode child = firstChild;
+		do {
+			result++;
+			child = child.basicGetNextSibling();
+		} while (child != firstChild);
+		return result;
+	}
+
+	private static int getGrammarId(SerializationConversionContext scc, EObject grammarElement) {
+		Integer id = scc.getGrammarElementId(grammarElement);
+		if (id == null) {
+			throw new IllegalStateException("Must write a grammar element but got an unknown EMF object of class "
+					+ grammarElement.getClass().getName());
+		}
+		return id;
+	}
+
+	private static int writeDelta(DataOutputStream out, int id, int previousId) throws IOException {
+		SerializationUtil.writeInt(out, id - previousId, false);
+		return id;
+	}
+
+	private static boolean isStandardNode(AbstractNode node) {
+		switch (node.getNodeId()) {
+			case CompositeNode:
+				return node.getClass() == CompositeNode.class;
+			case CompositeNodeWithSemanticElement:
+				return node.getClass() == CompositeNodeWithSemanticElement.class;
+			case CompositeNodeWithSemanticElementAndSyntaxError:
+				return node.getClass() == CompositeNodeWithSemanticElementAndSyntaxError.class;
+			case CompositeNodeWithSyntaxError:
+				return node.getClass() == CompositeNodeWithSyntaxError.class;
+			case HiddenLeafNode:
+				return node.getClass() == HiddenLeafNode.class;
+			case HiddenLeafNodeWithSyntaxError:
+				return node.getClass() == HiddenLeafNodeWithSyntaxError.class;
+			case LeafNode:
+				return node.getClass() == LeafNode.class;
+			case LeafNodeWithSyntaxError:
+				return node.getClass() == LeafNodeWithSyntaxError.class;
+			default:
+				return false;
+		}
+	}
+
+	private static boolean isComposite(NodeType type) {
+		switch (type) {
+			case CompositeNode:
+			case CompositeNodeWithSemanticElement:
+			case CompositeNodeWithSyntaxError:
+			case CompositeNodeWithSemanticElementAndSyntaxError:
+			case RootNode:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private static boolean hasSemanticElement(NodeType type) {
+		switch (type) {
+			case CompositeNodeWithSemanticElement:
+			case CompositeNodeWithSemanticElementAndSyntaxError:
+			case RootNode:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private static boolean hasSyntaxErrorMessage(NodeType type) {
+		switch (type) {
+			case CompositeNodeWithSyntaxError:
+			case CompositeNodeWithSemanticElementAndSyntaxError:
+			case RootNode:
+			case HiddenLeafNodeWithSyntaxError:
+			case LeafNodeWithSyntaxError:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * The children of a composite node that were not created yet.
+	 */
+	static final class PendingChildren {
+		private final ColumnarNodeModel model;
+
+		private final int index;
+
+		PendingChildren(ColumnarNodeModel model, int index) {
+			this.model = model;
+			this.index = index;
+		}
+
+		int getTotalOffset() {
+			return model.offsets[index];
+		}
+
+		int getTotalLength() {
+			int end = model.subtreeEnds[index];
+			return (end < model.offsets.length ? model.offsets[end] : model.totalLength) - model.offsets[index];
+		}
+
+		void createChildren(CompositeNode node) {
+			synchronized (model) {
+				if (node.basicGetPendingChildren() == this) {
+					model.createChildren(node, index);
+					node.basicSetPendingChildren(null);
+				}
+			}
+		}
+	}
+
+	private final NodeType[] types;
+
+	private final int[] childCounts;
+
+	/**
+	 * The grammar element ids of node <code>i</code> are stored from <code>grammarIdStarts[i]</code> to
+	 * <code>grammarIdStarts[i + 1]</code>.
+	 */
+	private final int[] grammarIdStarts;
+
+	private final int[] grammarIds;
+
+	/**
+	 * The length of leaf nodes and the lookahead of composite nodes.
+	 */
+	private final int[] lengthOrLookAhead;
+
+	private final int[] offsets;
+
+	private int totalLength;
+
+	/**
+	 * The index after the last node of the subtree of each node.
+	 */
+	private final int[] subtreeEnds;
+
+	/**
+	 * The composite nodes whose children are created eagerly.
+	 */
+	private final BitSet eager = new BitSet();
+
+	private final EObject[] grammarElements;
+
+	private final GrammarElementsInterner interner;
+
+	private final Map<Integer, SyntaxErrorMessage> syntaxErrorMessages = new HashMap<>();
+
+	/**
+	 * The ids of the semantic elements. Only needed while the eager nodes are created.
+	 */
+	private int[] semanticIds;
+
+	/**
+	 * Only available while the eager nodes are created.
+	 */
+	private DeserializationConversionContext context;
+
+	private ColumnarNodeModel(DataInputStream in, DeserializationConversionContext context) throws IOException {
+		this.context = context;
+		this.interner = context.getArrayInterner();
+		int nodeCount = SerializationUtil.readInt(in, true);
+		types = new NodeType[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			int ordinal = in.readUnsignedByte();
+			if (ordinal >= NODE_TYPE_VALUES.length) {
+				throw new IOException("Unknown node kind: " + ordinal);
+			}
+			types[i] = NODE_TYPE_VALUES[ordinal];
+		}
+		if (nodeCount == 0 || types[0] != NodeType.RootNode) {
+			throw new IOException("The node model does not start with a root node.");
+		}
+		childCounts = new int[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			if (isComposite(types[i])) {
+				childCounts[i] = SerializationUtil.readInt(in, true);
+			}
+		}
+		grammarIdStarts = new int[nodeCount + 1];
+		for (int i = 0; i < nodeCount; i++) {
+			grammarIdStarts[i + 1] = grammarIdStarts[i] + SerializationUtil.readInt(in, true);
+		}
+		grammarIds = new int[grammarIdStarts[nodeCount]];
+		int previousId = 0;
+		for (int i = 0; i < grammarIds.length; i++) {
+			previousId += SerializationUtil.readInt(in, false);
+			grammarIds[i] = previousId;
+		}
+		grammarElements = new EObject[context.getGrammarElementMapSize()];
+		for (int i = 0; i < grammarElements.length; i++) {
+			grammarElements[i] = context.getGrammarElement(i);
+		}
+		lengthOrLookAhead = new int[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			if (!isComposite(types[i])) {
+				lengthOrLookAhead[i] = SerializationUtil.readInt(in, true);
+			}
+		}
+		for (int i = 0; i < nodeCount; i++) {
+			if (isComposite(types[i])) {
+				lengthOrLookAhead[i] = SerializationUtil.readInt(in, true);
+			}
+		}
+		semanticIds = new int[nodeCount];
+		previousId = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			semanticIds[i] = -1;
+			if (hasSemanticElement(types[i])) {
+				int value = SerializationUtil.readInt(in, true);
+				if (value != 0) {
+					value--;
+					previousId += (value >>> 1) ^ -(value & 1);
+					semanticIds[i] = previousId;
+				}
+			}
+		}
+		for (int i = 0; i < nodeCount; i++) {
+			if (hasSyntaxErrorMessage(types[i])) {
+				SyntaxErrorMessage message = SerializationUtil.readSyntaxErrorMessage(in, context);
+				if (message != null) {
+					syntaxErrorMessages.put(i, message);
+				}
+				context.setHasErrors(true);
+			}
+		}
+		offsets = new int[nodeCount];
+		subtreeEnds = new int[nodeCount];
+		BitSet pinned = new BitSet(nodeCount);
+		for (int i = 0; i < nodeCount; i++) {
+			if (semanticIds[i] >= 0) {
+				pinned.set(i);
+			}
+		}
+		computeStructure(pinned);
+		String completeContent = context.getCompleteContent();
+		if (totalLength != completeContent.length()) {
+			throw new IllegalStateException("The length of the resource's content was " + completeContent.length()
+					+ " but the length calculated based upon the serialized form of the RootNode was " + totalLength);
+		}
+	}
+
+	/**
+	 * Takes the columns from the nodes of a node model that was built by the parser. The nodes with a semantic element
+	 * and the nodes of custom subclasses are pinned, i.e. they and their ancestors are never created again.
+	 */
+	private ColumnarNodeModel(List<AbstractNode> nodes, int expectedLength) {
+		this.interner = new GrammarElementsInterner();
+		int nodeCount = nodes.size();
+		types = new NodeType[nodeCount];
+		childCounts = new int[nodeCount];
+		grammarIdStarts = new int[nodeCount + 1];
+		lengthOrLookAhead = new int[nodeCount];
+		BitSet pinned = new BitSet(nodeCount);
+		Map<EObject, Integer> grammarElementToId = new IdentityHashMap<>();
+		List<EObject> grammarElementList = new ArrayList<>();
+		int[] ids = new int[nodeCount];
+		int idCount = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			AbstractNode node = nodes.get(i);
+			types[i] = node.getNodeId();
+			if (node instanceof CompositeNode) {
+				CompositeNode compositeNode = (CompositeNode) node;
+				childCounts[i] = getChildCount(compositeNode);
+				lengthOrLookAhead[i] = compositeNode.getLookAhead();
+			} else {
+				lengthOrLookAhead[i] = node.getTotalLength();
+			}
+			Object grammarElementOrArray = node.basicGetGrammarElement();
+			EObject[] grammarElementArray = grammarElementOrArray instanceof EObject[]
+					? (EObject[]) grammarElementOrArray
+					: grammarElementOrArray != null ? new EObject[] { (EObject) grammarElementOrArray } : new EObject[0];
+			for (EObject grammarElement : grammarElementArray) {
+				if (idCount == ids.length) {
+					ids = Arrays.copyOf(ids, idCount * 2);
+				}
+				ids[idCount++] = grammarElementToId.computeIfAbsent(grammarElement, it -> {
+					grammarElementList.add(it);
+					return grammarElementList.size() - 1;
+				});
+			}
+			grammarIdStarts[i + 1] = idCount;
+			if (hasSyntaxErrorMessage(types[i]) && node.getSyntaxErrorMessage() != null) {
+				syntaxErrorMessages.put(i, node.getSyntaxErrorMessage());
+			}
+			boolean hasSemanticElement = node instanceof CompositeNodeWithSemanticElement
+					&& node.basicGetSemanticElement() != null;
+			if (hasSemanticElement || !isStandardNode(node)) {
+				pinned.set(i);
+			}
+		}
+		grammarIds = Arrays.copyOf(ids, idCount);
+		grammarElements = grammarElementList.toArray(new EObject[grammarElementList.size()]);
+		offsets = new int[nodeCount];
+		subtreeEnds = new int[nodeCount];
+		try {
+			computeStructure(pinned);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		if (totalLength != expectedLength) {
+			throw new IllegalStateException("The length of the text was " + expectedLength
+					+ " but the length calculated based upon the leaf nodes was " + totalLength);
+		}
+	}
+
+	/**
+	 * Computes the offsets and the extent of the subtrees and marks the ancestors of all pinned nodes as eager.
+	 */
+	private void computeStructure(BitSet pinned) throws IOException {
+		int nodeCount = types.length;
+		int[] parents = new int[nodeCount];
+		int[] stack = new int[nodeCount];
+		int[] remaining = new int[nodeCount];
+		int depth = 0;
+		int offset = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			if (i > 0 && depth == 0) {
+				throw new IOException("Malformed node model: unexpected node " + i + ".");
+			}
+			parents[i] = depth > 0 ? stack[depth - 1] : -1;
+			offsets[i] = offset;
+			if (isComposite(types[i]) && childCounts[i] > 0) {
+				stack[depth] = i;
+				remaining[depth] = childCounts[i];
+				depth++;
+				continue;
+			}
+			if (!isComposite(types[i])) {
+				offset += lengthOrLookAhead[i];
+			}
+			subtreeEnds[i] = i + 1;
+			while (depth > 0 && --remaining[depth - 1] == 0) {
+				depth--;
+				subtreeEnds[stack[depth]] = i + 1;
+			}
+		}
+		if (depth != 0) {
+			throw new IOException("Malformed node model: missing nodes.");
+		}
+		totalLength = offset;
+		for (int i = pinned.nextSetBit(0); i >= 0; i = pinned.nextSetBit(i + 1)) {
+			for (int parent = parents[i]; parent >= 0 && !eager.get(parent); parent = parents[parent]) {
+				eager.set(parent);
+			}
+		}
+	}
+
+	private void initialize(RootNode root, int index) {
+		initializeNode(root, index);
+		createChildrenOrMarkPending(root, index);
+		semanticIds = null;
+		context = null;
+	}
+
+	/**
+	 * Drops the children of the composite nodes that are not eager.
+	 */
+	private void compact(CompositeNode node, int index) {
+		if (childCounts[index] == 0) {
+			return;
+		}
+		if (!eager.get(index)) {
+			node.basicSetFirstChild(null);
+			node.basicSetPendingChildren(new PendingChildren(this, index));
+			return;
+		}
+		AbstractNode child = node.basicGetFirstChild();
+		int childIndex = index + 1;
+		for (int i = 0; i < childCounts[index]; i++) {
+			if (child instanceof CompositeNode) {
+				compact((CompositeNode) child, childIndex);
+			}
+			child = child.basicGetNextSibling();
+			childIndex = subtreeEnds[childIndex];
+		}
+	}
+
+	private void createChildrenOrMarkPending(CompositeNode node, int index) {
+		if (childCounts[index] == 0) {
+			return;
+		}
+		if (eager.get(index)) {
+			createChildren(node, index);
+		} else {
+			node.basicSetPendingChildren(new PendingChildren(this, index));
+		}
+	}
+
+	private void createChildren(CompositeNode node, int index) {
+		AbstractNode first = null;
+		AbstractNode previous = null;
+		int childIndex = index + 1;
+		for (int i = 0; i < childCounts[index]; i++) {
+			AbstractNode child = CompositeNode.createChildNode(types[childIndex]);
+			initializeNode(child, childIndex);
+			child.basicSetParent(node);
+			if (first == null) {
+				first = child;
+			} else {
+				previous.basicSetNextSibling(child);
+				child.basicSetPreviousSibling(previous);
+			}
+			previous = child;
+			if (child instanceof CompositeNode) {
+				createChildrenOrMarkPending((CompositeNode) child, childIndex);
+			}
+			childIndex = subtreeEnds[childIndex];
+		}
+		first.basicSetPreviousSibling(previous);
+		previous.basicSetNextSibling(first);
+		node.basicSetFirstChild(first);
+	}
+
+	private void initializeNode(AbstractNode node, int index) {
+		int start = grammarIdStarts[index];
+		int end = grammarIdStarts[index + 1];
+		if (end > start) {
+			Object grammarElementOrArray = getGrammarElement(grammarIds[start]);
+			for (int i = start + 1; i < end; i++) {
+				grammarElementOrArray = interner.appendAndIntern(grammarElementOrArray, getGrammarElement(grammarIds[i]));
+			}
+			node.basicSetGrammarElement(grammarElementOrArray);
+		}
+		if (node instanceof LeafNode) {
+			LeafNode leafNode = (LeafNode) node;
+			leafNode.basicSetTotalOffset(offsets[index]);
+			leafNode.basicSetTotalLength(lengthOrLookAhead[index]);
+		} else {
+			((CompositeNode) node).basicSetLookAhead(lengthOrLookAhead[index]);
+		}
+		if (node instanceof CompositeNodeWithSemanticElement && semanticIds != null && semanticIds[index] >= 0) {
+			CompositeNodeWithSemanticElement compositeNode = (CompositeNodeWithSemanticElement) node;
+			EObject semanticElement = context.getSemanticObject(semanticIds[index]);
+			compositeNode.basicSetSemanticElement(semanticElement);
+			semanticElement.eAdapters().add(compositeNode);
+		}
+		SyntaxErrorMessage syntaxErrorMessage = syntaxErrorMessages.get(index);
+		if (syntaxErrorMessage != null) {
+			setSyntaxErrorMessage(node, syntaxErrorMessage);
+		}
+	}
+
+	private EObject getGrammarElement(int grammarId) {
+		if (grammarId < 0 || grammarId >= grammarElements.length) {
+			throw new IllegalStateException(
+					"Trying to obtain a grammar element that does not (or no longer) exists with id: " + grammarId);
+		}
+		return grammarElements[grammarId];
+	}
+
+	private void setSyntaxErrorMessage(AbstractNode node, SyntaxErrorMessage syntaxErrorMessage) {
+		if (node instanceof CompositeNodeWithSyntaxError) {
+			((CompositeNodeWithSyntaxError) node).basicSetSyntaxErrorMessage(syntaxErrorMessage);
+		} else if (node instanceof CompositeNodeWithSemanticElementAndSyntaxError) {
+			((CompositeNodeWithSemanticElementAndSyntaxError) node).basicSetSyntaxErrorMessage(syntaxErrorMessage);
+		} else if (node instanceof LeafNodeWithSyntaxError) {
+			((LeafNodeWithSyntaxError) node).basicSetSyntaxErrorMessage(syntaxErrorMessage);
+		} else if (node instanceof HiddenLeafNodeWithSyntaxError) {
+			((HiddenLeafNodeWithSyntaxError) node).basicSetSyntaxErrorMessage(syntaxErrorMessage);
+		}
+	}
+}
@@ -38,6 +38,12 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 	
 	private int lookAhead;
 	
+	/**
+	 * The children of this node that were not created yet, if this node was read from a
+	 * {@link ColumnarNodeModel columnar node model}.
+	 */
+	private volatile ColumnarNodeModel.PendingChildren pendingChildren;
+	
 	@Override
 	public BidiIterable<INode> getChildren() {
 		if (hasChildren()) {
@@ -52,6 +58,7 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 	}
 	
 	public BidiIterable<AbstractNode> basicGetChildren() {
+		AbstractNode firstChild = firstChild();
 		if (firstChild != null) {
 			if (firstChild.hasSiblings()) {
 				return new BasicNodeIterable(firstChild);
@@ -64,7 +71,7 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 	
 	@Override
 	public boolean hasChildren() {
-		return firstChild != null || isFolded();
+		return firstChild != null || pendingChildren != null || isFolded();
 	}
 
 	@Override
@@ -74,6 +81,11 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 	
 	@Override
 	public int getTotalLength() {
+		ColumnarNodeModel.PendingChildren pending = pendingChildren;
+		if (pending != null) {
+			return pending.getTotalLength();
+		}
+		AbstractNode firstChild = firstChild();
 		if (firstChild != null) {
 			int offset = firstChild.getTotalOffset();
 			AbstractNode lastChild = firstChild.basicGetPreviousSibling();
@@ -84,6 +96,11 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 	
 	@Override
 	public int getTotalOffset() {
+		ColumnarNodeModel.PendingChildren pending = pendingChildren;
+		if (pending != null) {
+			return pending.getTotalOffset();
+		}
+		AbstractNode firstChild = firstChild();
 		if (firstChild != null)
 			return firstChild.getTotalOffset();
 		AbstractNode compositeWithSiblings = this;
@@ -121,13 +138,29 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 		if (isFolded()) {
 			return new SyntheticCompositeNode(this, 1);
 		}
-		return firstChild;
+		return firstChild();
 	}
 	
 	protected AbstractNode basicGetFirstChild() {
+		return firstChild();
+	}
+	
+	private AbstractNode firstChild() {
+		ColumnarNodeModel.PendingChildren pending = pendingChildren;
+		if (pending != null) {
+			pending.createChildren(this);
+		}
 		return firstChild;
 	}
 	
+	ColumnarNodeModel.PendingChildren basicGetPendingChildren() {
+		return pendingChildren;
+	}
+	
+	void basicSetPendingChildren(ColumnarNodeModel.PendingChildren pendingChildren) {
+		this.pendingChildren = pendingChildren;
+	}
+	
 	protected void basicSetFirstChild(AbstractNode firstChild) {
 		this.firstChild = firstChild;
 	}
@@ -141,6 +174,7 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 	}
 	
 	protected AbstractNode basicGetLastChild() {
+		AbstractNode firstChild = firstChild();
 		if (firstChild == null)
 			return null;
 		return firstChild.basicGetPreviousSibling();
@@ -218,7 +252,7 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 		lookAhead = SerializationUtil.readInt(in, true);
 	}
 	
-	private AbstractNode createChildNode(AbstractNode.NodeType type) {
+	static AbstractNode createChildNode(AbstractNode.NodeType type) {
 		switch (type) {
 			case CompositeNode:
 				return new CompositeNode();
@@ -250,7 +284,7 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 		int childNodeCount = getChildCount();
 		SerializationUtil.writeInt(out, childNodeCount, true);
 
-		AbstractNode it = firstChild;
+		AbstractNode it = firstChild();
 
 		for (int i = 0; i < childNodeCount; ++i) {
 			SerializationUtil.writeInt(out, it.getNodeId().ordinal(), true);
@@ -262,6 +296,7 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 	}
 
 	private int getChildCount() {
+		AbstractNode firstChild = firstChild();
 		if (firstChild == null) {
 			return 0;
 		}
@@ -282,6 +317,7 @@ public class CompositeNode extends AbstractNode implements ICompositeNode {
 			List<String> grammarIdToURIMap) {
 		currentId = super.fillGrammarElementToIdMap(currentId, grammarElementToIdMap, grammarIdToURIMap);
 
+		AbstractNode firstChild = firstChild();
 		if (firstChild != null) {
 			AbstractNode it = firstChild;
 
@@ -12,6 +12,8 @@ import java.io.LineNumberReader;
 import java.util.Arrays;
 import java.util.List;
 
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.ILeafNode;
 import org.eclipse.xtext.nodemodel.INode;
 import org.eclipse.xtext.util.LineAndColumn;
 
@@ -39,6 +41,28 @@ public class InternalNodeModelUtils {
 		throw new AssertionError();
 	}
 	
+	/**
+	 * Find the leaf node at the given offset with the {@link RootNode#findLeafNodeAtOffset(int) index of the root node}.
+	 * Returns <code>null</code> if there is no such leaf node in the subtree of the given node, or if the node is not
+	 * attached to a root node.
+	 * 
+	 * @since 2.22
+	 */
+	protected static ILeafNode findIndexedLeafNodeAtOffset(AbstractNode node, int leafNodeOffset) {
+		ICompositeNode rootNode = node.getRootNode();
+		if (!(rootNode instanceof RootNode)) {
+			return null;
+		}
+		ILeafNode result = ((RootNode) rootNode).findLeafNodeAtOffset(leafNodeOffset);
+		// detached nodes may still point to the root node
+		for (AbstractNode candidate = (AbstractNode) result; candidate != null; candidate = candidate.basicGetParent()) {
+			if (candidate == node) {
+				return result;
+			}
+		}
+		return null;
+	}
+	
 	/**
 	 * Obtain the line breaks from the document and search / compute the line number
 	 * and column number at the given document offset.
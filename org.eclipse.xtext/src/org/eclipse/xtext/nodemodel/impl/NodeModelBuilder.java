@@ -190,6 +190,7 @@ public class NodeModelBuilder {
 	 * @since 2.8
 	 */
 	protected void replaceByRootNode(CompositeNode oldNode, RootNode rootNode) {
+		rootNode.invalidateLeafNodeIndex();
 		AbstractNode firstChild = oldNode.basicGetFirstChild();
 		rootNode.basicSetFirstChild(firstChild);
 		if (firstChild != null) {
@@ -281,6 +282,9 @@ public class NodeModelBuilder {
 			newCompositeNode.basicSetLookAhead(((ICompositeNode) oldNode).getLookAhead());
 		}
 		ICompositeNode root = newNode.getRootNode();
+		if (root instanceof RootNode) {
+			((RootNode) root).invalidateLeafNodeIndex();
+		}
 		BidiTreeIterator<AbstractNode> iterator = ((AbstractNode) root).basicIterator();
 		int offset = 0;
 		while(iterator.hasNext()) {
@@ -294,6 +298,7 @@ public class NodeModelBuilder {
 
 	protected void replaceWithoutChildren(AbstractNode oldNode, AbstractNode newNode) {
 		CompositeNode parent = oldNode.basicGetParent();
+		invalidateLeafNodeIndex(parent);
 		newNode.basicSetParent(parent);
 		if (parent.basicGetFirstChild() == oldNode) {
 			parent.basicSetFirstChild(newNode);
@@ -314,6 +319,19 @@ public class NodeModelBuilder {
 		}
 	}
 
+	/**
+	 * Discards the leaf node index of the root of the given node, since the nodes below it are replaced.
+	 */
+	private void invalidateLeafNodeIndex(CompositeNode node) {
+		CompositeNode root = node;
+		while (root.basicGetParent() != null) {
+			root = root.basicGetParent();
+		}
+		if (root instanceof RootNode) {
+			((RootNode) root).invalidateLeafNodeIndex();
+		}
+	}
+
 	public void setCompleteContent(ICompositeNode rootNode, String completeContent) {
 		((RootNode)rootNode).basicSetCompleteContent(completeContent);
 	}
@@ -331,4 +349,16 @@ public class NodeModelBuilder {
 		node.basicSetLookAhead(lookAhead);
 	}
 
+	/**
+	 * Keeps the subtrees of the given node model that do not contain semantic elements in compact arrays. Their nodes
+	 * are created again when they are visited.
+	 * 
+	 * @since 2.22
+	 */
+	public void compact(ICompositeNode rootNode) {
+		if (rootNode instanceof RootNode) {
+			((RootNode) rootNode).invalidateLeafNodeIndex();
+			ColumnarNodeModel.compact((RootNode) rootNode);
+		}
+	}
 }
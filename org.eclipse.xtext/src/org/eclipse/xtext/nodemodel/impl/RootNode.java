@@ -10,11 +10,14 @@ package org.eclipse.xtext.nodemodel.impl;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.ILeafNode;
 import org.eclipse.xtext.nodemodel.INode;
 import org.eclipse.xtext.nodemodel.serialization.DeserializationConversionContext;
 
@@ -29,6 +32,8 @@ public class RootNode extends CompositeNodeWithSemanticElementAndSyntaxError {
 	
 	private int[] lineBreakOffsets;
 	
+	private volatile LeafNodeIndex leafNodeIndex;
+	
 	/**
 	 * @return <code>null</code> the root node does not have any parent.
 	 */
@@ -64,6 +69,35 @@ public class RootNode extends CompositeNodeWithSemanticElementAndSyntaxError {
 	protected void basicSetCompleteContent(String completeContent) {
 		this.completeContent = completeContent;
 		this.lineBreakOffsets = computeLineBreaks(completeContent);
+		invalidateLeafNodeIndex();
+	}
+	
+	/**
+	 * Returns the leaf node that contains the given offset or <code>null</code> if there is no such leaf. Empty leaf
+	 * nodes are never returned.
+	 * 
+	 * The offsets of all non-empty leaf nodes are kept in a sorted array that is built on the first request, so the
+	 * leaf node is found by a binary search. Subtrees whose children are still pending, e.g. after the node model was
+	 * {@link NodeModelBuilder#compact(ICompositeNode) compacted}, are kept as a single entry and only the path to the
+	 * requested leaf node is created. The array is discarded when the node model is modified by the
+	 * {@link NodeModelBuilder}.
+	 * 
+	 * @since 2.22
+	 */
+	public ILeafNode findLeafNodeAtOffset(int offset) {
+		LeafNodeIndex index = leafNodeIndex;
+		if (index == null) {
+			index = new LeafNodeIndex(this);
+			leafNodeIndex = index;
+		}
+		return index.findLeafNodeAtOffset(offset);
+	}
+	
+	/**
+	 * @since 2.22
+	 */
+	protected void invalidateLeafNodeIndex() {
+		leafNodeIndex = null;
 	}
 	
 	/**
@@ -199,6 +233,97 @@ public class RootNode extends CompositeNodeWithSemanticElementAndSyntaxError {
 	NodeType getNodeId() {
 		return NodeType.RootNode;
 	}
+	
+	/**
+	 * The non-empty leaf nodes of a node model ordered by their offset. Composite nodes with pending children are
+	 * indexed instead of their leaf nodes, so building the index does not create the pending nodes, and the index
+	 * does not keep the leaf nodes of such a subtree alive once they were created.
+	 */
+	private static final class LeafNodeIndex {
+		
+		private final int[] offsets;
+		
+		private final AbstractNode[] nodes;
+		
+		LeafNodeIndex(RootNode rootNode) {
+			List<AbstractNode> result = new ArrayList<>();
+			collect(rootNode, result);
+			nodes = result.toArray(new AbstractNode[result.size()]);
+			offsets = new int[nodes.length];
+			for (int i = 0; i < nodes.length; i++) {
+				offsets[i] = nodes[i].getTotalOffset();
+			}
+		}
+		
+		private static void collect(CompositeNode node, List<AbstractNode> result) {
+			if (node.basicGetPendingChildren() != null) {
+				if (node.getTotalLength() > 0) {
+					result.add(node);
+				}
+				return;
+			}
+			AbstractNode firstChild = node.basicGetFirstChild();
+			if (firstChild == null) {
+				return;
+			}
+			AbstractNode child = firstChild;
+			do {
+				if (child instanceof CompositeNode) {
+					collect((CompositeNode) child, result);
+				} else if (child.getTotalLength() > 0) {
+					result.add(child);
+				}
+				child = child.basicGetNextSibling();
+			} while (child != firstChild);
+		}
+		
+		ILeafNode findLeafNodeAtOffset(int offset) {
+			int index = Arrays.binarySearch(offsets, offset);
+			if (index < 0) {
+				// the last node that starts before the offset
+				index = -index - 2;
+				if (index < 0) {
+					return null;
+				}
+			}
+			AbstractNode result = nodes[index];
+			if (offset >= offsets[index] + result.getTotalLength()) {
+				return null;
+			}
+			if (result instanceof CompositeNode) {
+				return findLeafNodeInSubtree((CompositeNode) result, offset);
+			}
+			return (ILeafNode) result;
+		}
+		
+		/**
+		 * Descends to the leaf node at the given offset. Only the children of the composite nodes on the path are
+		 * created.
+		 */
+		private static ILeafNode findLeafNodeInSubtree(CompositeNode node, int offset) {
+			CompositeNode current = node;
+			while (true) {
+				AbstractNode firstChild = current.basicGetFirstChild();
+				if (firstChild == null) {
+					return null;
+				}
+				AbstractNode child = firstChild;
+				AbstractNode match = null;
+				do {
+					int childOffset = child.getTotalOffset();
+					if (childOffset <= offset && offset < childOffset + child.getTotalLength()) {
+						match = child;
+					}
+					child = child.basicGetNextSibling();
+				} while (match == null && child != firstChild);
+				if (match instanceof CompositeNode) {
+					current = (CompositeNode) match;
+				} else {
+					return (ILeafNode) match;
+				}
+			}
+		}
+	}
 
 	/**
 	 * @since 2.3
@@ -60,9 +60,37 @@ public class SerializableNodeModel {
 	}
 
 	/**
+	 * Writes the node model in the {@link ColumnarNodeModel columnar format}.
+	 * 
+	 * @since 2.22
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public void writeColumnarObjectData(DataOutputStream out, SerializationConversionContext scc) throws IOException {
+		ColumnarNodeModel.write(root, out, scc);
+	}
+
+	/**
+	 * Reads node models that were written by {@link #writeObjectData(DataOutputStream, SerializationConversionContext)}
+	 * as well as {@link #writeColumnarObjectData(DataOutputStream, SerializationConversionContext) columnar node
+	 * models}, if the given stream supports {@link DataInputStream#mark(int) marks}.
+	 * 
 	 * @noreference This method is not intended to be referenced by clients.
 	 */
 	public void readObjectData(DataInputStream in, DeserializationConversionContext context) throws IOException {
+		if (in.markSupported()) {
+			byte[] header = new byte[ColumnarNodeModel.MAGIC.length];
+			in.mark(header.length);
+			int length = 0;
+			int read;
+			while (length < header.length && (read = in.read(header, length, header.length - length)) >= 0) {
+				length += read;
+			}
+			in.reset();
+			if (ColumnarNodeModel.isEncoded(header, length)) {
+				root = ColumnarNodeModel.read(in, context);
+				return;
+			}
+		}
 		int grammarIdToURIMapLength = in.readInt();
 
 		String[] grammarIdToURIMap = new String[grammarIdToURIMapLength];
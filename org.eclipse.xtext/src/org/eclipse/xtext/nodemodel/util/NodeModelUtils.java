@@ -15,6 +15,7 @@ import java.util.List;
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.AbstractRule;
 import org.eclipse.xtext.Action;
 import org.eclipse.xtext.Assignment;
@@ -35,6 +36,7 @@ import org.eclipse.xtext.nodemodel.impl.InternalNodeModelUtils;
 import org.eclipse.xtext.nodemodel.impl.RootNode;
 import org.eclipse.xtext.resource.EObjectAtOffsetHelper;
 import org.eclipse.xtext.resource.ILocationInFileProvider;
+import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.util.LineAndColumn;
 
 import com.google.common.collect.Lists;
@@ -74,6 +76,13 @@ public class NodeModelUtils extends InternalNodeModelUtils {
 		}
 		int offset = localNode.getTotalOffset();
 		int length = localNode.getTotalLength();
+		if (!intersects(offset, length, leafNodeOffset)) {
+			return null;
+		}
+		ILeafNode indexed = findIndexedLeafNodeAtOffset((AbstractNode) localNode, leafNodeOffset);
+		if (indexed != null) {
+			return indexed;
+		}
 		BidiTreeIterator<AbstractNode> iterator = ((AbstractNode) localNode).basicIterator();
 		if (leafNodeOffset > (offset + length) / 2) {
 			while (iterator.hasPrevious()) {
@@ -140,6 +149,7 @@ public class NodeModelUtils extends InternalNodeModelUtils {
 
 	/**
 	 * Returns the node that is directly associated with the given object by means of an EMF-Adapter.
+	 * An {@link XtextResource#evictNodeModel() evicted} node model of the object's resource is restored.
 	 * 
 	 * @param object the semantic object whose direct node should be provided.
 	 * @return the node that is directly associated with the given object.
@@ -155,6 +165,11 @@ public class NodeModelUtils extends InternalNodeModelUtils {
 			if (adapter instanceof ICompositeNode)
 				return (ICompositeNode) adapter;
 		}
+		Resource resource = object.eResource();
+		if (resource instanceof XtextResource && ((XtextResource) resource).isNodeModelEvicted()) {
+			((XtextResource) resource).restoreNodeModel();
+			return getNode(object);
+		}
 		return null;
 	}
 
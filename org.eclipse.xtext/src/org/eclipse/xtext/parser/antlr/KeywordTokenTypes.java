@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.parser.antlr;
+
+import org.antlr.runtime.Token;
+
+/**
+ * Resolves the token types of keywords in parsers that were generated from combined grammars. The keywords of such
+ * grammars are literals without a symbolic token name, so they are looked up by their entry in the
+ * <code>tokenNames</code> of the generated parser, e.g. <code>'keyword'</code>. The generated parsers resolve each
+ * keyword that is used by the guards of hoisted predicates once and keep it in a constant.
+ *
+ * @since 2.22
+ * @noreference This class is not intended to be referenced by clients. It is used by generated code.
+ */
+public final class KeywordTokenTypes {
+
+	private KeywordTokenTypes() {
+	}
+
+	/**
+	 * Returns the type of the token with the given name or {@link Token#INVALID_TOKEN_TYPE} if there is no such token.
+	 *
+	 * @param tokenNames
+	 *            the token names of the generated parser.
+	 * @param tokenName
+	 *            the literal of the keyword in single quotes as it appears in the token names.
+	 */
+	public static int get(String[] tokenNames, String tokenName) {
+		if (tokenName.length() > 2 && tokenName.charAt(0) == '\'') {
+			for (int i = 0; i < tokenNames.length; i++) {
+				if (tokenName.equals(tokenNames[i])) {
+					return i;
+				}
+			}
+		}
+		return Token.INVALID_TOKEN_TYPE;
+	}
+}
@@ -103,6 +103,17 @@ public class DerivedStateAwareResource extends StorageAwareResource {
 		return doGetContents();
 	}
 
+	/**
+	 * The node model is kept, since the derived state is installed into the same containment lists as the parsed
+	 * objects, so the nodes of a new parse could not be attached to the right objects.
+	 * 
+	 * @since 2.22
+	 */
+	@Override
+	public void evictNodeModel() {
+		// keep the node model
+	}
+
 	/**
 	 * @return the contents without the side effect of installing the derived the state.
 	 * @since 2.4
@@ -20,23 +20,33 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.xtext.Constants;
 import org.eclipse.xtext.ParserRule;
 import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.linking.ILinker;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
 import org.eclipse.xtext.nodemodel.INode;
 import org.eclipse.xtext.nodemodel.SyntaxErrorMessage;
+import org.eclipse.xtext.nodemodel.impl.NodeModelBuilder;
 import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
 import org.eclipse.xtext.parser.IEncodingProvider;
 import org.eclipse.xtext.parser.IParseResult;
 import org.eclipse.xtext.parser.IParser;
+import org.eclipse.xtext.parser.ParseResult;
 import org.eclipse.xtext.parser.antlr.IReferableElementsUnloader;
 import org.eclipse.xtext.resource.impl.ListBasedDiagnosticConsumer;
 import org.eclipse.xtext.serializer.ISerializer;
@@ -79,6 +89,14 @@ public class XtextResource extends ResourceImpl {
 
 	public static final String OPTION_ENCODING = XtextResource.class.getName() + ".DEFAULT_ENCODING";
 
+	/**
+	 * If set to {@link Boolean#TRUE}, the node model of a loaded resource is {@link NodeModelBuilder#compact(ICompositeNode)
+	 * compacted}: the subtrees without semantic elements are kept in primitive arrays until they are visited.
+	 * 
+	 * @since 2.22
+	 */
+	public static final String OPTION_COMPACT_NODE_MODEL = XtextResource.class.getName() + ".COMPACT_NODE_MODEL";
+
 	private boolean validationDisabled;
 	
 	/**
@@ -151,6 +169,15 @@ public class XtextResource extends ResourceImpl {
 
 	private IParseResult parseResult;
 
+	private static final Logger LOG = Logger.getLogger(XtextResource.class);
+
+	/**
+	 * The text of the resource while its node model is {@link #evictNodeModel() evicted}.
+	 */
+	private volatile String evictedText;
+
+	private EObject evictedRootASTElement;
+
 	@Inject
 	protected void setInjectedParser(IParser parser) {
 		this.parser = parser;
@@ -166,9 +193,164 @@ public class XtextResource extends ResourceImpl {
 
 	/* @Nullable */
 	public IParseResult getParseResult() {
+		if (evictedText != null) {
+			restoreNodeModel();
+		}
 		return parseResult;
 	}
-	
+
+	/**
+	 * Releases the node model of this resource. The text is retained, and the node model is rebuilt by parsing it
+	 * again when it is requested by means of {@link #getParseResult()} or {@link NodeModelUtils#getNode(EObject)}.
+	 * The nodes of the new parse are attached to the existing semantic objects. If the semantic model was modified
+	 * in the meantime, the objects keep no nodes.
+	 * 
+	 * Intended for batch builds that do not need the node model after validation and generation.
+	 * 
+	 * @since 2.22
+	 */
+	public synchronized void evictNodeModel() {
+		if (parseResult == null || parseResult.getRootNode() == null) {
+			return;
+		}
+		EObject rootASTElement = parseResult.getRootASTElement();
+		if (rootASTElement != null) {
+			for (TreeIterator<EObject> i = EcoreUtil.getAllProperContents(rootASTElement, false); i.hasNext();) {
+				i.next().eAdapters().removeIf(ICompositeNode.class::isInstance);
+			}
+			rootASTElement.eAdapters().removeIf(ICompositeNode.class::isInstance);
+		}
+		evictedText = parseResult.getRootNode().getText();
+		evictedRootASTElement = rootASTElement;
+		parseResult = null;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public boolean isNodeModelEvicted() {
+		return evictedText != null;
+	}
+
+	/**
+	 * Rebuilds an {@link #evictNodeModel() evicted} node model. Does nothing if the node model was not evicted.
+	 * 
+	 * @since 2.22
+	 */
+	public synchronized void restoreNodeModel() {
+		String text = evictedText;
+		if (text == null) {
+			return;
+		}
+		EObject rootASTElement = evictedRootASTElement;
+		IParseResult reparsed;
+		if (entryPoint == null) {
+			reparsed = getParser().parse(new StringReader(text));
+		} else {
+			reparsed = getParser().parse(entryPoint, new StringReader(text));
+		}
+		if (!reattachNodeModel(reparsed.getRootASTElement(), rootASTElement)) {
+			LOG.warn("The semantic model of " + getURI() + " does not match its text anymore. Its node model is dropped.");
+		}
+		parseResult = new ParseResult(rootASTElement, reparsed.getRootNode(), reparsed.hasSyntaxErrors());
+		evictedRootASTElement = null;
+		evictedText = null;
+	}
+
+	/**
+	 * Moves the nodes of the reparsed semantic objects to the corresponding existing objects. The objects correspond
+	 * if they are reached by the same containment references and list indices from the root objects, and if they
+	 * have the same type and attribute values. If any object does not correspond, no nodes are moved and the
+	 * reparsed nodes are detached from their semantic objects.
+	 * 
+	 * @return whether the nodes were moved.
+	 * @since 2.22
+	 */
+	protected boolean reattachNodeModel(EObject reparsedRoot, EObject existingRoot) {
+		if (reparsedRoot == null) {
+			return existingRoot == null;
+		}
+		// pairs of reparsed and existing objects
+		List<EObject> pairs = new ArrayList<>();
+		List<EObject> pending = new ArrayList<>();
+		pending.add(reparsedRoot);
+		pending.add(existingRoot);
+		boolean matches = true;
+		while (matches && !pending.isEmpty()) {
+			EObject existing = pending.remove(pending.size() - 1);
+			EObject reparsed = pending.remove(pending.size() - 1);
+			matches = correspond(reparsed, existing);
+			if (!matches) {
+				break;
+			}
+			pairs.add(reparsed);
+			pairs.add(existing);
+			for (EReference containment : reparsed.eClass().getEAllContainments()) {
+				if (containment.isDerived() || containment.isTransient()) {
+					continue;
+				}
+				if (containment.isMany()) {
+					List<?> reparsedChildren = (List<?>) reparsed.eGet(containment);
+					List<?> existingChildren = (List<?>) existing.eGet(containment);
+					if (reparsedChildren.size() != existingChildren.size()) {
+						matches = false;
+						break;
+					}
+					for (int i = 0; i < reparsedChildren.size(); i++) {
+						pending.add((EObject) reparsedChildren.get(i));
+						pending.add((EObject) existingChildren.get(i));
+					}
+				} else {
+					EObject reparsedChild = (EObject) reparsed.eGet(containment);
+					EObject existingChild = (EObject) existing.eGet(containment);
+					if ((reparsedChild == null) != (existingChild == null)) {
+						matches = false;
+						break;
+					}
+					if (reparsedChild != null) {
+						pending.add(reparsedChild);
+						pending.add(existingChild);
+					}
+				}
+			}
+		}
+		// detach the nodes from the reparsed objects
+		Map<EObject, List<ICompositeNode>> nodes = new IdentityHashMap<>();
+		for (TreeIterator<EObject> i = EcoreUtil.getAllContents(Collections.singleton(reparsedRoot), false); i
+				.hasNext();) {
+			EObject reparsed = i.next();
+			for (Adapter adapter : new ArrayList<>(reparsed.eAdapters())) {
+				if (adapter instanceof ICompositeNode) {
+					reparsed.eAdapters().remove(adapter);
+					adapter.setTarget(null);
+					nodes.computeIfAbsent(reparsed, o -> new ArrayList<>(1)).add((ICompositeNode) adapter);
+				}
+			}
+		}
+		if (!matches) {
+			return false;
+		}
+		NodeModelBuilder nodeModelBuilder = new NodeModelBuilder();
+		for (int i = 0; i < pairs.size(); i += 2) {
+			for (ICompositeNode node : nodes.getOrDefault(pairs.get(i), Collections.emptyList())) {
+				nodeModelBuilder.associateWithSemanticElement(node, pairs.get(i + 1));
+			}
+		}
+		return true;
+	}
+
+	private boolean correspond(EObject reparsed, EObject existing) {
+		if (existing == null || existing.eClass() != reparsed.eClass()) {
+			return false;
+		}
+		for (EAttribute attribute : reparsed.eClass().getEAllAttributes()) {
+			if (!attribute.isDerived() && !attribute.isTransient()
+					&& !Objects.equals(reparsed.eGet(attribute), existing.eGet(attribute))) {
+				return false;
+			}
+		}
+		return true;
+	}
 	@Override
 	protected void doLoad(InputStream inputStream, Map<?, ?> options) throws IOException {
 		setEncodingFromOptions(options);
@@ -179,6 +361,10 @@ public class XtextResource extends ResourceImpl {
 			result = getParser().parse(entryPoint, createReader(inputStream));
 		}
 		updateInternalState(this.parseResult, result);
+		if (options != null && Boolean.TRUE.equals(options.get(OPTION_COMPACT_NODE_MODEL))
+				&& result.getRootNode() != null) {
+			new NodeModelBuilder().compact(result.getRootNode());
+		}
 	}
 	
 	/**
@@ -235,6 +421,8 @@ public class XtextResource extends ResourceImpl {
 	protected void doUnload() {
 		super.doUnload();
 		parseResult = null;
+		evictedText = null;
+		evictedRootASTElement = null;
 	}
 	
 	/**
@@ -246,7 +434,8 @@ public class XtextResource extends ResourceImpl {
 		}
 		try {
 			isUpdating = true;
-			updateInternalState(parseResult, parseResult);
+			IParseResult current = getParseResult();
+			updateInternalState(current, current);
 		} finally {
 			isUpdating = false;
 		}
@@ -258,7 +447,7 @@ public class XtextResource extends ResourceImpl {
 		}
 		try {
 			isUpdating = true;
-			IParseResult oldParseResult = parseResult;
+			IParseResult oldParseResult = getParseResult();
 			ReplaceRegion replaceRegion = new ReplaceRegion(new TextRegion(offset, replacedTextLength), newText);
 			IParseResult newParseResult;
 			ParserRule oldEntryPoint = NodeModelUtils.getEntryParserRule(oldParseResult.getRootNode());
@@ -331,6 +520,8 @@ public class XtextResource extends ResourceImpl {
 		getContents().clear();
 		clearErrorsAndWarnings();
 		this.parseResult = null;
+		this.evictedText = null;
+		this.evictedRootASTElement = null;
 	}
 
 	protected void doLinking() {
@@ -432,8 +623,8 @@ public class XtextResource extends ResourceImpl {
 	}
 	
 	public ParserRule getEntryPoint() {
-		if (entryPoint == null && parseResult != null) {
-			entryPoint = NodeModelUtils.getEntryParserRule(parseResult.getRootNode());
+		if (entryPoint == null && (parseResult != null || isNodeModelEvicted())) {
+			entryPoint = NodeModelUtils.getEntryParserRule(getParseResult().getRootNode());
 		}
 		return entryPoint;
 	}
@@ -480,6 +671,8 @@ public class XtextResource extends ResourceImpl {
 
 	public void setParseResult(IParseResult parseResult) {
 		this.parseResult = parseResult;
+		this.evictedText = null;
+		this.evictedRootASTElement = null;
 	}
 
 	public boolean isValidationDisabled() {
@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.resource.clustering;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.build.IBuildInstrumentation;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * A clustering policy that keeps as many resources loaded as the heap allows.
+ *
+ * Instead of polling the free memory, it listens to the garbage collections of the JVM. The live heap after each
+ * collection is used to estimate the retained size of a loaded resource. A cluster is flushed when the projected live
+ * heap would exceed the {@link #getHighWatermark() high watermark} or when a collection left a heap pool above the
+ * high watermark. In the latter case the cluster size is capped, and the cap is raised again while collections leave
+ * the heap below the {@link #getLowWatermark() low watermark}. Clusters smaller than the
+ * {@link #getMinimumClusterSize() minimum cluster size} are never flushed.
+ *
+ * Flushed clusters, flushes due to memory pressure and resources that are processed again after they were flushed
+ * with an earlier cluster of the same build are reported to the {@link IBuildInstrumentation}.
+ *
+ * The policy is thread safe, such that the workers of a parallel indexing can share it. Since the heap is shared as
+ * well, the estimates are based on the samples of all workers.
+ *
+ * @since 2.22
+ */
+public class AdaptiveResourceClusteringPolicy implements IResourceClusteringPolicy {
+
+	public static final String MINIMUM_CLUSTER_SIZE = "org.eclipse.xtext.resource.clustering.AdaptiveResourceClusteringPolicy.minimumClusterSize";
+	public static final String HIGH_WATERMARK = "org.eclipse.xtext.resource.clustering.AdaptiveResourceClusteringPolicy.highWatermark";
+	public static final String LOW_WATERMARK = "org.eclipse.xtext.resource.clustering.AdaptiveResourceClusteringPolicy.lowWatermark";
+
+	private static final Logger LOGGER = Logger.getLogger(AdaptiveResourceClusteringPolicy.class);
+
+	/**
+	 * Collects the live heap and the usage of the fullest heap pool after garbage collections. There is only one
+	 * monitor, such that the listeners are registered once. It reports the raw usage, so policies with different
+	 * watermarks can share it. The collection usage thresholds of the heap pools are not modified, since they are
+	 * global to the JVM.
+	 */
+	protected static class MemoryMonitor {
+		private static MemoryMonitor instance;
+
+		private final AtomicLong collectionCount = new AtomicLong();
+
+		private volatile long liveBytes = -1;
+
+		private volatile int poolUsagePercent = -1;
+
+		public static synchronized MemoryMonitor getInstance() {
+			if (instance == null) {
+				instance = new MemoryMonitor();
+				instance.install();
+			}
+			return instance;
+		}
+
+		protected void install() {
+			NotificationListener listener = (notification, handback) -> collected();
+			for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+				if (collector instanceof NotificationEmitter) {
+					((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+				}
+			}
+		}
+
+		protected void collected() {
+			long used = 0;
+			int maxPercent = 0;
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP) {
+					MemoryUsage usage = pool.getCollectionUsage();
+					if (usage == null) {
+						usage = pool.getUsage();
+					}
+					used += usage.getUsed();
+					if (usage.getMax() > 0) {
+						maxPercent = Math.max(maxPercent, (int) (usage.getUsed() * 100 / usage.getMax()));
+					}
+				}
+			}
+			liveBytes = used;
+			poolUsagePercent = maxPercent;
+			// published last, so readers that see the new count see the new usage, too
+			collectionCount.incrementAndGet();
+		}
+
+		/**
+		 * The number of garbage collections that were observed.
+		 */
+		public long getCollectionCount() {
+			return collectionCount.get();
+		}
+
+		/**
+		 * The usage of the fullest heap pool after the last observed collection in percent of its maximum or
+		 * <code>-1</code> if there was none.
+		 */
+		public int getPoolUsagePercent() {
+			return poolUsagePercent;
+		}
+
+		/**
+		 * The used heap after the last observed collection or <code>-1</code> if there was none.
+		 */
+		public long getLiveBytes() {
+			return liveBytes;
+		}
+	}
+
+	/** Minimum cluster size. Smaller clusters are never flushed, not even under memory pressure. */
+	@Inject(optional = true)
+	@Named(MINIMUM_CLUSTER_SIZE)
+	private int minimumClusterSize = 20;
+
+	/** Percentage of the maximum heap that the projected live heap must not exceed. */
+	@Inject(optional = true)
+	@Named(HIGH_WATERMARK)
+	private int highWatermark = 75;
+
+	/** Percentage of the maximum heap below which a capped cluster size is raised again. */
+	@Inject(optional = true)
+	@Named(LOW_WATERMARK)
+	private int lowWatermark = 50;
+
+	@Inject(optional = true)
+	private IBuildInstrumentation instrumentation = IBuildInstrumentation.NULL;
+
+	private MemoryMonitor monitor;
+
+	private volatile int clusterSizeLimit = Integer.MAX_VALUE;
+
+	private long seenCollectionCount;
+
+	private long sampleLiveBytes = -1;
+
+	private int sampleLoadedResources;
+
+	private long baselineLiveBytes = -1;
+
+	private int baselineLoadedResources;
+
+	private volatile long estimatedResourceSize;
+
+	/**
+	 * The URIs of the flushed resources per resource set. A build uses its own resource set, so the URIs of a build
+	 * are dropped with it.
+	 */
+	private final Map<ResourceSet, Set<URI>> flushedURIs = new WeakHashMap<>();
+
+	private final AtomicLong clustersFlushed = new AtomicLong();
+
+	private final AtomicLong resourcesReloaded = new AtomicLong();
+
+	@Override
+	public synchronized boolean continueProcessing(ResourceSet resourceSet, URI next, int alreadyProcessed) {
+		if (next != null && resourceSet.getResource(next, false) != null) {
+			return true;
+		}
+		if (next != null && removeFlushedURI(resourceSet, next)) {
+			resourcesReloaded.incrementAndGet();
+			instrumentation.eventOccurred(IBuildInstrumentation.Counter.RESOURCE_RELOADED, next);
+		}
+		if (alreadyProcessed == 0) {
+			return true;
+		}
+		int loaded = resourceSet.getResources().size();
+		boolean pressure = observe(loaded);
+		if (pressure) {
+			clusterSizeLimit = Math.max(minimumClusterSize, alreadyProcessed * 3 / 4);
+		}
+		if (alreadyProcessed < minimumClusterSize) {
+			// the reduced limit applies once the cluster reaches the minimum size
+			return true;
+		}
+		if (!pressure && alreadyProcessed < clusterSizeLimit
+				&& getProjectedLiveBytes(loaded) <= getMaxBytes() / 100 * highWatermark) {
+			return true;
+		}
+		if (pressure) {
+			instrumentation.eventOccurred(IBuildInstrumentation.Counter.MEMORY_PRESSURE, null);
+		}
+		flush(resourceSet, alreadyProcessed);
+		return false;
+	}
+
+	/**
+	 * Take a new sample if a garbage collection happened since the last call.
+	 *
+	 * @return whether the latest collection left a heap pool above the high watermark.
+	 */
+	protected boolean observe(int loadedResources) {
+		MemoryMonitor memoryMonitor = getMonitor();
+		long collectionCount = memoryMonitor.getCollectionCount();
+		if (collectionCount == seenCollectionCount) {
+			return false;
+		}
+		seenCollectionCount = collectionCount;
+		if (memoryMonitor.getLiveBytes() >= 0) {
+			sample(memoryMonitor.getLiveBytes(), loadedResources);
+		}
+		return memoryMonitor.getPoolUsagePercent() > highWatermark;
+	}
+
+	/**
+	 * Record the live heap after a collection while the given number of resources was loaded, and update the
+	 * estimated retained size per resource.
+	 */
+	protected void sample(long liveBytes, int loadedResources) {
+		sampleLiveBytes = liveBytes;
+		sampleLoadedResources = loadedResources;
+		if (baselineLiveBytes < 0 || loadedResources <= baselineLoadedResources) {
+			baselineLiveBytes = liveBytes;
+			baselineLoadedResources = loadedResources;
+		} else {
+			long resourceSize = Math.max(0, liveBytes - baselineLiveBytes)
+					/ (loadedResources - baselineLoadedResources);
+			estimatedResourceSize = estimatedResourceSize == 0 ? resourceSize
+					: (estimatedResourceSize + resourceSize) / 2;
+		}
+		if (clusterSizeLimit != Integer.MAX_VALUE && liveBytes < getMaxBytes() / 100 * lowWatermark) {
+			clusterSizeLimit = clusterSizeLimit > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE
+					: clusterSizeLimit * 3 / 2;
+		}
+	}
+
+	/**
+	 * The live heap that is expected when the given number of resources is loaded.
+	 */
+	protected long getProjectedLiveBytes(int loadedResources) {
+		if (sampleLiveBytes < 0) {
+			return 0;
+		}
+		return sampleLiveBytes + (long) (loadedResources - sampleLoadedResources) * estimatedResourceSize;
+	}
+
+	protected void flush(ResourceSet resourceSet, int alreadyProcessed) {
+		clustersFlushed.incrementAndGet();
+		instrumentation.eventOccurred(IBuildInstrumentation.Counter.CLUSTER_FLUSHED, null);
+		synchronized (flushedURIs) {
+			Set<URI> uris = flushedURIs.computeIfAbsent(resourceSet, r -> new HashSet<>());
+			for (Resource resource : resourceSet.getResources()) {
+				uris.add(resource.getURI());
+			}
+		}
+		// the resource set is cleared, so the next sample starts from scratch
+		baselineLiveBytes = -1;
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Cluster flushed at " + alreadyProcessed + '/' + resourceSet.getResources().size()
+					+ " processed/loaded resources; limit: " + clusterSizeLimit + ", estimated resource size: "
+					+ (estimatedResourceSize >> 10) + "k, live heap: " + (sampleLiveBytes >> 20) + "m");
+		}
+	}
+
+	private boolean removeFlushedURI(ResourceSet resourceSet, URI uri) {
+		synchronized (flushedURIs) {
+			Set<URI> uris = flushedURIs.get(resourceSet);
+			return uris != null && uris.remove(uri);
+		}
+	}
+
+	private MemoryMonitor getMonitor() {
+		if (monitor == null) {
+			monitor = createMonitor();
+			seenCollectionCount = monitor.getCollectionCount();
+		}
+		return monitor;
+	}
+
+	protected MemoryMonitor createMonitor() {
+		return MemoryMonitor.getInstance();
+	}
+
+	protected long getMaxBytes() {
+		return Runtime.getRuntime().maxMemory();
+	}
+
+	/**
+	 * The number of clusters that were flushed since the last {@link #resetCounters() reset}.
+	 */
+	public long getClustersFlushed() {
+		return clustersFlushed.get();
+	}
+
+	/**
+	 * The number of resources that were processed after they were flushed with an earlier cluster, since the last
+	 * {@link #resetCounters() reset}.
+	 */
+	public long getResourcesReloaded() {
+		return resourcesReloaded.get();
+	}
+
+	public void resetCounters() {
+		clustersFlushed.set(0);
+		resourcesReloaded.set(0);
+		synchronized (flushedURIs) {
+			flushedURIs.clear();
+		}
+	}
+
+	/**
+	 * The current estimate of the retained heap size of a loaded resource in bytes.
+	 */
+	public long getEstimatedResourceSize() {
+		return estimatedResourceSize;
+	}
+
+	/**
+	 * The current maximum cluster size, {@link Integer#MAX_VALUE} if it is not capped.
+	 */
+	public int getClusterSizeLimit() {
+		return clusterSizeLimit;
+	}
+
+	public IBuildInstrumentation getInstrumentation() {
+		return instrumentation;
+	}
+
+	public void setInstrumentation(IBuildInstrumentation instrumentation) {
+		this.instrumentation = instrumentation;
+	}
+
+	public int getMinimumClusterSize() {
+		return minimumClusterSize;
+	}
+
+	public void setMinimumClusterSize(int minimumClusterSize) {
+		this.minimumClusterSize = minimumClusterSize;
+	}
+
+	public int getHighWatermark() {
+		return highWatermark;
+	}
+
+	public void setHighWatermark(int highWatermark) {
+		this.highWatermark = highWatermark;
+	}
+
+	public int getLowWatermark() {
+		return lowWatermark;
+	}
+
+	public void setLowWatermark(int lowWatermark) {
+		this.lowWatermark = lowWatermark;
+	}
+}
@@ -16,6 +16,7 @@ import java.util.Set;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.DerivedStateAwareResourceDescriptionManager;
 import org.eclipse.xtext.resource.DescriptionUtils;
 import org.eclipse.xtext.resource.IContainer;
 import org.eclipse.xtext.resource.IDefaultResourceDescriptionStrategy;
@@ -23,6 +24,7 @@ import org.eclipse.xtext.resource.IEObjectDescription;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceDescription.Delta;
 import org.eclipse.xtext.resource.IResourceDescriptions;
+import org.eclipse.xtext.resource.persistence.StorageAwareResourceDescriptionManager;
 import org.eclipse.xtext.util.IResourceScopeCache;
 
 import com.google.common.annotations.Beta;
@@ -160,6 +162,24 @@ public class DefaultResourceDescriptionManager implements IResourceDescription.M
 		return isAffectedByExtensions(deltas, candidate, context);
 	}
 
+	/**
+	 * Whether {@link #isAffected(Collection, IResourceDescription, IResourceDescriptions)} only considers a candidate
+	 * affected if it imports a name that is exported by the old or new description of a delta, or if it references the
+	 * resource of a delta. Builders may skip all other candidates, e.g. according to
+	 * {@link ResourceDescriptionsData#getAffectionCandidates(Collection)}.
+	 * 
+	 * This is not the case if {@link IsAffectedExtension extensions} are registered. Subclasses that customize the
+	 * computation of affected resources have to opt in explicitly by overriding this method.
+	 * 
+	 * @since 2.22
+	 */
+	@Beta
+	public boolean isAffectedByImportedNamesAndReferencesOnly() {
+		return isAffectedExtensions.isEmpty() && (getClass() == DefaultResourceDescriptionManager.class
+				|| getClass() == StorageAwareResourceDescriptionManager.class
+				|| getClass() == DerivedStateAwareResourceDescriptionManager.class);
+	}
+
 	/**
 	 * Query all registered extensions.
 	 * 
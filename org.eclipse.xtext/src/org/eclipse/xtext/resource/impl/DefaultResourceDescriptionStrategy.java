@@ -19,6 +19,7 @@ import org.eclipse.emf.ecore.util.InternalEList;
 import org.eclipse.xtext.linking.lazy.LazyURIEncoder;
 import org.eclipse.xtext.naming.IQualifiedNameProvider;
 import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.naming.QualifiedNamePool;
 import org.eclipse.xtext.resource.EObjectDescription;
 import org.eclipse.xtext.resource.IDefaultResourceDescriptionStrategy;
 import org.eclipse.xtext.resource.IEObjectDescription;
@@ -69,7 +70,7 @@ public class DefaultResourceDescriptionStrategy implements IDefaultResourceDescr
 		try {
 			QualifiedName qualifiedName = getQualifiedNameProvider().getFullyQualifiedName(eObject);
 			if (qualifiedName != null) {
-				acceptor.accept(EObjectDescription.create(qualifiedName, eObject));
+				acceptor.accept(EObjectDescription.create(QualifiedNamePool.canonicalize(qualifiedName), eObject));
 			}
 		} catch (Exception exc) {
 			LOG.error(exc.getMessage(), exc);
@@ -0,0 +1,977 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.resource.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.ENamedElement;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.EcoreUtil2;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.AbstractEObjectDescription;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IReferenceDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceDescriptions;
+
+/**
+ * A read-only index that is stored in a memory-mapped file. Names, URIs, EClasses and user data are kept in a compact
+ * binary format outside of the Java heap and hash tables in the file map names and URIs to the indexed entries.
+ * {@link IResourceDescription Resource descriptions}, {@link IEObjectDescription object descriptions} and
+ * {@link IReferenceDescription reference descriptions} are flyweights that are created on lookup and decode their data
+ * from the file when they are asked for it.
+ *
+ * The file is written with {@link #write(Path, Iterable)} and opened with {@link #open(Path)}. It is limited to 2 GB.
+ * EClasses and EReferences are stored by URI and have to be found in the global {@link EPackage.Registry}.
+ * Use {@link MappedResourceDescriptionsData} to apply changes on top of the file.
+ *
+ * @since 2.22
+ */
+public class MappedResourceDescriptions extends AbstractCompoundSelectable implements IResourceDescriptions {
+
+	private static final int MAGIC = 0x58494458;
+
+	private static final int VERSION = 1;
+
+	private static final int STRINGS = 0;
+	private static final int ECORE_ELEMENTS = 1;
+	private static final int NAMES = 2;
+	private static final int RESOURCES = 3;
+	private static final int OBJECTS = 4;
+	private static final int USER_DATA = 5;
+	private static final int IMPORTED_NAMES = 6;
+	private static final int REFERENCES = 7;
+	private static final int NAME_INDEX = 8;
+	private static final int URI_INDEX = 9;
+	private static final int IMPORTED_NAME_INDEX = 10;
+	private static final int REFERENCED_RESOURCE_INDEX = 11;
+	private static final int SECTION_COUNT = 12;
+
+	private static final int HEADER_SIZE = 8 + 4 * SECTION_COUNT;
+
+	/** uri, first object, object count, first imported name, imported name count, first reference, reference count */
+	private static final int RESOURCE_SIZE = 7;
+
+	/** resource, name, EClass, fragment, user data */
+	private static final int OBJECT_SIZE = 5;
+
+	/** source, target, EReference, index in list, container */
+	private static final int REFERENCE_SIZE = 5;
+
+	/** Marks a missing optional entry. */
+	private static final int NONE = -1;
+
+	/**
+	 * Write the given descriptions to a new index file.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be written, would exceed 2 GB or if an EClass or EReference of the descriptions
+	 *             is not in the global {@link EPackage.Registry}.
+	 */
+	public static void write(Path path, Iterable<? extends IResourceDescription> descriptions) throws IOException {
+		new IndexWriter().write(path, descriptions);
+	}
+
+	/**
+	 * Map the given index file into memory.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be read or has an unknown format.
+	 */
+	public static MappedResourceDescriptions open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Index file " + path + " exceeds 2 GB.");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				throw new IOException("Unsupported index file " + path + ".");
+			}
+			return new MappedResourceDescriptions(buffer);
+		}
+	}
+
+	/**
+	 * The hash of a name in the index. The name has to be converted to {@link QualifiedName#toLowerCase() lower case}
+	 * first. Unlike {@link QualifiedName#hashCode()}, the hash is guaranteed to be stable across JVMs.
+	 */
+	static int hash(QualifiedName lowerCaseName) {
+		int result = 1;
+		for (int i = 0; i < lowerCaseName.getSegmentCount(); i++) {
+			result = 31 * result + lowerCaseName.getSegment(i).hashCode();
+		}
+		return result;
+	}
+
+	static int hash(String uri) {
+		return uri.hashCode();
+	}
+
+	private static int bucket(int hash, int capacity) {
+		return (hash ^ (hash >>> 16)) & (capacity - 1);
+	}
+
+	private final ByteBuffer buffer;
+
+	private final int[] sections = new int[SECTION_COUNT];
+
+	private final int resourceCount;
+
+	private final int objectCount;
+
+	/** Resolved lazily. Concurrent resolution of the same element is harmless. */
+	private final ENamedElement[] ecoreElements;
+
+	protected MappedResourceDescriptions(ByteBuffer buffer) {
+		this.buffer = buffer;
+		for (int i = 0; i < SECTION_COUNT; i++) {
+			sections[i] = buffer.getInt(8 + 4 * i);
+		}
+		resourceCount = buffer.getInt(sections[RESOURCES]);
+		objectCount = buffer.getInt(sections[OBJECTS]);
+		ecoreElements = new ENamedElement[buffer.getInt(sections[ECORE_ELEMENTS])];
+	}
+
+	public int getResourceCount() {
+		return resourceCount;
+	}
+
+	public int getObjectCount() {
+		return objectCount;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return resourceCount == 0;
+	}
+
+	@Override
+	public Iterable<IResourceDescription> getAllResourceDescriptions() {
+		return new AbstractList<IResourceDescription>() {
+			@Override
+			public IResourceDescription get(int index) {
+				return new MappedResourceDescription(index);
+			}
+
+			@Override
+			public int size() {
+				return resourceCount;
+			}
+		};
+	}
+
+	@Override
+	public IResourceDescription getResourceDescription(URI uri) {
+		int resource = findResource(uri);
+		return resource != NONE ? new MappedResourceDescription(resource) : null;
+	}
+
+	public boolean contains(URI uri) {
+		return findResource(uri) != NONE;
+	}
+
+	/**
+	 * The URIs of all indexed resources.
+	 */
+	public List<URI> getAllURIs() {
+		return new AbstractList<URI>() {
+			@Override
+			public URI get(int index) {
+				return getResourceURI(index);
+			}
+
+			@Override
+			public int size() {
+				return resourceCount;
+			}
+		};
+	}
+
+	@Override
+	protected Iterable<? extends IResourceDescription> getSelectables() {
+		return getAllResourceDescriptions();
+	}
+
+	@Override
+	public Iterable<IEObjectDescription> getExportedObjects() {
+		return new AbstractList<IEObjectDescription>() {
+			@Override
+			public IEObjectDescription get(int index) {
+				return new MappedEObjectDescription(index);
+			}
+
+			@Override
+			public int size() {
+				return objectCount;
+			}
+		};
+	}
+
+	@Override
+	public Iterable<IEObjectDescription> getExportedObjectsByType(EClass type) {
+		return getExportedObjectsByType(type, 0, objectCount);
+	}
+
+	@Override
+	public Iterable<IEObjectDescription> getExportedObjects(EClass type, QualifiedName name, boolean ignoreCase) {
+		return getExportedObjects(type, name, ignoreCase, null);
+	}
+
+	/**
+	 * Find the exported objects with the given name whose resources are accepted by the given filter.
+	 *
+	 * @param resourceFilter
+	 *            accepts the indexes of the resources. May be <code>null</code>.
+	 */
+	protected List<IEObjectDescription> getExportedObjects(EClass type, QualifiedName name, boolean ignoreCase,
+			IntPredicate resourceFilter) {
+		int index = sections[NAME_INDEX];
+		int capacity = buffer.getInt(index);
+		int bucket = bucket(hash(name.toLowerCase()), capacity);
+		int start = buffer.getInt(index + 4 + 4 * bucket);
+		int end = buffer.getInt(index + 4 + 4 * (bucket + 1));
+		int entries = index + 4 + 4 * (capacity + 1);
+		List<IEObjectDescription> result = null;
+		boolean[] assignable = null;
+		for (int i = start; i < end; i++) {
+			int object = buffer.getInt(entries + 4 * i);
+			if (resourceFilter != null && !resourceFilter.test(getObjectField(object, 0))) {
+				continue;
+			}
+			if (!nameMatches(getObjectField(object, 1), name, ignoreCase)) {
+				continue;
+			}
+			if (assignable == null) {
+				assignable = new boolean[ecoreElements.length];
+				Arrays.fill(assignable, true);
+				if (type != null) {
+					computeAssignable(type, assignable);
+				}
+			}
+			if (assignable[getObjectField(object, 2)]) {
+				if (result == null) {
+					result = new ArrayList<>(2);
+				}
+				result.add(new MappedEObjectDescription(object));
+			}
+		}
+		return result != null ? result : Collections.emptyList();
+	}
+
+	protected List<IEObjectDescription> getExportedObjectsByType(EClass type, int firstObject, int count) {
+		boolean[] assignable = new boolean[ecoreElements.length];
+		computeAssignable(type, assignable);
+		List<IEObjectDescription> result = new ArrayList<>();
+		for (int object = firstObject; object < firstObject + count; object++) {
+			if (assignable[getObjectField(object, 2)]) {
+				result.add(new MappedEObjectDescription(object));
+			}
+		}
+		return result;
+	}
+
+	private void computeAssignable(EClass type, boolean[] assignable) {
+		for (int i = 0; i < assignable.length; i++) {
+			ENamedElement element = getEcoreElement(i);
+			assignable[i] = element instanceof EClass && EcoreUtil2.isAssignableFrom(type, (EClass) element);
+		}
+	}
+
+	/**
+	 * The URIs of the resources that import the given name, ignoring case.
+	 */
+	public List<URI> getImportingResources(QualifiedName name) {
+		QualifiedName lowerCase = name.toLowerCase();
+		List<URI> result = new ArrayList<>();
+		forEachEntry(IMPORTED_NAME_INDEX, hash(lowerCase), (key, resource) -> {
+			if (nameMatches(key, lowerCase, true)) {
+				result.add(getResourceURI(resource));
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * The URIs of the resources that reference an object in the given resource.
+	 */
+	public List<URI> getReferencingResources(URI resourceURI) {
+		String uri = resourceURI.toString();
+		List<URI> result = new ArrayList<>();
+		forEachEntry(REFERENCED_RESOURCE_INDEX, hash(uri), (key, resource) -> {
+			if (uri.equals(getString(key))) {
+				result.add(getResourceURI(resource));
+			}
+		});
+		return result;
+	}
+
+	private interface EntryAcceptor {
+		void accept(int key, int resource);
+	}
+
+	private void forEachEntry(int section, int hash, EntryAcceptor acceptor) {
+		int index = sections[section];
+		int capacity = buffer.getInt(index);
+		int bucket = bucket(hash, capacity);
+		int start = buffer.getInt(index + 4 + 4 * bucket);
+		int end = buffer.getInt(index + 4 + 4 * (bucket + 1));
+		int entries = index + 4 + 4 * (capacity + 1);
+		for (int i = start; i < end; i++) {
+			acceptor.accept(buffer.getInt(entries + 8 * i), buffer.getInt(entries + 8 * i + 4));
+		}
+	}
+
+	/**
+	 * @return the index of the resource with the given URI or {@link #NONE}.
+	 */
+	protected int findResource(URI uri) {
+		String string = uri.toString();
+		int index = sections[URI_INDEX];
+		int capacity = buffer.getInt(index);
+		int bucket = bucket(hash(string), capacity);
+		int start = buffer.getInt(index + 4 + 4 * bucket);
+		int end = buffer.getInt(index + 4 + 4 * (bucket + 1));
+		int entries = index + 4 + 4 * (capacity + 1);
+		for (int i = start; i < end; i++) {
+			int resource = buffer.getInt(entries + 4 * i);
+			if (string.equals(getString(getResourceField(resource, 0)))) {
+				return resource;
+			}
+		}
+		return NONE;
+	}
+
+	protected URI getResourceURI(int resource) {
+		return URI.createURI(getString(getResourceField(resource, 0)));
+	}
+
+	private int getResourceField(int resource, int field) {
+		return buffer.getInt(sections[RESOURCES] + 4 + 4 * (RESOURCE_SIZE * resource + field));
+	}
+
+	private int getObjectField(int object, int field) {
+		return buffer.getInt(sections[OBJECTS] + 4 + 4 * (OBJECT_SIZE * object + field));
+	}
+
+	private int getReferenceField(int reference, int field) {
+		return buffer.getInt(sections[REFERENCES] + 4 + 4 * (REFERENCE_SIZE * reference + field));
+	}
+
+	protected String getString(int id) {
+		int section = sections[STRINGS];
+		int count = buffer.getInt(section);
+		int start = buffer.getInt(section + 4 + 4 * id);
+		int end = buffer.getInt(section + 4 + 4 * (id + 1));
+		int data = section + 4 + 4 * (count + 1);
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(data + start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	protected QualifiedName getName(int name) {
+		int section = sections[NAMES];
+		int count = buffer.getInt(section);
+		int start = buffer.getInt(section + 4 + 4 * name);
+		int end = buffer.getInt(section + 4 + 4 * (name + 1));
+		int segments = section + 4 + 4 * (count + 1);
+		String[] result = new String[end - start];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = getString(buffer.getInt(segments + 4 * (start + i)));
+		}
+		return QualifiedName.create(result);
+	}
+
+	private boolean nameMatches(int name, QualifiedName expected, boolean ignoreCase) {
+		int section = sections[NAMES];
+		int count = buffer.getInt(section);
+		int start = buffer.getInt(section + 4 + 4 * name);
+		int end = buffer.getInt(section + 4 + 4 * (name + 1));
+		if (end - start != expected.getSegmentCount()) {
+			return false;
+		}
+		int segments = section + 4 + 4 * (count + 1);
+		for (int i = 0; i < end - start; i++) {
+			String segment = getString(buffer.getInt(segments + 4 * (start + i)));
+			if (ignoreCase ? !segment.equalsIgnoreCase(expected.getSegment(i))
+					: !segment.equals(expected.getSegment(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	protected ENamedElement getEcoreElement(int id) {
+		if (id == NONE) {
+			return null;
+		}
+		ENamedElement result = ecoreElements[id];
+		if (result == null) {
+			result = resolveEcoreElement(
+					URI.createURI(getString(buffer.getInt(sections[ECORE_ELEMENTS] + 4 + 4 * id))));
+			ecoreElements[id] = result;
+		}
+		return result;
+	}
+
+	private static ENamedElement resolveEcoreElement(URI uri) {
+		EPackage ePackage = EPackage.Registry.INSTANCE.getEPackage(uri.trimFragment().toString());
+		Resource resource = ePackage != null ? ePackage.eResource() : null;
+		if (resource == null) {
+			return null;
+		}
+		EObject result = resource.getEObject(uri.fragment());
+		return result instanceof ENamedElement ? (ENamedElement) result : null;
+	}
+
+	/**
+	 * Either a fragment relative to the URI of the resource or, if the value is below {@link #NONE}, the complete URI.
+	 */
+	private URI getRelativeURI(URI resourceURI, int value) {
+		if (value == NONE) {
+			return null;
+		}
+		if (value < NONE) {
+			return URI.createURI(getString(-value - 2));
+		}
+		return resourceURI.appendFragment(getString(value));
+	}
+
+	protected class MappedResourceDescription extends AbstractResourceDescription {
+
+		private final int resource;
+
+		protected MappedResourceDescription(int resource) {
+			this.resource = resource;
+		}
+
+		@Override
+		public URI getURI() {
+			return getResourceURI(resource);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return getResourceField(resource, 2) == 0;
+		}
+
+		@Override
+		protected List<IEObjectDescription> computeExportedObjects() {
+			int first = getResourceField(resource, 1);
+			int count = getResourceField(resource, 2);
+			return new AbstractList<IEObjectDescription>() {
+				@Override
+				public IEObjectDescription get(int index) {
+					return new MappedEObjectDescription(first + index);
+				}
+
+				@Override
+				public int size() {
+					return count;
+				}
+			};
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjects() {
+			return computeExportedObjects();
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjects(EClass type, QualifiedName name, boolean ignoreCase) {
+			return MappedResourceDescriptions.this.getExportedObjects(type, name, ignoreCase, r -> r == resource);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjectsByType(EClass type) {
+			return MappedResourceDescriptions.this.getExportedObjectsByType(type, getResourceField(resource, 1),
+					getResourceField(resource, 2));
+		}
+
+		@Override
+		public Iterable<QualifiedName> getImportedNames() {
+			int first = getResourceField(resource, 3);
+			int count = getResourceField(resource, 4);
+			int section = sections[IMPORTED_NAMES] + 4;
+			List<QualifiedName> result = new ArrayList<>(count);
+			for (int i = first; i < first + count; i++) {
+				result.add(getName(buffer.getInt(section + 4 * i)));
+			}
+			return result;
+		}
+
+		@Override
+		public Iterable<IReferenceDescription> getReferenceDescriptions() {
+			int first = getResourceField(resource, 5);
+			int count = getResourceField(resource, 6);
+			return new AbstractList<IReferenceDescription>() {
+				@Override
+				public IReferenceDescription get(int index) {
+					return new MappedReferenceDescription(resource, first + index);
+				}
+
+				@Override
+				public int size() {
+					return count;
+				}
+			};
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + "[" + getURI() + "]";
+		}
+	}
+
+	protected class MappedEObjectDescription extends AbstractEObjectDescription {
+
+		private final int object;
+
+		protected MappedEObjectDescription(int object) {
+			this.object = object;
+		}
+
+		@Override
+		public QualifiedName getName() {
+			return MappedResourceDescriptions.this.getName(getObjectField(object, 1));
+		}
+
+		@Override
+		public QualifiedName getQualifiedName() {
+			return getName();
+		}
+
+		@Override
+		public URI getEObjectURI() {
+			URI resourceURI = getResourceURI(getObjectField(object, 0));
+			int fragment = getObjectField(object, 3);
+			return fragment != NONE ? resourceURI.appendFragment(getString(fragment)) : resourceURI;
+		}
+
+		@Override
+		public EClass getEClass() {
+			return (EClass) getEcoreElement(getObjectField(object, 2));
+		}
+
+		@Override
+		public EObject getEObjectOrProxy() {
+			EObject proxy = EcoreUtil.create(getEClass());
+			((InternalEObject) proxy).eSetProxyURI(getEObjectURI());
+			return proxy;
+		}
+
+		@Override
+		public String getUserData(String key) {
+			int userData = getObjectField(object, 4);
+			if (userData != NONE) {
+				int section = sections[USER_DATA] + 4;
+				int count = buffer.getInt(section + 4 * userData);
+				for (int i = 0; i < count; i++) {
+					if (key.equals(getString(buffer.getInt(section + 4 * (userData + 1 + 2 * i))))) {
+						return getString(buffer.getInt(section + 4 * (userData + 2 + 2 * i)));
+					}
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public String[] getUserDataKeys() {
+			int userData = getObjectField(object, 4);
+			if (userData == NONE) {
+				return super.getUserDataKeys();
+			}
+			int section = sections[USER_DATA] + 4;
+			String[] result = new String[buffer.getInt(section + 4 * userData)];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = getString(buffer.getInt(section + 4 * (userData + 1 + 2 * i)));
+			}
+			return result;
+		}
+	}
+
+	protected class MappedReferenceDescription implements IReferenceDescription {
+
+		private final int resource;
+
+		private final int reference;
+
+		protected MappedReferenceDescription(int resource, int reference) {
+			this.resource = resource;
+			this.reference = reference;
+		}
+
+		@Override
+		public URI getSourceEObjectUri() {
+			return getRelativeURI(getResourceURI(resource), getReferenceField(reference, 0));
+		}
+
+		@Override
+		public URI getTargetEObjectUri() {
+			return URI.createURI(getString(getReferenceField(reference, 1)));
+		}
+
+		@Override
+		public EReference getEReference() {
+			return (EReference) getEcoreElement(getReferenceField(reference, 2));
+		}
+
+		@Override
+		public int getIndexInList() {
+			return getReferenceField(reference, 3);
+		}
+
+		@Override
+		public URI getContainerEObjectURI() {
+			return getRelativeURI(getResourceURI(resource), getReferenceField(reference, 4));
+		}
+	}
+
+	/**
+	 * A growable array of ints.
+	 */
+	private static class IntArray {
+		private int[] data = new int[64];
+
+		private int size;
+
+		void add(int value) {
+			if (size == data.length) {
+				data = Arrays.copyOf(data, size * 2);
+			}
+			data[size++] = value;
+		}
+
+		int get(int index) {
+			return data[index];
+		}
+
+		int size() {
+			return size;
+		}
+
+		void writeTo(DataOutputStream out) throws IOException {
+			for (int i = 0; i < size; i++) {
+				out.writeInt(data[i]);
+			}
+		}
+	}
+
+	private static class IndexWriter {
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		private final List<String> stringList = new ArrayList<>();
+
+		private final Map<String, Integer> ecoreElements = new HashMap<>();
+
+		private final IntArray ecoreElementList = new IntArray();
+
+		private final Map<QualifiedName, Integer> names = new HashMap<>();
+
+		private final IntArray nameStarts = new IntArray();
+
+		private final IntArray nameSegments = new IntArray();
+
+		private final IntArray resources = new IntArray();
+
+		private final IntArray uriHashes = new IntArray();
+
+		private final IntArray objects = new IntArray();
+
+		private final IntArray objectHashes = new IntArray();
+
+		private final IntArray userData = new IntArray();
+
+		private final IntArray importedNames = new IntArray();
+
+		private final IntArray importedNameEntries = new IntArray();
+
+		private final IntArray importedNameHashes = new IntArray();
+
+		private final IntArray references = new IntArray();
+
+		private final IntArray referencedResourceEntries = new IntArray();
+
+		private final IntArray referencedResourceHashes = new IntArray();
+
+		IndexWriter() {
+			nameStarts.add(0);
+		}
+
+		void write(Path path, Iterable<? extends IResourceDescription> descriptions) throws IOException {
+			for (IResourceDescription description : descriptions) {
+				add(description);
+			}
+			boolean tooLarge;
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC);
+				header.putInt(VERSION);
+				DataOutputStream out = new DataOutputStream(
+						new BufferedOutputStream(Channels.newOutputStream(channel.position(HEADER_SIZE)), 1 << 16));
+				int[] sections = new int[SECTION_COUNT];
+				sections[STRINGS] = position(out);
+				writeStrings(out);
+				sections[ECORE_ELEMENTS] = position(out);
+				writeCounted(out, ecoreElementList.size(), ecoreElementList);
+				sections[NAMES] = position(out);
+				out.writeInt(names.size());
+				nameStarts.writeTo(out);
+				nameSegments.writeTo(out);
+				sections[RESOURCES] = position(out);
+				writeCounted(out, uriHashes.size(), resources);
+				sections[OBJECTS] = position(out);
+				writeCounted(out, objectHashes.size(), objects);
+				sections[USER_DATA] = position(out);
+				writeCounted(out, userData.size(), userData);
+				sections[IMPORTED_NAMES] = position(out);
+				writeCounted(out, importedNames.size(), importedNames);
+				sections[REFERENCES] = position(out);
+				writeCounted(out, references.size() / REFERENCE_SIZE, references);
+				sections[NAME_INDEX] = position(out);
+				writeHashIndex(out, objectHashes, null, 1);
+				sections[URI_INDEX] = position(out);
+				writeHashIndex(out, uriHashes, null, 1);
+				sections[IMPORTED_NAME_INDEX] = position(out);
+				writeHashIndex(out, importedNameHashes, importedNameEntries, 2);
+				sections[REFERENCED_RESOURCE_INDEX] = position(out);
+				writeHashIndex(out, referencedResourceHashes, referencedResourceEntries, 2);
+				out.flush();
+				// the offsets of the sections are ints and the file is mapped into a single buffer
+				tooLarge = channel.size() > Integer.MAX_VALUE;
+				if (!tooLarge) {
+					for (int section : sections) {
+						header.putInt(section);
+					}
+					header.flip();
+					while (header.hasRemaining()) {
+						channel.write(header, header.position());
+					}
+				}
+			}
+			if (tooLarge) {
+				Files.delete(path);
+				throw new IOException("Index file " + path + " exceeds 2 GB.");
+			}
+		}
+
+		private int position(DataOutputStream out) {
+			return HEADER_SIZE + out.size();
+		}
+
+		private void writeCounted(DataOutputStream out, int count, IntArray values) throws IOException {
+			out.writeInt(count);
+			values.writeTo(out);
+		}
+
+		private void writeStrings(DataOutputStream out) throws IOException {
+			List<byte[]> encoded = new ArrayList<>(stringList.size());
+			out.writeInt(stringList.size());
+			int offset = 0;
+			out.writeInt(offset);
+			for (String string : stringList) {
+				byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+				encoded.add(bytes);
+				offset += bytes.length;
+				out.writeInt(offset);
+			}
+			for (byte[] bytes : encoded) {
+				out.write(bytes);
+			}
+		}
+
+		/**
+		 * Write a hash table with the given number of buckets, the start of each bucket in the entry list and the
+		 * entries sorted by bucket. Without explicit entries, the index of a hash is its entry.
+		 */
+		private void writeHashIndex(DataOutputStream out, IntArray hashes, IntArray entries, int entrySize)
+				throws IOException {
+			int count = hashes.size();
+			int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) * 2;
+			int[] starts = new int[capacity + 1];
+			for (int i = 0; i < count; i++) {
+				starts[bucket(hashes.get(i), capacity) + 1]++;
+			}
+			for (int i = 0; i < capacity; i++) {
+				starts[i + 1] += starts[i];
+			}
+			int[] sorted = new int[count];
+			int[] next = Arrays.copyOf(starts, capacity);
+			for (int i = 0; i < count; i++) {
+				sorted[next[bucket(hashes.get(i), capacity)]++] = i;
+			}
+			out.writeInt(capacity);
+			for (int start : starts) {
+				out.writeInt(start);
+			}
+			for (int i : sorted) {
+				if (entries == null) {
+					out.writeInt(i);
+				} else {
+					for (int j = 0; j < entrySize; j++) {
+						out.writeInt(entries.get(entrySize * i + j));
+					}
+				}
+			}
+		}
+
+		private void add(IResourceDescription description) throws IOException {
+			int resource = uriHashes.size();
+			URI uri = description.getURI();
+			String uriString = uri.toString();
+			uriHashes.add(hash(uriString));
+			resources.add(string(uriString));
+			resources.add(objectHashes.size());
+			int objectCount = 0;
+			for (IEObjectDescription object : description.getExportedObjects()) {
+				QualifiedName name = object.getName();
+				objectHashes.add(hash(name.toLowerCase()));
+				objects.add(resource);
+				objects.add(name(name));
+				if (object.getEClass() == null) {
+					throw new IOException("The object " + object.getEObjectURI() + " has no EClass.");
+				}
+				objects.add(ecoreElement(object.getEClass()));
+				String fragment = object.getEObjectURI().fragment();
+				objects.add(fragment != null ? string(fragment) : NONE);
+				objects.add(userData(object));
+				objectCount++;
+			}
+			resources.add(objectCount);
+			resources.add(importedNames.size());
+			int importCount = 0;
+			for (QualifiedName importedName : description.getImportedNames()) {
+				int name = name(importedName);
+				importedNames.add(name);
+				importedNameHashes.add(hash(importedName.toLowerCase()));
+				importedNameEntries.add(name);
+				importedNameEntries.add(resource);
+				importCount++;
+			}
+			resources.add(importCount);
+			resources.add(references.size() / REFERENCE_SIZE);
+			int referenceCount = 0;
+			Set<String> referencedResources = new LinkedHashSet<>();
+			for (IReferenceDescription reference : description.getReferenceDescriptions()) {
+				references.add(relativeURI(uri, reference.getSourceEObjectUri()));
+				references.add(string(reference.getTargetEObjectUri().toString()));
+				references.add(ecoreElement(reference.getEReference()));
+				references.add(reference.getIndexInList());
+				references.add(relativeURI(uri, reference.getContainerEObjectURI()));
+				URI targetResource = reference.getTargetEObjectUri().trimFragment();
+				if (!targetResource.equals(uri)) {
+					referencedResources.add(targetResource.toString());
+				}
+				referenceCount++;
+			}
+			resources.add(referenceCount);
+			for (String referencedResource : referencedResources) {
+				referencedResourceHashes.add(hash(referencedResource));
+				referencedResourceEntries.add(string(referencedResource));
+				referencedResourceEntries.add(resource);
+			}
+		}
+
+		private int string(String string) {
+			Integer result = strings.get(string);
+			if (result == null) {
+				result = stringList.size();
+				strings.put(string, result);
+				stringList.add(string);
+			}
+			return result;
+		}
+
+		private int name(QualifiedName name) {
+			Integer result = names.get(name);
+			if (result == null) {
+				result = names.size();
+				names.put(name, result);
+				for (int i = 0; i < name.getSegmentCount(); i++) {
+					nameSegments.add(string(name.getSegment(i)));
+				}
+				nameStarts.add(nameSegments.size());
+			}
+			return result;
+		}
+
+		private int ecoreElement(ENamedElement element) throws IOException {
+			if (element == null) {
+				return NONE;
+			}
+			String uri = EcoreUtil.getURI(element).toString();
+			Integer result = ecoreElements.get(uri);
+			if (result == null) {
+				// fail now rather than drop the entries when the file is read
+				if (resolveEcoreElement(URI.createURI(uri)) != element) {
+					throw new IOException(
+							"The element " + uri + " cannot be stored, since its EPackage is not registered globally.");
+				}
+				result = ecoreElements.size();
+				ecoreElements.put(uri, result);
+				ecoreElementList.add(string(uri));
+			}
+			return result;
+		}
+
+		private int userData(IEObjectDescription object) {
+			String[] keys = object.getUserDataKeys();
+			if (keys.length == 0) {
+				return NONE;
+			}
+			int result = userData.size();
+			userData.add(keys.length);
+			for (String key : keys) {
+				userData.add(string(key));
+				String value = object.getUserData(key);
+				userData.add(string(value != null ? value : ""));
+			}
+			return result;
+		}
+
+		private int relativeURI(URI resourceURI, URI uri) {
+			if (uri == null) {
+				return NONE;
+			}
+			if (resourceURI.equals(uri.trimFragment()) && uri.fragment() != null) {
+				return string(uri.fragment());
+			}
+			return -string(uri.toString()) - 2;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.resource.impl;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceDescription.Delta;
+import org.eclipse.xtext.util.HashTrieMap;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+
+/**
+ * Index data that is backed by a {@link MappedResourceDescriptions memory-mapped index file}. The file itself is never
+ * modified. Added descriptions are kept in an in-memory overlay and shadow the descriptions with the same URI in the
+ * file, removed descriptions are hidden. This allows to use a mapped index wherever {@link ResourceDescriptionsData}
+ * is expected, e.g. in the {@link org.eclipse.xtext.build.IndexState IndexState} of the incremental builder or as a
+ * container of the {@link ChunkedResourceDescriptions}.
+ *
+ * @since 2.22
+ */
+public class MappedResourceDescriptionsData extends ResourceDescriptionsData {
+
+	private final MappedResourceDescriptions mapped;
+
+	private final ResourceDescriptionsData overlay;
+
+	/**
+	 * The URIs of the descriptions in the file that are either removed or replaced by a description in the overlay.
+	 */
+	private final HashTrieMap<URI, Boolean> hidden;
+
+	public MappedResourceDescriptionsData(MappedResourceDescriptions mapped) {
+		this(mapped, new ResourceDescriptionsData(Collections.emptyList()), new HashTrieMap<>());
+	}
+
+	protected MappedResourceDescriptionsData(MappedResourceDescriptions mapped, ResourceDescriptionsData overlay,
+			HashTrieMap<URI, Boolean> hidden) {
+		super(Collections.emptyList());
+		this.mapped = mapped;
+		this.overlay = overlay;
+		this.hidden = hidden;
+	}
+
+	public MappedResourceDescriptions getMappedResourceDescriptions() {
+		return mapped;
+	}
+
+	/**
+	 * Creates a copy of this index that shares the mapped file. Copying takes constant time.
+	 */
+	@Override
+	public ResourceDescriptionsData copy() {
+		return new MappedResourceDescriptionsData(mapped, overlay.copy(), hidden.copy());
+	}
+
+	protected boolean isVisible(URI uri) {
+		return !hidden.containsKey(uri);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return Iterables.isEmpty(getAllResourceDescriptions());
+	}
+
+	@Override
+	public Iterable<IResourceDescription> getAllResourceDescriptions() {
+		return Iterables.concat(overlay.getAllResourceDescriptions(),
+				Iterables.filter(mapped.getAllResourceDescriptions(), it -> isVisible(it.getURI())));
+	}
+
+	@Override
+	protected Iterable<IResourceDescription> getSelectables() {
+		return getAllResourceDescriptions();
+	}
+
+	@Override
+	public IResourceDescription getResourceDescription(URI uri) {
+		IResourceDescription result = overlay.getResourceDescription(uri);
+		if (result == null && isVisible(uri)) {
+			result = mapped.getResourceDescription(uri);
+		}
+		return result;
+	}
+
+	@Override
+	public Set<URI> getAllURIs() {
+		return new AbstractSet<URI>() {
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof URI && getResourceDescription((URI) o) != null;
+			}
+
+			@Override
+			public Iterator<URI> iterator() {
+				return Iterables
+						.concat(overlay.getAllURIs(), Iterables.filter(mapped.getAllURIs(), it -> isVisible(it)))
+						.iterator();
+			}
+
+			@Override
+			public int size() {
+				return Iterators.size(iterator());
+			}
+		};
+	}
+
+	@Override
+	public Iterable<IEObjectDescription> getExportedObjects(EClass type, QualifiedName qualifiedName,
+			boolean ignoreCase) {
+		Iterable<IEObjectDescription> fromMapped = mapped.getExportedObjects(type, qualifiedName, ignoreCase,
+				hidden.isEmpty() ? null : resource -> isVisible(mapped.getResourceURI(resource)));
+		return Iterables.concat(overlay.getExportedObjects(type, qualifiedName, ignoreCase), fromMapped);
+	}
+
+	@Override
+	public Iterable<IEObjectDescription> getExportedObjectsByType(EClass type) {
+		Iterable<IEObjectDescription> fromMapped = mapped.getExportedObjectsByType(type);
+		if (!hidden.isEmpty()) {
+			fromMapped = Iterables.filter(fromMapped, it -> isVisible(it.getEObjectURI().trimFragment()));
+		}
+		return Iterables.concat(overlay.getExportedObjectsByType(type), fromMapped);
+	}
+
+	@Override
+	public void removeDescription(URI uri) {
+		overlay.removeDescription(uri);
+		if (mapped.contains(uri)) {
+			hidden.put(uri, Boolean.TRUE);
+		}
+	}
+
+	@Override
+	public void addDescription(URI uri, IResourceDescription newDescription) {
+		removeDescription(uri);
+		if (newDescription != null) {
+			overlay.addDescription(uri, newDescription);
+		}
+	}
+
+	@Override
+	public Set<URI> getAffectionCandidates(Collection<? extends Delta> deltas) {
+		Set<URI> fromOverlay = overlay.getAffectionCandidates(deltas);
+		if (fromOverlay == null) {
+			return null;
+		}
+		Set<URI> result = new HashSet<>(fromOverlay);
+		Set<QualifiedName> exportedNames = new HashSet<>();
+		for (Delta delta : deltas) {
+			addVisible(mapped.getReferencingResources(delta.getUri()), result);
+			addExportedNames(delta.getOld(), exportedNames);
+			addExportedNames(delta.getNew(), exportedNames);
+		}
+		for (QualifiedName exportedName : exportedNames) {
+			addVisible(mapped.getImportingResources(exportedName), result);
+		}
+		return result;
+	}
+
+	private void addVisible(Iterable<URI> uris, Set<URI> result) {
+		for (URI uri : uris) {
+			if (isVisible(uri)) {
+				result.add(uri);
+			}
+		}
+	}
+
+	private void addExportedNames(IResourceDescription description, Set<QualifiedName> result) {
+		if (description != null) {
+			for (IEObjectDescription exported : description.getExportedObjects()) {
+				result.add(exported.getName().toLowerCase());
+			}
+		}
+	}
+}
@@ -8,10 +8,15 @@
  *******************************************************************************/
 package org.eclipse.xtext.resource.impl;
 
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -20,19 +25,23 @@ import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EcorePackage;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.xtext.EcoreUtil2;
 import org.eclipse.xtext.naming.QualifiedName;
 import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IReferenceDescription;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceDescription.Delta;
 import org.eclipse.xtext.resource.IResourceDescriptions;
+import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
+import org.eclipse.xtext.util.HashTrieMap;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 
 /**
  * Instances of {@link ResourceDescriptionsData} provide indexed access to
@@ -81,6 +90,22 @@ import com.google.common.collect.Sets;
 		}
 	}
 
+	/**
+	 * A set of values in one of the maps that may only be modified by its owner. Other instances that share the map
+	 * copy the set before they modify it.
+	 */
+	private static class OwnedSet<T> extends LinkedHashSet<T> {
+		private static final long serialVersionUID = 1L;
+
+		private final Object owner;
+
+		OwnedSet(Object owner, Collection<? extends T> elements) {
+			super(Math.max(elements.size() + 1, 4));
+			this.owner = owner;
+			addAll(elements);
+		}
+	}
+
 	private final Map<URI, IResourceDescription> resourceDescriptionMap;
 	/**
 	 * The lookup map contains either a single {@link IResourceDescription} or a 
@@ -91,28 +116,111 @@ import com.google.common.collect.Sets;
 	 */
 	private final Map<QualifiedName, Object> lookupMap;
 
+	/**
+	 * Maps the imported names of the indexed descriptions to the URI of the importing resource or a
+	 * {@link Set Set&lt;URI&gt;}. Only maintained by instances that are backed by {@link HashTrieMap hash tries}.
+	 */
+	private final Map<QualifiedName, Object> importedNamesMap;
+
+	/**
+	 * Maps the URIs of referenced resources to the URI of the referencing resource or a {@link Set Set&lt;URI&gt;}.
+	 */
+	private final Map<URI, Object> referencesMap;
+
+	/**
+	 * The URIs of the descriptions that are not part of the {@link #importedNamesMap} and the {@link #referencesMap}.
+	 */
+	private final Map<URI, Boolean> unindexedURIs;
+
+	/**
+	 * Maps the {@link EClass EClasses} of the exported objects and all their super types to the exporting
+	 * description or a {@link Set Set&lt;IResourceDescription&gt;}. Only maintained by instances that are backed by
+	 * {@link HashTrieMap hash tries}.
+	 */
+	private final Map<EClass, Object> typeMap;
+
+	/**
+	 * Identifies the {@link OwnedSet sets} in the maps that may be modified in place. 
+	 */
+	private Object owner = new Object();
+
+	/**
+	 * Maps the URIs of the indexed descriptions to the sequence number of their insertion, such that instances that are
+	 * backed by {@link HashTrieMap hash tries} iterate their descriptions in insertion order. Only maintained by these
+	 * instances.
+	 */
+	private final Map<URI, Long> insertionOrder;
+
+	private long nextInsertion;
+
+	/**
+	 * The URIs of the {@link #insertionOrder} sorted by their sequence number or <code>null</code> if the index was
+	 * modified since they were sorted.
+	 */
+	private volatile URI[] orderedURIs;
+
+	/**
+	 * Creates a new instance that is backed by {@link HashTrieMap hash tries}. The index can be copied in constant time
+	 * and the copies share their structure until either one is modified. Like the map based instances, it iterates the
+	 * descriptions in the order in which they were added.
+	 */
 	public ResourceDescriptionsData(Iterable<IResourceDescription> descriptions) {
-		int expectedSize = 500; // magic number in case it's not a Collection
-		if (descriptions instanceof Collection) {
-			expectedSize = ((Collection<?>) descriptions).size();
-		}
-		resourceDescriptionMap = new LinkedHashMap<>(expectedSize);
+		resourceDescriptionMap = new HashTrieMap<>();
+		insertionOrder = new HashTrieMap<>();
 		for (IResourceDescription desc : descriptions) {
-			resourceDescriptionMap.put(desc.getURI(), desc);
+			if (resourceDescriptionMap.put(desc.getURI(), desc) == null) {
+				insertionOrder.put(desc.getURI(), nextInsertion++);
+			}
 		}
-		// magic number - it is assumend that we export at least 2 entries per resource description
-		lookupMap = new LinkedHashMap<>(resourceDescriptionMap.size() * 2);
+		lookupMap = new HashTrieMap<>();
+		importedNamesMap = new HashTrieMap<>();
+		referencesMap = new HashTrieMap<>();
+		unindexedURIs = new HashTrieMap<>();
+		typeMap = new HashTrieMap<>();
 	    for (IResourceDescription description: descriptions) {
 	    	registerDescription(description, lookupMap);
+	    	registerImportsAndReferences(description.getURI(), description);
+	    	registerTypes(description);
 	    }
 	}
 
 	protected ResourceDescriptionsData(Map<URI, IResourceDescription> resourceDescriptionMap, Map<QualifiedName, Object> lookupMap) {
+		this(resourceDescriptionMap, lookupMap, null, null, null, null, null);
+	}
+
+	private ResourceDescriptionsData(Map<URI, IResourceDescription> resourceDescriptionMap,
+			Map<QualifiedName, Object> lookupMap, Map<QualifiedName, Object> importedNamesMap,
+			Map<URI, Object> referencesMap, Map<URI, Boolean> unindexedURIs, Map<EClass, Object> typeMap,
+			Map<URI, Long> insertionOrder) {
 		this.resourceDescriptionMap = resourceDescriptionMap;
+		this.insertionOrder = insertionOrder;
 		this.lookupMap = lookupMap;
+		this.importedNamesMap = importedNamesMap;
+		this.referencesMap = referencesMap;
+		this.unindexedURIs = unindexedURIs;
+		this.typeMap = typeMap;
 	}
 	
+	/**
+	 * Creates a copy of this index. If both maps are {@link HashTrieMap hash tries}, the copy shares their structure
+	 * and takes constant time. Otherwise, all map entries are copied.
+	 */
+	@SuppressWarnings("unchecked")
 	public ResourceDescriptionsData copy() {
+		if (resourceDescriptionMap instanceof HashTrieMap<?, ?> && lookupMap instanceof HashTrieMap<?, ?>) {
+			owner = new Object();
+			ResourceDescriptionsData result = new ResourceDescriptionsData(
+					((HashTrieMap<URI, IResourceDescription>) resourceDescriptionMap).copy(),
+					((HashTrieMap<QualifiedName, Object>) lookupMap).copy(),
+					importedNamesMap != null ? ((HashTrieMap<QualifiedName, Object>) importedNamesMap).copy() : null,
+					referencesMap != null ? ((HashTrieMap<URI, Object>) referencesMap).copy() : null,
+					unindexedURIs != null ? ((HashTrieMap<URI, Boolean>) unindexedURIs).copy() : null,
+					typeMap != null ? ((HashTrieMap<EClass, Object>) typeMap).copy() : null,
+					insertionOrder != null ? ((HashTrieMap<URI, Long>) insertionOrder).copy() : null);
+			result.nextInsertion = nextInsertion;
+			result.orderedURIs = orderedURIs;
+			return result;
+		}
 		return new ResourceDescriptionsData(
 				Maps.newLinkedHashMap(resourceDescriptionMap),
 				copyLookupMap());
@@ -135,7 +243,27 @@ import com.google.common.collect.Sets;
 
 	@Override
 	public Iterable<IResourceDescription> getAllResourceDescriptions() {
-		return resourceDescriptionMap.values();
+		if (insertionOrder == null) {
+			return resourceDescriptionMap.values();
+		}
+		return () -> Iterators.transform(getOrderedURIs().iterator(), resourceDescriptionMap::get);
+	}
+
+	/**
+	 * Returns the URIs of the descriptions in insertion order. The sorted URIs are kept until the index is modified.
+	 */
+	private List<URI> getOrderedURIs() {
+		URI[] result = orderedURIs;
+		if (result == null) {
+			List<Map.Entry<URI, Long>> entries = new ArrayList<>(insertionOrder.entrySet());
+			entries.sort(Map.Entry.comparingByValue());
+			result = new URI[entries.size()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = entries.get(i).getKey();
+			}
+			orderedURIs = result;
+		}
+		return Arrays.asList(result);
 	}
 
 	@Override
@@ -146,18 +274,35 @@ import com.google.common.collect.Sets;
 	public void removeDescription(URI uri) {
 		IResourceDescription oldDescription = resourceDescriptionMap.remove(uri);
 		if (oldDescription != null) {
+			if (insertionOrder != null) {
+				insertionOrder.remove(uri);
+				orderedURIs = null;
+			}
+			unregisterImportsAndReferences(uri, oldDescription);
+			unregisterTypes(oldDescription);
 			for(IEObjectDescription object: oldDescription.getExportedObjects()) {
 				QualifiedName objectName = object.getName().toLowerCase();
 				Object existing = lookupMap.get(objectName);
 				if (existing == oldDescription) {
 					lookupMap.remove(objectName);
 				} else if (existing instanceof Set<?>) {
-					Set<?> casted = (Set<?>) existing;
-					if (casted.remove(oldDescription)) {
-						if (casted.size() == 1) {
-							lookupMap.put(objectName, casted.iterator().next());
-						} else if (casted.isEmpty()) {
+					@SuppressWarnings("unchecked")
+					Set<IResourceDescription> casted = (Set<IResourceDescription>) existing;
+					if (casted.contains(oldDescription)) {
+						if (casted.size() == 2) {
+							for (IResourceDescription remaining : casted) {
+								if (remaining != oldDescription) {
+									lookupMap.put(objectName, remaining);
+								}
+							}
+						} else if (casted.size() == 1) {
 							lookupMap.remove(objectName);
+						} else {
+							Set<IResourceDescription> editable = getEditableSet(casted);
+							editable.remove(oldDescription);
+							if (editable != casted) {
+								lookupMap.put(objectName, editable);
+							}
 						}
 					}
 				}
@@ -186,6 +331,27 @@ import com.google.common.collect.Sets;
 		return Collections.emptyList();
 	}
 	
+	/**
+	 * Only visits the descriptions that export an instance of the given type if the type index is maintained.
+	 * 
+	 * @since 2.22
+	 */
+	@Override
+	public Iterable<IEObjectDescription> getExportedObjectsByType(final EClass type) {
+		if (typeMap == null || type == EcorePackage.Literals.EOBJECT) {
+			return super.getExportedObjectsByType(type);
+		}
+		Object existing = typeMap.get(type);
+		if (existing instanceof IResourceDescription) {
+			return ((IResourceDescription) existing).getExportedObjectsByType(type);
+		} else if (existing instanceof Set<?>) {
+			@SuppressWarnings("unchecked")
+			Set<IResourceDescription> casted = (Set<IResourceDescription>) existing;
+			return Iterables.concat(Iterables.transform(casted, from -> from.getExportedObjectsByType(type)));
+		}
+		return Collections.emptyList();
+	}
+
 	@Override
 	public Iterable<IEObjectDescription> getExportedObjectsByObject(EObject object) {
 		URI resourceURI = EcoreUtil2.getPlatformResourceOrNormalizedURI(object).trimFragment();
@@ -197,18 +363,42 @@ import com.google.common.collect.Sets;
 	
 	@Override
 	protected Iterable<IResourceDescription> getSelectables() {
-		return resourceDescriptionMap.values();
+		return getAllResourceDescriptions();
 	}
 
 	public Set<URI> getAllURIs() {
-		return resourceDescriptionMap.keySet();
+		if (insertionOrder == null) {
+			return resourceDescriptionMap.keySet();
+		}
+		return new AbstractSet<URI>() {
+			@Override
+			public Iterator<URI> iterator() {
+				return getOrderedURIs().iterator();
+			}
+
+			@Override
+			public int size() {
+				return resourceDescriptionMap.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return resourceDescriptionMap.containsKey(o);
+			}
+		};
 	}
 
 	public void addDescription(URI uri, IResourceDescription newDescription) {
 		removeDescription(uri);
 		if (newDescription != null) {
 			resourceDescriptionMap.put(uri, newDescription);
+			if (insertionOrder != null) {
+				insertionOrder.put(uri, nextInsertion++);
+				orderedURIs = null;
+			}
 			registerDescription(newDescription, lookupMap);
+			registerImportsAndReferences(uri, newDescription);
+			registerTypes(newDescription);
 		}
 	}
 
@@ -220,10 +410,9 @@ import com.google.common.collect.Sets;
 			if (existing != null && existing != description) {
 				Set<IResourceDescription> set = null;
 				if (existing instanceof IResourceDescription) {
-					set = Sets.newLinkedHashSetWithExpectedSize(2);
-					set.add((IResourceDescription)existing);
+					set = new OwnedSet<>(owner, Collections.singleton((IResourceDescription) existing));
 				} else {
-					set = (Set<IResourceDescription>) existing;
+					set = getEditableSet((Set<IResourceDescription>) existing);
 				}
 				set.add(description);
 				target.put(lowerCase, set);
@@ -231,6 +420,179 @@ import com.google.common.collect.Sets;
 		}
 	}
 
+	/**
+	 * Returns the given set if this instance may modify it in place, or a copy that is owned by this instance.
+	 */
+	private <T> Set<T> getEditableSet(Set<T> set) {
+		if (set instanceof OwnedSet<?> && ((OwnedSet<?>) set).owner != owner) {
+			return new OwnedSet<>(owner, set);
+		}
+		return set;
+	}
+
+	/**
+	 * Only {@link SerializableResourceDescription serializable descriptions} provide their imported names and
+	 * references without accessing the resource, so all other descriptions are recorded as unindexed.
+	 */
+	private void registerImportsAndReferences(URI uri, IResourceDescription description) {
+		if (importedNamesMap == null) {
+			return;
+		}
+		if (!(description instanceof SerializableResourceDescription)) {
+			unindexedURIs.put(uri, Boolean.TRUE);
+			return;
+		}
+		for (QualifiedName importedName : description.getImportedNames()) {
+			addValue(importedNamesMap, importedName, uri);
+		}
+		for (IReferenceDescription reference : description.getReferenceDescriptions()) {
+			URI targetResource = reference.getTargetEObjectUri().trimFragment();
+			if (!uri.equals(targetResource)) {
+				addValue(referencesMap, targetResource, uri);
+			}
+		}
+	}
+
+	private void unregisterImportsAndReferences(URI uri, IResourceDescription description) {
+		if (importedNamesMap == null) {
+			return;
+		}
+		if (!(description instanceof SerializableResourceDescription)) {
+			unindexedURIs.remove(uri);
+			return;
+		}
+		for (QualifiedName importedName : description.getImportedNames()) {
+			removeValue(importedNamesMap, importedName, uri);
+		}
+		for (IReferenceDescription reference : description.getReferenceDescriptions()) {
+			removeValue(referencesMap, reference.getTargetEObjectUri().trimFragment(), uri);
+		}
+	}
+
+	private void registerTypes(IResourceDescription description) {
+		if (typeMap != null) {
+			for (EClass type : getExportedTypes(description)) {
+				addValue(typeMap, type, description);
+			}
+		}
+	}
+
+	private void unregisterTypes(IResourceDescription description) {
+		if (typeMap != null) {
+			for (EClass type : getExportedTypes(description)) {
+				removeValue(typeMap, type, description);
+			}
+		}
+	}
+
+	/**
+	 * The classes of the exported objects and all their super types.
+	 */
+	private Set<EClass> getExportedTypes(IResourceDescription description) {
+		Set<EClass> result = new HashSet<>();
+		for (IEObjectDescription object : description.getExportedObjects()) {
+			EClass type = object.getEClass();
+			if (type != null && result.add(type)) {
+				result.addAll(type.getEAllSuperTypes());
+			}
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <K, V> void addValue(Map<K, Object> map, K key, V value) {
+		Object existing = map.get(key);
+		if (existing == null) {
+			map.put(key, value);
+		} else if (existing instanceof Set<?>) {
+			Set<V> set = (Set<V>) existing;
+			if (!set.contains(value)) {
+				Set<V> editable = getEditableSet(set);
+				editable.add(value);
+				if (editable != set) {
+					map.put(key, editable);
+				}
+			}
+		} else if (!existing.equals(value)) {
+			map.put(key, new OwnedSet<>(owner, Arrays.asList((V) existing, value)));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <K, V> void removeValue(Map<K, Object> map, K key, V value) {
+		Object existing = map.get(key);
+		if (existing instanceof Set<?>) {
+			Set<V> set = (Set<V>) existing;
+			if (set.contains(value)) {
+				if (set.size() <= 2) {
+					V remaining = null;
+					for (V element : set) {
+						if (!element.equals(value)) {
+							remaining = element;
+						}
+					}
+					if (remaining != null) {
+						map.put(key, remaining);
+					} else {
+						map.remove(key);
+					}
+				} else {
+					Set<V> editable = getEditableSet(set);
+					editable.remove(value);
+					if (editable != set) {
+						map.put(key, editable);
+					}
+				}
+			}
+		} else if (value.equals(existing)) {
+			map.remove(key);
+		}
+	}
+
+	/**
+	 * Returns the URIs of the indexed resources that import a name that is exported by the old or new description of
+	 * one of the given deltas, or that reference the resource of one of the deltas. Resources whose descriptions are
+	 * not {@link SerializableResourceDescription serializable} are always included, since their imported names and
+	 * references are not indexed.
+	 * 
+	 * @return the URIs of the candidates or <code>null</code> if this instance does not index imported names and
+	 *         references.
+	 * @since 2.22
+	 */
+	public Set<URI> getAffectionCandidates(Collection<? extends Delta> deltas) {
+		if (importedNamesMap == null) {
+			return null;
+		}
+		Set<URI> result = new HashSet<>(unindexedURIs.keySet());
+		Set<QualifiedName> exportedNames = new HashSet<>();
+		for (Delta delta : deltas) {
+			addValues(referencesMap.get(delta.getUri()), result);
+			addExportedNames(delta.getOld(), exportedNames);
+			addExportedNames(delta.getNew(), exportedNames);
+		}
+		for (QualifiedName exportedName : exportedNames) {
+			addValues(importedNamesMap.get(exportedName), result);
+		}
+		return result;
+	}
+
+	private void addExportedNames(IResourceDescription description, Set<QualifiedName> result) {
+		if (description != null) {
+			for (IEObjectDescription exported : description.getExportedObjects()) {
+				result.add(exported.getName().toLowerCase());
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addValues(Object valueOrSet, Set<URI> result) {
+		if (valueOrSet instanceof Set<?>) {
+			result.addAll((Set<URI>) valueOrSet);
+		} else if (valueOrSet != null) {
+			result.add((URI) valueOrSet);
+		}
+	}
+
 	/**
 	 * Put a new resource description into the index, or remove one if the delta has no new description. A delta for a
 	 * particular URI may be registered more than once; overwriting any earlier registration.
@@ -8,11 +8,13 @@
  */
 package org.eclipse.xtext.resource.persistence;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.xtext.generator.IFileSystemAccessExtension3;
+import org.eclipse.xtext.resource.IResourceDescription;
 
 /**
  * @author Sven Efftinge - Initial contribution and API
@@ -38,6 +40,26 @@ public interface IResourceStorageFacade {
 	 */
 	ResourceStorageLoadable getOrCreateResourceStorageLoadable(StorageAwareResource resource);
 
+	/**
+	 * Loads only the resource description of the given resource from its storage. The contents of the resource are
+	 * loaded from the storage when they are accessed for the first time.
+	 * 
+	 * @return the loaded description or <code>null</code> if the resource is already loaded or should not or cannot be
+	 *         loaded from storage.
+	 * @since 2.22
+	 */
+	default IResourceDescription loadResourceDescription(StorageAwareResource resource) {
+		if (resource.isLoaded() || !shouldLoadFromStorage(resource)) {
+			return null;
+		}
+		try {
+			resource.loadResourceDescriptionFromStorage(getOrCreateResourceStorageLoadable(resource));
+			return resource.getResourceDescription();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
 	/**
 	 * Saves the resource using the given file system access.
 	 */
@@ -0,0 +1,336 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.resource.persistence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.ENamedElement;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.naming.QualifiedNamePool;
+
+/**
+ * A compact binary encoding of {@link SerializableResourceDescription resource descriptions} that does not rely on
+ * Java serialization. Strings and URIs are written once and referenced by their index afterwards, and all numbers are
+ * written as variable length integers.
+ *
+ * Encoded descriptions start with a {@link #MAGIC magic number} and a version, so they can be told apart from
+ * descriptions that were written with an {@link java.io.ObjectOutputStream ObjectOutputStream}.
+ *
+ * @since 2.22
+ */
+public class ResourceDescriptionCodec {
+
+	/**
+	 * The first bytes of an encoded description. A Java serialization stream starts with <code>0xACED</code>.
+	 */
+	public static final byte[] MAGIC = { 'X', 'R', 'D', 'C' };
+
+	public static final int VERSION = 1;
+
+	/** Marks a <code>null</code> reference to a string or URI. */
+	private static final int NULL = 0;
+
+	/** Marks a string or URI that is written for the first time. */
+	private static final int NEW = 1;
+
+	/** The first index of a string or URI that was already written. */
+	private static final int FIRST_INDEX = 2;
+
+	/**
+	 * Returns <code>true</code> if the given bytes start with the {@link #MAGIC magic number}.
+	 */
+	public static boolean isEncoded(byte[] header, int length) {
+		if (length < MAGIC.length) {
+			return false;
+		}
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (header[i] != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public void write(SerializableResourceDescription description, OutputStream out) throws IOException {
+		new Writer(out).writeDescription(description);
+	}
+
+	public SerializableResourceDescription read(InputStream in) throws IOException {
+		return new Reader(in).readDescription();
+	}
+
+	protected static class Writer {
+		private final OutputStream out;
+
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		private final Map<URI, Integer> uris = new HashMap<>();
+
+		private final Map<ENamedElement, URI> ecoreElementURIs = new HashMap<>();
+
+		protected Writer(OutputStream out) {
+			this.out = out;
+		}
+
+		protected void writeDescription(SerializableResourceDescription description) throws IOException {
+			out.write(MAGIC);
+			writeInt(VERSION);
+			writeURI(description.getURI());
+			writeInt(description.getDescriptions().size());
+			for (SerializableEObjectDescription object : description.getDescriptions()) {
+				writeURI(object.getEObjectURI());
+				writeEcoreElement(object.getEClass());
+				writeQualifiedName(object.getQualifiedName());
+				Map<String, String> userData = object.getUserData();
+				if (userData == null) {
+					writeInt(0);
+				} else {
+					writeInt(userData.size());
+					for (Map.Entry<String, String> entry : userData.entrySet()) {
+						writeString(entry.getKey());
+						writeString(entry.getValue());
+					}
+				}
+			}
+			writeInt(description.getReferences().size());
+			for (SerializableReferenceDescription reference : description.getReferences()) {
+				writeURI(reference.getSourceEObjectUri());
+				writeURI(reference.getTargetEObjectUri());
+				writeURI(reference.getContainerEObjectURI());
+				writeEcoreElement(reference.getEReference());
+				// the index is -1 for single valued references
+				writeInt(reference.getIndexInList() + 1);
+			}
+			List<QualifiedName> importedNames = new ArrayList<>();
+			description.getImportedNames().forEach(importedNames::add);
+			writeInt(importedNames.size());
+			for (QualifiedName importedName : importedNames) {
+				writeQualifiedName(importedName);
+			}
+		}
+
+		protected void writeInt(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.write((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.write(value);
+		}
+
+		protected void writeString(String value) throws IOException {
+			if (value == null) {
+				writeInt(NULL);
+				return;
+			}
+			Integer index = strings.get(value);
+			if (index != null) {
+				writeInt(index);
+				return;
+			}
+			strings.put(value, strings.size() + FIRST_INDEX);
+			writeInt(NEW);
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		/**
+		 * URIs are written as the string of the URI without the fragment and the fragment, so the URIs of all objects
+		 * in one resource share a string.
+		 */
+		protected void writeURI(URI uri) throws IOException {
+			if (uri == null) {
+				writeInt(NULL);
+				return;
+			}
+			Integer index = uris.get(uri);
+			if (index != null) {
+				writeInt(index);
+				return;
+			}
+			uris.put(uri, uris.size() + FIRST_INDEX);
+			writeInt(NEW);
+			writeString(uri.trimFragment().toString());
+			writeString(uri.fragment());
+		}
+
+		protected void writeQualifiedName(QualifiedName name) throws IOException {
+			writeInt(name.getSegmentCount());
+			for (int i = 0; i < name.getSegmentCount(); i++) {
+				writeString(name.getSegment(i));
+			}
+		}
+
+		protected void writeEcoreElement(ENamedElement element) throws IOException {
+			writeURI(element != null ? ecoreElementURIs.computeIfAbsent(element, EcoreUtil::getURI) : null);
+		}
+	}
+
+	protected static class Reader {
+		private final InputStream in;
+
+		private final List<String> strings = new ArrayList<>();
+
+		private final List<URI> uris = new ArrayList<>();
+
+		private final Map<URI, ENamedElement> ecoreElements = new HashMap<>();
+
+		protected Reader(InputStream in) {
+			this.in = in;
+		}
+
+		protected SerializableResourceDescription readDescription() throws IOException {
+			byte[] header = new byte[MAGIC.length];
+			readFully(header);
+			if (!isEncoded(header, header.length)) {
+				throw new IOException("Not an encoded resource description.");
+			}
+			int version = readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported version of the resource description encoding: " + version);
+			}
+			SerializableResourceDescription result = new SerializableResourceDescription();
+			result.setURI(readURI());
+			int objectCount = readInt();
+			List<SerializableEObjectDescription> objects = new ArrayList<>(objectCount);
+			for (int i = 0; i < objectCount; i++) {
+				SerializableEObjectDescription object = new SerializableEObjectDescription();
+				object.setEObjectURI(readURI());
+				object.setEClass((EClass) readEcoreElement());
+				object.setQualifiedName(readQualifiedName());
+				int userDataCount = readInt();
+				HashMap<String, String> userData = new HashMap<>(Math.max(4, userDataCount * 2));
+				for (int j = 0; j < userDataCount; j++) {
+					userData.put(readString(), readString());
+				}
+				object.setUserData(userData);
+				objects.add(object);
+			}
+			result.setDescriptions(objects);
+			int referenceCount = readInt();
+			List<SerializableReferenceDescription> references = new ArrayList<>(referenceCount);
+			for (int i = 0; i < referenceCount; i++) {
+				SerializableReferenceDescription reference = new SerializableReferenceDescription();
+				reference.setSourceEObjectUri(readURI());
+				reference.setTargetEObjectUri(readURI());
+				reference.setContainerEObjectURI(readURI());
+				reference.setEReference((EReference) readEcoreElement());
+				reference.setIndexInList(readInt() - 1);
+				references.add(reference);
+			}
+			result.setReferences(references);
+			int importedNameCount = readInt();
+			List<QualifiedName> importedNames = new ArrayList<>(importedNameCount);
+			for (int i = 0; i < importedNameCount; i++) {
+				importedNames.add(readQualifiedName());
+			}
+			result.setImportedNames(importedNames);
+			return result;
+		}
+
+		protected int readInt() throws IOException {
+			int result = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				int b = in.read();
+				if (b < 0) {
+					throw new EOFException();
+				}
+				result |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+			}
+			throw new IOException("Malformed variable length integer.");
+		}
+
+		protected void readFully(byte[] bytes) throws IOException {
+			int offset = 0;
+			while (offset < bytes.length) {
+				int read = in.read(bytes, offset, bytes.length - offset);
+				if (read < 0) {
+					throw new EOFException();
+				}
+				offset += read;
+			}
+		}
+
+		protected String readString() throws IOException {
+			int reference = readInt();
+			if (reference == NULL) {
+				return null;
+			}
+			if (reference != NEW) {
+				return strings.get(reference - FIRST_INDEX);
+			}
+			byte[] bytes = new byte[readInt()];
+			readFully(bytes);
+			String result = new String(bytes, StandardCharsets.UTF_8);
+			strings.add(result);
+			return result;
+		}
+
+		protected URI readURI() throws IOException {
+			int reference = readInt();
+			if (reference == NULL) {
+				return null;
+			}
+			if (reference != NEW) {
+				return uris.get(reference - FIRST_INDEX);
+			}
+			URI result = URI.createURI(readString());
+			String fragment = readString();
+			if (fragment != null) {
+				result = result.appendFragment(fragment);
+			}
+			uris.add(result);
+			return result;
+		}
+
+		protected QualifiedName readQualifiedName() throws IOException {
+			int segmentCount = readInt();
+			if (segmentCount == 0) {
+				return QualifiedName.EMPTY;
+			}
+			QualifiedName.Builder builder = new QualifiedName.Builder(segmentCount);
+			for (int i = 0; i < segmentCount; i++) {
+				builder.add(readString());
+			}
+			return QualifiedNamePool.canonicalize(builder.build());
+		}
+
+		/**
+		 * Resolves the element from the {@link EPackage.Registry#INSTANCE global package registry}.
+		 */
+		protected ENamedElement readEcoreElement() throws IOException {
+			URI uri = readURI();
+			if (uri == null) {
+				return null;
+			}
+			return ecoreElements.computeIfAbsent(uri, it -> {
+				EPackage ePackage = EPackage.Registry.INSTANCE.getEPackage(it.trimFragment().toString());
+				Resource resource = ePackage != null ? ePackage.eResource() : null;
+				return resource != null ? (ENamedElement) resource.getEObject(it.fragment()) : null;
+			});
+		}
+	}
+}
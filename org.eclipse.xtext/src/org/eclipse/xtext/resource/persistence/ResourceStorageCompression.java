@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2020 TypeFox GmbH (http://www.typefox.io) and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.xtext.resource.persistence;
+
+import java.util.zip.Deflater;
+
+/**
+ * The compression of the entries in a resource storage. All options produce regular zip entries, so storages can be
+ * loaded regardless of the compression they were written with.
+ *
+ * @since 2.22
+ */
+public enum ResourceStorageCompression {
+
+	/**
+	 * The default deflate compression. Yields the smallest storages.
+	 */
+	DEFLATE(Deflater.DEFAULT_COMPRESSION),
+
+	/**
+	 * The fastest deflate compression. Considerably cheaper to write than {@link #DEFLATE} at a moderate increase in
+	 * size.
+	 */
+	FAST(Deflater.BEST_SPEED),
+
+	/**
+	 * The entries are stored without compression. Reading them is little more than copying the bytes.
+	 */
+	STORED(Deflater.NO_COMPRESSION);
+
+	private final int level;
+
+	private ResourceStorageCompression(int level) {
+		this.level = level;
+	}
+
+	/**
+	 * The {@link Deflater} level of this compression.
+	 */
+	public int getLevel() {
+		return level;
+	}
+}
@@ -44,6 +44,8 @@ public class ResourceStorageFacade implements IResourceStorageFacade {
 
 	private boolean storeNodeModel = false;
 
+	private ResourceStorageCompression compression = ResourceStorageCompression.DEFLATE;
+
 	@Override
 	public boolean shouldLoadFromStorage(StorageAwareResource resource) {
 		SourceLevelURIsAdapter adapter = SourceLevelURIsAdapter.findInstalledAdapter(resource.getResourceSet());
@@ -110,7 +112,7 @@ public class ResourceStorageFacade implements IResourceStorageFacade {
 
 	@Override
 	public ResourceStorageWritable createResourceStorageWritable(OutputStream out) {
-		return new ResourceStorageWritable(out, isStoreNodeModel());
+		return new ResourceStorageWritable(out, isStoreNodeModel(), getCompression());
 	}
 
 	protected ResourceStorageProviderAdapter getResourceStorageProviderAdapter(ResourceSet resourceSet) {
@@ -152,6 +154,20 @@ public class ResourceStorageFacade implements IResourceStorageFacade {
 		this.storeNodeModel = storeNodeModel;
 	}
 
+	/**
+	 * @since 2.22
+	 */
+	public ResourceStorageCompression getCompression() {
+		return compression;
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public void setCompression(ResourceStorageCompression compression) {
+		this.compression = compression;
+	}
+
 	private static class MyByteArrayOutputStream extends ByteArrayOutputStream {
 		@Override
 		public synchronized byte[] toByteArray() {
@@ -17,6 +17,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.util.Collections;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import org.apache.log4j.Logger;
@@ -34,6 +35,20 @@ import com.google.common.io.CharStreams;
 public class ResourceStorageLoadable {
 	private static final Logger LOG = Logger.getLogger(ResourceStorageLoadable.class);
 
+	/**
+	 * The name of the entry that holds the resource description, as written by the {@link ResourceStorageWritable}.
+	 * 
+	 * @since 2.22
+	 */
+	protected static final String RESOURCE_DESCRIPTION_ENTRY = "resource-description";
+
+	/**
+	 * The name of the entry that holds the node model, as written by the {@link ResourceStorageWritable}.
+	 * 
+	 * @since 2.22
+	 */
+	protected static final String NODE_MODEL_ENTRY = "node-model";
+
 	private final InputStream in;
 
 	private final boolean storeNodeModel;
@@ -43,6 +58,15 @@ public class ResourceStorageLoadable {
 		this.storeNodeModel = storeNodeModel;
 	}
 
+	/**
+	 * Closes the underlying stream of a storage that is not going to be loaded.
+	 * 
+	 * @since 2.22
+	 */
+	public void close() throws IOException {
+		in.close();
+	}
+
 	protected void loadIntoResource(StorageAwareResource resource) throws IOException {
 		if (!resource.isLoadedFromStorage())
 			throw new IllegalStateException("Please use StorageAwareResource#load(ResourceStorageLoadable).");
@@ -51,17 +75,46 @@ public class ResourceStorageLoadable {
 		}
 	}
 
+	/**
+	 * Loads only the resource description from the storage. The entries are read up to the resource description,
+	 * which is the first one in storages that were written by a current {@link ResourceStorageWritable}, and the
+	 * stream is closed afterwards. Thus the contents and the node model are neither read nor kept in memory.
+	 * 
+	 * @since 2.22
+	 */
+	protected void loadResourceDescriptionIntoResource(StorageAwareResource resource) throws IOException {
+		if (!resource.isLoadedFromStorage())
+			throw new IllegalStateException(
+					"Please use StorageAwareResource#loadResourceDescriptionFromStorage(ResourceStorageLoadable).");
+		try (ZipInputStream zin = new ZipInputStream(in)) {
+			ZipEntry entry;
+			while ((entry = zin.getNextEntry()) != null) {
+				if (RESOURCE_DESCRIPTION_ENTRY.equals(entry.getName())) {
+					readResourceDescription(resource, new BufferedInputStream(zin));
+					return;
+				}
+			}
+		}
+		throw new IOException("The storage does not contain a resource description.");
+	}
+
 	/**
 	 * Load entries from the storage. Overriding methods should first delegate to super before adding their own entries.
+	 * The entries of the contents and of the resource description are accepted in either order, since earlier
+	 * versions wrote the contents first.
 	 */
 	protected void loadEntries(StorageAwareResource resource, ZipInputStream zipIn) throws IOException {
-		zipIn.getNextEntry();
-		readContents(resource, new BufferedInputStream(zipIn));
-		zipIn.getNextEntry();
-		readResourceDescription(resource, new BufferedInputStream(zipIn));
-		if (storeNodeModel) {
-			zipIn.getNextEntry();
-			readNodeModel(resource, new BufferedInputStream(zipIn));
+		int entryCount = storeNodeModel ? 3 : 2;
+		for (int i = 0; i < entryCount; i++) {
+			ZipEntry entry = zipIn.getNextEntry();
+			String name = entry != null ? entry.getName() : null;
+			if (RESOURCE_DESCRIPTION_ENTRY.equals(name)) {
+				readResourceDescription(resource, new BufferedInputStream(zipIn));
+			} else if (NODE_MODEL_ENTRY.equals(name)) {
+				readNodeModel(resource, new BufferedInputStream(zipIn));
+			} else {
+				readContents(resource, new BufferedInputStream(zipIn));
+			}
 		}
 	}
 
@@ -88,15 +141,39 @@ public class ResourceStorageLoadable {
 		return null;
 	}
 
+	/**
+	 * Reads descriptions that were written by the {@link ResourceDescriptionCodec} as well as descriptions that were
+	 * written with an {@link java.io.ObjectOutputStream ObjectOutputStream} by earlier versions.
+	 */
 	protected void readResourceDescription(StorageAwareResource resource, InputStream inputStream) throws IOException {
-		try {
-			SerializableResourceDescription description = (SerializableResourceDescription) new ObjectInputStream(
-					inputStream).readObject();
-			description.updateResourceURI(resource.getURI());
-			resource.setResourceDescription(description);
-		} catch (ClassNotFoundException e) {
-			throw new RuntimeException(e);
+		InputStream markable = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+		byte[] header = new byte[ResourceDescriptionCodec.MAGIC.length];
+		markable.mark(header.length);
+		int length = 0;
+		int read;
+		while (length < header.length && (read = markable.read(header, length, header.length - length)) >= 0) {
+			length += read;
 		}
+		markable.reset();
+		SerializableResourceDescription description;
+		if (ResourceDescriptionCodec.isEncoded(header, length)) {
+			description = createResourceDescriptionCodec().read(markable);
+		} else {
+			try {
+				description = (SerializableResourceDescription) new ObjectInputStream(markable).readObject();
+			} catch (ClassNotFoundException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		description.updateResourceURI(resource.getURI());
+		resource.setResourceDescription(description);
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	protected ResourceDescriptionCodec createResourceDescriptionCodec() {
+		return new ResourceDescriptionCodec();
 	}
 
 	protected void readNodeModel(StorageAwareResource resource, InputStream inputStream) throws IOException {
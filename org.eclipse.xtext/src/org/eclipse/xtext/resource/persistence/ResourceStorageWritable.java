@@ -11,7 +11,6 @@ package org.eclipse.xtext.resource.persistence;
 import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.util.Collections;
 import java.util.zip.ZipEntry;
@@ -33,15 +32,26 @@ public class ResourceStorageWritable {
 
 	private final boolean storeNodeModel;
 
+	private final ResourceStorageCompression compression;
+
 	public ResourceStorageWritable(OutputStream out, boolean storeNodeModel) {
+		this(out, storeNodeModel, ResourceStorageCompression.DEFLATE);
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	public ResourceStorageWritable(OutputStream out, boolean storeNodeModel, ResourceStorageCompression compression) {
 		this.out = out;
 		this.storeNodeModel = storeNodeModel;
+		this.compression = compression;
 	}
 
 	public void writeResource(StorageAwareResource resource) throws IOException {
 		if (resource.isLoadedFromStorage())
 			throw new IllegalStateException("cannot write resources loaded from storage. URI was " + resource.getURI());
 		try (ZipOutputStream zipOut = new ZipOutputStream(out)) {
+			zipOut.setLevel(compression.getLevel());
 			writeEntries(resource, zipOut);
 		}
 	}
@@ -52,16 +62,17 @@ public class ResourceStorageWritable {
 	 */
 	protected void writeEntries(StorageAwareResource resource, ZipOutputStream zipOut) throws IOException {
 		BufferedOutputStream bufferedOutput = new BufferedOutputStream(zipOut);
-		zipOut.putNextEntry(new ZipEntry("emf-contents"));
+		// the description comes first, such that it can be read without the contents
+		zipOut.putNextEntry(new ZipEntry("resource-description"));
 		try {
-			writeContents(resource, bufferedOutput);
+			writeResourceDescription(resource, bufferedOutput);
 		} finally {
 			bufferedOutput.flush();
 			zipOut.closeEntry();
 		}
-		zipOut.putNextEntry(new ZipEntry("resource-description"));
+		zipOut.putNextEntry(new ZipEntry("emf-contents"));
 		try {
-			writeResourceDescription(resource, bufferedOutput);
+			writeContents(resource, bufferedOutput);
 		} finally {
 			bufferedOutput.flush();
 			zipOut.closeEntry();
@@ -120,12 +131,14 @@ public class ResourceStorageWritable {
 		SerializableResourceDescription serializableDescription = SerializableResourceDescription
 				.createCopy(description);
 		convertExternalURIsToPortableURIs(serializableDescription, resource);
-		ObjectOutputStream out = new ObjectOutputStream(outputStream);
-		try {
-			out.writeObject(serializableDescription);
-		} finally {
-			out.flush();
-		}
+		createResourceDescriptionCodec().write(serializableDescription, outputStream);
+	}
+
+	/**
+	 * @since 2.22
+	 */
+	protected ResourceDescriptionCodec createResourceDescriptionCodec() {
+		return new ResourceDescriptionCodec();
 	}
 
 	protected void convertExternalURIsToPortableURIs(SerializableResourceDescription description,
@@ -141,7 +154,7 @@ public class ResourceStorageWritable {
 
 	protected void writeNodeModel(StorageAwareResource resource, OutputStream outputStream) throws IOException {
 		DataOutputStream out = new DataOutputStream(outputStream);
-		new SerializableNodeModel(resource).writeObjectData(out, new SerializationConversionContext(resource));
+		new SerializableNodeModel(resource).writeColumnarObjectData(out, new SerializationConversionContext(resource));
 		out.flush();
 	}
 
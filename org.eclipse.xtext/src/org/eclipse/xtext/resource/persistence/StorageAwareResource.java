@@ -9,14 +9,19 @@
 package org.eclipse.xtext.resource.persistence;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtext.linking.lazy.LazyLinkingResource;
+import org.eclipse.xtext.parser.IParseResult;
 import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.util.RuntimeIOException;
 import org.eclipse.xtext.util.internal.Stopwatches;
 
 import com.google.common.base.Preconditions;
@@ -42,6 +47,16 @@ public class StorageAwareResource extends LazyLinkingResource {
 
 	private IResourceDescription resourceDescription = null;
 
+	/**
+	 * Whether the contents were not loaded yet, since only the resource description was requested.
+	 */
+	private boolean contentsLoadPending = false;
+
+	/**
+	 * Whether the pending contents are being loaded, so that the contents are not requested recursively.
+	 */
+	private boolean loadingPendingContents = false;
+
 	@Override
 	public void load(Map<?, ?> options) throws IOException {
 		if (!isLoaded && !isLoading && resourceStorageFacade != null
@@ -80,6 +95,114 @@ public class StorageAwareResource extends LazyLinkingResource {
 		}
 	}
 
+	/**
+	 * Loads only the resource description from the given storage. The resource is considered to be loaded afterwards,
+	 * but its contents and its parse result are read from the storage when they are accessed for the first time.
+	 * 
+	 * @since 2.22
+	 */
+	public void loadResourceDescriptionFromStorage(ResourceStorageLoadable storageInputStream) throws IOException {
+		Preconditions.checkNotNull(storageInputStream, "storageInputStream");
+		Stopwatches.StoppedTask task = Stopwatches.forTask("Loading resource description from storage");
+		task.start();
+		isLoading = true;
+		isLoadedFromStorage = true;
+		try {
+			storageInputStream.loadResourceDescriptionIntoResource(this);
+			contentsLoadPending = true;
+			isLoaded = true;
+		} catch (IOException | RuntimeException e) {
+			isLoadedFromStorage = false;
+			resourceDescription = null;
+			throw e;
+		} finally {
+			isLoading = false;
+			task.stop();
+		}
+	}
+
+	/**
+	 * @return whether only the resource description was loaded so far.
+	 * @since 2.22
+	 */
+	public boolean isContentsLoadPending() {
+		return contentsLoadPending;
+	}
+
+	/**
+	 * Loads the contents of a resource whose {@link #loadResourceDescriptionFromStorage(ResourceStorageLoadable)
+	 * description was loaded from storage}. The storage is opened again through the {@link IResourceStorageFacade},
+	 * so it is not kept in memory in the meantime. If the storage cannot be read, the contents are parsed from the
+	 * text of the resource, just like {@link #load(Map)} does. The contents remain pending until either succeeded.
+	 * 
+	 * @since 2.22
+	 */
+	protected void loadPendingContents() {
+		if (resourceStorageFacade == null) {
+			throw new IllegalStateException("The storage of " + getURI() + " cannot be opened without a facade.");
+		}
+		Stopwatches.StoppedTask task = Stopwatches.forTask("Loading from storage");
+		task.start();
+		boolean wasLoading = isLoading;
+		isLoading = true;
+		loadingPendingContents = true;
+		try {
+			try {
+				resourceStorageFacade.getOrCreateResourceStorageLoadable(this).loadIntoResource(this);
+			} catch (IOException | RuntimeException e) {
+				LOG.warn("Cannot load the contents of " + getURI() + " from storage, parsing them instead.", e);
+				loadPendingContentsFromText();
+			}
+			contentsLoadPending = false;
+		} finally {
+			loadingPendingContents = false;
+			isLoading = wasLoading;
+			task.stop();
+		}
+	}
+
+	/**
+	 * Discards whatever was read from the storage and parses the text of this resource.
+	 * 
+	 * @since 2.22
+	 */
+	protected void loadPendingContentsFromText() {
+		if (contents != null) {
+			contents.clear();
+		}
+		isLoadedFromStorage = false;
+		resourceDescription = null;
+		Map<?, ?> options = getResourceSet() != null ? getResourceSet().getLoadOptions() : null;
+		try (InputStream in = getURIConverter().createInputStream(getURI(), options)) {
+			doLoad(in, options);
+		} catch (IOException e) {
+			throw new RuntimeIOException(e);
+		}
+	}
+
+	@Override
+	public synchronized EList<EObject> getContents() {
+		if (contentsLoadPending && !loadingPendingContents) {
+			loadPendingContents();
+		}
+		return super.getContents();
+	}
+
+	@Override
+	public IParseResult getParseResult() {
+		if (contentsLoadPending && !loadingPendingContents) {
+			getContents();
+		}
+		return super.getParseResult();
+	}
+
+	@Override
+	protected List<EObject> getUnloadingContents() {
+		// don't load the contents only to unload them
+		contentsLoadPending = false;
+		return super.getUnloadingContents();
+	}
+
 	@Override
 	protected void doUnload() {
 		super.doUnload();
@@ -89,6 +212,7 @@ public class StorageAwareResource extends LazyLinkingResource {
 	@Override
 	protected void clearInternalState() {
 		isLoadedFromStorage = false;
+		contentsLoadPending = false;
 		super.clearInternalState();
 	}
 